@@ -2,6 +2,9 @@ package de.ipvs.as.mbp;
 
 import de.ipvs.as.mbp.service.cep.engine.core.CEPEngine;
 import de.ipvs.as.mbp.service.cep.engine.esper.EsperCEPEngine;
+import de.ipvs.as.mbp.service.cep.engine.esper.EsperEngineSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,13 +14,42 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class CEPConfiguration {
 
+    //Number of partitions processing events asynchronously, preserving the order per component (0 for synchronous)
+    @Value("${mbp.cep.inbound_threads:0}")
+    private int inboundThreads;
+
+    //Maximum number of pending events per partition before the senders are blocked
+    @Value("${mbp.cep.inbound_capacity:10000}")
+    private int inboundCapacity;
+
+    //Number of threads invoking the listeners of queries, decoupled from event processing (0 for synchronous)
+    @Value("${mbp.cep.outbound_threads:0}")
+    private int outboundThreads;
+
+    //Number of threads executing routed events, e.g. from insert-into (0 for synchronous)
+    @Value("${mbp.cep.route_exec_threads:0}")
+    private int routeExecThreads;
+
+    //Whether the order of listener invocations and insert-into dispatches is supposed to be preserved
+    @Value("${mbp.cep.preserve_order:true}")
+    private boolean preserveOrder;
+
     /**
      * Creates a bean for the CEP engine to use.
      *
+     * @param meterRegistry The registry for the metrics of the engine (auto-wired)
      * @return The CEP engine bean
      */
-    @Bean(name = "cep_engine")
-    public CEPEngine cepEngine() {
-        return new EsperCEPEngine();
+    @Bean(name = "cep_engine", destroyMethod = "shutdown")
+    public CEPEngine cepEngine(MeterRegistry meterRegistry) {
+        //Create threading settings from configuration
+        EsperEngineSettings settings = new EsperEngineSettings()
+                .setInboundThreads(inboundThreads)
+                .setInboundCapacity(inboundCapacity)
+                .setOutboundThreads(outboundThreads)
+                .setRouteExecThreads(routeExecThreads)
+                .setPreserveOrder(preserveOrder);
+
+        return new EsperCEPEngine(meterRegistry, settings);
     }
 }
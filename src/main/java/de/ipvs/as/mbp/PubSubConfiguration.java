@@ -1,7 +1,11 @@
 package de.ipvs.as.mbp;
 
 import de.ipvs.as.mbp.service.messaging.PubSubClient;
+import de.ipvs.as.mbp.service.messaging.impl.mqtt.MQTTAsyncClientConnector;
 import de.ipvs.as.mbp.service.messaging.impl.mqtt.MQTTClientConnector;
+import de.ipvs.as.mbp.service.messaging.impl.mqtt.MQTTQoSPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,16 +16,43 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class PubSubConfiguration {
 
+    //Whether the asynchronous MQTT client is supposed to be used instead of the blocking one
+    @Value("${mbp.messaging.mqtt.async_client:false}")
+    private boolean asyncClient;
+
+    //Maximum number of messages that may be in-flight at the same time
+    @Value("${mbp.messaging.mqtt.max_inflight:100}")
+    private int maxInflight;
+
+    //Maximum number of messages that may wait for being sent by the asynchronous client
+    @Value("${mbp.messaging.mqtt.max_pending:10000}")
+    private int maxPending;
+
+    //QoS level to use for topics that do not match any QoS rule
+    @Value("${mbp.messaging.mqtt.default_qos:1}")
+    private int defaultQoS;
+
+    //QoS rules in the form "filter1=qos1,filter2=qos2"
+    @Value("${mbp.messaging.mqtt.qos_rules:}")
+    private String qosRules;
+
     /**
      * Creates a bean that represents a client for publish-subscribe-based messaging. This bean offers an uniform
      * and technology-agnostic interface for messaging methods, so that the middleware technology that is actually
      * used behind the scenes is hidden from MBP components that need to make use of messaging.
      *
+     * @param meterRegistry The registry for the metrics of the client (auto-wired)
      * @return The configured client for publish-subscribe-based messaging.
      */
     @Bean
-    public PubSubClient pubSubClient() {
+    public PubSubClient pubSubClient(MeterRegistry meterRegistry) {
+        //Create the policy for the QoS levels
+        MQTTQoSPolicy qosPolicy = new MQTTQoSPolicy(defaultQoS, qosRules);
+
         //Use MQTT for publish-subscribe-based messaging
-        return new MQTTClientConnector();
+        if (asyncClient) {
+            return new MQTTAsyncClientConnector(qosPolicy, maxInflight, maxPending, meterRegistry);
+        }
+        return new MQTTClientConnector(qosPolicy, maxInflight, meterRegistry);
     }
 }
@@ -1,5 +1,8 @@
 package de.ipvs.as.mbp.domain.access_control;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import de.ipvs.as.mbp.domain.user.User;
 import de.ipvs.as.mbp.domain.access_control.jquerybuilder.JQBOutput;
 import de.ipvs.as.mbp.domain.access_control.jquerybuilder.JQBRule;
@@ -16,6 +19,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public abstract class ACAbstractCondition extends ACAbstractEntity {
 	
+	/**
+	 * Condition evaluators (stateless) per evaluator class, shared by all conditions.
+	 */
+	private static final Map<Class<?>, ACAbstractConditionEvaluator<ACAbstractCondition>> EVALUATORS = new ConcurrentHashMap<>();
+	
 	@Transient
 	private String humanReadableDescription;
 	
@@ -51,6 +59,16 @@ public abstract class ACAbstractCondition extends ACAbstractEntity {
 	@JsonIgnore
 	public abstract String toHumanReadableString();
 	
+	/**
+	 * Checks whether the result of this condition may depend on the requested entity. Conditions
+	 * that do not can be evaluated once per requesting entity instead of once per requested entity.
+	 * 
+	 * @return {@code true} unless the condition is known to only refer to the requesting entity.
+	 */
+	public boolean dependsOnRequestedEntity() {
+		return true;
+	}
+	
 	/**
 	 * Evaluates this condition for a specific access request.
 	 * 
@@ -82,13 +100,21 @@ public abstract class ACAbstractCondition extends ACAbstractEntity {
 		@SuppressWarnings("unchecked")
 		Class<? extends ACAbstractConditionEvaluator<ACAbstractCondition>> evaluatorClass = (Class<? extends ACAbstractConditionEvaluator<ACAbstractCondition>>) evaluateAnnotation.using();
 		
-		// Create and return new instance of the evaluator class
+		// Return cached instance of the evaluator class if available
+		ACAbstractConditionEvaluator<ACAbstractCondition> evaluator = EVALUATORS.get(evaluatorClass);
+		if (evaluator != null) {
+			return evaluator;
+		}
+		
+		// Create new instance of the evaluator class and cache it
 		try {
-			return evaluatorClass.newInstance();
+			evaluator = evaluatorClass.newInstance();
 		} catch (InstantiationException | IllegalAccessException e) {
 			e.printStackTrace();
 			throw new ACConditionEvaluatorNotAvailableException(e.getMessage(), e);
 		}
+		EVALUATORS.putIfAbsent(evaluatorClass, evaluator);
+		return evaluator;
 	}
 
 	// - - -
@@ -1,9 +1,12 @@
 package de.ipvs.as.mbp.domain.access_control;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -23,6 +26,12 @@ public class ACAccessRequest {
 	 */
 	private List<ACAttribute> context = new ArrayList<>();
 	
+	/**
+	 * Index of the context attribute values by {@link ACAttributeKey}, built lazily on first lookup.
+	 */
+	@JsonIgnore
+	private transient Map<ACAttributeKey, String> contextIndex;
+	
 	// - - -
 	
 	/**
@@ -43,9 +52,32 @@ public class ACAccessRequest {
 
 	public ACAccessRequest setContext(List<ACAttribute> context) {
 		this.context = context;
+		this.contextIndex = null;
 		return this;
 	}
 	
+	/**
+	 * Returns the value of the first context attribute with the given key.
+	 * 
+	 * @param key the {@link ACAttributeKey} to look up.
+	 * @return the attribute value or {@code null} if the context does not contain the key.
+	 */
+	public String getContextValue(ACAttributeKey key) {
+		Map<ACAttributeKey, String> index = contextIndex;
+		if (index == null) {
+			index = new EnumMap<>(ACAttributeKey.class);
+			if (context != null) {
+				for (ACAttribute attribute : context) {
+					if (attribute.getKey() != null && attribute.getValue() != null) {
+						index.putIfAbsent(attribute.getKey(), attribute.getValue());
+					}
+				}
+			}
+			contextIndex = index;
+		}
+		return index.get(key);
+	}
+	
 	// - - -
 	
 	public static ACAccessRequest valueOf(String accessRequestHeader) {
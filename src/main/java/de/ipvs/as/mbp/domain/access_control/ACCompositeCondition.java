@@ -107,6 +107,11 @@ public class ACCompositeCondition extends ACAbstractCondition {
 		sb.append(")");
 		return sb.toString();
 	}
+	
+	@Override
+	public boolean dependsOnRequestedEntity() {
+		return conditions.stream().anyMatch(ACAbstractCondition::dependsOnRequestedEntity);
+	}
 
 	// - - -
 	
@@ -8,7 +8,8 @@ import java.util.stream.Collectors;
  * Enumeration for different logical operators, such as AND, OR, ...
  * to be used with {@link ACCompositeCondition}. Note that the expressions
  * are specified for use with the Spring Expression Language 
- * <a href="https://docs.spring.io/spring/docs/current/spring-framework-reference/core.html#expressions">(SpEL)</a>.
+ * <a href="https://docs.spring.io/spring/docs/current/spring-framework-reference/core.html#expressions">(SpEL)</a>,
+ * while the evaluation itself short-circuits on the {@link #getShortCircuitValue() short-circuit value}.
  * 
  * @author Jakob Benz
  */
@@ -17,12 +18,12 @@ public enum ACLogicalOperator {
 	/**
 	 * Logical AND, both arguments have to be {@code true}.
 	 */
-	AND(Integer.MAX_VALUE, l -> l.stream().collect(Collectors.joining(" AND "))),
+	AND(Integer.MAX_VALUE, l -> l.stream().collect(Collectors.joining(" AND ")), false),
 	
 	/**
 	 * Logical OR, at least one the arguments has to be {@code true}.
 	 */
-	OR(Integer.MAX_VALUE, l -> l.stream().collect(Collectors.joining(" OR ")));
+	OR(Integer.MAX_VALUE, l -> l.stream().collect(Collectors.joining(" OR ")), true);
 	
 //	/**
 //	 * Logical NAND, at least one the arguments has to be {@code false}.
@@ -44,10 +45,12 @@ public enum ACLogicalOperator {
 	
 	private final int maxArguments;
 	private final Function<List<String>, String> expressionSupplier;
+	private final boolean shortCircuitValue;
 	
-	private ACLogicalOperator(int maxArguments, Function<List<String>, String> expressionSupplier) {
+	private ACLogicalOperator(int maxArguments, Function<List<String>, String> expressionSupplier, boolean shortCircuitValue) {
 		this.maxArguments = maxArguments;
 		this.expressionSupplier = expressionSupplier;
+		this.shortCircuitValue = shortCircuitValue;
 	}
 	
 	public int getMaxArguments() {
@@ -58,6 +61,14 @@ public enum ACLogicalOperator {
 		return expressionSupplier;
 	}
 	
+	/**
+	 * Returns the argument value that determines the result of the operator on its own,
+	 * i.e. {@code false} for AND and {@code true} for OR.
+	 */
+	public boolean getShortCircuitValue() {
+		return shortCircuitValue;
+	}
+	
 	// - - -
 	
 	public String createExpressionString(List<String> arguments) {
@@ -105,6 +105,22 @@ public class ACSimpleCondition<T extends Comparable<T>> extends ACAbstractCondit
 				.toString();
 	}
 	
+	@Override
+	public boolean dependsOnRequestedEntity() {
+		return dependsOnRequestedEntity(left) || dependsOnRequestedEntity(right);
+	}
+	
+	private static boolean dependsOnRequestedEntity(IACConditionArgument argument) {
+		if (argument instanceof ACConditionSimpleValueArgument<?>) {
+			return false;
+		} else if (argument instanceof IACConditionAttributeArgument<?>) {
+			// The attribute provider resolves the entity via the entity type of the key
+			ACAttributeKey key = ((IACConditionAttributeArgument<?>) argument).getKey();
+			return key == null || key.getEntityType() != ACEntityType.REQUESTING_ENTITY;
+		}
+		return true;
+	}
+	
 	// - - -
 	
 	/**
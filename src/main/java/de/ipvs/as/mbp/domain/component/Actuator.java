@@ -6,7 +6,7 @@ import de.ipvs.as.mbp.domain.user_entity.MBPEntity;
         createEventHandler = ComponentCreateEventHandler.class)
 public class Actuator extends Component {
 
-    private static final String COMPONENT_TYPE_NAME = "actuator";
+    public static final String COMPONENT_TYPE_NAME = "actuator";
 
     @Override
     public String getComponentTypeName() {
@@ -6,7 +6,7 @@ import de.ipvs.as.mbp.domain.user_entity.MBPEntity;
         createEventHandler = ComponentCreateEventHandler.class)
 public class Sensor extends Component {
 
-    private static final String COMPONENT_TYPE_NAME = "sensor";
+    public static final String COMPONENT_TYPE_NAME = "sensor";
 
     @Override
     public String getComponentTypeName() {
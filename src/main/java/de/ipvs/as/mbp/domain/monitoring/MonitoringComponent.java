@@ -9,7 +9,7 @@ import de.ipvs.as.mbp.domain.device.Device;
  */
 public class MonitoringComponent extends Component {
 
-    private static final String COMPONENT_TYPE_NAME = "monitoring";
+    public static final String COMPONENT_TYPE_NAME = "monitoring";
 
     /**
      * Creates a new, empty monitoring component.
@@ -28,6 +28,19 @@ public class Settings {
 
     }
 
+    /**
+     * Creates a new settings object as copy of a given settings object.
+     *
+     * @param settings The settings object to copy
+     */
+    public Settings(Settings settings) {
+        this.senderName = settings.senderName;
+        this.brokerLocation = settings.brokerLocation;
+        this.brokerIPAddress = settings.brokerIPAddress;
+        this.brokerPort = settings.brokerPort;
+        this.demoMode = settings.demoMode;
+    }
+
     /**
      * Returns the ID of the settings object (same for all).
      *
@@ -89,7 +89,8 @@ public class TestReport extends UserEntity {
     }
 
     /**
-     * Returns a list of the last simulated values for the test.
+     * Returns a list of the last simulated values for the test. Only reports of older test executions contain these
+     * values, as they are now stored separately by the {@link de.ipvs.as.mbp.service.testing.TestSimulationValueService}.
      *
      * @return simulationList
      */
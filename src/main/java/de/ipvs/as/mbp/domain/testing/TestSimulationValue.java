@@ -0,0 +1,141 @@
+package de.ipvs.as.mbp.domain.testing;
+
+import org.bson.Document;
+import org.springframework.data.annotation.Id;
+
+import javax.persistence.GeneratedValue;
+
+/**
+ * Objects of this class represent single values that were generated by a sensor during the execution of a test.
+ * The values are stored separately from the corresponding {@link TestReport}, so that the report documents remain
+ * small and the values can be retrieved selectively per sensor and time window.
+ */
+@org.springframework.data.mongodb.core.mapping.Document
+public class TestSimulationValue {
+    @Id
+    @GeneratedValue
+    private String id;
+
+    //ID of the test report to which the value belongs
+    private String reportId;
+
+    //Name of the sensor that generated the value
+    private String sensorName;
+
+    //Unix timestamp in milliseconds at which the value was generated
+    private long time;
+
+    //The generated value
+    private Document value;
+
+    /**
+     * Creates a new empty simulation value.
+     */
+    public TestSimulationValue() {
+
+    }
+
+    /**
+     * Creates a new simulation value from given report ID, sensor name, timestamp and value.
+     *
+     * @param reportId   The ID of the test report to which the value belongs
+     * @param sensorName The name of the sensor that generated the value
+     * @param time       The Unix timestamp in milliseconds at which the value was generated
+     * @param value      The generated value
+     */
+    public TestSimulationValue(String reportId, String sensorName, long time, Document value) {
+        this.reportId = reportId;
+        this.sensorName = sensorName;
+        this.time = time;
+        this.value = value;
+    }
+
+    /**
+     * Returns the ID of the simulation value.
+     *
+     * @return The ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the ID of the test report to which the value belongs.
+     *
+     * @return The report ID
+     */
+    public String getReportId() {
+        return reportId;
+    }
+
+    /**
+     * Sets the ID of the test report to which the value belongs.
+     *
+     * @param reportId The report ID to set
+     * @return The simulation value
+     */
+    public TestSimulationValue setReportId(String reportId) {
+        this.reportId = reportId;
+        return this;
+    }
+
+    /**
+     * Returns the name of the sensor that generated the value.
+     *
+     * @return The sensor name
+     */
+    public String getSensorName() {
+        return sensorName;
+    }
+
+    /**
+     * Sets the name of the sensor that generated the value.
+     *
+     * @param sensorName The sensor name to set
+     * @return The simulation value
+     */
+    public TestSimulationValue setSensorName(String sensorName) {
+        this.sensorName = sensorName;
+        return this;
+    }
+
+    /**
+     * Returns the Unix timestamp in milliseconds at which the value was generated.
+     *
+     * @return The timestamp
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Sets the Unix timestamp in milliseconds at which the value was generated.
+     *
+     * @param time The timestamp to set
+     * @return The simulation value
+     */
+    public TestSimulationValue setTime(long time) {
+        this.time = time;
+        return this;
+    }
+
+    /**
+     * Returns the generated value.
+     *
+     * @return The value
+     */
+    public Document getValue() {
+        return value;
+    }
+
+    /**
+     * Sets the generated value.
+     *
+     * @param value The value to set
+     * @return The simulation value
+     */
+    public TestSimulationValue setValue(Document value) {
+        this.value = value;
+        return this;
+    }
+}
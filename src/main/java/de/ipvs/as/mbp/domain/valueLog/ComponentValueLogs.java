@@ -0,0 +1,54 @@
+package de.ipvs.as.mbp.domain.valueLog;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Objects of this class hold the value logs of a single component within the response to a
+ * {@link ValueLogQueryRequestDTO}. Components that do not exist or whose value logs may not be read by the
+ * requesting user are reported with a corresponding status instead of failing the entire request.
+ */
+@ApiModel(description = "Value logs of a single component")
+public class ComponentValueLogs {
+
+    /**
+     * Possible outcomes of retrieving the value logs of a component.
+     */
+    public enum Status {
+        OK, NOT_FOUND, FORBIDDEN
+    }
+
+    @ApiModelProperty(notes = "ID of the component", example = "5c97dc2583aeb6078c5ab672", accessMode = ApiModelProperty.AccessMode.READ_ONLY, readOnly = true)
+    private String componentId;
+
+    @ApiModelProperty(notes = "Outcome of retrieving the value logs", example = "OK", accessMode = ApiModelProperty.AccessMode.READ_ONLY, readOnly = true)
+    private Status status;
+
+    @ApiModelProperty(notes = "Value logs of the component", accessMode = ApiModelProperty.AccessMode.READ_ONLY, readOnly = true)
+    private List<ValueLog> valueLogs = new ArrayList<>();
+
+    public ComponentValueLogs(String componentId, Status status) {
+        this.componentId = componentId;
+        this.status = status;
+    }
+
+    public String getComponentId() {
+        return componentId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public List<ValueLog> getValueLogs() {
+        return valueLogs;
+    }
+
+    public ComponentValueLogs setValueLogs(List<ValueLog> valueLogs) {
+        this.valueLogs = valueLogs;
+        return this;
+    }
+}
@@ -58,6 +58,25 @@ public class ValueLog implements IACValueLog<Document> {
         return this;
     }
 
+    /**
+     * Returns the MQTT quality of service level with which the value log was received.
+     *
+     * @return The QoS level
+     */
+    public Integer getQos() {
+        return qos;
+    }
+
+    /**
+     * Sets the MQTT quality of service level with which the value log was received.
+     *
+     * @param qos The QoS level to set
+     */
+    public ValueLog setQos(Integer qos) {
+        this.qos = qos;
+        return this;
+    }
+
     /**
      * Returns the MQTT topic under which the value log was received.
      *
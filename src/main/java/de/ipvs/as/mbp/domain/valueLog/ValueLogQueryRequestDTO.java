@@ -0,0 +1,118 @@
+package de.ipvs.as.mbp.domain.valueLog;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Objects of this class represent requests for the value logs of several components within a shared time range,
+ * as they are issued by dashboards that display the value logs of many components at once.
+ */
+@ApiModel(description = "Request for the value logs of several components")
+public class ValueLogQueryRequestDTO {
+
+    @ApiModelProperty(notes = "Components to retrieve value logs for", required = true)
+    private List<ComponentQuery> components = new ArrayList<>();
+
+    @ApiModelProperty(notes = "Start time in milliseconds for filtering in time", example = "1570635657000")
+    private Long startTime;
+
+    @ApiModelProperty(notes = "End time in milliseconds for filtering in time", example = "1570635657000")
+    private Long endTime;
+
+    @ApiModelProperty(notes = "Maximum number of value logs per component, unless specified per component", example = "100")
+    private Integer limit;
+
+    @ApiModelProperty(notes = "Whether the oldest value logs are requested in ascending order instead of the newest value logs in descending order", example = "false")
+    private boolean ascending = false;
+
+    public List<ComponentQuery> getComponents() {
+        return components;
+    }
+
+    public ValueLogQueryRequestDTO setComponents(List<ComponentQuery> components) {
+        this.components = components;
+        return this;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public ValueLogQueryRequestDTO setStartTime(Long startTime) {
+        this.startTime = startTime;
+        return this;
+    }
+
+    public Long getEndTime() {
+        return endTime;
+    }
+
+    public ValueLogQueryRequestDTO setEndTime(Long endTime) {
+        this.endTime = endTime;
+        return this;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public ValueLogQueryRequestDTO setLimit(Integer limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public ValueLogQueryRequestDTO setAscending(boolean ascending) {
+        this.ascending = ascending;
+        return this;
+    }
+
+    /**
+     * Specifies a single component within a {@link ValueLogQueryRequestDTO}.
+     */
+    @ApiModel(description = "Component within a request for the value logs of several components")
+    public static class ComponentQuery {
+
+        @ApiModelProperty(notes = "ID of the sensor or actuator", example = "5c97dc2583aeb6078c5ab672", required = true)
+        private String id;
+
+        @ApiModelProperty(notes = "Maximum number of value logs of the component", example = "100")
+        private Integer limit;
+
+        @ApiModelProperty(notes = "The desired unit of the component values", example = "°C")
+        private String unit;
+
+        public String getId() {
+            return id;
+        }
+
+        public ComponentQuery setId(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public Integer getLimit() {
+            return limit;
+        }
+
+        public ComponentQuery setLimit(Integer limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public ComponentQuery setUnit(String unit) {
+            this.unit = unit;
+            return this;
+        }
+    }
+}
@@ -7,18 +7,23 @@ import de.ipvs.as.mbp.domain.data_model.DataModel;
 import de.ipvs.as.mbp.domain.data_model.DataTreeNode;
 import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
 
+import de.ipvs.as.mbp.service.receiver.CompiledDataModel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>Manages access to stored {@link DataModelTree}s. To avoid many read operations on the
  * {@link DataModel} repository and to reduce the need of converting the saved date model structure
  * each time to a {@link DataModelTree}, it caches recently used {@link DataModelTree}s
  * with the respective {@link de.ipvs.as.mbp.domain.component.Component#getId() component id}
- * as key.
+ * as key. Alongside each tree, the {@link CompiledDataModel} of the tree is cached, which is created
+ * on first use and allows to validate and convert values without traversing the tree.
  */
 @Component
 public class DataModelTreeCache {
@@ -30,10 +35,10 @@ public class DataModelTreeCache {
 
     /**
      * Map used as the cache data structure to store data models together with their components id.
-     * The dates are part of the value to enable the removal of old cache entries by using
+     * The last access times are part of the entries to enable the removal of old cache entries by using
      * {@link DataModelTreeCache#removeOldCacheEntries()}.
      */
-    private final Map<String, Map.Entry<DataModelTree, Date>> cachedDataModels;
+    private final Map<String, CacheEntry> cachedDataModels;
 
     @Autowired
     private SensorRepository sensorRepository;
@@ -46,10 +51,20 @@ public class DataModelTreeCache {
      */
     final DataModelTree monitoringOperatorDataModel;
 
-    private DataModelTreeCache() {
+    /**
+     * Cache entry of the data model for monitoring operators
+     */
+    private final CacheEntry monitoringOperatorEntry;
+
+    private DataModelTreeCache(MeterRegistry meterRegistry) {
         // Init the data models cache
-        this.cachedDataModels = new HashMap<>();
+        this.cachedDataModels = new ConcurrentHashMap<>();
         this.monitoringOperatorDataModel = createOperatorDataModel();
+        this.monitoringOperatorEntry = new CacheEntry(monitoringOperatorDataModel);
+
+        // Expose the size of the cache
+        Gauge.builder("mbp.data_model_cache.size", cachedDataModels, Map::size)
+                .description("Number of components whose data models are cached").register(meterRegistry);
     }
 
     /**
@@ -83,27 +98,19 @@ public class DataModelTreeCache {
      * one value double field is returned which is also used by monitoring operators by default.
      */
     public DataModelTree getDataModelOfComponent(String componentId) {
-        // Is the data model is already cached?
-        if (this.cachedDataModels.containsKey(componentId)) {
-            // Yes, the data model is already present in the application logic --> just return it (and update the date before)
-            DataModelTree tree = this.cachedDataModels.get(componentId).getKey();
-            this.cachedDataModels.put(componentId, new AbstractMap.SimpleEntry<>(tree, new Date()));
-            return tree;
-        } else {
-            // No, the data model is not present in the application logic yet --> get it from the db and add it to the
-            // data model cache to avoid further db accesses
-            DataModel dataModel = getDataModelByComponentIdFromDB(componentId);
-
-            if (dataModel == null) {
-                // No data model of the component could be found, maybe it is a monitoring operator --> give the monitoring data model back
-                return this.monitoringOperatorDataModel;
-            }
+        return getCacheEntry(componentId).tree;
+    }
 
-            // Build the data model tree from the data model
-            DataModelTree tree = new DataModelTree(dataModel.getTreeNodes());
-            this.cachedDataModels.put(componentId, new AbstractMap.SimpleEntry<>(tree, new Date()));
-            return tree;
-        }
+    /**
+     * Returns the compiled data model by a given component id. The data model is compiled on first use
+     * and then kept together with the data model tree.
+     *
+     * @param componentId   MongoDB ObjectID of the entity
+     * @return the compiled data model used by this entity. If the componentId is not known the compiled default
+     * data model with one value double field is returned which is also used by monitoring operators by default.
+     */
+    public CompiledDataModel getCompiledDataModelOfComponent(String componentId) {
+        return getCacheEntry(componentId).getCompiledDataModel();
     }
 
     /**
@@ -112,18 +119,42 @@ public class DataModelTreeCache {
      * For this, the system clock (and system time zone) is used internally.
      */
     public void removeOldCacheEntries() {
-        // Get the current time
-        ZonedDateTime now = ZonedDateTime.now();
         // Get the current time minus 1 day
-        ZonedDateTime oneDayAgo = now.plusDays(-UNUSED_DAYS_REMOVAL_CRITERION);
+        long oneDayAgo = ZonedDateTime.now().plusDays(-UNUSED_DAYS_REMOVAL_CRITERION).toInstant().toEpochMilli();
 
-        // Go through all cache entries and check if the entry is older than one day
-        for (Map.Entry<String, Map.Entry<DataModelTree, Date>> e : this.cachedDataModels.entrySet()) {
-            if (e.getValue().getValue().toInstant().isBefore(oneDayAgo.toInstant())) {
-                // Entry is older than 1 day --> remove
-                this.cachedDataModels.remove(e.getKey());
-            }
+        // Remove all cache entries that were not accessed within the last day
+        this.cachedDataModels.values().removeIf(e -> e.lastAccess < oneDayAgo);
+    }
+
+    /**
+     * Returns the cache entry for a given component id and updates its access time. If the entry is not cached
+     * yet, it is created from the data model that is stored in the database.
+     *
+     * @param componentId MongoDB ObjectID of the entity
+     * @return The cache entry of the component or the entry of the monitoring data model if the componentId is not known
+     */
+    private CacheEntry getCacheEntry(String componentId) {
+        // Is the data model is already cached?
+        CacheEntry entry = this.cachedDataModels.get(componentId);
+        if (entry != null) {
+            // Yes, the data model is already present in the application logic --> just return it (and update the date before)
+            entry.lastAccess = System.currentTimeMillis();
+            return entry;
         }
+
+        // No, the data model is not present in the application logic yet --> get it from the db and add it to the
+        // data model cache to avoid further db accesses
+        DataModel dataModel = getDataModelByComponentIdFromDB(componentId);
+
+        if (dataModel == null) {
+            // No data model of the component could be found, maybe it is a monitoring operator --> give the monitoring data model back
+            return this.monitoringOperatorEntry;
+        }
+
+        // Build the data model tree from the data model
+        entry = new CacheEntry(new DataModelTree(dataModel.getTreeNodes()));
+        this.cachedDataModels.put(componentId, entry);
+        return entry;
     }
 
     /**
@@ -158,5 +189,26 @@ public class DataModelTreeCache {
             return componentToReturn.getOperator().getDataModel();
         }
     }
-}
 
+    /**
+     * Entry of the cache, consisting of a data model tree, its compiled data model and the time of the last access.
+     */
+    private static class CacheEntry {
+        private final DataModelTree tree;
+        private volatile CompiledDataModel compiledDataModel;
+        private volatile long lastAccess;
+
+        private CacheEntry(DataModelTree tree) {
+            this.tree = tree;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        private CompiledDataModel getCompiledDataModel() {
+            // Compile the tree on first use; concurrent compilations yield equivalent results
+            if (compiledDataModel == null) {
+                compiledDataModel = CompiledDataModel.compile(tree);
+            }
+            return compiledDataModel;
+        }
+    }
+}
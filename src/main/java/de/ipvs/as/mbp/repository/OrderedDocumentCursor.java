@@ -0,0 +1,100 @@
+package de.ipvs.as.mbp.repository;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+
+import java.io.Closeable;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Cursor that merges the documents of two find operations, one on the value log collection and one on the archive,
+ * into a single sequence that is ordered by the first timestamps of the documents. Both find operations must be
+ * sorted by first timestamp in the same direction, such that they can use the index on idref and time of their
+ * collections and only as many documents are read as the caller consumes. Documents that are currently being
+ * archived are contained in both collections and returned only once.
+ */
+class OrderedDocumentCursor implements Iterator<Document>, Closeable {
+    //Name of the field holding the first timestamp of a document
+    private static final String FIRST_FIELD_NAME = "first";
+
+    //Cursors of both find operations and their current head documents
+    private final MongoCursor<Document> firstCursor;
+    private final MongoCursor<Document> secondCursor;
+    private Document firstHead;
+    private Document secondHead;
+
+    //True, if the documents are ordered ascending by their first timestamp
+    private final boolean ascending;
+
+    //Ids of the returned documents for skipping duplicates
+    private final Set<Object> returnedIds = new HashSet<>();
+
+    /**
+     * Creates a cursor that merges the documents of two given find operations.
+     *
+     * @param first     The first find operation, sorted by the first timestamp in the given direction
+     * @param second    The second find operation, sorted by the first timestamp in the given direction
+     * @param ascending True, if both find operations are sorted ascending; false for descending
+     */
+    OrderedDocumentCursor(FindIterable<Document> first, FindIterable<Document> second, boolean ascending) {
+        this.ascending = ascending;
+        this.firstCursor = first.iterator();
+        this.secondCursor = second.iterator();
+        this.firstHead = nextOf(firstCursor);
+        this.secondHead = nextOf(secondCursor);
+    }
+
+    @Override
+    public boolean hasNext() {
+        //Skip heads that were already returned
+        while ((firstHead != null) && returnedIds.contains(firstHead.get("_id"))) {
+            firstHead = nextOf(firstCursor);
+        }
+        while ((secondHead != null) && returnedIds.contains(secondHead.get("_id"))) {
+            secondHead = nextOf(secondCursor);
+        }
+        return (firstHead != null) || (secondHead != null);
+    }
+
+    @Override
+    public Document next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        //Take the head that comes first with respect to the order
+        Document document;
+        if ((secondHead == null) || ((firstHead != null) && (compare(firstHead, secondHead) <= 0))) {
+            document = firstHead;
+            firstHead = nextOf(firstCursor);
+        } else {
+            document = secondHead;
+            secondHead = nextOf(secondCursor);
+        }
+        returnedIds.add(document.get("_id"));
+        return document;
+    }
+
+    @Override
+    public void close() {
+        firstCursor.close();
+        secondCursor.close();
+    }
+
+    /**
+     * Compares two documents by their first timestamps with respect to the order of the cursor.
+     */
+    private int compare(Document document1, Document document2) {
+        int result = Long.compare(((Number) document1.get(FIRST_FIELD_NAME)).longValue(),
+                ((Number) document2.get(FIRST_FIELD_NAME)).longValue());
+        return ascending ? result : -result;
+    }
+
+    private static Document nextOf(MongoCursor<Document> cursor) {
+        return cursor.hasNext() ? cursor.next() : null;
+    }
+}
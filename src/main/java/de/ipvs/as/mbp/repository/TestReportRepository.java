@@ -2,6 +2,7 @@ package de.ipvs.as.mbp.repository;
 
 import de.ipvs.as.mbp.domain.testing.TestReport;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 
@@ -20,5 +21,15 @@ public interface TestReportRepository extends MongoRepository<TestReport, String
 
     List<TestReport> findAllByName(@Param("name") String name);
 
+    /**
+     * Returns all test reports with a given name without the sensor values that are embedded into reports of
+     * older test executions.
+     *
+     * @param name The name of the test reports
+     * @return The list of matching test reports
+     */
+    @Query(value = "{ 'name' : ?0 }", fields = "{ 'simulationList' : 0 }")
+    List<TestReport> findAllMetadataByName(@Param("name") String name);
+
     List<TestReport> findAllBySensorId(@Param("sensor") String id);
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package de.ipvs.as.mbp.repository;
+
+import de.ipvs.as.mbp.domain.testing.TestSimulationValue;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * MongoDB repository for the sensor values that were generated during the execution of tests. The values are
+ * only accessible via the testing endpoints.
+ */
+@Repository
+@RepositoryRestResource(exported = false)
+public interface TestSimulationValueRepository extends MongoRepository<TestSimulationValue, String> {
+
+    /**
+     * Returns whether simulation values exist for a given test report.
+     *
+     * @param reportId The ID of the test report to check
+     * @return True, if simulation values exist for the report; false otherwise
+     */
+    boolean existsByReportId(@Param("reportId") String reportId);
+
+    /**
+     * Deletes all simulation values that belong to one of the given test reports.
+     *
+     * @param reportIds The IDs of the test reports whose values are supposed to be deleted
+     */
+    void deleteByReportIdIn(@Param("reportIds") Collection<String> reportIds);
+}
@@ -1,6 +1,10 @@
 package de.ipvs.as.mbp.repository;
 
 import de.ipvs.as.mbp.domain.user_entity.UserEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.repository.NoRepositoryBean;
@@ -22,6 +26,27 @@ public interface UserEntityRepository<T extends UserEntity> extends MongoReposit
     @Query("{ 'owner.id' : :#{#ownerId} }")
     List<T> findByOwner(@Param("ownerId") String ownerId);
 
+    /**
+     * Retrieves the entities that either have no owner, are owned by a given user or reference at least one
+     * of the given access-control policies.
+     */
+    @Query("{ $or : [ { 'owner' : null }, { 'owner.id' : :#{#ownerId} }, { 'accessControlPolicyIds' : { $in : :#{#policyIds} } } ] }")
+    Page<T> findByOwnerOrPolicyIdAny(@Param("ownerId") String ownerId, @Param("policyIds") List<String> policyIds, Pageable pageable);
+
+    @Query("{ $or : [ { 'owner' : null }, { 'owner.id' : :#{#ownerId} }, { 'accessControlPolicyIds' : { $in : :#{#policyIds} } } ] }")
+    List<T> findByOwnerOrPolicyIdAny(@Param("ownerId") String ownerId, @Param("policyIds") List<String> policyIds, Sort sort);
+
+    /**
+     * Retrieves the IDs of all access-control policies that are referenced by entities which are not owned by
+     * a given user.
+     */
+    @Aggregation(pipeline = {
+            "{ $match : { 'owner.id' : { $ne : :#{#ownerId} }, 'accessControlPolicyIds.0' : { $exists : true } } }",
+            "{ $unwind : '$accessControlPolicyIds' }",
+            "{ $group : { _id : '$accessControlPolicyIds' } }"
+    })
+    List<String> findPolicyIdsReferencedByOthers(@Param("ownerId") String ownerId);
+
     @Query(value = "{ 'name' : :#{#name} }", exists = true)
     boolean existsByName(@Param("name") String name);
 
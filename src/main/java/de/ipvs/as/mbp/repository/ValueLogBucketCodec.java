@@ -0,0 +1,532 @@
+package de.ipvs.as.mbp.repository;
+
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import org.bson.Document;
+import org.bson.types.Binary;
+
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+/**
+ * Encodes documents of the value log collection into a compact columnar format and decodes them again. Instead of
+ * storing the value logs as list of sub-documents, a columnar document stores
+ * <ul>
+ *     <li>the timestamps as delta-of-delta encoded variable length integers,</li>
+ *     <li>the metadata fields (idref, component type, qos, topic and message) only once, unless they differ
+ *     between the value logs,</li>
+ *     <li>each numeric leaf of the values as column, using Gorilla XOR compression for floating point numbers
+ *     and delta encoded variable length integers for integral numbers,</li>
+ *     <li>the remaining structure of the values as template, which is only stored once if it is equal for
+ *     all value logs.</li>
+ * </ul>
+ * Since all value logs of a component conform to the data model of the component, the numeric leaves are determined
+ * from the value documents themselves. Documents that cannot be encoded without loss remain in the row format.
+ */
+public class ValueLogBucketCodec {
+
+    // Value of the format field for columnar documents
+    public static final int FORMAT_COLUMNAR = 1;
+
+    // Names of the fields of value log documents
+    private static final String[] META_FIELDS = {"idref", "component", "qos", "topic", "message"};
+    private static final String TIME_FIELD = "time";
+    private static final String VALUE_FIELD = "value";
+
+    // Names of the fields of columnar documents
+    static final String FORMAT_FIELD = "format";
+    private static final String VALUES_FIELD = "values";
+    private static final String META_FIELD = "meta";
+    private static final String VARYING_FIELD = "varying";
+    private static final String TIMES_FIELD = "times";
+    private static final String PATHS_FIELD = "paths";
+    private static final String TYPES_FIELD = "types";
+    private static final String COLUMNS_FIELD = "columns";
+    private static final String TEMPLATE_FIELD = "template";
+    private static final String TEMPLATES_FIELD = "templates";
+
+    // Type identifiers of columns
+    private static final char TYPE_DOUBLE = 'd';
+    private static final char TYPE_INT = 'i';
+    private static final char TYPE_LONG = 'l';
+
+    /**
+     * Not instantiable.
+     */
+    private ValueLogBucketCodec() {
+
+    }
+
+    /**
+     * Returns whether a given document of the value log collection is stored in the columnar format.
+     *
+     * @param bucket The document to check
+     * @return True, if the document is columnar; false otherwise
+     */
+    public static boolean isColumnar(Document bucket) {
+        return bucket.containsKey(FORMAT_FIELD);
+    }
+
+    /**
+     * Encodes a given document of the value log collection that stores its value logs in the row format into
+     * the columnar format. All further fields of the document are preserved.
+     *
+     * @param bucket The document to encode
+     * @return The columnar document or null, if the document cannot be encoded
+     */
+    public static Document encode(Document bucket) {
+        // Check whether the document can be encoded
+        List<Document> values = bucket.getList(VALUES_FIELD, Document.class);
+        if (isColumnar(bucket) || (values == null) || values.isEmpty()) {
+            return null;
+        }
+        for (Document value : values) {
+            if (!(value.get(TIME_FIELD) instanceof Date)) {
+                return null;
+            }
+        }
+
+        // Copy all further fields of the document
+        Document result = new Document();
+        for (Map.Entry<String, Object> entry : bucket.entrySet()) {
+            if (!entry.getKey().equals(VALUES_FIELD)) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        result.put(FORMAT_FIELD, FORMAT_COLUMNAR);
+
+        // Store metadata fields once if they are equal for all value logs
+        Document meta = new Document();
+        Document varying = new Document();
+        for (String field : META_FIELDS) {
+            Object firstValue = values.get(0).get(field);
+            boolean constant = values.stream().allMatch(v -> Objects.equals(firstValue, v.get(field)));
+            if (!constant) {
+                List<Object> column = new ArrayList<>(values.size());
+                values.forEach(v -> column.add(v.get(field)));
+                varying.put(field, column);
+            } else if (firstValue != null) {
+                meta.put(field, firstValue);
+            }
+        }
+        result.put(META_FIELD, meta);
+        if (!varying.isEmpty()) {
+            result.put(VARYING_FIELD, varying);
+        }
+
+        // Encode timestamps
+        long[] times = new long[values.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = values.get(i).getDate(TIME_FIELD).getTime();
+        }
+        result.put(TIMES_FIELD, new Binary(encodeTimes(times)));
+
+        // Determine the numeric leaves that are present with the same type in all values
+        List<List<Object>> paths = new ArrayList<>();
+        StringBuilder types = new StringBuilder();
+        Object firstValue = values.get(0).get(VALUE_FIELD);
+        collectNumericLeaves(firstValue, new ArrayList<>(), paths);
+        Iterator<List<Object>> pathIterator = paths.iterator();
+        while (pathIterator.hasNext()) {
+            List<Object> path = pathIterator.next();
+            Class<?> type = getAtPath(firstValue, path).getClass();
+            for (Document value : values) {
+                Object leaf = getAtPath(value.get(VALUE_FIELD), path);
+                if ((leaf == null) || (leaf.getClass() != type)) {
+                    pathIterator.remove();
+                    break;
+                }
+            }
+        }
+
+        // Encode the numeric leaves as columns and replace them within the templates
+        List<Binary> columns = new ArrayList<>(paths.size());
+        List<Object> templates = new ArrayList<>(values.size());
+        values.forEach(v -> templates.add(deepCopy(v.get(VALUE_FIELD))));
+        for (List<Object> path : paths) {
+            Object sample = getAtPath(firstValue, path);
+            if (sample instanceof Double) {
+                double[] column = new double[values.size()];
+                for (int i = 0; i < column.length; i++) {
+                    column[i] = (Double) getAtPath(templates.get(i), path);
+                }
+                columns.add(new Binary(encodeDoubles(column)));
+                types.append(TYPE_DOUBLE);
+            } else {
+                long[] column = new long[values.size()];
+                for (int i = 0; i < column.length; i++) {
+                    column[i] = ((Number) getAtPath(templates.get(i), path)).longValue();
+                }
+                columns.add(new Binary(encodeLongs(column)));
+                types.append(sample instanceof Integer ? TYPE_INT : TYPE_LONG);
+            }
+            templates.forEach(t -> setAtPath(t, path, null));
+        }
+        result.put(PATHS_FIELD, paths);
+        result.put(TYPES_FIELD, types.toString());
+        result.put(COLUMNS_FIELD, columns);
+
+        // Store the template only once if it is equal for all values
+        Object firstTemplate = templates.get(0);
+        if (templates.stream().allMatch(t -> Objects.equals(firstTemplate, t))) {
+            result.put(TEMPLATE_FIELD, firstTemplate);
+        } else {
+            result.put(TEMPLATES_FIELD, templates);
+        }
+
+        return result;
+    }
+
+    /**
+     * Decodes the value logs of a given columnar document into documents of the row format.
+     *
+     * @param bucket The columnar document to decode
+     * @return The list of decoded value log documents
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Document> decodeRows(Document bucket) {
+        // Decode timestamps
+        long[] times = decodeTimes(bucket.get(TIMES_FIELD, Binary.class).getData(), ((Number) bucket.get("nvalues")).intValue());
+
+        // Decode columns
+        List<List<Object>> paths = (List<List<Object>>) bucket.get(PATHS_FIELD);
+        String types = bucket.getString(TYPES_FIELD);
+        List<Binary> columns = bucket.getList(COLUMNS_FIELD, Binary.class);
+        List<Object> decodedColumns = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            byte[] data = columns.get(i).getData();
+            decodedColumns.add(types.charAt(i) == TYPE_DOUBLE ? decodeDoubles(data, times.length) :
+                    decodeLongs(data, times.length));
+        }
+
+        // Reassemble value logs
+        Document meta = bucket.get(META_FIELD, Document.class);
+        Document varying = bucket.get(VARYING_FIELD, new Document());
+        Object template = bucket.get(TEMPLATE_FIELD);
+        List<Object> templates = (List<Object>) bucket.get(TEMPLATES_FIELD);
+        List<Document> rows = new ArrayList<>(times.length);
+        for (int i = 0; i < times.length; i++) {
+            Document row = new Document(TIME_FIELD, new Date(times[i]));
+            for (String field : META_FIELDS) {
+                Object value = varying.containsKey(field) ? ((List<Object>) varying.get(field)).get(i) : meta.get(field);
+                if (value != null) {
+                    row.put(field, value);
+                }
+            }
+
+            Object value = deepCopy(templates == null ? template : templates.get(i));
+            for (int j = 0; j < paths.size(); j++) {
+                Object column = decodedColumns.get(j);
+                char type = types.charAt(j);
+                Object leaf = type == TYPE_DOUBLE ? (Object) ((double[]) column)[i] :
+                        type == TYPE_INT ? (Object) (int) ((long[]) column)[i] : (Object) ((long[]) column)[i];
+                setAtPath(value, paths.get(j), leaf);
+            }
+            row.put(VALUE_FIELD, value);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Decodes the value logs of a given document, which may be columnar or in the row format.
+     *
+     * @param bucket The document to decode
+     * @return The list of decoded value logs
+     */
+    public static List<ValueLog> decode(Document bucket) {
+        List<Document> rows = isColumnar(bucket) ? decodeRows(bucket) :
+                bucket.getList(VALUES_FIELD, Document.class, Collections.emptyList());
+        List<ValueLog> valueLogs = new ArrayList<>(rows.size());
+        rows.forEach(r -> valueLogs.add(toValueLog(r)));
+        return valueLogs;
+    }
+
+    /**
+     * Converts a given value log document of the row format to a value log object.
+     *
+     * @param document The document to convert
+     * @return The resulting value log
+     */
+    public static ValueLog toValueLog(Document document) {
+        Date time = document.getDate(TIME_FIELD);
+        return new ValueLog()
+                .setTime(time == null ? null : time.toInstant())
+                .setIdref(document.getString("idref"))
+                .setComponent(document.getString("component"))
+                .setQos(document.getInteger("qos"))
+                .setTopic(document.getString("topic"))
+                .setMessage(document.getString("message"))
+                .setValue(document.get(VALUE_FIELD, Document.class));
+    }
+
+    /**
+     * Collects the paths of all numeric leaves of a given value.
+     */
+    @SuppressWarnings("unchecked")
+    private static void collectNumericLeaves(Object value, List<Object> path, List<List<Object>> paths) {
+        if (value instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                path.add(entry.getKey());
+                collectNumericLeaves(entry.getValue(), path, paths);
+                path.remove(path.size() - 1);
+            }
+        } else if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            for (int i = 0; i < list.size(); i++) {
+                path.add(i);
+                collectNumericLeaves(list.get(i), path, paths);
+                path.remove(path.size() - 1);
+            }
+        } else if ((value instanceof Double) || (value instanceof Integer) || (value instanceof Long)) {
+            paths.add(new ArrayList<>(path));
+        }
+    }
+
+    /**
+     * Returns the leaf at a given path of a value or null, if it does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object getAtPath(Object value, List<Object> path) {
+        Object current = value;
+        for (Object key : path) {
+            if ((key instanceof String) && (current instanceof Map)) {
+                current = ((Map<String, Object>) current).get(key);
+            } else if ((key instanceof Integer) && (current instanceof List)
+                    && ((Integer) key < ((List<Object>) current).size())) {
+                current = ((List<Object>) current).get((Integer) key);
+            } else {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the leaf at a given path of a value, which must exist.
+     */
+    @SuppressWarnings("unchecked")
+    private static void setAtPath(Object value, List<Object> path, Object leaf) {
+        Object parent = getAtPath(value, path.subList(0, path.size() - 1));
+        Object key = path.get(path.size() - 1);
+        if (parent instanceof Map) {
+            ((Map<String, Object>) parent).put((String) key, leaf);
+        } else {
+            ((List<Object>) parent).set((Integer) key, leaf);
+        }
+    }
+
+    /**
+     * Creates a deep copy of the documents and lists of a given value.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object deepCopy(Object value) {
+        if (value instanceof Map) {
+            Document copy = new Document();
+            ((Map<String, Object>) value).forEach((k, v) -> copy.put(k, deepCopy(v)));
+            return copy;
+        } else if (value instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<Object>) value).size());
+            ((List<Object>) value).forEach(v -> copy.add(deepCopy(v)));
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * Encodes timestamps as variable length integers of the first timestamp, the first delta and the subsequent
+     * deltas of deltas.
+     */
+    private static byte[] encodeTimes(long[] times) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previous = 0, previousDelta = 0;
+        for (int i = 0; i < times.length; i++) {
+            long delta = times[i] - previous;
+            writeVarLong(out, i == 0 ? times[i] : delta - previousDelta);
+            previousDelta = (i == 0) ? 0 : delta;
+            previous = times[i];
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes timestamps that were encoded by {@link #encodeTimes(long[])}.
+     */
+    private static long[] decodeTimes(byte[] data, int count) {
+        long[] times = new long[count];
+        int[] position = {0};
+        long previous = 0, previousDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long read = readVarLong(data, position);
+            long delta = (i == 0) ? 0 : read + previousDelta;
+            times[i] = (i == 0) ? read : previous + delta;
+            previousDelta = delta;
+            previous = times[i];
+        }
+        return times;
+    }
+
+    /**
+     * Encodes integral numbers as deltas of variable length integers.
+     */
+    private static byte[] encodeLongs(long[] values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long previous = 0;
+        for (long value : values) {
+            writeVarLong(out, value - previous);
+            previous = value;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes integral numbers that were encoded by {@link #encodeLongs(long[])}.
+     */
+    private static long[] decodeLongs(byte[] data, int count) {
+        long[] values = new long[count];
+        int[] position = {0};
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            values[i] = previous + readVarLong(data, position);
+            previous = values[i];
+        }
+        return values;
+    }
+
+    /**
+     * Encodes floating point numbers by Gorilla XOR compression, i.e. only the meaningful bits of the XOR of
+     * subsequent values are stored.
+     */
+    private static byte[] encodeDoubles(double[] values) {
+        BitWriter writer = new BitWriter();
+        long previous = Double.doubleToRawLongBits(values[0]);
+        writer.write(previous, 64);
+        int previousLeading = -1, previousTrailing = 0;
+        for (int i = 1; i < values.length; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                writer.write(0, 1);
+                continue;
+            }
+            writer.write(1, 1);
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if ((previousLeading >= 0) && (leading >= previousLeading) && (trailing >= previousTrailing)) {
+                // Meaningful bits fit into the previous window
+                writer.write(0, 1);
+                writer.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                // Store new window
+                int significant = 64 - leading - trailing;
+                writer.write(1, 1);
+                writer.write(leading, 5);
+                writer.write(significant & 0x3F, 6);
+                writer.write(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decodes floating point numbers that were encoded by {@link #encodeDoubles(double[])}.
+     */
+    private static double[] decodeDoubles(byte[] data, int count) {
+        BitReader reader = new BitReader(data);
+        double[] values = new double[count];
+        long previous = reader.read(64);
+        values[0] = Double.longBitsToDouble(previous);
+        int leading = 0, trailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (reader.read(1) != 0) {
+                if (reader.read(1) != 0) {
+                    leading = (int) reader.read(5);
+                    int significant = (int) reader.read(6);
+                    trailing = 64 - leading - (significant == 0 ? 64 : significant);
+                }
+                previous ^= reader.read(64 - leading - trailing) << trailing;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+        return values;
+    }
+
+    /**
+     * Writes a zig-zag encoded variable length integer.
+     */
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.write((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.write((int) zigZag);
+    }
+
+    /**
+     * Reads a zig-zag encoded variable length integer and advances the given position.
+     */
+    private static long readVarLong(byte[] data, int[] position) {
+        long zigZag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[position[0]++];
+            zigZag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    /**
+     * Writes single bits into a byte array.
+     */
+    private static class BitWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int current = 0;
+        private int count = 0;
+
+        private void write(long value, int bits) {
+            for (int i = bits - 1; i >= 0; i--) {
+                current = (current << 1) | (int) ((value >>> i) & 1);
+                if (++count == 8) {
+                    out.write(current);
+                    current = 0;
+                    count = 0;
+                }
+            }
+        }
+
+        private byte[] toByteArray() {
+            if (count > 0) {
+                out.write(current << (8 - count));
+                current = 0;
+                count = 0;
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Reads single bits from a byte array.
+     */
+    private static class BitReader {
+        private final byte[] data;
+        private int position = 0;
+
+        private BitReader(byte[] data) {
+            this.data = data;
+        }
+
+        private long read(int bits) {
+            long value = 0;
+            for (int i = 0; i < bits; i++) {
+                value = (value << 1) | ((data[position >>> 3] >>> (7 - (position & 7))) & 1);
+                position++;
+            }
+            return value;
+        }
+    }
+}
@@ -1,18 +1,19 @@
 package de.ipvs.as.mbp.repository;
 
-import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.Aggregates;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.*;
+import com.mongodb.client.result.UpdateResult;
 import de.ipvs.as.mbp.MongoConfiguration;
 import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.service.metrics.PipelineStageTimer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.bson.Document;
 import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.codecs.pojo.PojoCodecProvider;
 import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -20,10 +21,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 import java.util.function.Consumer;
 
 import static org.bson.codecs.configuration.CodecRegistries.fromProviders;
@@ -36,6 +36,11 @@ import static org.bson.codecs.configuration.CodecRegistries.fromRegistries;
  * implemented within this repository is described and recommended by the
  * MongoDB blog post "Time Series Data and MongoDB".
  * (https://www.mongodb.com/blog/post/time-series-data-and-mongodb-part-1-introduction)
+ * <p>
+ * Buckets whose value logs are older than the retention threshold can be moved to an archive collection, which
+ * is compressed more strongly and optionally stores only downsampled value logs. The archived value logs are still
+ * returned by the query methods of this repository. Full documents may further be converted to the columnar
+ * format of the {@link ValueLogBucketCodec}, which is decoded transparently by the query methods.
  */
 @Component
 public class ValueLogRepository {
@@ -43,24 +48,45 @@ public class ValueLogRepository {
     // Name of the collection to use for the value logs
     private static final String COLLECTION_NAME = "mongoValueLogs";
 
+    // Name of the collection to use for archived value logs
+    private static final String ARCHIVE_COLLECTION_NAME = "mongoValueLogsArchive";
+
+    // Block compressor to use for the archive collection
+    private static final String ARCHIVE_BLOCK_COMPRESSOR = "zstd";
+
     // Name of the idref field
     private static final String IDREF_FIELD_NAME = "idref";
 
+    // Name of the field that marks documents to which no further value logs may be added
+    private static final String SEALED_FIELD_NAME = "sealed";
+
     // Number of value logs per document in the collection
     private static final long VALUES_PER_DOCUMENT = 80;
 
+    // Number of documents to fetch per round trip when streaming value logs
+    private static final int STREAM_BATCH_SIZE = 16;
+
     // Value log database and collection of the MongoDB
     private final MongoDatabase valueLogDatabase;
     private final MongoCollection<ValueLog> valueLogCollection;
+    private final MongoCollection<Document> bucketCollection;
+    private final MongoCollection<Document> archiveCollection;
+
+    // Timer for writing value logs
+    private final PipelineStageTimer writeTimer;
+
+    // Listener that is notified about idrefs whose previous document became full
+    private volatile Consumer<String> sealedDocumentListener;
 
     /**
      * Instantiates the repository by passing a reference to the MongoDB bean that
      * is supposed to be used (auto-wired).
      *
-     * @param mongoClient The MongoDB bean to use
+     * @param mongoClient   The MongoDB bean to use
+     * @param meterRegistry The registry for the metrics of the repository
      */
     @Autowired
-    private ValueLogRepository(MongoClient mongoClient, MongoConfiguration mongoConfiguration) {
+    private ValueLogRepository(MongoClient mongoClient, MongoConfiguration mongoConfiguration, MeterRegistry meterRegistry) {
         // Fetch coded registry for mapping value log objects from and to BSON documents
         CodecRegistry codecRegistry = fromRegistries(com.mongodb.MongoClientSettings.getDefaultCodecRegistry(), fromProviders(PojoCodecProvider.builder().automatic(true).build()));
 
@@ -70,6 +96,15 @@ public class ValueLogRepository {
         // Get value log database and collection with codec registry
         this.valueLogDatabase = mongoClient.getDatabase(databaseName).withCodecRegistry(codecRegistry);
         this.valueLogCollection = valueLogDatabase.getCollection(COLLECTION_NAME, ValueLog.class);
+        this.bucketCollection = valueLogDatabase.getCollection(COLLECTION_NAME);
+        this.archiveCollection = createArchiveCollection();
+
+        // Index documents by idref and time, allowing to stream them in order
+        this.bucketCollection.createIndex(Indexes.ascending(IDREF_FIELD_NAME, "first"));
+
+        // Create metrics
+        this.writeTimer = new PipelineStageTimer(meterRegistry, "mbp.value_logs.written",
+                "Writing of value logs to the database");
     }
 
     /**
@@ -86,9 +121,10 @@ public class ValueLogRepository {
         // Get epoch seconds from value log
         long epochSeconds = valueLog.getTime().getEpochSecond();
 
-        // Filtering by idref and nvalues
+        // Filtering by idref and nvalues, skipping documents of imported value logs
         Document filterQuery = new Document(IDREF_FIELD_NAME, valueLog.getIdref());
         filterQuery.append("nvalues", new Document("$lt", VALUES_PER_DOCUMENT));
+        filterQuery.append(SEALED_FIELD_NAME, new Document("$exists", false));
 
         // Query for updating existing documents or creating new ones
         Document updateQuery = new Document("$push", new Document("values", valueLog));
@@ -101,47 +137,103 @@ public class ValueLogRepository {
         updateOptions.upsert(true);
 
         // Perform update
-        this.valueLogCollection.updateOne(filterQuery, updateQuery, updateOptions);
+        long startTime = System.nanoTime();
+        String outcome = PipelineStageTimer.OUTCOME_FAILURE;
+        UpdateResult result;
+        try {
+            result = this.valueLogCollection.updateOne(filterQuery, updateQuery, updateOptions);
+            outcome = PipelineStageTimer.OUTCOME_SUCCESS;
+        } finally {
+            writeTimer.record(startTime, valueLog.getComponent(), outcome);
+        }
+
+        // A new document is only created when the previous one is full
+        Consumer<String> listener = this.sealedDocumentListener;
+        if ((result.getUpsertedId() != null) && (listener != null)) {
+            listener.accept(valueLog.getIdref());
+        }
     }
 
     /**
-     * Finds and returns a list of value logs that match a certain id reference of a
-     * component.
+     * Sets the listener that is notified with the idref of a component when a document of the component became full,
+     * such that no further value logs will be added to it.
      *
-     * @param idref The idref to match
-     * @return The requested list of value logs
+     * @param listener The listener to set or null for none
      */
-    public List<ValueLog> findAllByIdRef(String idref) {
-        // Sanity check
+    public void setSealedDocumentListener(Consumer<String> listener) {
+        this.sealedDocumentListener = listener;
+    }
+
+    /**
+     * Writes a given list of value logs of the same component into the repository by grouping them into full
+     * documents and inserting these with an unordered bulk write. In contrast to {@link #write(ValueLog)}, this
+     * requires only one database operation per document. The value logs must be ordered by time, such that the
+     * time ranges of the documents do not overlap. Since the value logs are usually older than the ones that are
+     * written by {@link #write(ValueLog)}, a remaining document that is not full is sealed, such that no further
+     * value logs are added to it. The ids of the documents are derived from the times of their first value logs,
+     * as if the documents were created when these value logs were received, so that retention applies to them.
+     *
+     * @param idref     The idref of the component to which all value logs belong
+     * @param valueLogs The value logs to write, ordered by time
+     * @return The number of inserted documents
+     */
+    public int writeAll(String idref, List<ValueLog> valueLogs) {
+        // Sanity checks
         if ((idref == null) || idref.isEmpty()) {
             throw new IllegalArgumentException("Idref must not be null or empty.");
+        } else if ((valueLogs == null) || valueLogs.isEmpty()) {
+            return 0;
+        }
+        Instant previousTime = null;
+        for (ValueLog valueLog : valueLogs) {
+            if (!idref.equals(valueLog.getIdref()) || (valueLog.getTime() == null)) {
+                throw new IllegalArgumentException("Value logs must belong to the given idref and have a time.");
+            } else if ((previousTime != null) && valueLog.getTime().isBefore(previousTime)) {
+                throw new IllegalArgumentException("Value logs must be ordered by time.");
+            }
+            previousTime = valueLog.getTime();
         }
 
-        // Create result list
-        List<ValueLog> resultList = new ArrayList<>();
-
-        // Matching for idref
-        Bson matchStage = Aggregates.match(Filters.eq(IDREF_FIELD_NAME, idref));
-
-        // Unwinding
-        Bson unwindStage = Aggregates.unwind("$values");
-
-        // Replace root elements with value log sub-documents
-        Bson replaceRootStage = Aggregates.replaceRoot("$values");
-
-        // Perform aggregation
-        AggregateIterable<ValueLog> aggregateResult = this.valueLogCollection
-                .aggregate(Arrays.asList(matchStage, unwindStage, replaceRootStage), ValueLog.class);
+        // Group value logs by time into documents
+        List<Document> documents = new ArrayList<>();
+        for (int from = 0; from < valueLogs.size(); from += VALUES_PER_DOCUMENT) {
+            List<ValueLog> values = valueLogs.subList(from, (int) Math.min(from + VALUES_PER_DOCUMENT, valueLogs.size()));
+            Instant first = values.get(0).getTime();
+            Document document = new Document("_id", new ObjectId(Date.from(first)))
+                    .append(IDREF_FIELD_NAME, idref)
+                    .append("values", new ArrayList<>(values))
+                    .append("first", first.getEpochSecond())
+                    .append("last", values.get(values.size() - 1).getTime().getEpochSecond())
+                    .append("nvalues", values.size());
+            if (values.size() < VALUES_PER_DOCUMENT) {
+                document.append(SEALED_FIELD_NAME, true);
+            }
+            documents.add(document);
+        }
 
-        // Convert aggregation result to a list
-        aggregateResult.forEach((Consumer<ValueLog>) resultList::add);
+        // Perform unordered bulk insert
+        this.bucketCollection.insertMany(documents, new InsertManyOptions().ordered(false));
+        return documents.size();
+    }
 
+    /**
+     * Finds and returns a list of value logs that match a certain id reference of a
+     * component, ordered ascending by time. This includes the archived value logs of the component.
+     *
+     * @param idref The idref to match
+     * @return The requested list of value logs
+     */
+    public List<ValueLog> findAllByIdRef(String idref) {
+        List<ValueLog> resultList = new ArrayList<>();
+        streamByIdRef(idref, null, null, true, resultList::add);
         return resultList;
     }
 
     /**
      * Finds and returns a page of value logs that match a certain id reference of a
-     * component.
+     * component. Since documents may contain fewer value logs than {@link #VALUES_PER_DOCUMENT} (e.g. sealed or
+     * downsampled documents), the documents that are needed for the page are determined from the number of value
+     * logs they contain, before only these documents are retrieved and decoded.
      *
      * @param idref    The idref to match
      * @param pageable The pageable describing the desired page of value logs
@@ -165,86 +257,245 @@ public class ValueLogRepository {
             return new PageImpl<>(resultList, pageable, 0);
         }
 
-        // Get sort parameters from pageable
-        Sort sort = pageable.getSort();
+        // Only sorting for time property is supported, descending by default
+        Sort.Order timeOrder = pageable.getSort().getOrderFor("time");
+        boolean ascending = (timeOrder != null) && timeOrder.isAscending();
+        Comparator<ValueLog> comparator = ascending ? Comparator.comparing(ValueLog::getTime) :
+                Comparator.comparing(ValueLog::getTime).reversed();
 
-        // Documents representing the desired sort direction
-        Document coarseSortDocument = new Document("first", -1);
-        Document fineSortDocument = new Document("time", -1);
-
-        // Iterate over all specified sort parameters
-        for (Sort.Order order : sort) {
-            // Only sorting for time property is supported, thus ignore the other ones
-            if (!order.getProperty().equals("time")) {
-                continue;
-            }
+        // Determine the documents that contain the value logs up to the end of the page
+        List<Object> documentIds = findDocumentIdsForPage(idref, offset + limit, ascending);
+        if (documentIds.isEmpty()) {
+            return new PageImpl<>(resultList, pageable, 0);
+        }
 
-            // Check sort direction and adjust document if necessary
-            if (order.isAscending()) {
-                coarseSortDocument = new Document("first", 1);
-                fineSortDocument = new Document("time", 1);
+        // Retrieve and decode these documents; archived copies of documents that are still present are skipped
+        List<ValueLog> valueLogs = new ArrayList<>();
+        Set<Object> decodedIds = new HashSet<>();
+        for (MongoCollection<Document> collection : Arrays.asList(this.bucketCollection, this.archiveCollection)) {
+            for (Document document : collection.find(Filters.in("_id", documentIds)).batchSize(STREAM_BATCH_SIZE)) {
+                if (decodedIds.add(document.get("_id"))) {
+                    valueLogs.addAll(ValueLogBucketCodec.decode(document));
+                }
             }
-
-            // Only ordering for time is supported, so no need to consider other properties
-            break;
         }
 
-        // List of all aggregation stages to execute
-        List<Bson> aggregateStages = new ArrayList<>();
-
-        // Matching for idref
-        aggregateStages.add(Aggregates.match(Filters.eq(IDREF_FIELD_NAME, idref)));
+        // Fine-grained sorting, offset and limit for pagination on value log level
+        valueLogs.sort(comparator);
+        int fromIndex = (int) Math.min(offset, valueLogs.size());
+        resultList.addAll(valueLogs.subList(fromIndex, Math.min(fromIndex + limit, valueLogs.size())));
 
-        // Coarse-grained sorting on document level
-        aggregateStages.add(Aggregates.sort(coarseSortDocument));
-
-        // Coarse-grained limit on document level
-        int calculatedLimit = (int) Math.ceil(((double) offset + limit) / ((double) VALUES_PER_DOCUMENT)) + 1;
-        aggregateStages.add(Aggregates.limit(calculatedLimit));
+        // Return value logs as page
+        return new PageImpl<>(resultList, pageable, resultList.size());
+    }
 
-        // Unwinding
-        aggregateStages.add(Aggregates.unwind("$values"));
+    /**
+     * Determines the ids of the documents of an idref within the value log collection and the archive that contain
+     * the first value logs with respect to a given order, up to a given number of value logs. Only the time ranges
+     * and the numbers of value logs of the documents are retrieved for this purpose, from cursors on both collections
+     * that are ordered by the index on idref and time. The documents are walked through by their first timestamps
+     * and reading stops as soon as the requested number of value logs is reached and the next document lies behind
+     * the time range that covers these value logs. In ascending order, this also covers documents whose time ranges
+     * overlap; in descending order, documents of an idref are assumed not to overlap, as ensured when writing them.
+     *
+     * @param idref     The idref to match
+     * @param count     The number of value logs
+     * @param ascending True, if the oldest value logs are requested; false for the newest value logs
+     * @return The ids of the documents that contain the requested value logs
+     */
+    private List<Object> findDocumentIdsForPage(String idref, long count, boolean ascending) {
+        List<Object> documentIds = new ArrayList<>();
+        long valueCount = 0;
+        long bound = ascending ? Long.MIN_VALUE : Long.MAX_VALUE;
+
+        // Walk through the documents with a running sum of their value logs
+        try (OrderedDocumentCursor cursor = findDocumentsOrdered(Filters.eq(IDREF_FIELD_NAME, idref),
+                Projections.include("first", "last", "nvalues"), ascending)) {
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                long first = ((Number) document.get("first")).longValue();
+                long last = ((Number) document.get("last")).longValue();
+
+                // Stop when the document and all subsequent ones lie behind the requested value logs
+                if ((valueCount >= count) && (ascending ? (first > bound) : (last < bound))) {
+                    break;
+                }
+                documentIds.add(document.get("_id"));
+
+                // Extend the time range that covers the requested value logs until enough value logs are found
+                if (valueCount < count) {
+                    valueCount += ((Number) document.get("nvalues")).longValue();
+                    bound = ascending ? Math.max(bound, last) : Math.min(bound, first);
+                }
+            }
+        }
+        return documentIds;
+    }
 
-        // Replace root elements with value log sub-documents
-        aggregateStages.add(Aggregates.replaceRoot("$values"));
+    /**
+     * Opens a cursor over the documents of the value log collection and the archive that match a given filter,
+     * ordered by their first timestamps. Both collections are read by means of their index on idref and time,
+     * such that only as many documents are read as the caller consumes. The cursor must be closed after usage.
+     *
+     * @param filter     The filter for the documents, which should match a single idref
+     * @param projection The projection of the documents or null for the entire documents
+     * @param ascending  True, if the documents are supposed to be ordered ascending; false for descending
+     * @return The resulting cursor
+     */
+    private OrderedDocumentCursor findDocumentsOrdered(Bson filter, Bson projection, boolean ascending) {
+        Bson sort = ascending ? Sorts.ascending(IDREF_FIELD_NAME, "first") : Sorts.descending(IDREF_FIELD_NAME, "first");
+        return new OrderedDocumentCursor(
+                this.bucketCollection.find(filter).projection(projection).sort(sort).batchSize(STREAM_BATCH_SIZE),
+                this.archiveCollection.find(filter).projection(projection).sort(sort).batchSize(STREAM_BATCH_SIZE),
+                ascending);
+    }
 
-        // Fine-grained sorting on value log level
-        aggregateStages.add(Aggregates.sort(fineSortDocument));
+    /**
+     * Creates a filter for the documents of a given idref that may contain value logs within an optional time range.
+     *
+     * @param idref     The idref to match
+     * @param startTime The inclusive start of the time range or null
+     * @param endTime   The exclusive end of the time range or null
+     * @return The resulting filter
+     */
+    private static Bson createTimeRangeFilter(String idref, Instant startTime, Instant endTime) {
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.eq(IDREF_FIELD_NAME, idref));
+        if (startTime != null) {
+            filters.add(Filters.gte("last", startTime.getEpochSecond()));
+        }
+        if (endTime != null) {
+            filters.add(Filters.lte("first", endTime.getEpochSecond()));
+        }
+        return Filters.and(filters);
+    }
 
-        // Fine-grained offset for pagination on value log level (if necessary)
-        if (offset > 0) {
-            aggregateStages.add(Aggregates.skip((int) offset));
+    /**
+     * Streams the value logs that match a certain id reference of a component and lie within an optional time range
+     * to a given consumer, ordered by time. Only one document of value logs is held in memory at a time, so that
+     * arbitrarily many value logs can be processed with constant memory. The documents of the value log collection
+     * and the archive are merged by their first timestamps; documents of an idref are assumed not to overlap.
+     *
+     * @param idref     The idref to match
+     * @param startTime The inclusive start of the time range or null
+     * @param endTime   The exclusive end of the time range or null
+     * @param ascending True, if the value logs are supposed to be ordered ascending by time; false for descending
+     * @param consumer  The consumer to pass the value logs to
+     */
+    public void streamByIdRef(String idref, Instant startTime, Instant endTime, boolean ascending, Consumer<ValueLog> consumer) {
+        // Sanity check
+        if ((idref == null) || idref.isEmpty()) {
+            throw new IllegalArgumentException("Idref must not be null or empty.");
         }
 
-        // Fine-grained Limit for pagination on value log level (if necessary)
-        aggregateStages.add(Aggregates.limit(limit));
+        Comparator<ValueLog> comparator = ascending ? Comparator.comparing(ValueLog::getTime) :
+                Comparator.comparing(ValueLog::getTime).reversed();
+
+        // Stream the documents of both collections, filtered by idref and time range
+        try (OrderedDocumentCursor cursor = findDocumentsOrdered(createTimeRangeFilter(idref, startTime, endTime),
+                null, ascending)) {
+            while (cursor.hasNext()) {
+                List<ValueLog> valueLogs = ValueLogBucketCodec.decode(cursor.next());
+                valueLogs.removeIf(v -> ((startTime != null) && v.getTime().isBefore(startTime)) ||
+                        ((endTime != null) && (!v.getTime().isBefore(endTime))));
+                valueLogs.sort(comparator);
+                valueLogs.forEach(consumer);
+            }
+        }
+    }
 
-        // Perform aggregation
-        AggregateIterable<ValueLog> aggregateResult = this.valueLogCollection.aggregate(aggregateStages,
-                ValueLog.class);
+    /**
+     * Finds the value logs of several components within an optional time range. For each component, only the first
+     * value logs with respect to the requested order are retained, up to a given per-component limit. The documents
+     * of each component are read from both collections in the requested order by means of the index on idref and
+     * time, and reading stops as soon as the limit of the component is reached and the next document lies behind the
+     * last retained value log. Thus, both the memory consumption and the number of read documents are bounded by the limits rather than
+     * the number of stored value logs, independent of how many value logs the individual documents contain.
+     *
+     * @param limits    Map (idref --&gt; maximum number of value logs) of the components to match
+     * @param startTime The inclusive start of the time range or null
+     * @param endTime   The exclusive end of the time range or null
+     * @param ascending True, if the oldest value logs are requested in ascending order; false for the newest value
+     *                  logs in descending order
+     * @return Map (idref --&gt; ordered list of value logs) containing an entry for each of the given idrefs
+     */
+    public Map<String, List<ValueLog>> findAllByIdRefs(Map<String, Integer> limits, Instant startTime, Instant endTime, boolean ascending) {
+        // Create result map and order of the value logs
+        Map<String, List<ValueLog>> resultMap = new HashMap<>();
+        limits.keySet().forEach(idref -> resultMap.put(idref, new ArrayList<>()));
+        Comparator<ValueLog> comparator = ascending ? Comparator.comparing(ValueLog::getTime) :
+                Comparator.comparing(ValueLog::getTime).reversed();
+
+        for (Map.Entry<String, Integer> entry : limits.entrySet()) {
+            int limit = entry.getValue();
+            if (limit <= 0) {
+                continue;
+            }
 
-        // Convert aggregation result to a list
-        aggregateResult.forEach((Consumer<ValueLog>) resultList::add);
+            // Retain the first value logs, with the last retained value log at the head of the queue
+            PriorityQueue<ValueLog> queue = new PriorityQueue<>(comparator.reversed());
+            try (OrderedDocumentCursor cursor = findDocumentsOrdered(
+                    createTimeRangeFilter(entry.getKey(), startTime, endTime), null, ascending)) {
+                while (cursor.hasNext()) {
+                    Document document = cursor.next();
+
+                    // Stop once the document lies behind the last retained value log (times are in seconds)
+                    if (queue.size() >= limit) {
+                        long lastRetained = queue.peek().getTime().toEpochMilli();
+                        long first = ((Number) document.get("first")).longValue() * 1000;
+                        long last = ((Number) document.get("last")).longValue() * 1000 + 999;
+                        if (ascending ? (first > lastRetained) : (last < lastRetained)) {
+                            break;
+                        }
+                    }
+
+                    // Decode the value logs and retain the first ones
+                    for (ValueLog valueLog : ValueLogBucketCodec.decode(document)) {
+                        if (((startTime != null) && valueLog.getTime().isBefore(startTime)) ||
+                                ((endTime != null) && (!valueLog.getTime().isBefore(endTime)))) {
+                            continue;
+                        }
+                        if (queue.size() < limit) {
+                            queue.add(valueLog);
+                        } else if (comparator.compare(valueLog, queue.peek()) < 0) {
+                            queue.poll();
+                            queue.add(valueLog);
+                        }
+                    }
+                }
+            }
 
-        // Return value logs as page
-        return new PageImpl<>(resultList, pageable, resultList.size());
+            // Order the retained value logs
+            List<ValueLog> valueLogs = resultMap.get(entry.getKey());
+            valueLogs.addAll(queue);
+            valueLogs.sort(comparator);
+        }
+        return resultMap;
     }
 
     /**
-     * Finds a value log by component id and timestamp when the ValueLog was initially created.
+     * Finds a value log by component id and timestamp when the ValueLog was initially created. Only the documents
+     * whose time range covers the timestamp are read, starting with the latest one, such that the search is
+     * bounded by the index on idref and first timestamp instead of reading the whole history of the component.
      *
      * @param idRef The component id which belongs to the value log.
      * @param timestamp The timestamp when the value log was initally created by the MBP
      * @return The requested ValueLog, null if no ValueLog fits the requirements.
      */
     public ValueLog findByIdRefAndTimeStamp(String idRef, Instant timestamp) {
-        // Get all value logs of with the idRef
-        List<ValueLog> allValueLogsOfRequestedComponent = this.findAllByIdRef(idRef);
+        // Build filter for the documents that cover the timestamp
+        long timeSeconds = timestamp.getEpochSecond();
+        Bson filter = Filters.and(Filters.eq(IDREF_FIELD_NAME, idRef),
+                Filters.lte("first", timeSeconds), Filters.gte("last", timeSeconds));
 
         // Find the valueLog with the specified timestamp
-        for (ValueLog v : allValueLogsOfRequestedComponent) {
-            if (v.getTime().equals(timestamp)) {
-                return v;
+        try (OrderedDocumentCursor cursor = findDocumentsOrdered(filter, null, false)) {
+            while (cursor.hasNext()) {
+                for (ValueLog v : ValueLogBucketCodec.decode(cursor.next())) {
+                    if (v.getTime().equals(timestamp)) {
+                        return v;
+                    }
+                }
             }
         }
 
@@ -268,5 +519,234 @@ public class ValueLogRepository {
 
         // Perform deletion
         this.valueLogCollection.deleteMany(filter);
+        this.archiveCollection.deleteMany(filter);
+    }
+
+    /**
+     * Moves a batch of documents whose value logs are all older than a given threshold from the value log
+     * collection to the archive collection. Documents that are modified concurrently by writes of new value logs
+     * remain in the value log collection.
+     *
+     * @param threshold      The threshold; only documents with value logs older than this instant are archived
+     * @param componentTypes The component types of the documents to archive or null for all types
+     * @param excludeTypes   True, if documents of the given component types are supposed to be excluded instead
+     * @param batchSize      The maximum number of documents to archive
+     * @return The number of archived documents
+     */
+    public int archiveBatch(Instant threshold, Collection<String> componentTypes, boolean excludeTypes, int batchSize) {
+        // Sanity checks
+        if (threshold == null) {
+            throw new IllegalArgumentException("Threshold must not be null.");
+        } else if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+
+        // Documents were created when their first value log was written, so the id index allows to skip newer ones
+        List<Bson> filters = new ArrayList<>();
+        filters.add(Filters.lt("_id", new ObjectId(Date.from(threshold))));
+        filters.add(Filters.lt("last", threshold.getEpochSecond()));
+
+        // Filter for component types
+        if ((componentTypes != null) && (!componentTypes.isEmpty())) {
+            filters.add(excludeTypes ?
+                    Filters.and(Filters.nin("values.component", componentTypes),
+                            Filters.nin("meta.component", componentTypes)) :
+                    Filters.or(Filters.in("values.component", componentTypes),
+                            Filters.in("meta.component", componentTypes)));
+        }
+
+        // Retrieve batch of documents to archive
+        List<Document> documents = new ArrayList<>();
+        this.bucketCollection.find(Filters.and(filters)).limit(batchSize).forEach((Consumer<Document>) documents::add);
+        if (documents.isEmpty()) {
+            return 0;
+        }
+
+        // Copy documents to the archive; replacing makes this idempotent if a previous run was interrupted
+        List<WriteModel<Document>> archiveWrites = new ArrayList<>(documents.size());
+        List<WriteModel<Document>> deletions = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            archiveWrites.add(new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document,
+                    new ReplaceOptions().upsert(true)));
+            deletions.add(new DeleteOneModel<>(Filters.and(Filters.eq("_id", document.get("_id")),
+                    Filters.eq("nvalues", document.get("nvalues")))));
+        }
+        BulkWriteOptions unordered = new BulkWriteOptions().ordered(false);
+        this.archiveCollection.bulkWrite(archiveWrites, unordered);
+
+        // Delete documents from the value log collection, unless value logs were added in the meantime
+        int deletedCount = this.bucketCollection.bulkWrite(deletions, unordered).getDeletedCount();
+        if (deletedCount == documents.size()) {
+            return deletedCount;
+        }
+
+        // Remove the archived copies of the documents that were modified in the meantime
+        List<Object> ids = new ArrayList<>(documents.size());
+        documents.forEach(d -> ids.add(d.get("_id")));
+        List<Object> remainingIds = new ArrayList<>();
+        this.bucketCollection.find(Filters.in("_id", ids)).projection(Projections.include("_id"))
+                .forEach((Consumer<Document>) d -> remainingIds.add(d.get("_id")));
+        this.archiveCollection.deleteMany(Filters.in("_id", remainingIds));
+        return deletedCount;
+    }
+
+    /**
+     * Downsamples a batch of archived documents whose value logs are all older than a given threshold, such that
+     * only the first value log of each interval is retained. Downsampled documents are marked in order to not
+     * process them again.
+     *
+     * @param threshold The threshold; only documents with value logs older than this instant are downsampled
+     * @param interval  The interval for which one value log is retained
+     * @param batchSize The maximum number of documents to downsample
+     * @return The number of downsampled documents
+     */
+    public int downsampleArchiveBatch(Instant threshold, Duration interval, int batchSize) {
+        // Sanity checks
+        if ((threshold == null) || (interval == null) || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Threshold and positive interval must be provided.");
+        } else if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+
+        // Retrieve batch of documents to downsample
+        long intervalMillis = interval.toMillis();
+        List<Document> documents = new ArrayList<>();
+        this.archiveCollection.find(Filters.and(Filters.lt("last", threshold.getEpochSecond()),
+                Filters.exists("downsampled", false))).limit(batchSize).forEach((Consumer<Document>) documents::add);
+        if (documents.isEmpty()) {
+            return 0;
+        }
+
+        // Retain the first value log of each interval
+        List<WriteModel<Document>> updates = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            boolean columnar = ValueLogBucketCodec.isColumnar(document);
+            List<Document> values = columnar ? ValueLogBucketCodec.decodeRows(document) :
+                    document.getList("values", Document.class, Collections.emptyList());
+            List<Document> retainedValues = new ArrayList<>();
+            Set<Long> coveredIntervals = new HashSet<>();
+            for (Document value : values) {
+                Date time = value.getDate("time");
+                if ((time == null) || coveredIntervals.add(time.getTime() / intervalMillis)) {
+                    retainedValues.add(value);
+                }
+            }
+
+            // Columnar documents are encoded again after downsampling
+            Bson filter = Filters.eq("_id", document.get("_id"));
+            Document rowDocument = new Document("_id", document.get("_id"))
+                    .append(IDREF_FIELD_NAME, document.get(IDREF_FIELD_NAME))
+                    .append("first", document.get("first")).append("last", document.get("last"))
+                    .append("nvalues", retainedValues.size()).append("values", retainedValues)
+                    .append("downsampled", intervalMillis);
+            Document columnarDocument = columnar ? ValueLogBucketCodec.encode(rowDocument) : null;
+            updates.add(new ReplaceOneModel<>(filter, columnarDocument == null ? rowDocument : columnarDocument));
+        }
+        this.archiveCollection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+
+        return documents.size();
+    }
+
+    /**
+     * Converts the full documents of a given idref that are still stored in the row format to the columnar format
+     * of the {@link ValueLogBucketCodec}.
+     *
+     * @param idref The idref of the documents to convert
+     * @return The number of converted documents
+     */
+    public int compactFullDocuments(String idref) {
+        // Sanity check
+        if ((idref == null) || idref.isEmpty()) {
+            throw new IllegalArgumentException("Idref must not be null or empty.");
+        }
+
+        // Full documents are not modified anymore
+        List<Document> documents = new ArrayList<>();
+        this.bucketCollection.find(Filters.and(Filters.eq(IDREF_FIELD_NAME, idref),
+                Filters.gte("nvalues", VALUES_PER_DOCUMENT), Filters.exists(ValueLogBucketCodec.FORMAT_FIELD, false)))
+                .forEach((Consumer<Document>) documents::add);
+        return compactDocuments(this.bucketCollection, documents);
+    }
+
+    /**
+     * Converts a batch of documents that are stored in the row format to the columnar format of the
+     * {@link ValueLogBucketCodec}, walking through the value log collection or the archive collection in the
+     * order of the document ids. Documents of the value log collection are only converted if they are full.
+     *
+     * @param archive   True, if the archive collection is supposed to be processed
+     * @param afterId   The id of the last document of the previous batch or null to start at the beginning
+     * @param batchSize The maximum number of documents to process
+     * @return The id of the last processed document or null, if the end of the collection was reached
+     */
+    public Object compactBatch(boolean archive, Object afterId, int batchSize) {
+        // Sanity check
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+
+        // Retrieve next batch of documents by means of the id index
+        MongoCollection<Document> collection = archive ? this.archiveCollection : this.bucketCollection;
+        Bson filter = afterId == null ? new Document() : Filters.gt("_id", afterId);
+        List<Document> documents = new ArrayList<>();
+        collection.find(filter).sort(Sorts.ascending("_id")).limit(batchSize)
+                .forEach((Consumer<Document>) documents::add);
+        if (documents.isEmpty()) {
+            return null;
+        }
+        Object lastId = documents.get(documents.size() - 1).get("_id");
+
+        // Select documents in the row format that are not modified anymore
+        documents.removeIf(d -> ValueLogBucketCodec.isColumnar(d) || ((!archive) && (!d.containsKey(SEALED_FIELD_NAME)) &&
+                (((Number) d.get("nvalues")).longValue() < VALUES_PER_DOCUMENT)));
+        compactDocuments(collection, documents);
+        return lastId;
+    }
+
+    /**
+     * Encodes the given documents of the row format and replaces them within a given collection, unless they were
+     * converted or modified in the meantime.
+     *
+     * @param collection The collection that contains the documents
+     * @param documents  The documents to convert
+     * @return The number of converted documents
+     */
+    private int compactDocuments(MongoCollection<Document> collection, List<Document> documents) {
+        List<WriteModel<Document>> replacements = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Document columnarDocument = ValueLogBucketCodec.encode(document);
+            if (columnarDocument != null) {
+                replacements.add(new ReplaceOneModel<>(Filters.and(Filters.eq("_id", document.get("_id")),
+                        Filters.eq("nvalues", document.get("nvalues")),
+                        Filters.exists(ValueLogBucketCodec.FORMAT_FIELD, false)), columnarDocument));
+            }
+        }
+        if (replacements.isEmpty()) {
+            return 0;
+        }
+        return collection.bulkWrite(replacements, new BulkWriteOptions().ordered(false)).getModifiedCount();
+    }
+
+    /**
+     * Returns the archive collection and creates it with strong compression and an index for querying by idref
+     * if it does not exist yet.
+     *
+     * @return The archive collection
+     */
+    private MongoCollection<Document> createArchiveCollection() {
+        // Check whether the collection needs to be created
+        List<String> collectionNames = new ArrayList<>();
+        this.valueLogDatabase.listCollectionNames().forEach((Consumer<String>) collectionNames::add);
+        if (!collectionNames.contains(ARCHIVE_COLLECTION_NAME)) {
+            Document storageOptions = new Document("wiredTiger",
+                    new Document("configString", "block_compressor=" + ARCHIVE_BLOCK_COMPRESSOR));
+            this.valueLogDatabase.createCollection(ARCHIVE_COLLECTION_NAME,
+                    new CreateCollectionOptions().storageEngineOptions(storageOptions));
+        }
+
+        // Index archived documents by idref and time
+        MongoCollection<Document> collection = this.valueLogDatabase.getCollection(ARCHIVE_COLLECTION_NAME);
+        collection.createIndex(Indexes.ascending(IDREF_FIELD_NAME, "first"));
+        collection.createIndex(Indexes.ascending("last"));
+        return collection;
     }
 }
@@ -1,45 +1,111 @@
 package de.ipvs.as.mbp.service;
 
-import de.ipvs.as.mbp.domain.valueLog.ValueLog;
-import org.bson.Document;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
+import de.ipvs.as.mbp.repository.DataModelTreeCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.measure.converter.UnitConverter;
+import javax.measure.unit.Unit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * TODO Must be updated if it should be used with complex iot data
- * Service that provides means for converting values from one unit into another unit.
+ * Service that provides means for converting values from one unit into another unit. Since parsing units and
+ * deriving converters between them is expensive, parsed units and converters are cached. The values of value logs
+ * are converted by {@link ValueLogUnitConverter}s that are compiled from the data models of the components.
  *
  * @author Jan
  */
 @Component
 public class UnitConverterService {
-    //Number of decimal places to spare from rounding
-    private static final int ROUNDING_DECIMAL_PLACES = 4;
+    //Maximum number of entries per cache before it is cleared
+    private static final int MAX_CACHE_SIZE = 1000;
+
+    //Cache of parsed units (unit string --> unit)
+    private final Map<String, Unit<?>> unitCache = new ConcurrentHashMap<>();
+
+    //Cache of converters ([source unit, target unit] --> converter)
+    private final Map<List<Unit<?>>, UnitConverter> converterCache = new ConcurrentHashMap<>();
+
+    @Autowired
+    private DataModelTreeCache dataModelTreeCache;
 
     /**
-     * Converts the value of a value log into a different unit by using a given unit converter.
-     * Rounding to a certain number of decimal places (as specified in ROUNDING_DECIMAL_PLACES)
-     * is applied to the resulting value.
+     * Parses a given unit string, using a cache of previously parsed units.
      *
-     * @param valueLog  The value log whose value is supposed to be converted
-     * @param converter The unit converter which converts the values of the value logs into the
-     *                  desired target unit
+     * @param unit The unit string to parse
+     * @return The parsed unit
+     * @throws IllegalArgumentException If the unit string is not a valid unit
      */
-    public void convertValueLogValue(ValueLog valueLog, UnitConverter converter) {
-        //Get value of current log
-        double value = Double.valueOf(valueLog.getValue().getDouble("value"));
+    public Unit<?> parseUnit(String unit) {
+        //Sanity check
+        if (unit == null) {
+            throw new IllegalArgumentException("The unit must not be null.");
+        }
 
-        //Convert value
-        double convertedValue = converter.convert(value);
+        Unit<?> parsedUnit = unitCache.get(unit);
+        if (parsedUnit != null) {
+            return parsedUnit;
+        }
 
-        //Determine rounding constant
-        double roundingConst = Math.pow(10, ROUNDING_DECIMAL_PLACES);
+        //Parse unit; invalid units are not cached
+        parsedUnit = Unit.valueOf(unit);
+        putBounded(unitCache, unit, parsedUnit);
+        return parsedUnit;
+    }
 
-        //Apply rounding
-        convertedValue = Math.round(convertedValue * roundingConst) / roundingConst;
+    /**
+     * Returns a converter from a given source unit to a given target unit, using a cache of previously derived
+     * converters.
+     *
+     * @param sourceUnit The unit to convert from
+     * @param targetUnit The unit to convert to
+     * @return The resulting converter
+     * @throws javax.measure.converter.ConversionException If the units are not compatible
+     */
+    public UnitConverter getConverter(Unit<?> sourceUnit, Unit<?> targetUnit) {
+        List<Unit<?>> key = Arrays.asList(sourceUnit, targetUnit);
+        UnitConverter converter = converterCache.get(key);
+        if (converter != null) {
+            return converter;
+        }
+
+        //Derive converter; incompatible units are not cached
+        converter = sourceUnit.getConverterTo(targetUnit);
+        putBounded(converterCache, key, converter);
+        return converter;
+    }
 
-        //Write value to log
-        valueLog.setValue(new Document("value", convertedValue));
+    /**
+     * Creates a converter for the values of the value logs of a given component from a given source unit to a given
+     * target unit. The resulting converter converts all numeric leaves of the data model of the component and is
+     * supposed to be reused for all value logs of a request.
+     *
+     * @param componentId The ID of the component whose value logs are supposed to be converted
+     * @param sourceUnit  The unit to convert from
+     * @param targetUnit  The unit to convert to
+     * @return The resulting value log converter
+     * @throws javax.measure.converter.ConversionException If the units are not compatible
+     */
+    public ValueLogUnitConverter getValueLogConverter(String componentId, Unit<?> sourceUnit, Unit<?> targetUnit) {
+        DataModelTree dataModel = dataModelTreeCache.getDataModelOfComponent(componentId);
+        return new ValueLogUnitConverter(dataModel, getConverter(sourceUnit, targetUnit));
+    }
+
+    /**
+     * Adds an entry to a given cache and clears the cache before if it reached its maximum size.
+     *
+     * @param cache The cache to add the entry to
+     * @param key   The key of the entry
+     * @param value The value of the entry
+     */
+    private static <K, V> void putBounded(Map<K, V> cache, K key, V value) {
+        if (cache.size() >= MAX_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(key, value);
     }
 }
@@ -0,0 +1,177 @@
+package de.ipvs.as.mbp.service;
+
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTreeNode;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import org.bson.Document;
+
+import javax.measure.converter.UnitConverter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converter for the values of value logs into a different unit that was compiled from a {@link DataModelTree}.
+ * The tree is translated once into a structure that only covers the paths to the numeric leaves of the data model
+ * (double, int and long), such that the values of many value logs can be converted without traversing the tree or
+ * inspecting fields that are not affected. Converted leaves are rounded to a fixed number of decimal places and
+ * stored as doubles.
+ */
+public class ValueLogUnitConverter {
+    //Constant for rounding converted values to four decimal places
+    private static final double ROUNDING_CONSTANT = 1e4;
+
+    //The underlying converter for single values
+    private final UnitConverter converter;
+
+    //Converter for the root of the value, null if the data model has no numeric leaves
+    private final NodeConverter rootConverter;
+
+    /**
+     * Compiles a converter that converts all numeric leaves of values that comply to a given {@link DataModelTree}
+     * by using a given unit converter.
+     *
+     * @param dataModel The data model tree of the values to convert
+     * @param converter The unit converter to use
+     */
+    public ValueLogUnitConverter(DataModelTree dataModel, UnitConverter converter) {
+        this.converter = converter;
+        this.rootConverter = compileNode(dataModel.getRoot());
+    }
+
+    /**
+     * Converts the value of a given value log in place.
+     *
+     * @param valueLog The value log whose value is supposed to be converted
+     */
+    public void convert(ValueLog valueLog) {
+        if ((rootConverter != null) && (valueLog.getValue() != null)) {
+            rootConverter.convert(valueLog.getValue(), false);
+        }
+    }
+
+    /**
+     * Converts the value of a given value log without modifying its current value document, which may be shared
+     * with other value logs. Only the objects and arrays on the paths to the numeric leaves are copied, the
+     * converted copy is then set as the new value of the value log.
+     *
+     * @param valueLog The value log whose value is supposed to be converted
+     */
+    public void convertCopy(ValueLog valueLog) {
+        if ((rootConverter != null) && (valueLog.getValue() != null)) {
+            valueLog.setValue((Document) rootConverter.convert(valueLog.getValue(), true));
+        }
+    }
+
+    /**
+     * Converts a single value and rounds the result.
+     *
+     * @param value The value to convert
+     * @return The converted and rounded value
+     */
+    public double convertValue(double value) {
+        return Math.round(converter.convert(value) * ROUNDING_CONSTANT) / ROUNDING_CONSTANT;
+    }
+
+    /**
+     * Compiles the converter for a given data model tree node.
+     *
+     * @param node The node to compile
+     * @return The converter for the node or null, if the node does not contain numeric leaves
+     */
+    private NodeConverter compileNode(DataModelTreeNode node) {
+        switch (node.getType()) {
+            case OBJECT:
+                return compileObject(node);
+            case ARRAY:
+                NodeConverter elementConverter = compileNode(node.getChildren().get(0));
+                return (elementConverter == null) ? null : new ArrayConverter(elementConverter);
+            case DOUBLE:
+            case INT:
+            case LONG:
+                return (v, c) -> (v instanceof Number) ? convertValue(((Number) v).doubleValue()) : v;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Compiles the converter for a given data model tree node of type object.
+     *
+     * @param node The node to compile
+     * @return The converter for the object node or null, if the node does not contain numeric leaves
+     */
+    private NodeConverter compileObject(DataModelTreeNode node) {
+        List<String> names = new ArrayList<>();
+        List<NodeConverter> converters = new ArrayList<>();
+        for (DataModelTreeNode child : node.getChildren()) {
+            NodeConverter childConverter = compileNode(child);
+            if (childConverter != null) {
+                names.add(child.getName());
+                converters.add(childConverter);
+            }
+        }
+        return names.isEmpty() ? null : new ObjectConverter(names.toArray(new String[0]), converters.toArray(new NodeConverter[0]));
+    }
+
+    /**
+     * Converter for the value of a single data model tree node.
+     */
+    private interface NodeConverter {
+        /**
+         * Converts a given value of the node.
+         *
+         * @param value The value to convert
+         * @param copy  True, if objects and arrays must not be modified but copied; false otherwise
+         * @return The converted value
+         */
+        Object convert(Object value, boolean copy);
+    }
+
+    private static class ObjectConverter implements NodeConverter {
+        //Names and converters of the fields that contain numeric leaves
+        private final String[] names;
+        private final NodeConverter[] converters;
+
+        private ObjectConverter(String[] names, NodeConverter[] converters) {
+            this.names = names;
+            this.converters = converters;
+        }
+
+        @Override
+        public Object convert(Object value, boolean copy) {
+            if (!(value instanceof Document)) {
+                return value;
+            }
+            Document document = copy ? new Document((Document) value) : (Document) value;
+            for (int i = 0; i < names.length; i++) {
+                Object fieldValue = document.get(names[i]);
+                if (fieldValue != null) {
+                    document.put(names[i], converters[i].convert(fieldValue, copy));
+                }
+            }
+            return document;
+        }
+    }
+
+    private static class ArrayConverter implements NodeConverter {
+        //Converter for the elements of the array
+        private final NodeConverter elementConverter;
+
+        private ArrayConverter(NodeConverter elementConverter) {
+            this.elementConverter = elementConverter;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object convert(Object value, boolean copy) {
+            if (!(value instanceof List)) {
+                return value;
+            }
+            List<Object> list = copy ? new ArrayList<>((List<Object>) value) : (List<Object>) value;
+            for (int i = 0; i < list.size(); i++) {
+                list.set(i, elementConverter.convert(list.get(i), copy));
+            }
+            return list;
+        }
+    }
+}
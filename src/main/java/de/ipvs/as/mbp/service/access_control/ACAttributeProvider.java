@@ -1,12 +1,20 @@
 package de.ipvs.as.mbp.service.access_control;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.reflect.FieldUtils;
 import de.ipvs.as.mbp.domain.access_control.ACAccess;
 import de.ipvs.as.mbp.domain.access_control.ACAccessRequest;
+import de.ipvs.as.mbp.domain.access_control.ACAttributeKey;
 import de.ipvs.as.mbp.domain.access_control.ACAttributeNotAvailableException;
 import de.ipvs.as.mbp.domain.access_control.ACAttributeValue;
 import de.ipvs.as.mbp.domain.access_control.ACConditionSimpleAttributeArgument;
@@ -15,47 +23,51 @@ import de.ipvs.as.mbp.domain.access_control.IACEntity;
 
 /**
  * Service that provides additional attributes used for evaluating access requests.
- * 
+ * <p>
+ * The attribute values of entities are read via accessor tables that are built once per entity class
+ * and hold a {@link MethodHandle} getter for each {@link ACAttributeKey} that can be resolved for this class.
+ *
  * @author Jakob Benz
  */
 public class ACAttributeProvider {
-	
+
+	/**
+	 * Accessor tables (attribute key -> getter of the annotated field) per entity class.
+	 */
+	private static final Map<Class<?>, Map<ACAttributeKey, MethodHandle>> ACCESSOR_TABLES = new ConcurrentHashMap<>();
+
+	/**
+	 * Generic type of all attribute getters ({@code (Object) -> Object}).
+	 */
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
 	@SuppressWarnings("unchecked")
 	public <T extends Comparable<T>> Optional<T> getValueForAttributeArgument(ACConditionSimpleAttributeArgument<T> attributeArgument, ACAccess access, ACAccessRequest request) throws ACAttributeNotAvailableException {
+		ACAttributeKey key = attributeArgument.getKey();
+
 		// Retrieve entity associated with the attribute argument
-		IACEntity associatedEntity = access.getEntityForType(attributeArgument.getKey().getEntityType());
-		
+		IACEntity associatedEntity = access.getEntityForType(key.getEntityType());
+
 		// 1) Check whether the corresponding attribute value can be found in the list of attributes from the access request (only if attribute of requesting entity)
 		Optional<T> valueFromRequest = Optional.empty();
-		if (attributeArgument.getKey().getEntityType() == ACEntityType.REQUESTING_ENTITY
-				&& request.getContext().stream().anyMatch(a -> a.getKey().equals(attributeArgument.getKey()))) {
-			valueFromRequest =  Optional.of((T) request.getContext().stream().filter(a -> a.getKey().getId().equals(attributeArgument.getKey().getId())).findFirst().get().getValue());
+		if (key.getEntityType() == ACEntityType.REQUESTING_ENTITY) {
+			String contextValue = request.getContextValue(key);
+			if (contextValue != null) {
+				valueFromRequest = Optional.of((T) contextValue);
+			}
 		}
-		
-		
+
 		// 2) Check attribute value from records
-		String valuePath = attributeArgument.getKey().getValueLookupPath();
-		String[] valuePathSteps = valuePath.split("\\.");
 		Optional<T> valueFromRecords = Optional.empty();
 		try {
-			// Get all attribute value candidate fields
-			List<Field> fieldsWithAttributeAnnotation = FieldUtils.getFieldsListWithAnnotation(associatedEntity.getClass(), ACAttributeValue.class);
-			for (Field field : fieldsWithAttributeAnnotation) {
-				// NOTE: Currently only one-step value lookup paths are supported (more is not needed at the moment)
-				
-				// Match the field name against the first value path step
-				if (field.getName().equals(valuePathSteps[0])) {					
-					// Lookup the field via the lookup path
-					Field currentField = field;
-					// Make (private) field accessible (only) via reflection
-					currentField.setAccessible(true);
-					valueFromRecords = Optional.of((T) currentField.get(associatedEntity));
-				}
+			MethodHandle getter = getAccessorTable(associatedEntity.getClass()).get(key);
+			if (getter != null) {
+				valueFromRecords = Optional.of((T) (Object) getter.invokeExact((Object) associatedEntity));
 			}
-		} catch (Exception e) {
+		} catch (Throwable t) {
 			return Optional.empty();
 		}
-		
+
 		if (valueFromRequest.isPresent() && valueFromRecords.isPresent()) {
 			if (valueFromRequest.get().equals(valueFromRecords.get())) {
 				return valueFromRecords;
@@ -70,4 +82,43 @@ public class ACAttributeProvider {
 		}
 	}
 
+	/**
+	 * Returns the accessor table for a given entity class, building it on first use.
+	 *
+	 * @param entityClass the class of the entity.
+	 * @return the (unmodifiable) accessor table for the class.
+	 */
+	static Map<ACAttributeKey, MethodHandle> getAccessorTable(Class<?> entityClass) {
+		return ACCESSOR_TABLES.computeIfAbsent(entityClass, ACAttributeProvider::buildAccessorTable);
+	}
+
+	private static Map<ACAttributeKey, MethodHandle> buildAccessorTable(Class<?> entityClass) {
+		Map<ACAttributeKey, MethodHandle> table = new EnumMap<>(ACAttributeKey.class);
+
+		// Get all attribute value candidate fields
+		List<Field> fieldsWithAttributeAnnotation = FieldUtils.getFieldsListWithAnnotation(entityClass, ACAttributeValue.class);
+		for (ACAttributeKey key : ACAttributeKey.values()) {
+			if (key == ACAttributeKey.NULL) {
+				continue;
+			}
+
+			// NOTE: Currently only one-step value lookup paths are supported (more is not needed at the moment)
+			String firstPathStep = key.getValueLookupPath().split("\\.")[0];
+			for (Field field : fieldsWithAttributeAnnotation) {
+				// Match the field name against the first value path step (last match wins, as before)
+				if (field.getName().equals(firstPathStep)) {
+					try {
+						// Make (private) field accessible (only) via reflection, once per class
+						field.setAccessible(true);
+						table.put(key, MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE));
+					} catch (Exception e) {
+						table.remove(key);
+					}
+				}
+			}
+		}
+
+		return Collections.unmodifiableMap(table);
+	}
+
 }
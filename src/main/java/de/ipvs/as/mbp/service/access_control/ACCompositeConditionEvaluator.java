@@ -1,21 +1,18 @@
 package de.ipvs.as.mbp.service.access_control;
 
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
+import de.ipvs.as.mbp.domain.access_control.ACAbstractCondition;
 import de.ipvs.as.mbp.domain.access_control.ACAccess;
 import de.ipvs.as.mbp.domain.access_control.ACAccessRequest;
 import de.ipvs.as.mbp.domain.access_control.ACCompositeCondition;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import de.ipvs.as.mbp.domain.access_control.ACConditionEvaluatorNotAvailableException;
 
 /**
- * Evaluator for {@link ACCompositeCondition conditions} which uses the Spring Expression Language
+ * Evaluator for {@link ACCompositeCondition conditions}. The conditions are evaluated in the order
+ * they are provided and the evaluation stops as soon as the result of the logical operator is
+ * determined, just like the Spring Expression Language
  * <a href="https://docs.spring.io/spring/docs/current/spring-framework-reference/core.html#expressions">(SpEL)</a>
- * to evaluate the logical condition expressions.
+ * expressions of the {@link de.ipvs.as.mbp.domain.access_control.ACLogicalOperator operator} would do,
+ * but without parsing and reflectively invoking an expression for every evaluation.
  * 
  * @author Jakob Benz
  */
@@ -25,21 +22,19 @@ public class ACCompositeConditionEvaluator extends ACAbstractConditionEvaluator<
 
 	@Override
 	public boolean evaluate(ACCompositeCondition condition, ACAccess access, ACAccessRequest request) {
-		// Create a list with callbacks (as String) that evaluate the conditions, respectively
-		List<String> argumentExpressions = IntStream.range(0, condition.getConditions().size()).mapToObj(i -> "get(" + i + ").evaluate(#access, #request)").collect(Collectors.toList());
-		
-		// Create the expression string using the conditions's logical operator
-		String expressionString = condition.getOperator().createExpressionString(argumentExpressions);
-		
-		// Setup the evaluation context and the expression parser
-		StandardEvaluationContext context = new StandardEvaluationContext(condition.getConditions());
-		context.setVariable("access", access);
-		context.setVariable("request", request);
-		ExpressionParser parser = new SpelExpressionParser();
+		boolean shortCircuitValue = condition.getOperator().getShortCircuitValue();
 		
-		// Parse & evaluate the expression and return the result
-		Expression expression = parser.parseExpression(expressionString);
-		return expression.getValue(context, Boolean.class);
+		// Evaluate the conditions one after another until the result is determined
+		for (ACAbstractCondition subCondition : condition.getConditions()) {
+			try {
+				if (subCondition.evaluate(access, request) == shortCircuitValue) {
+					return shortCircuitValue;
+				}
+			} catch (ACConditionEvaluatorNotAvailableException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+		return !shortCircuitValue;
 	}
 	
 }
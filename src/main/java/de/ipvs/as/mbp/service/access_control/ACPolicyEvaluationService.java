@@ -6,10 +6,19 @@ import de.ipvs.as.mbp.domain.access_control.ACAbstractCondition;
 import de.ipvs.as.mbp.domain.access_control.ACAccess;
 import de.ipvs.as.mbp.domain.access_control.ACAccessRequest;
 import de.ipvs.as.mbp.domain.access_control.ACConditionEvaluatorNotAvailableException;
+import de.ipvs.as.mbp.domain.access_control.ACAccessType;
 import de.ipvs.as.mbp.domain.access_control.ACPolicy;
+import de.ipvs.as.mbp.domain.access_control.IACRequestingEntity;
+import de.ipvs.as.mbp.repository.ACConditionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
 /**
  * Service for evaluating instances of {@link ACPolicy}.
  * 
@@ -21,6 +30,9 @@ public class ACPolicyEvaluationService {
 	@Autowired
 	private ACConditionService conditionService;
 	
+	@Autowired
+	private ACConditionRepository conditionRepository;
+	
 	/**
 	 * Evaluates a given policy based on an access request.
 	 * 
@@ -45,4 +57,70 @@ public class ACPolicyEvaluationService {
 		}
 	}
 
+	/**
+	 * Evaluates a given policy for a requesting entity independently of any requested entity.
+	 * This is only possible if the condition of the policy does not refer to the requested entity.
+	 * 
+	 * @param policy the {@link ACPolicy}.
+	 * @param accessType the {@link ACAccessType} of the access.
+	 * @param requestingEntity the {@link IACRequestingEntity} that requests the access.
+	 * @param request the {@link ACAccessRequest} holding the attributes of the requesting entity.
+	 * @return the evaluation result wrapped in an {@link Optional}, which is empty if the result
+	 * 		   depends on the requested entity and needs to be computed per entity.
+	 */
+	public Optional<Boolean> evaluateForAnyEntity(ACPolicy policy, ACAccessType accessType, IACRequestingEntity requestingEntity, ACAccessRequest request) {
+		ACAbstractCondition condition;
+		try {
+			condition = conditionService.getForId(policy.getConditionId());
+		} catch (EntityNotFoundException e1) {
+			return Optional.of(false);
+		}
+		return evaluateConditionForAnyEntity(condition, accessType, requestingEntity, request);
+	}
+
+	/**
+	 * Evaluates a list of policies for a requesting entity independently of any requested entity, analogously
+	 * to {@link #evaluateForAnyEntity(ACPolicy, ACAccessType, IACRequestingEntity, ACAccessRequest)}. The conditions
+	 * of all policies are retrieved with a single query.
+	 * 
+	 * @param policies the list of {@link ACPolicy policies}.
+	 * @param accessType the {@link ACAccessType} of the access.
+	 * @param requestingEntity the {@link IACRequestingEntity} that requests the access.
+	 * @param request the {@link ACAccessRequest} holding the attributes of the requesting entity.
+	 * @return a map from the ids of the policies to their evaluation results wrapped in an {@link Optional},
+	 * 		   which is empty if the result depends on the requested entity.
+	 */
+	public Map<String, Optional<Boolean>> evaluateForAnyEntity(List<ACPolicy> policies, ACAccessType accessType, IACRequestingEntity requestingEntity, ACAccessRequest request) {
+		Map<String, Optional<Boolean>> results = new HashMap<>();
+		if (policies.isEmpty()) {
+			return results;
+		}
+		
+		// Retrieve the conditions of all policies at once
+		List<String> conditionIds = policies.stream().map(ACPolicy::getConditionId).distinct().collect(Collectors.toList());
+		Map<String, ACAbstractCondition> conditions = new HashMap<>();
+		conditionRepository.findAllById(conditionIds).forEach(c -> conditions.put(c.getId(), c));
+		
+		// Evaluate each condition only once
+		Map<String, Optional<Boolean>> conditionResults = new HashMap<>();
+		for (ACPolicy policy : policies) {
+			ACAbstractCondition condition = conditions.get(policy.getConditionId());
+			results.put(policy.getId(), condition == null ? Optional.of(false) : conditionResults.computeIfAbsent(condition.getId(),
+					id -> evaluateConditionForAnyEntity(condition, accessType, requestingEntity, request)));
+		}
+		return results;
+	}
+
+	private Optional<Boolean> evaluateConditionForAnyEntity(ACAbstractCondition condition, ACAccessType accessType, IACRequestingEntity requestingEntity, ACAccessRequest request) {
+		if (condition.dependsOnRequestedEntity()) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(condition.evaluate(new ACAccess(accessType, requestingEntity, null), request));
+		} catch (ACConditionEvaluatorNotAvailableException e) {
+			e.printStackTrace();
+			return Optional.of(false);
+		}
+	}
+
 }
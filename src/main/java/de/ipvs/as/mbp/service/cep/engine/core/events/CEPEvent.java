@@ -55,4 +55,14 @@ public abstract class CEPEvent {
      * @return The event type name
      */
     public abstract String getEventTypeName();
+
+    /**
+     * Returns the type of the component from which this event originates or null, if the event does not
+     * originate from a component. The component type is only used for tagging metrics.
+     *
+     * @return The component type or null
+     */
+    public String getComponentType() {
+        return null;
+    }
 }
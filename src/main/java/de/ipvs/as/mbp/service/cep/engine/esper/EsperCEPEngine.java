@@ -7,36 +7,79 @@ import de.ipvs.as.mbp.service.cep.engine.core.events.CEPEventType;
 import de.ipvs.as.mbp.service.cep.engine.core.events.CEPPrimitiveDataTypes;
 import de.ipvs.as.mbp.service.cep.engine.core.exceptions.EventNotRegisteredException;
 import de.ipvs.as.mbp.service.cep.engine.core.queries.CEPQueryValidation;
+import de.ipvs.as.mbp.service.metrics.PipelineStageTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This component implements the interface of CEP engines by making use of the
  * CEP engine Esper (http://esper.espertech.com). It provides basic functionality for working with this engine.
+ * Depending on the {@link EsperEngineSettings}, events are either processed synchronously by the sending thread or
+ * asynchronously by a fixed number of inbound partitions, which preserve the order of the events per event type
+ * (i.e. per component), while events of different event types are processed in parallel.
  */
 public class EsperCEPEngine implements CEPEngine {
+    private static final Logger LOGGER = Logger.getLogger(EsperCEPEngine.class.getName());
+
     //Internal fields
     private final EPServiceProvider cepService;
     private final EPAdministrator cepAdmin;
     private final EPRuntime cepRuntime;
 
-    //Stores the event types that have been registered at the engine
-    private final Set<CEPEventType> registeredEventTypes;
+    //Stores the event types that have been registered at the engine (event type name --> event type)
+    private final Map<String, CEPEventType> registeredEventTypes;
+
+    //Partitions for processing events asynchronously (null for synchronous processing)
+    private final EsperInboundPartitions inboundPartitions;
+
+    //Timer for sending events to the engine
+    private final PipelineStageTimer sendEventTimer;
+
+    /**
+     * Creates the component by initializing Esper with default settings and the corresponding internal fields.
+     *
+     * @param meterRegistry The registry for the metrics of the engine
+     */
+    public EsperCEPEngine(MeterRegistry meterRegistry) {
+        this(meterRegistry, new EsperEngineSettings());
+    }
 
     /**
-     * Creates the component by initializing Esper and the corresponding internal fields.
+     * Creates the component by initializing Esper with given settings and the corresponding internal fields.
+     *
+     * @param meterRegistry The registry for the metrics of the engine
+     * @param settings      The threading settings to use
      */
-    public EsperCEPEngine() {
+    public EsperCEPEngine(MeterRegistry meterRegistry, EsperEngineSettings settings) {
         //Get and initialize CEP service
-        cepService = EPServiceProviderManager.getDefaultProvider();
+        cepService = EPServiceProviderManager.getDefaultProvider(createConfiguration(settings));
         cepService.initialize();
 
         //Get admin and runtime objects
         cepAdmin = cepService.getEPAdministrator();
         cepRuntime = cepService.getEPRuntime();
 
-        //Create empty set of registered event types
-        registeredEventTypes = new HashSet<>();
+        //Create empty map of registered event types
+        registeredEventTypes = new ConcurrentHashMap<>();
+
+        //Create inbound partitions if events are supposed to be processed asynchronously
+        inboundPartitions = settings.getInboundThreads() > 0 ?
+                new EsperInboundPartitions(settings.getInboundThreads(), settings.getInboundCapacity()) : null;
+
+        //Create metrics
+        sendEventTimer = new PipelineStageTimer(meterRegistry, "mbp.cep.events.sent",
+                "Sending of events to the CEP engine, including the evaluation of the affected queries");
+        Gauge.builder("mbp.cep.event_types", registeredEventTypes, Map::size)
+                .description("Number of event types that are registered at the CEP engine").register(meterRegistry);
+        if (inboundPartitions != null) {
+            Gauge.builder("mbp.cep.events.pending", inboundPartitions, EsperInboundPartitions::getPendingTasks)
+                    .description("Number of events that wait for being processed by the CEP engine").register(meterRegistry);
+        }
     }
 
     /**
@@ -103,7 +146,7 @@ public class EsperCEPEngine implements CEPEngine {
         //Sanity checks
         if (eventType == null) {
             throw new IllegalArgumentException("Event type object must not be null.");
-        } else if (registeredEventTypes.contains(eventType)) {
+        } else if (registeredEventTypes.containsKey(eventType.getName())) {
             throw new IllegalArgumentException("This event type has already been registered.");
         }
 
@@ -146,33 +189,53 @@ public class EsperCEPEngine implements CEPEngine {
         cepAdmin.createEPL(queryBuilder.toString());
 
         //Add event type to set of registered types
-        registeredEventTypes.add(eventType);
+        registeredEventTypes.put(eventType.getName(), eventType);
     }
 
     /**
      * Sends a given event to the CEP engine so that it can be processed. The type of the event
-     * that is supposed to be sent to the engine needs to be registered before.
+     * that is supposed to be sent to the engine needs to be registered before. In case inbound partitions
+     * are used, the event is only queued for processing and the method returns immediately, unless the
+     * queue of the responsible partition is full.
      *
      * @param event The event to publish
      */
     public void sendEvent(CEPEvent event) throws EventNotRegisteredException {
-        //Iterate over all registered event types and Try to find matching event type
-        CEPEventType matchingEventType = null;
-        for (CEPEventType eventType : registeredEventTypes) {
-            //Check if current event type matches the given event
-            if (eventType.isValidInstance(event)) {
-                matchingEventType = eventType;
-                break;
-            }
-        }
+        long startTime = System.nanoTime();
+
+        //Find event type matching the given event
+        CEPEventType matchingEventType = registeredEventTypes.get(event.getEventTypeName());
 
         //Check if event type could be found
-        if (matchingEventType == null) {
+        if ((matchingEventType == null) || (!matchingEventType.isValidInstance(event))) {
+            sendEventTimer.record(startTime, event.getComponentType(), PipelineStageTimer.OUTCOME_INVALID);
             throw new EventNotRegisteredException("No event type has been registered for event \"" + event.getEventTypeName() + "\".");
         }
 
-        //Send valid event to Esper
-        cepRuntime.sendEvent(event.getFieldValues(), event.getEventTypeName());
+        //Check whether the event is supposed to be processed synchronously
+        if (inboundPartitions == null) {
+            processEvent(event, startTime);
+            return;
+        }
+
+        //Queue event at the partition of its event type in order to preserve the order per event type
+        inboundPartitions.submit(event.getEventTypeName(), () -> {
+            try {
+                processEvent(event, startTime);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Failed to process event of type " + event.getEventTypeName() + ".", e);
+            }
+        });
+    }
+
+    /**
+     * Shuts down the engine by processing the pending events and destroying the Esper service.
+     */
+    public void shutdown() {
+        if (inboundPartitions != null) {
+            inboundPartitions.shutdown();
+        }
+        cepService.destroy();
     }
 
     /**
@@ -206,6 +269,51 @@ public class EsperCEPEngine implements CEPEngine {
         return new CEPQueryValidation(queryString, true);
     }
 
+    /**
+     * Passes a given event to Esper, which evaluates the affected queries.
+     *
+     * @param event     The event to process
+     * @param startTime The time at which the event was sent to the engine
+     */
+    private void processEvent(CEPEvent event, long startTime) {
+        String outcome = PipelineStageTimer.OUTCOME_FAILURE;
+        try {
+            cepRuntime.sendEvent(event.getFieldValues(), event.getEventTypeName());
+            outcome = PipelineStageTimer.OUTCOME_SUCCESS;
+        } finally {
+            sendEventTimer.record(startTime, event.getComponentType(), outcome);
+        }
+    }
+
+    /**
+     * Creates the Esper configuration for given engine settings.
+     *
+     * @param settings The engine settings
+     * @return The resulting configuration
+     */
+    private static Configuration createConfiguration(EsperEngineSettings settings) {
+        Configuration configuration = new Configuration();
+        ConfigurationEngineDefaults.Threading threading = configuration.getEngineDefaults().getThreading();
+
+        //Decouple the invocation of listeners from the processing of events
+        if (settings.getOutboundThreads() > 0) {
+            threading.setThreadPoolOutbound(true);
+            threading.setThreadPoolOutboundNumThreads(settings.getOutboundThreads());
+        }
+
+        //Execute routed events (e.g. from insert-into) in a separate thread pool
+        if (settings.getRouteExecThreads() > 0) {
+            threading.setThreadPoolRouteExec(true);
+            threading.setThreadPoolRouteExecNumThreads(settings.getRouteExecThreads());
+        }
+
+        //Ordering of listener invocations and insert-into dispatches across threads
+        threading.setListenerDispatchPreserveOrder(settings.isPreserveOrder());
+        threading.setInsertIntoDispatchPreserveOrder(settings.isPreserveOrder());
+
+        return configuration;
+    }
+
     /**
      * Returns a list of all names of queries that are currently registered at the engine.
      *
@@ -0,0 +1,149 @@
+package de.ipvs.as.mbp.service.cep.engine.esper;
+
+/**
+ * Threading settings of the Esper CEP engine. By default, events are processed synchronously by the thread that
+ * sends them and the listeners of queries are invoked by the same thread, as it is the default of Esper.
+ */
+public class EsperEngineSettings {
+    //Number of inbound partitions processing the sent events (0 for synchronous processing)
+    private int inboundThreads = 0;
+
+    //Maximum number of pending events per inbound partition before senders are blocked
+    private int inboundCapacity = 10000;
+
+    //Number of threads of the Esper outbound thread pool invoking the listeners (0 for synchronous invocation)
+    private int outboundThreads = 0;
+
+    //Number of threads of the Esper route execution thread pool (0 for synchronous execution)
+    private int routeExecThreads = 0;
+
+    //Whether the order of listener invocations and insert-into dispatches is supposed to be preserved
+    private boolean preserveOrder = true;
+
+    /**
+     * Creates new engine settings with default values.
+     */
+    public EsperEngineSettings() {
+
+    }
+
+    /**
+     * Returns the number of inbound partitions that process the sent events. Events of the same event type are
+     * always processed by the same partition in the order in which they were sent.
+     *
+     * @return The number of inbound partitions
+     */
+    public int getInboundThreads() {
+        return inboundThreads;
+    }
+
+    /**
+     * Sets the number of inbound partitions that process the sent events. Events of the same event type are
+     * always processed by the same partition in the order in which they were sent.
+     *
+     * @param inboundThreads The number of inbound partitions to set (0 for synchronous processing)
+     * @return The engine settings
+     */
+    public EsperEngineSettings setInboundThreads(int inboundThreads) {
+        //Sanity check
+        if (inboundThreads < 0) {
+            throw new IllegalArgumentException("The number of inbound threads must not be negative.");
+        }
+        this.inboundThreads = inboundThreads;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of pending events per inbound partition before senders are blocked.
+     *
+     * @return The capacity of the inbound partitions
+     */
+    public int getInboundCapacity() {
+        return inboundCapacity;
+    }
+
+    /**
+     * Sets the maximum number of pending events per inbound partition before senders are blocked.
+     *
+     * @param inboundCapacity The capacity of the inbound partitions to set
+     * @return The engine settings
+     */
+    public EsperEngineSettings setInboundCapacity(int inboundCapacity) {
+        //Sanity check
+        if (inboundCapacity < 1) {
+            throw new IllegalArgumentException("The inbound capacity must be positive.");
+        }
+        this.inboundCapacity = inboundCapacity;
+        return this;
+    }
+
+    /**
+     * Returns the number of threads of the outbound thread pool that invokes the listeners of the queries.
+     *
+     * @return The number of outbound threads
+     */
+    public int getOutboundThreads() {
+        return outboundThreads;
+    }
+
+    /**
+     * Sets the number of threads of the outbound thread pool that invokes the listeners of the queries.
+     *
+     * @param outboundThreads The number of outbound threads to set (0 for synchronous invocation)
+     * @return The engine settings
+     */
+    public EsperEngineSettings setOutboundThreads(int outboundThreads) {
+        //Sanity check
+        if (outboundThreads < 0) {
+            throw new IllegalArgumentException("The number of outbound threads must not be negative.");
+        }
+        this.outboundThreads = outboundThreads;
+        return this;
+    }
+
+    /**
+     * Returns the number of threads of the route execution thread pool.
+     *
+     * @return The number of route execution threads
+     */
+    public int getRouteExecThreads() {
+        return routeExecThreads;
+    }
+
+    /**
+     * Sets the number of threads of the route execution thread pool.
+     *
+     * @param routeExecThreads The number of route execution threads to set (0 for synchronous execution)
+     * @return The engine settings
+     */
+    public EsperEngineSettings setRouteExecThreads(int routeExecThreads) {
+        //Sanity check
+        if (routeExecThreads < 0) {
+            throw new IllegalArgumentException("The number of route execution threads must not be negative.");
+        }
+        this.routeExecThreads = routeExecThreads;
+        return this;
+    }
+
+    /**
+     * Returns whether the order of listener invocations and insert-into dispatches is supposed to be preserved.
+     *
+     * @return True, if the order is preserved; false otherwise
+     */
+    public boolean isPreserveOrder() {
+        return preserveOrder;
+    }
+
+    /**
+     * Sets whether the order of listener invocations and insert-into dispatches is supposed to be preserved.
+     * Disabling this avoids that threads wait for each other, at the cost of listeners possibly observing the
+     * results of different events out of order.
+     *
+     * @param preserveOrder True, if the order is supposed to be preserved; false otherwise
+     * @return The engine settings
+     */
+    public EsperEngineSettings setPreserveOrder(boolean preserveOrder) {
+        this.preserveOrder = preserveOrder;
+        return this;
+    }
+}
@@ -0,0 +1,104 @@
+package de.ipvs.as.mbp.service.cep.engine.esper;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed set of single-threaded partitions that process tasks asynchronously. Tasks are assigned to the partitions
+ * by a key, such that all tasks of the same key are processed sequentially in the order in which they were
+ * submitted, while tasks of different keys may be processed in parallel. When the queue of a partition is full,
+ * the submitting thread is blocked until space becomes available.
+ */
+class EsperInboundPartitions {
+    //Timeout in milliseconds for finishing pending tasks on shutdown
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    //The executors of the partitions
+    private final ThreadPoolExecutor[] partitions;
+
+    /**
+     * Creates and starts a given number of partitions with a given capacity.
+     *
+     * @param partitionCount The number of partitions to create
+     * @param capacity       The maximum number of pending tasks per partition
+     */
+    EsperInboundPartitions(int partitionCount, int capacity) {
+        //Sanity checks
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("The number of partitions must be positive.");
+        } else if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+
+        //Create partitions
+        this.partitions = new ThreadPoolExecutor[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            String threadName = "mbp-cep-inbound-" + i;
+            partitions[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), r -> {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }, EsperInboundPartitions::blockUntilQueued);
+        }
+    }
+
+    /**
+     * Submits a task for a given key to the partition that is responsible for the key.
+     *
+     * @param key  The key of the task
+     * @param task The task to submit
+     */
+    void submit(String key, Runnable task) {
+        partitions[Math.floorMod(key.hashCode(), partitions.length)].execute(task);
+    }
+
+    /**
+     * Returns the number of tasks that are waiting for being processed in all partitions.
+     *
+     * @return The number of pending tasks
+     */
+    int getPendingTasks() {
+        int pendingTasks = 0;
+        for (ThreadPoolExecutor partition : partitions) {
+            pendingTasks += partition.getQueue().size();
+        }
+        return pendingTasks;
+    }
+
+    /**
+     * Stops accepting new tasks and waits for a limited time until the pending tasks are processed.
+     */
+    void shutdown() {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor partition : partitions) {
+                partition.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Handles a task that was rejected due to a full queue by blocking the submitting thread until the task
+     * could be added to the queue.
+     *
+     * @param task     The rejected task
+     * @param executor The executor of the partition
+     */
+    private static void blockUntilQueued(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("The CEP engine has been shut down.");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for queueing the event.", e);
+        }
+    }
+}
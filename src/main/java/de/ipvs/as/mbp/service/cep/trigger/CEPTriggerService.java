@@ -1,13 +1,20 @@
 package de.ipvs.as.mbp.service.cep.trigger;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import com.jayway.jsonpath.JsonPath;
+import de.ipvs.as.mbp.domain.component.Actuator;
 import de.ipvs.as.mbp.domain.component.Component;
+import de.ipvs.as.mbp.domain.component.Sensor;
 import de.ipvs.as.mbp.domain.data_model.DataModelDataType;
 import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
 import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTreeNode;
-import de.ipvs.as.mbp.domain.device.Device;
 import de.ipvs.as.mbp.domain.monitoring.MonitoringComponent;
 import de.ipvs.as.mbp.domain.rules.RuleTrigger;
 import de.ipvs.as.mbp.domain.valueLog.ValueLog;
@@ -15,13 +22,15 @@ import de.ipvs.as.mbp.repository.*;
 import de.ipvs.as.mbp.service.discovery.deployment.DynamicDeployableComponent;
 import de.ipvs.as.mbp.service.receiver.ValueLogObserver;
 import de.ipvs.as.mbp.service.receiver.ValueLogReceiver;
-import de.ipvs.as.mbp.domain.monitoring.MonitoringOperator;
 import de.ipvs.as.mbp.service.cep.engine.core.CEPEngine;
 import de.ipvs.as.mbp.service.cep.engine.core.events.CEPEventType;
 import de.ipvs.as.mbp.service.cep.engine.core.events.CEPPrimitiveDataTypes;
 import de.ipvs.as.mbp.service.cep.engine.core.exceptions.EventNotRegisteredException;
 import de.ipvs.as.mbp.service.cep.engine.core.queries.CEPQuery;
 import de.ipvs.as.mbp.service.cep.engine.core.queries.CEPQueryValidation;
+import de.ipvs.as.mbp.service.metrics.PipelineStageTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -29,9 +38,36 @@ import org.springframework.stereotype.Service;
  * This service provides means for registering rule triggers with callbacks at the CEP engine. Furthermore,
  * it takes care about registering event types for different the different components entities at the CEP engine
  * and works as a observer for the received value logs.
+ * <p>
+ * Event types are registered lazily, i.e. as soon as they are referenced by the query of a trigger or the first
+ * value log of the corresponding component is received. Thus, no event types need to be registered on startup and
+ * components that never send values and are not referenced by any trigger (such as most combinations of monitoring
+ * operators and devices) do not occupy memory within the CEP engine. The fields and parse instructions that are
+ * derived from a data model tree are cached, so that components sharing a data model tree share them as well.
+ * <p>
+ * If the components are partitioned among several MBP instances (see {@link ValueLogReceiver#isPartitioned()}),
+ * each instance only receives the events of the components it owns. Queries that reference several components are
+ * then rejected, since no instance would receive all of their events.
  */
 @Service
 public class CEPTriggerService implements ValueLogObserver {
+    //Logger for failures of passing value logs to the CEP engine
+    private static final Logger LOGGER = Logger.getLogger(CEPTriggerService.class.getName());
+
+    //Outcome of value logs that are not passed to the CEP engine
+    private static final String OUTCOME_SKIPPED = "skipped";
+
+    //Component type of triggers that reference components of several types
+    private static final String MIXED_COMPONENT_TYPE = "mixed";
+
+    //Type names of the components for which event types are registered
+    private static final Set<String> EVENT_TYPE_COMPONENT_TYPE_NAMES = new HashSet<>(Arrays.asList(
+            Sensor.COMPONENT_TYPE_NAME, Actuator.COMPONENT_TYPE_NAME, MonitoringComponent.COMPONENT_TYPE_NAME));
+
+    //Pattern for references of event types of components within query strings
+    private static final Pattern EVENT_TYPE_REFERENCE_PATTERN = Pattern.compile(
+            "\\b(" + String.join("|", EVENT_TYPE_COMPONENT_TYPE_NAMES) + ")_([0-9a-f]{24}(?:_[0-9a-f]{24})?)\\b",
+            Pattern.CASE_INSENSITIVE);
 
     // The data model tree cache to receive the data model tree of the respective component
     @Autowired
@@ -47,17 +83,58 @@ public class CEPTriggerService implements ValueLogObserver {
     //The CEP engine instance to use
     private final CEPEngine engine;
 
+    //The value log receiver that provides the events
+    private final ValueLogReceiver valueLogReceiver;
+
+    //Timer for passing value logs to the CEP engine
+    private final PipelineStageTimer valueReceivedTimer;
+
+    //Observers that want to be notified about value logs after they were processed by the CEP engine
+    private final List<ValueLogObserver> eventObservers = new CopyOnWriteArrayList<>();
+
+    //Names of the event types that have been registered at the CEP engine
+    private final Map<String, Boolean> registeredEventTypes = new ConcurrentHashMap<>();
+
+    //Cached component types of trigger queries (query -> component type)
+    private final Map<String, String> triggerComponentTypes = new ConcurrentHashMap<>();
+
+    //Cached event type definitions, derived from the data model trees which are held by the data model tree cache
+    private final Map<DataModelTree, EventTypeDefinition> eventTypeDefinitions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    //Repositories for checking the existence of components that are referenced by trigger queries
+    @Autowired
+    private SensorRepository sensorRepository;
+
+    @Autowired
+    private ActuatorRepository actuatorRepository;
+
+    @Autowired
+    private MonitoringOperatorRepository monitoringOperatorRepository;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
     /**
      * Creates and initializes the CEP trigger service by passing a certain rule engine and a value log receiver
      * instance (autowired).
      *
      * @param engine           The rule engine to use
      * @param valueLogReceiver The value log receiver instance to use
+     * @param meterRegistry    The registry for the metrics of the service
      */
     @Autowired
-    CEPTriggerService(CEPEngine engine, CEPValueLogCache cepValueLogCache, ValueLogReceiver valueLogReceiver) {
+    CEPTriggerService(CEPEngine engine, CEPValueLogCache cepValueLogCache, ValueLogReceiver valueLogReceiver,
+                      MeterRegistry meterRegistry) {
         this.engine = engine;
         this.cepValueLogCache = cepValueLogCache;
+        this.valueLogReceiver = valueLogReceiver;
+
+        //Create metrics
+        this.valueReceivedTimer = new PipelineStageTimer(meterRegistry, "mbp.cep.value_logs.received",
+                "Transformation of value logs to CEP events and sending them to the CEP engine");
+        Gauge.builder("mbp.cep.value_log_cache.components", cepValueLogCache, CEPValueLogCache::size)
+                .description("Number of components with value logs that are cached for the CEP until they are written")
+                .register(meterRegistry);
 
         //Register as observer at the ValueLogReceiver
         valueLogReceiver.registerObserver(this);
@@ -78,6 +155,9 @@ public class CEPTriggerService implements ValueLogObserver {
         //Generate query name
         String name = getQueryNameFromTrigger(ruleTrigger);
 
+        //Register the event types that are referenced by the query
+        registerReferencedEventTypes(ruleTrigger.getQuery());
+
         //Create query
         CEPQuery query = engine.createQuery(name, ruleTrigger.getQuery());
 
@@ -123,13 +203,23 @@ public class CEPTriggerService implements ValueLogObserver {
      */
     @Override
     public void onValueReceived(ValueLog valueLog) {
+        long startTime = System.nanoTime();
+
         //TODO
         //Ignore value logs of dynamic deployments for the moment
-        if (valueLog.getComponent().equalsIgnoreCase(new DynamicDeployableComponent().getComponentTypeName())) return;
+        if (valueLog.getComponent().equalsIgnoreCase(new DynamicDeployableComponent().getComponentTypeName())) {
+            valueReceivedTimer.record(startTime, valueLog.getComponent(), OUTCOME_SKIPPED);
+            return;
+        }
 
         // Pass the valueLog to the cache to have later access to it, even if it is not already written in the mongoDB
         cepValueLogCache.addValueLog(valueLog);
 
+        // Register the event type of the component on its first value log
+        if (EVENT_TYPE_COMPONENT_TYPE_NAMES.contains(valueLog.getComponent().toLowerCase())) {
+            registerEventType(valueLog.getIdref(), valueLog.getComponent());
+        }
+
         // Let the parser parse the valuelog
         Map<String, Object> parsedLog = cepValueLogParser.parseValueLog(valueLog,
                 CEPValueLogEvent.generateEventTypeName(valueLog.getIdref(), valueLog.getComponent())
@@ -142,9 +232,39 @@ public class CEPTriggerService implements ValueLogObserver {
         //Send event to engine
         try {
             engine.sendEvent(valueLogEvent);
+            valueReceivedTimer.record(startTime, valueLog.getComponent(), PipelineStageTimer.OUTCOME_SUCCESS);
         } catch (EventNotRegisteredException e) {
-            System.err.println("Event not registered: " + e.getMessage());
+            valueReceivedTimer.record(startTime, valueLog.getComponent(), PipelineStageTimer.OUTCOME_INVALID);
+            LOGGER.log(Level.FINE, "Event not registered: {0}", e.getMessage());
+            return;
+        }
+
+        //Notify observers about the processed value log
+        eventObservers.forEach(o -> o.onValueReceived(valueLog));
+    }
+
+    /**
+     * Registers an observer that is notified about value logs after they were processed by the CEP engine, i.e.
+     * after all queries that are affected by the value log were evaluated.
+     *
+     * @param observer The observer to register
+     */
+    public void registerEventObserver(ValueLogObserver observer) {
+        //Sanity check
+        if (observer == null) {
+            throw new IllegalArgumentException("Observer must not be null.");
         }
+
+        eventObservers.add(observer);
+    }
+
+    /**
+     * Unregisters an observer that was notified about value logs after they were processed by the CEP engine.
+     *
+     * @param observer The observer to unregister
+     */
+    public void unregisterEventObserver(ValueLogObserver observer) {
+        eventObservers.remove(observer);
     }
 
     /**
@@ -164,7 +284,8 @@ public class CEPTriggerService implements ValueLogObserver {
 
     /**
      * Registers a separate event type for a certain component at the CEP engine so that derived events for this
-     * component may be sent to the CEP engine in the future.
+     * component may be sent to the CEP engine in the future. Nothing happens if the event type has already been
+     * registered.
      *
      * @param component The component for which the event type is supposed to be registered
      */
@@ -174,23 +295,144 @@ public class CEPTriggerService implements ValueLogObserver {
             throw new IllegalArgumentException("Component must not be null.");
         }
 
+        registerEventType(component.getId(), component.getComponentTypeName());
+    }
+
+    /**
+     * Registers the event types of all existing components that are referenced by a given query string, so that
+     * the query can be validated and created. References of components that do not exist are ignored, such that
+     * the validation of the query fails.
+     *
+     * @param query The query string to check for references
+     */
+    private void registerReferencedEventTypes(String query) {
+        //Sanity check
+        if (query == null) {
+            return;
+        }
+
+        Matcher matcher = EVENT_TYPE_REFERENCE_PATTERN.matcher(query);
+        while (matcher.find()) {
+            //Skip event types that are already registered
+            String componentTypeName = matcher.group(1).toLowerCase();
+            String normalizedId = matcher.group(2).toLowerCase();
+            if (registeredEventTypes.containsKey(CEPValueLogEvent.generateEventTypeName(normalizedId, componentTypeName))) {
+                continue;
+            }
+
+            //Check whether the referenced component exists
+            String componentId = null;
+            if (componentTypeName.equals(Sensor.COMPONENT_TYPE_NAME) && sensorRepository.existsById(normalizedId)) {
+                componentId = normalizedId;
+            } else if (componentTypeName.equals(Actuator.COMPONENT_TYPE_NAME) && actuatorRepository.existsById(normalizedId)) {
+                componentId = normalizedId;
+            } else if (componentTypeName.equals(MonitoringComponent.COMPONENT_TYPE_NAME)) {
+                //Monitoring components are identified by the IDs of their monitoring operator and device
+                String[] ids = normalizedId.split("_");
+                if ((ids.length == 2) && monitoringOperatorRepository.existsById(ids[0]) && deviceRepository.existsById(ids[1])) {
+                    componentId = ids[0] + "@" + ids[1];
+                }
+            }
+
+            //Register event type for existing components
+            if (componentId != null) {
+                registerEventType(componentId, componentTypeName);
+            }
+        }
+    }
+
+    /**
+     * Returns the type of the components whose events are referenced by the query of a given rule trigger, e.g.
+     * for tagging metrics of rule executions. If the query references components of several types, "mixed" is
+     * returned. The component types are cached per query.
+     *
+     * @param ruleTrigger The rule trigger to evaluate
+     * @return The resulting component type
+     */
+    public String getComponentTypeOfTrigger(RuleTrigger ruleTrigger) {
+        //Sanity check
+        if ((ruleTrigger == null) || (ruleTrigger.getQuery() == null)) {
+            return PipelineStageTimer.UNKNOWN_COMPONENT_TYPE;
+        }
+
+        return triggerComponentTypes.computeIfAbsent(ruleTrigger.getQuery(), query -> {
+            //Collect the types of the referenced components
+            Set<String> componentTypes = new HashSet<>();
+            Matcher matcher = EVENT_TYPE_REFERENCE_PATTERN.matcher(query);
+            while (matcher.find()) {
+                componentTypes.add(matcher.group(1).toLowerCase());
+            }
+
+            if (componentTypes.isEmpty()) {
+                return PipelineStageTimer.UNKNOWN_COMPONENT_TYPE;
+            }
+            return (componentTypes.size() == 1) ? componentTypes.iterator().next() : MIXED_COMPONENT_TYPE;
+        });
+    }
+
+    /**
+     * Returns the names of the event types that are referenced by a given query string.
+     *
+     * @param query The query string to check for references
+     * @return The set of referenced event type names
+     */
+    private Set<String> getReferencedEventTypes(String query) {
+        Set<String> eventTypes = new HashSet<>();
+        Matcher matcher = EVENT_TYPE_REFERENCE_PATTERN.matcher(query);
+        while (matcher.find()) {
+            eventTypes.add(matcher.group().toLowerCase());
+        }
+        return eventTypes;
+    }
+
+    /**
+     * Registers the event type for a component, given by its ID and component type name, at the CEP engine, unless
+     * it has already been registered. The event type is derived from the data model of the component.
+     *
+     * @param componentId       The ID of the component
+     * @param componentTypeName The type name of the component
+     */
+    private void registerEventType(String componentId, String componentTypeName) {
         //Get generated event type name for this component
-        String eventName = CEPValueLogEvent.generateEventTypeName(component.getId(), component.getComponentTypeName());
+        String eventName = CEPValueLogEvent.generateEventTypeName(componentId, componentTypeName);
 
-        //Create new event type (a "template" for such events) for this component
-        CEPEventType eventType = new CEPEventType(eventName);
+        //Check whether the event type has already been registered, avoiding to lock on the common path
+        if (registeredEventTypes.containsKey(eventName)) {
+            return;
+        }
+
+        //Register event type only once, also when called concurrently
+        registeredEventTypes.computeIfAbsent(eventName, name -> {
+            // Get the definition for the data model tree of the component from the data model tree cache
+            DataModelTree dataModel = dataModelTreeCache.getDataModelOfComponent(componentId);
+            EventTypeDefinition definition = (dataModel == null) ? EventTypeDefinition.DEFAULT :
+                    eventTypeDefinitions.computeIfAbsent(dataModel, this::createEventTypeDefinition);
 
-        // Get the data model tree of the component from the data model tree cache
-        DataModelTree dataModel = dataModelTreeCache.getDataModelOfComponent(component.getId());
+            //Create new event type (a "template" for such events) for this component
+            CEPEventType eventType = new CEPEventType(name);
+            definition.fields.forEach(eventType::addField);
+
+            // Add the parseInstructions to the parser cache
+            if (definition.parseInstructions != null) {
+                cepValueLogParser.addInstructionsForEventType(name, definition.parseInstructions);
+            }
 
-        // Extra case for monitoring operators and devices for which no data model exists
-        if (dataModel == null) {
-            eventType.addField("value", CEPPrimitiveDataTypes.DOUBLE);
-            eventType.addField("time", CEPPrimitiveDataTypes.LONG);
             //Register event type
             engine.registerEventType(eventType);
-            return;
-        }
+            return Boolean.TRUE;
+        });
+        // TODO Is it somehow foreseen to remove event types again form the engine?
+        //      (same applies then also to the cepValueLogParser
+    }
+
+    /**
+     * Derives the fields of an event type and the corresponding parse instructions from a given data model tree.
+     *
+     * @param dataModel The data model tree to use
+     * @return The resulting event type definition
+     */
+    private EventTypeDefinition createEventTypeDefinition(DataModelTree dataModel) {
+        Map<String, CEPPrimitiveDataTypes> fields = new LinkedHashMap<>();
 
         // Get the leaf nodes as these should be the only options for available CEP event fields.
         List<DataModelTreeNode> leafNodes = dataModel.getLeafNodes();
@@ -267,13 +509,13 @@ public class CEPTriggerService implements ValueLogObserver {
                 path = path.substring(1);
                 // No arrays are in the path --> just add the path as field
                 if (DataModelDataType.hasCepPrimitiveDataType(typeOfNode)) {
-                    eventType.addField(path, typeOfNode.getCepType());
+                    addField(fields, path, typeOfNode.getCepType());
                 } else {
                     // Special cases for special IoT data types like Date and Binary for which no explicit mapping is defined
                     if (typeOfNode == DataModelDataType.DATE) {
-                        eventType.addField(path, CEPPrimitiveDataTypes.LONG);
+                        addField(fields, path, CEPPrimitiveDataTypes.LONG);
                     } else if (typeOfNode == DataModelDataType.BINARY) {
-                        eventType.addField(path, CEPPrimitiveDataTypes.STRING);
+                        addField(fields, path, CEPPrimitiveDataTypes.STRING);
                     }
                 }
                 pathInstructions.add(new CEPValueLogParseInstruction(path, jsonPath, typeOfNode));
@@ -282,15 +524,24 @@ public class CEPTriggerService implements ValueLogObserver {
         }
 
         // Add a time data field as default event field
-        eventType.addField("time", CEPPrimitiveDataTypes.LONG);
+        addField(fields, "time", CEPPrimitiveDataTypes.LONG);
 
-        // Add the parseInstructions to the parser cache
-        cepValueLogParser.addInstructionsForEventType(eventType.getName(), pathInstructions);
+        return new EventTypeDefinition(fields, pathInstructions);
+    }
 
-        //Register event type
-        engine.registerEventType(eventType);
-        // TODO Is it somehow foreseen to remove event types again form the engine?
-        //      (same applies then also to the cepValueLogParser
+    /**
+     * Adds a field to the fields of an event type definition, applying the same checks as
+     * {@link CEPEventType#addField(String, CEPPrimitiveDataTypes)} so that invalid data models are detected when the
+     * definition is created.
+     *
+     * @param fields    Map (field name --&gt; data type) of the fields to add the field to
+     * @param fieldName The name of the field
+     * @param dataType  The data type of the field
+     */
+    private static void addField(Map<String, CEPPrimitiveDataTypes> fields, String fieldName, CEPPrimitiveDataTypes dataType) {
+        if (fields.putIfAbsent(fieldName, dataType) != null) {
+            throw new IllegalArgumentException("A field with this name is already part of the event type.");
+        }
     }
 
     /**
@@ -355,48 +606,42 @@ public class CEPTriggerService implements ValueLogObserver {
             return new CEPQueryValidation(query, false, "Query must start with a \"SELECT\" clause.");
         }
 
+        //Check whether all events of the query are received by this instance
+        if (valueLogReceiver.isPartitioned() && (getReferencedEventTypes(query).size() > 1)) {
+            return new CEPQueryValidation(query, false, "Query must not reference more than one component " +
+                    "while the components are partitioned among several MBP instances.");
+        }
+
+        //Register the event types that are referenced by the query
+        registerReferencedEventTypes(query);
+
         //Validity check
         return engine.validateQuery(query);
     }
 
     /**
-     * Registers all components that are currently stored in their repositories (auto-wired)
-     * as event types at the CEP engine.
-     *
-     * @param actuatorRepository           The actuator repository
-     * @param sensorRepository             The sensor repository
-     * @param monitoringOperatorRepository The monitoring adapter repository
-     * @param deviceRepository             The device repository
+     * Fields and parse instructions of event types, as derived from a data model tree.
      */
-    @Autowired
-    private void registerAvailableEventTypes(ActuatorRepository actuatorRepository, SensorRepository sensorRepository,
-                                             MonitoringOperatorRepository monitoringOperatorRepository,
-                                             DeviceRepository deviceRepository) {
-        //Create set of available components
-        Set<Component> componentSet = new HashSet<>();
-
-        //Add actuators and sensors
-        componentSet.addAll(actuatorRepository.findAll());
-        componentSet.addAll(sensorRepository.findAll());
-
-        //Get all monitoring adapters and devices
-        List<MonitoringOperator> monitoringAdapters = monitoringOperatorRepository.findAll();
-        List<Device> deviceAdapters = deviceRepository.findAll();
-
-        //Iterate over all monitoring adapters and devices and create monitoring components for them
-        for (MonitoringOperator monitoringAdapter : monitoringAdapters) {
-            for (Device device : deviceAdapters) {
-                //Create monitoring component
-                MonitoringComponent monitoringComponent = new MonitoringComponent(monitoringAdapter, device);
-
-                //Add component to component set
-                componentSet.add(monitoringComponent);
-            }
+    private static class EventTypeDefinition {
+        //Definition for components without a data model
+        private static final EventTypeDefinition DEFAULT = new EventTypeDefinition(createDefaultFields(), null);
+
+        //Map (field name --> data type) of the fields of the event type
+        private final Map<String, CEPPrimitiveDataTypes> fields;
+
+        //Instructions for parsing value logs into events of the event type
+        private final Set<CEPValueLogParseInstruction> parseInstructions;
+
+        private EventTypeDefinition(Map<String, CEPPrimitiveDataTypes> fields, Set<CEPValueLogParseInstruction> parseInstructions) {
+            this.fields = fields;
+            this.parseInstructions = parseInstructions;
         }
 
-        //Iterate over all stored components and register the dedicated event types
-        for (Component component : componentSet) {
-            registerComponentEventType(component);
+        private static Map<String, CEPPrimitiveDataTypes> createDefaultFields() {
+            Map<String, CEPPrimitiveDataTypes> fields = new LinkedHashMap<>();
+            fields.put("value", CEPPrimitiveDataTypes.DOUBLE);
+            fields.put("time", CEPPrimitiveDataTypes.LONG);
+            return fields;
         }
     }
-}
\ No newline at end of file
+}
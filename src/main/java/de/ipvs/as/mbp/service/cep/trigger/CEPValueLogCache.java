@@ -58,6 +58,15 @@ public class CEPValueLogCache {
 
     }
 
+    /**
+     * Returns the number of components for which {@link ValueLog}s are currently cached.
+     *
+     * @return The number of components
+     */
+    public int size() {
+        return this.cache.size();
+    }
+
     /**
      * Returns a cached {@link ValueLog} by its componentId and timestamp.
      *
@@ -65,6 +65,16 @@ public class CEPValueLogEvent extends CEPEvent {
         return generateEventTypeName(valueLog.getIdref(), valueLog.getComponent());
     }
 
+    /**
+     * Returns the type of the component from which the value log of this event originates.
+     *
+     * @return The component type
+     */
+    @Override
+    public String getComponentType() {
+        return valueLog.getComponent();
+    }
+
     /**
      * Returns the value log that is wrapped by the value log event.
      *
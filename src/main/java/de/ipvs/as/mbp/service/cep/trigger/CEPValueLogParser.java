@@ -13,6 +13,7 @@ import de.ipvs.as.mbp.service.cep.engine.core.events.CEPEventType;
 import java.math.BigDecimal;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>Service which provides methods to parse a {@link ValueLog} to a Map with the
@@ -28,12 +29,13 @@ import java.util.*;
 public class CEPValueLogParser {
 
     /**
-     * All known parse instructions.
+     * All known parse instructions. Since event types are registered lazily, instructions may be added while
+     * value logs are parsed concurrently.
      */
-    private final HashMap<String, Set<CEPValueLogParseInstruction>> cachedParseInstructions;
+    private final Map<String, Set<CEPValueLogParseInstruction>> cachedParseInstructions;
 
     public CEPValueLogParser() {
-        cachedParseInstructions = new HashMap<>();
+        cachedParseInstructions = new ConcurrentHashMap<>();
 
         // Add standard parse instructions for monitoring values
         CEPValueLogParseInstruction monitoringParseInstructions = new CEPValueLogParseInstruction(
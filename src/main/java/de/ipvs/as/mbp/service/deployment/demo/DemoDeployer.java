@@ -1,7 +1,6 @@
 package de.ipvs.as.mbp.service.deployment.demo;
 
 import de.ipvs.as.mbp.domain.component.Component;
-import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
 import de.ipvs.as.mbp.domain.device.Device;
 import de.ipvs.as.mbp.domain.operator.parameters.ParameterInstance;
 import de.ipvs.as.mbp.domain.valueLog.ValueLog;
@@ -10,28 +9,31 @@ import de.ipvs.as.mbp.repository.DataModelTreeCache;
 import de.ipvs.as.mbp.service.deployment.ComponentState;
 import de.ipvs.as.mbp.service.deployment.DeviceState;
 import de.ipvs.as.mbp.service.deployment.IDeployer;
-import de.ipvs.as.mbp.service.receiver.ValueLogReceiveVerifier;
 import de.ipvs.as.mbp.service.receiver.ValueLogReceiver;
+import de.ipvs.as.mbp.service.settings.SettingsChangedEvent;
 import org.bson.Document;
 import org.json.JSONException;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 /**
  * Deployer for demonstration purposes that only simulates the actual deployment of the components. In addition,
  * value logs with random values are generated for the running components.
  */
 @org.springframework.stereotype.Component
-public class DemoDeployer implements IDeployer {
+public class DemoDeployer implements IDeployer, ApplicationListener<SettingsChangedEvent> {
 
     //Interval and minimum and maximum value for generating value logs
     private static final int VALUE_LOG_INTERVAL = 15 * 1000;
@@ -47,6 +49,9 @@ public class DemoDeployer implements IDeployer {
     // Map (component --> ValueLog queue) of predefined value logs which should be sent by a component (rerun feature)
     private final Map<Component, Queue<ValueLog>> rerunValueLogs = new HashMap<>();
 
+    // Map (component id --> generator) of generators for example values that fit to the data models of the components
+    private final Map<String, ExampleValueGenerator> exampleValueGenerators = new ConcurrentHashMap<>();
+
     @Autowired
     private ValueLogReceiver valueLogReceiver;
 
@@ -181,6 +186,7 @@ public class DemoDeployer implements IDeployer {
         //"Undeploy" component
         deployedComponents.remove(component);
         rerunValueLogs.remove(component);
+        exampleValueGenerators.remove(component.getId());
     }
 
     /**
@@ -234,6 +240,45 @@ public class DemoDeployer implements IDeployer {
         deployedComponents.clear();
     }
 
+    /**
+     * Called when the application-wide settings were changed. If the demo mode was switched on or off, all
+     * components are reset.
+     *
+     * @param event The event describing the change of the settings
+     */
+    @Override
+    public void onApplicationEvent(SettingsChangedEvent event) {
+        if (event.getPreviousSettings().isDemoMode() != event.getSettings().isDemoMode()) {
+            resetDeployedComponents();
+        }
+    }
+
+    /**
+     * Returns a list of all components that are currently running.
+     *
+     * @return The list of running components
+     */
+    public List<Component> getRunningComponents() {
+        return deployedComponents.entrySet().stream()
+                .filter(e -> ComponentState.RUNNING.equals(e.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a new random example value as JSON string that fits to the data model of a given component. The
+     * generators for the example values are compiled from the data models only once and cached afterwards.
+     *
+     * @param componentId The ID of the component
+     * @return The example value as JSON string
+     * @throws JSONException In case no example value could be generated
+     */
+    public String getExampleValue(String componentId) throws JSONException {
+        ExampleValueGenerator generator = exampleValueGenerators.computeIfAbsent(componentId,
+                id -> new ExampleValueGenerator(dataModelCache.getDataModelOfComponent(id)));
+        return generator.generate();
+    }
+
     /**
      * Adds {@link ValueLog}s to the sending queue of ValueLogs to enable a dynamic configuration of ValueLogs
      * which should be sent by a certain component if it is started. Overwrites old entries.
@@ -281,17 +326,11 @@ public class DemoDeployer implements IDeployer {
                 valueLog.setTopic(component.getTopicName());
                 valueLog.setMessage("Randomly generated");
 
-                // Get the data model of the component to generate a fitting value
-                DataModelTree dataModel = dataModelCache.getDataModelOfComponent(component.getId());
-
-                // Get example json payload from the data model, parse it to a document and set it as value log value
+                // Generate example value that fits to the data model, read it into a document and set it as value log value
                 try {
-                    JSONObject jsonValue = new JSONObject(dataModel.getJSONExample());
-                    valueLog.setValue(ValueLogReceiveVerifier.validateJsonValueAndGetDocument(
-                            jsonValue.getJSONObject("value"),
-                            dataModel
-                    ));
-                } catch (JSONException | ParseException e) {
+                    valueLog.setValue(dataModelCache.getCompiledDataModelOfComponent(component.getId())
+                            .readValue(getExampleValue(component.getId())));
+                } catch (JSONException | ParseException | IOException e) {
                     e.printStackTrace();
                 }
             }
@@ -0,0 +1,89 @@
+package de.ipvs.as.mbp.service.deployment.demo;
+
+import de.ipvs.as.mbp.domain.data_model.DataModelDataType;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTreeNode;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+
+/**
+ * Generator for random example values that fit to a {@link DataModelTree}. The tree is translated once into a
+ * structure of node generators, such that fresh example values can be generated repeatedly without traversing the
+ * tree and without wrapping and re-parsing the JSON example of the data model.
+ */
+class ExampleValueGenerator {
+    //Generator for the root object of the values
+    private final NodeGenerator rootGenerator;
+
+    /**
+     * Compiles a generator for example values that fit to a given data model tree.
+     *
+     * @param dataModel The data model tree
+     */
+    ExampleValueGenerator(DataModelTree dataModel) {
+        this.rootGenerator = compileNode(dataModel.getRoot());
+    }
+
+    /**
+     * Generates a new example value with random leaves.
+     *
+     * @return The example value as JSON string
+     * @throws JSONException In case the example value could not be generated
+     */
+    String generate() throws JSONException {
+        return rootGenerator.generate().toString();
+    }
+
+    /**
+     * Compiles the generator for a given data model tree node.
+     *
+     * @param node The node to compile
+     * @return The generator for the node
+     */
+    private static NodeGenerator compileNode(DataModelTreeNode node) {
+        DataModelDataType type = node.getType();
+        if (type == DataModelDataType.OBJECT) {
+            List<DataModelTreeNode> children = node.getChildren();
+            String[] names = new String[children.size()];
+            NodeGenerator[] generators = new NodeGenerator[children.size()];
+            for (int i = 0; i < children.size(); i++) {
+                names[i] = children.get(i).getName();
+                generators[i] = compileNode(children.get(i));
+            }
+            return () -> {
+                JSONObject object = new JSONObject();
+                for (int i = 0; i < names.length; i++) {
+                    object.put(names[i], generators[i].generate());
+                }
+                return object;
+            };
+        } else if (type == DataModelDataType.ARRAY) {
+            int size = node.getSize();
+            NodeGenerator elementGenerator = compileNode(node.getChildren().get(0));
+            return () -> {
+                JSONArray array = new JSONArray();
+                for (int i = 0; i < size; i++) {
+                    array.put(elementGenerator.generate());
+                }
+                return array;
+            };
+        }
+        return type::getExample;
+    }
+
+    /**
+     * Generator for the values of a single data model tree node.
+     */
+    private interface NodeGenerator {
+        /**
+         * Generates a new random value for the node.
+         *
+         * @return The generated value
+         * @throws JSONException In case the value could not be generated
+         */
+        Object generate() throws JSONException;
+    }
+}
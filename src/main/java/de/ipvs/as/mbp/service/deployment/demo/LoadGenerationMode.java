@@ -0,0 +1,16 @@
+package de.ipvs.as.mbp.service.deployment.demo;
+
+/**
+ * Enumeration of the paths through which the {@link LoadGenerator} may pass the generated values to the MBP.
+ */
+public enum LoadGenerationMode {
+    /**
+     * Values are published as messages at the messaging broker and take the same path as values of real devices.
+     */
+    MQTT,
+
+    /**
+     * Values are injected as value logs directly into the value log receiver, bypassing the messaging broker.
+     */
+    INJECT
+}
@@ -0,0 +1,481 @@
+package de.ipvs.as.mbp.service.deployment.demo;
+
+import de.ipvs.as.mbp.domain.component.Component;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.error.MBPException;
+import de.ipvs.as.mbp.repository.ActuatorRepository;
+import de.ipvs.as.mbp.repository.DataModelTreeCache;
+import de.ipvs.as.mbp.repository.SensorRepository;
+import de.ipvs.as.mbp.service.cep.trigger.CEPTriggerService;
+import de.ipvs.as.mbp.service.log_writer.ValueLogWriter;
+import de.ipvs.as.mbp.service.messaging.PubSubService;
+import de.ipvs.as.mbp.service.receiver.CompiledDataModel;
+import de.ipvs.as.mbp.service.receiver.ValueLogObserver;
+import de.ipvs.as.mbp.service.receiver.ValueLogReceiver;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates synthetic load for sizing the hardware of MBP installations. A configurable number of virtual sensors
+ * sends values that fit to the data models of existing components, either as messages via the messaging broker or
+ * by injecting them directly into the value log receiver. Each value is sent under an unique topic below the topic
+ * of its component, which allows to track it through the pipeline and to measure the latencies until it was written
+ * to the database and until it was processed by the CEP engine. Since the values are attributed to existing
+ * components, dedicated components should be used for load generation.
+ */
+@Service
+public class LoadGenerator {
+
+    //Interval in milliseconds in which values are generated and pending values are checked for timeouts
+    private static final long TICK_INTERVAL = 10;
+    private static final long TIMEOUT_CHECK_INTERVAL = 1000;
+
+    //Maximum number of values that may be generated in one tick for catching up with the desired rate
+    private static final double MAX_CATCH_UP_SECONDS = 1;
+
+    //Topic level below the component topic under which generated values are published
+    private static final String LOAD_TOPIC_LEVEL = "/load/";
+
+    //Percentiles to include into the reports
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.95, 0.99, 0.999};
+
+    //Whether load generation is enabled
+    @Value("${mbp.load_generator.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private DemoDeployer demoDeployer;
+
+    @Autowired
+    private DataModelTreeCache dataModelTreeCache;
+
+    @Autowired
+    private SensorRepository sensorRepository;
+
+    @Autowired
+    private ActuatorRepository actuatorRepository;
+
+    @Autowired
+    private PubSubService pubSubService;
+
+    @Autowired
+    private ValueLogReceiver valueLogReceiver;
+
+    @Autowired
+    private ValueLogWriter valueLogWriter;
+
+    @Autowired
+    private CEPTriggerService cepTriggerService;
+
+    //The currently or most recently active run
+    private volatile Run run;
+
+    /**
+     * Starts the generation of load according to a given load profile.
+     *
+     * @param profile The load profile to use
+     */
+    public synchronized void start(LoadProfile profile) {
+        //Check whether load generation is enabled and not already running
+        if (!enabled) {
+            throw new MBPException(HttpStatus.FORBIDDEN, "Load generation is not enabled.");
+        } else if ((run != null) && run.isRunning()) {
+            throw new MBPException(HttpStatus.CONFLICT, "Load generation is already running.");
+        }
+
+        //Validate profile
+        if ((profile == null) || (profile.getMode() == null) || (profile.getVirtualSensors() < 1)
+                || (profile.getRatePerSensor() <= 0) || (profile.getBurstFactor() <= 0)
+                || (profile.getDurationSeconds() < 0) || (profile.getTimeoutSeconds() < 1)) {
+            throw new MBPException(HttpStatus.BAD_REQUEST, "Invalid load profile.");
+        }
+
+        //Create and start new run
+        run = new Run(profile, createVirtualSensors(profile));
+        run.start();
+    }
+
+    /**
+     * Stops the currently running load generation, if any.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (run != null) {
+            run.stop();
+        }
+    }
+
+    /**
+     * Returns the report of the currently or most recently active load generation.
+     *
+     * @return The report or null, if load was not generated yet
+     */
+    public LoadReport getReport() {
+        Run currentRun = this.run;
+        return (currentRun == null) ? null : currentRun.createReport();
+    }
+
+    /**
+     * Creates the virtual sensors for a given load profile. The virtual sensors use the components whose IDs are
+     * given in the profile or all running components, if no IDs are given, in a round-robin manner.
+     *
+     * @param profile The load profile
+     * @return The list of virtual sensors
+     */
+    private List<VirtualSensor> createVirtualSensors(LoadProfile profile) {
+        //Resolve components to use
+        List<Component> components = new ArrayList<>();
+        if ((profile.getComponentIds() == null) || profile.getComponentIds().isEmpty()) {
+            components.addAll(demoDeployer.getRunningComponents());
+        } else {
+            for (String componentId : profile.getComponentIds()) {
+                Optional<? extends Component> component = sensorRepository.findById(componentId);
+                if (!component.isPresent()) {
+                    component = actuatorRepository.findById(componentId);
+                }
+                components.add(component.orElseThrow(() -> new MBPException(HttpStatus.NOT_FOUND,
+                        "Component with ID " + componentId + " not found.")));
+            }
+        }
+
+        //Sanity check
+        if (components.isEmpty()) {
+            throw new MBPException(HttpStatus.BAD_REQUEST, "No components available for load generation.");
+        }
+
+        //Create payloads once per component
+        List<VirtualSensor> templates = new ArrayList<>(components.size());
+        for (Component component : components) {
+            try {
+                String exampleValue = demoDeployer.getExampleValue(component.getId());
+                String payload = new JSONObject()
+                        .put("id", component.getId())
+                        .put("component", component.getComponentTypeName())
+                        .put("value", new JSONObject(exampleValue)).toString();
+                templates.add(new VirtualSensor(component, component.getTopicName() + LOAD_TOPIC_LEVEL,
+                        exampleValue, payload, dataModelTreeCache.getCompiledDataModelOfComponent(component.getId())));
+            } catch (JSONException e) {
+                throw new MBPException(HttpStatus.BAD_REQUEST, "No example value for component " + component.getId() + ": " + e.getMessage());
+            }
+        }
+
+        //Distribute the virtual sensors over the components
+        List<VirtualSensor> virtualSensors = new ArrayList<>(profile.getVirtualSensors());
+        for (int i = 0; i < profile.getVirtualSensors(); i++) {
+            VirtualSensor template = templates.get(i % templates.size());
+            virtualSensors.add(new VirtualSensor(template.component, template.topicPrefix + i + "/",
+                    template.exampleValue, template.payload, template.dataModel));
+        }
+        return virtualSensors;
+    }
+
+    /**
+     * Virtual sensor that sends values of a certain component.
+     */
+    private static class VirtualSensor {
+        private final Component component;
+        private final String topicPrefix;
+        private final String exampleValue;
+        private final String payload;
+        private final CompiledDataModel dataModel;
+
+        private VirtualSensor(Component component, String topicPrefix, String exampleValue, String payload, CompiledDataModel dataModel) {
+            this.component = component;
+            this.topicPrefix = topicPrefix;
+            this.exampleValue = exampleValue;
+            this.payload = payload;
+            this.dataModel = dataModel;
+        }
+    }
+
+    /**
+     * Value that was generated, but was not written to the database and processed by the CEP engine yet.
+     */
+    private static class PendingValue {
+        private final long generationTime;
+        private volatile boolean persisted = false;
+        private volatile boolean processed = false;
+
+        private PendingValue(long generationTime) {
+            this.generationTime = generationTime;
+        }
+    }
+
+    /**
+     * A single run of the load generation with a certain load profile.
+     */
+    private class Run {
+        private final LoadProfile profile;
+        private final List<VirtualSensor> virtualSensors;
+
+        //Values that are still tracked (topic --> pending value)
+        private final Map<String, PendingValue> pendingValues = new ConcurrentHashMap<>();
+
+        //Counters
+        private final AtomicLong generated = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong persisted = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong lost = new AtomicLong();
+
+        //Latency timers that keep their distribution for the whole run
+        private final Timer persistenceLatency;
+        private final Timer cepLatency;
+
+        //Observers for the pipeline stages
+        private final ValueLogObserver persistenceObserver = v -> onStageCompleted(v, true);
+        private final ValueLogObserver cepObserver = v -> onStageCompleted(v, false);
+
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        private volatile long startTime;
+        private volatile long endTime = 0;
+
+        //State of the generation, only accessed by the executor thread
+        private long lastTickTime;
+        private long lastTimeoutCheck;
+        private double credit = 0;
+        private int nextSensor = 0;
+        private long sequenceNumber = 0;
+
+        private Run(LoadProfile profile, List<VirtualSensor> virtualSensors) {
+            this.profile = profile;
+            this.virtualSensors = virtualSensors;
+
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            this.persistenceLatency = createLatencyTimer("persistence", registry);
+            this.cepLatency = createLatencyTimer("cep", registry);
+        }
+
+        private void start() {
+            valueLogWriter.registerWriteObserver(persistenceObserver);
+            cepTriggerService.registerEventObserver(cepObserver);
+
+            startTime = lastTickTime = lastTimeoutCheck = System.nanoTime();
+            executor.scheduleAtFixedRate(this::tick, 0, TICK_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+
+        private void stop() {
+            if (!isRunning()) {
+                return;
+            }
+            endTime = System.nanoTime();
+            executor.shutdownNow();
+
+            valueLogWriter.unregisterWriteObserver(persistenceObserver);
+            cepTriggerService.unregisterEventObserver(cepObserver);
+        }
+
+        private boolean isRunning() {
+            return endTime == 0;
+        }
+
+        /**
+         * Generates the values that are due according to the current rate and checks pending values for timeouts.
+         */
+        private void tick() {
+            try {
+                long now = System.nanoTime();
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(now - startTime);
+
+                //Check whether the run is finished
+                if ((profile.getDurationSeconds() > 0) && (elapsedMillis >= profile.getDurationSeconds() * 1000)) {
+                    stop();
+                    return;
+                }
+
+                //Determine number of values to generate, limiting the catch up in case the generator fell behind
+                double rate = profile.getRateAt(elapsedMillis);
+                credit = Math.min(credit + rate * (now - lastTickTime) / 1e9, rate * MAX_CATCH_UP_SECONDS);
+                lastTickTime = now;
+
+                //Generate values, cycling through the virtual sensors
+                while (credit >= 1) {
+                    credit--;
+                    generateValue(virtualSensors.get(nextSensor));
+                    nextSensor = (nextSensor + 1) % virtualSensors.size();
+                }
+
+                //Check pending values for timeouts
+                if (now - lastTimeoutCheck >= TimeUnit.MILLISECONDS.toNanos(TIMEOUT_CHECK_INTERVAL)) {
+                    lastTimeoutCheck = now;
+                    removeTimedOutValues(now);
+                }
+            } catch (Exception e) {
+                //Keep the generation alive
+                failed.incrementAndGet();
+            }
+        }
+
+        /**
+         * Generates a single value for a given virtual sensor and passes it to the MBP.
+         *
+         * @param sensor The virtual sensor
+         */
+        private void generateValue(VirtualSensor sensor) {
+            //Create unique topic for tracking the value
+            String topic = sensor.topicPrefix + (sequenceNumber++);
+            pendingValues.put(topic, new PendingValue(System.nanoTime()));
+            generated.incrementAndGet();
+
+            try {
+                if (profile.getMode() == LoadGenerationMode.MQTT) {
+                    //Publish value at the messaging broker
+                    pubSubService.publishAsync(topic, sensor.payload).whenComplete((r, e) -> {
+                        if (e != null) {
+                            onFailure(topic);
+                        }
+                    });
+                } else {
+                    //Inject value log directly
+                    ValueLog valueLog = new ValueLog();
+                    valueLog.setTime(Instant.now());
+                    valueLog.setIdref(sensor.component.getId());
+                    valueLog.setComponent(sensor.component.getComponentTypeName());
+                    valueLog.setTopic(topic);
+                    valueLog.setValue(sensor.dataModel.readValue(sensor.exampleValue));
+                    valueLogReceiver.injectValueLog(valueLog);
+                }
+            } catch (Exception e) {
+                onFailure(topic);
+            }
+        }
+
+        /**
+         * Called when a value could not be passed to the MBP.
+         *
+         * @param topic The topic of the value
+         */
+        private void onFailure(String topic) {
+            if (pendingValues.remove(topic) != null) {
+                failed.incrementAndGet();
+            }
+        }
+
+        /**
+         * Called when a value log completed one of the observed stages of the pipeline.
+         *
+         * @param valueLog  The value log
+         * @param persisted True, if the value log was written to the database; false, if it was processed by the CEP
+         */
+        private void onStageCompleted(ValueLog valueLog, boolean persisted) {
+            //Check whether the value log was generated by this run
+            PendingValue pendingValue = (valueLog.getTopic() == null) ? null : pendingValues.get(valueLog.getTopic());
+            if (pendingValue == null) {
+                return;
+            }
+
+            long latency = System.nanoTime() - pendingValue.generationTime;
+            if (persisted) {
+                pendingValue.persisted = true;
+                this.persisted.incrementAndGet();
+                persistenceLatency.record(latency, TimeUnit.NANOSECONDS);
+            } else {
+                pendingValue.processed = true;
+                this.processed.incrementAndGet();
+                cepLatency.record(latency, TimeUnit.NANOSECONDS);
+            }
+
+            //Stop tracking the value when both stages are completed
+            if (pendingValue.persisted && pendingValue.processed) {
+                pendingValues.remove(valueLog.getTopic());
+            }
+        }
+
+        /**
+         * Stops tracking values that were generated before the timeout and counts the ones that were not persisted
+         * as lost. Values that were persisted, but not processed by the CEP, are not counted, as the CEP only
+         * processes values of components that are used by rule triggers.
+         *
+         * @param now The current time
+         */
+        private void removeTimedOutValues(long now) {
+            long timeout = TimeUnit.SECONDS.toNanos(profile.getTimeoutSeconds());
+            pendingValues.entrySet().removeIf(e -> {
+                if (now - e.getValue().generationTime < timeout) {
+                    return false;
+                }
+                if (!e.getValue().persisted) {
+                    lost.incrementAndGet();
+                }
+                return true;
+            });
+        }
+
+        /**
+         * Creates a report for the current state of the run.
+         *
+         * @return The report
+         */
+        private LoadReport createReport() {
+            long end = isRunning() ? System.nanoTime() : endTime;
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(end - startTime);
+            double elapsedSeconds = Math.max(elapsedMillis, 1) / 1000.0;
+
+            return new LoadReport()
+                    .setProfile(profile)
+                    .setRunning(isRunning())
+                    .setElapsedMillis(elapsedMillis)
+                    .setGenerated(generated.get())
+                    .setFailed(failed.get())
+                    .setPersisted(persisted.get())
+                    .setProcessedByCEP(processed.get())
+                    .setLost(lost.get())
+                    .setGeneratedPerSecond(generated.get() / elapsedSeconds)
+                    .setPersistedPerSecond(persisted.get() / elapsedSeconds)
+                    .setPersistenceLatencyMillis(getPercentiles(persistenceLatency))
+                    .setCepLatencyMillis(getPercentiles(cepLatency));
+        }
+    }
+
+    /**
+     * Creates a timer for latencies that keeps its distribution for the whole run.
+     *
+     * @param stage    The name of the pipeline stage
+     * @param registry The registry to register the timer at
+     * @return The created timer
+     */
+    private static Timer createLatencyTimer(String stage, SimpleMeterRegistry registry) {
+        return Timer.builder("mbp.load_generator.latency")
+                .tag("stage", stage)
+                .publishPercentiles(PERCENTILES)
+                .distributionStatisticExpiry(Duration.ofDays(365))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+    }
+
+    /**
+     * Returns the percentiles and the maximum of the latencies that were recorded by a given timer.
+     *
+     * @param timer The timer
+     * @return The resulting map (percentile --> latency in milliseconds)
+     */
+    private static Map<String, Double> getPercentiles(Timer timer) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            percentiles.put("p" + (value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+        }
+        percentiles.put("max", timer.max(TimeUnit.MILLISECONDS));
+        return percentiles;
+    }
+}
@@ -0,0 +1,129 @@
+package de.ipvs.as.mbp.service.deployment.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model class describing the load that is supposed to be generated by the {@link LoadGenerator}. The load is
+ * generated by a number of virtual sensors, each of which sends values with a fixed base rate. Periodically, the rate
+ * may be increased by a burst factor for a certain duration in order to simulate bursts.
+ */
+public class LoadProfile {
+    //Path through which the values are passed to the MBP
+    private LoadGenerationMode mode = LoadGenerationMode.MQTT;
+
+    //IDs of the components whose data models are used by the virtual sensors (empty for all running components)
+    private List<String> componentIds = new ArrayList<>();
+
+    //Number of virtual sensors
+    private int virtualSensors = 1000;
+
+    //Number of values per second per virtual sensor
+    private double ratePerSensor = 1;
+
+    //Factor by which the rate is multiplied during bursts (1 for no bursts)
+    private double burstFactor = 1;
+
+    //Interval and duration of bursts in milliseconds
+    private long burstIntervalMillis = 60 * 1000;
+    private long burstDurationMillis = 5 * 1000;
+
+    //Duration of the load generation in seconds (0 for unlimited)
+    private long durationSeconds = 60;
+
+    //Time in seconds after which values that were not processed are considered as lost
+    private long timeoutSeconds = 30;
+
+    public LoadProfile() {
+
+    }
+
+    public LoadGenerationMode getMode() {
+        return mode;
+    }
+
+    public void setMode(LoadGenerationMode mode) {
+        this.mode = mode;
+    }
+
+    public List<String> getComponentIds() {
+        return componentIds;
+    }
+
+    public void setComponentIds(List<String> componentIds) {
+        this.componentIds = componentIds;
+    }
+
+    public int getVirtualSensors() {
+        return virtualSensors;
+    }
+
+    public void setVirtualSensors(int virtualSensors) {
+        this.virtualSensors = virtualSensors;
+    }
+
+    public double getRatePerSensor() {
+        return ratePerSensor;
+    }
+
+    public void setRatePerSensor(double ratePerSensor) {
+        this.ratePerSensor = ratePerSensor;
+    }
+
+    public double getBurstFactor() {
+        return burstFactor;
+    }
+
+    public void setBurstFactor(double burstFactor) {
+        this.burstFactor = burstFactor;
+    }
+
+    public long getBurstIntervalMillis() {
+        return burstIntervalMillis;
+    }
+
+    public void setBurstIntervalMillis(long burstIntervalMillis) {
+        this.burstIntervalMillis = burstIntervalMillis;
+    }
+
+    public long getBurstDurationMillis() {
+        return burstDurationMillis;
+    }
+
+    public void setBurstDurationMillis(long burstDurationMillis) {
+        this.burstDurationMillis = burstDurationMillis;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public long getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public void setTimeoutSeconds(long timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Returns the total number of values per second that are generated by all virtual sensors at a given point in
+     * time, taking bursts into account.
+     *
+     * @param elapsedMillis The number of milliseconds since the start of the load generation
+     * @return The resulting rate in values per second
+     */
+    public double getRateAt(long elapsedMillis) {
+        double rate = virtualSensors * ratePerSensor;
+
+        //Check whether the point in time lies within a burst
+        if ((burstFactor != 1) && (burstIntervalMillis > 0) && ((elapsedMillis % burstIntervalMillis) < burstDurationMillis)) {
+            rate *= burstFactor;
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,135 @@
+package de.ipvs.as.mbp.service.deployment.demo;
+
+import java.util.Map;
+
+/**
+ * Model class holding the report of a load generation run of the {@link LoadGenerator}. The latencies are measured
+ * from the publication or injection of a value until it was written to the database and until it was processed by
+ * the CEP engine, respectively. They are given as map (percentile --> latency in milliseconds).
+ */
+public class LoadReport {
+    private LoadProfile profile;
+    private boolean running;
+    private long elapsedMillis;
+    private long generated;
+    private long failed;
+    private long persisted;
+    private long processedByCEP;
+    private long lost;
+    private double generatedPerSecond;
+    private double persistedPerSecond;
+    private Map<String, Double> persistenceLatencyMillis;
+    private Map<String, Double> cepLatencyMillis;
+
+    public LoadReport() {
+
+    }
+
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    public LoadReport setProfile(LoadProfile profile) {
+        this.profile = profile;
+        return this;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public LoadReport setRunning(boolean running) {
+        this.running = running;
+        return this;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public LoadReport setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+        return this;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public LoadReport setGenerated(long generated) {
+        this.generated = generated;
+        return this;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public LoadReport setFailed(long failed) {
+        this.failed = failed;
+        return this;
+    }
+
+    public long getPersisted() {
+        return persisted;
+    }
+
+    public LoadReport setPersisted(long persisted) {
+        this.persisted = persisted;
+        return this;
+    }
+
+    public long getProcessedByCEP() {
+        return processedByCEP;
+    }
+
+    public LoadReport setProcessedByCEP(long processedByCEP) {
+        this.processedByCEP = processedByCEP;
+        return this;
+    }
+
+    public long getLost() {
+        return lost;
+    }
+
+    public LoadReport setLost(long lost) {
+        this.lost = lost;
+        return this;
+    }
+
+    public double getGeneratedPerSecond() {
+        return generatedPerSecond;
+    }
+
+    public LoadReport setGeneratedPerSecond(double generatedPerSecond) {
+        this.generatedPerSecond = generatedPerSecond;
+        return this;
+    }
+
+    public double getPersistedPerSecond() {
+        return persistedPerSecond;
+    }
+
+    public LoadReport setPersistedPerSecond(double persistedPerSecond) {
+        this.persistedPerSecond = persistedPerSecond;
+        return this;
+    }
+
+    public Map<String, Double> getPersistenceLatencyMillis() {
+        return persistenceLatencyMillis;
+    }
+
+    public LoadReport setPersistenceLatencyMillis(Map<String, Double> persistenceLatencyMillis) {
+        this.persistenceLatencyMillis = persistenceLatencyMillis;
+        return this;
+    }
+
+    public Map<String, Double> getCepLatencyMillis() {
+        return cepLatencyMillis;
+    }
+
+    public LoadReport setCepLatencyMillis(Map<String, Double> cepLatencyMillis) {
+        this.cepLatencyMillis = cepLatencyMillis;
+        return this;
+    }
+}
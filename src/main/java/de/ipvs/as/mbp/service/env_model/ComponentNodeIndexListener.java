@@ -0,0 +1,94 @@
+package de.ipvs.as.mbp.service.env_model;
+
+import de.ipvs.as.mbp.domain.component.Component;
+import de.ipvs.as.mbp.domain.env_model.EnvironmentModel;
+import de.ipvs.as.mbp.domain.operator.Operator;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Listener for the persistence events of environment models, components and operators that keeps the component
+ * node index of the {@link EnvironmentModelService} consistent with the database, regardless of whether the
+ * entities are changed via the REST interface of the models, the component and operator controllers or directly
+ * via their repositories.
+ */
+@org.springframework.stereotype.Component
+public class ComponentNodeIndexListener extends AbstractMongoEventListener<Object> {
+
+    @Autowired
+    private EnvironmentModelService environmentModelService;
+
+    /**
+     * Called after an entity was saved. Re-indexes the components of saved environment models and updates the
+     * units of indexed components whose operator was saved.
+     *
+     * @param event The save event
+     */
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object source = event.getSource();
+        if (source instanceof EnvironmentModel) {
+            environmentModelService.indexComponents((EnvironmentModel) source);
+        } else if (source instanceof Operator) {
+            environmentModelService.updateOperatorInIndex((Operator) source);
+        }
+    }
+
+    /**
+     * Called after one or multiple entities were deleted. Removes the components of deleted environment models
+     * as well as deleted components from the index.
+     *
+     * @param event The delete event
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        Class<?> type = event.getType();
+        boolean isModel = (type != null) && EnvironmentModel.class.isAssignableFrom(type);
+        boolean isComponent = (type != null) && Component.class.isAssignableFrom(type);
+        if (!isModel && !isComponent) {
+            return;
+        }
+
+        //Determine the IDs of the deleted entities from the query
+        Collection<?> ids = getDeletedIds(event.getSource());
+        if (ids == null) {
+            //Query does not refer to specific IDs (e.g. deleteAll), thus rebuild the index
+            environmentModelService.rebuildComponentNodeIndex();
+            return;
+        }
+
+        for (Object id : ids) {
+            if (isModel) {
+                environmentModelService.removeComponentsFromIndex(id.toString());
+            } else {
+                environmentModelService.removeComponentFromIndex(id.toString());
+            }
+        }
+    }
+
+    /**
+     * Extracts the IDs of the deleted documents from a given delete query, supporting queries for a single ID
+     * and for a list of IDs.
+     *
+     * @param query The delete query
+     * @return The IDs of the deleted documents or null, if the query does not refer to specific IDs
+     */
+    private Collection<?> getDeletedIds(Document query) {
+        Object id = (query == null) ? null : query.get("_id");
+        if (id == null) {
+            return null;
+        } else if (!(id instanceof Document)) {
+            return Collections.singletonList(id);
+        }
+
+        //Query for a list of IDs
+        Object ids = ((Document) id).get("$in");
+        return (ids instanceof Collection) ? (Collection<?>) ids : null;
+    }
+}
@@ -20,6 +20,7 @@ import de.ipvs.as.mbp.service.deployment.DeployerDispatcher;
 import de.ipvs.as.mbp.service.deployment.IDeployer;
 import de.ipvs.as.mbp.service.env_model.events.EnvironmentModelEventService;
 import de.ipvs.as.mbp.service.env_model.events.types.EntityStateEvent;
+import de.ipvs.as.mbp.service.env_model.values.ComponentNodeReference;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -29,10 +30,12 @@ import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for tasks related to environment models.
@@ -91,6 +94,115 @@ public class EnvironmentModelService {
     private static final String MODEL_NODE_TYPE_ACTUATOR = "actuator";
     private static final String MODEL_NODE_TYPE_SENSOR = "sensor";
 
+    //Index of registered components (component id -> node reference)
+    private final Map<String, ComponentNodeReference> componentNodeIndex = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the component node index from the entities of all environment models that are stored in the database.
+     */
+    @PostConstruct
+    private void initComponentNodeIndex() {
+        for (EnvironmentModel model : environmentModelRepository.findAll()) {
+            indexComponents(model);
+        }
+    }
+
+    /**
+     * Returns the reference to the environment model node for a given component ID, as registered by
+     * an environment model. No database access is involved.
+     *
+     * @param componentId The ID of the component
+     * @return The node reference or null, if the component is not registered by any environment model
+     */
+    public ComponentNodeReference getComponentNode(String componentId) {
+        //Sanity check
+        if (componentId == null) {
+            return null;
+        }
+        return componentNodeIndex.get(componentId);
+    }
+
+    /**
+     * Updates the component node index for a given environment model, such that it reflects the
+     * currently registered entities of the model. Needs to be called whenever the entity map of
+     * a model was changed.
+     *
+     * @param model The environment model to index
+     */
+    public void indexComponents(EnvironmentModel model) {
+        //Sanity check
+        if ((model == null) || (model.getId() == null)) {
+            return;
+        }
+
+        //Remove old entries of the model
+        removeComponentsFromIndex(model.getId());
+
+        //Get all registered entities of the model
+        Map<String, UserEntity> entityMap = model.getEntityMap();
+        if (entityMap == null) {
+            return;
+        }
+
+        //Add all components to the index
+        for (Map.Entry<String, UserEntity> entry : entityMap.entrySet()) {
+            //Skip entities that are no components
+            if (!(entry.getValue() instanceof Component)) {
+                continue;
+            }
+            Component component = (Component) entry.getValue();
+
+            //Get adapter ID and unit
+            Operator operator = component.getOperator();
+            String operatorId = (operator == null) ? null : operator.getId();
+            String unit = (operator == null) ? null : operator.getUnit();
+
+            componentNodeIndex.put(component.getId(), new ComponentNodeReference(model.getId(), entry.getKey(), operatorId, unit));
+        }
+    }
+
+    /**
+     * Removes all components of the environment model with a given ID from the component node index.
+     *
+     * @param modelId The ID of the environment model
+     */
+    public void removeComponentsFromIndex(String modelId) {
+        componentNodeIndex.values().removeIf(reference -> reference.getModelId().equals(modelId));
+    }
+
+    /**
+     * Removes the component with a given ID from the component node index, e.g. after the component was deleted.
+     *
+     * @param componentId The ID of the component
+     */
+    public void removeComponentFromIndex(String componentId) {
+        componentNodeIndex.remove(componentId);
+    }
+
+    /**
+     * Updates the unit of all components in the component node index that use a given operator, such that
+     * changes of the operator become effective for the forwarded values.
+     *
+     * @param operator The changed operator
+     */
+    public void updateOperatorInIndex(Operator operator) {
+        //Sanity check
+        if ((operator == null) || (operator.getId() == null)) {
+            return;
+        }
+
+        componentNodeIndex.replaceAll((componentId, reference) -> operator.getId().equals(reference.getOperatorId()) ?
+                new ComponentNodeReference(reference.getModelId(), reference.getNodeId(), operator.getId(), operator.getUnit()) : reference);
+    }
+
+    /**
+     * Rebuilds the component node index from scratch, e.g. after several models or components were deleted at once.
+     */
+    public void rebuildComponentNodeIndex() {
+        componentNodeIndex.clear();
+        initComponentNodeIndex();
+    }
+
     /**
      * Returns a map (node id -> entity state) holding the states for all registered entities of a given
      * environment model.
@@ -165,6 +277,9 @@ public class EnvironmentModelService {
         //Get entities that are associated with the model
         Map<String, UserEntity> entities = model.getEntityMap();
 
+        //Components are not available anymore
+        removeComponentsFromIndex(model.getId());
+
         //Santiy check
         if ((entities == null) || entities.isEmpty()) {
             return;
@@ -1,39 +1,90 @@
 package de.ipvs.as.mbp.service.env_model.events;
 
 import de.ipvs.as.mbp.service.env_model.events.types.EnvironmentModelEvent;
+import de.ipvs.as.mbp.service.sse.BufferedSseSubscriber;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service which allows to subscribe to environment models in order to get notified in case certain events occur. On
  * subscription, a server-sent events emitter is returned which will then emit the events (notifications) related
- * to the subscribed model.
+ * to the subscribed model. Published events are buffered in a bounded outbox per subscriber, which is flushed by
+ * one writer task per subscriber once per frame interval. Value events of the same node are coalesced within a
+ * frame, such that only the latest value is sent. The events are sent by a separate sender pool, such that
+ * stalled subscribers do not delay the others, and subscribers that cannot keep up or exceed the send timeout
+ * are dropped.
  */
 @Service
 public class EnvironmentModelEventService {
     //Time after which the emitter times out
     private static final Long EMITTER_TIMEOUT = 30 * 60 * 1000L;
 
-    private static long EVENT_ID_COUNTER = 0L;
+    private static final AtomicLong EVENT_ID_COUNTER = new AtomicLong();
 
-    //Tread pool for asynchronous processing
-    private static final ExecutorService threadPool = Executors.newCachedThreadPool();
+    //Interval in which the outboxes of the subscribers are flushed
+    @Value("${mbp.env_model.events.frame_interval_ms:100}")
+    private long frameInterval;
+
+    //Maximum number of pending events per subscriber before the subscriber is dropped
+    @Value("${mbp.env_model.events.max_pending_events:1000}")
+    private int maxPendingEvents;
+
+    //Number of threads that execute the writer tasks of the subscribers
+    @Value("${mbp.env_model.events.writer_threads:2}")
+    private int writerThreads;
+
+    //Time after which a subscriber that does not accept sent events is dropped
+    @Value("${mbp.env_model.events.send_timeout_ms:5000}")
+    private long sendTimeout;
+
+    //Thread pool for the writer tasks
+    private ScheduledExecutorService writerPool;
+
+    //Thread pool for sending the events to the subscribers
+    private ExecutorService senderPool;
 
     //Subscription map (model id -> set of subscribers)
-    private final Map<String, Set<SseEmitter>> subscriptions;
+    private final Map<String, Set<BufferedSseSubscriber>> subscriptions;
 
     /**
      * Initializes the environment model event service.
      */
     public EnvironmentModelEventService() {
-        subscriptions = new HashMap<>();
+        subscriptions = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates the thread pools for the writer tasks and for sending the events.
+     */
+    @PostConstruct
+    private void initialize() {
+        writerPool = Executors.newScheduledThreadPool(writerThreads);
+        senderPool = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "mbp-env-model-events-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops all writer tasks.
+     */
+    @PreDestroy
+    private void shutdown() {
+        writerPool.shutdownNow();
+        senderPool.shutdownNow();
     }
 
     /**
@@ -48,26 +99,32 @@ public class EnvironmentModelEventService {
             throw new IllegalArgumentException("Model ID must not be null or empty.");
         }
 
-        //Create new emitter
-        SseEmitter emitter = createEmitter(modelId);
-
-        //Check if somebody already subscribed to this model
-        if (subscriptions.containsKey(modelId)) {
-            //Get set of subscribers and add emitter to set
-            Set<SseEmitter> subscriberSet = subscriptions.get(modelId);
-            subscriberSet.add(emitter);
-        } else {
-            //Add model with new set to subscription map
-            Set<SseEmitter> subscriberSet = new HashSet<>();
-            subscriberSet.add(emitter);
-            subscriptions.put(modelId, subscriberSet);
-        }
+        //Create new emitter and wrap it as subscriber
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT);
+        BufferedSseSubscriber subscriber = new BufferedSseSubscriber(emitter, maxPendingEvents, senderPool, sendTimeout);
+
+        //Unsubscribe on timeout, error or completion
+        Runnable unsubscribe = () -> this.unsubscribe(modelId, subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        //Add subscriber to the set of subscribers of the model
+        subscriptions.compute(modelId, (id, subscribers) -> {
+            Set<BufferedSseSubscriber> subscriberSet = (subscribers == null) ? ConcurrentHashMap.newKeySet() : subscribers;
+            subscriberSet.add(subscriber);
+            return subscriberSet;
+        });
+
+        //Start the writer task of the subscriber
+        subscriber.setWriterTask(writerPool.scheduleWithFixedDelay(subscriber::flush, frameInterval, frameInterval, TimeUnit.MILLISECONDS));
 
         return emitter;
     }
 
     /**
-     * Publishes a given event to all subscribers of a certain environment model.
+     * Publishes a given event to all subscribers of a certain environment model. The event is added to the
+     * outboxes of the subscribers and sent with the next flush.
      *
      * @param modelId The ID of the environment model
      * @param event   The event to publish
@@ -78,78 +135,55 @@ public class EnvironmentModelEventService {
             throw new IllegalArgumentException("Model ID must not be null or empty.");
         }
 
+        //Get set of subscribers for this model
+        Set<BufferedSseSubscriber> subscribers = subscriptions.get(modelId);
+
         //Check if somebody subscribed to the model
-        if (!subscriptions.containsKey(modelId)) {
+        if ((subscribers == null) || subscribers.isEmpty()) {
             return;
         }
 
-        //Get set of subscribers for this model
-        Set<SseEmitter> subscribers = subscriptions.get(modelId);
-
         //Wrap given event as SSE event
+        String eventId = generateEventID();
         SseEmitter.SseEventBuilder sseEvent = SseEmitter.event()
-                .id(generateEventID())
+                .id(eventId)
                 .data(event.toString())
                 .name(event.getName());
 
-        //Iterate over all subscribed emitters and publish the event
-        for (SseEmitter subscriber : subscribers) {
-            threadPool.execute(() -> {
-                try {
-                    subscriber.send(sseEvent);
-                } catch (Exception e) {
-                    //Complete emitter, leading to unsubscription
-                    subscriber.completeWithError(e);
-                }
-            });
-        }
-    }
-
-    /**
-     * Unsubscribes an emitter from a model.
-     *
-     * @param modelId The ID of the model to unsubscribe from
-     * @param emitter The emitter to unsubscribe
-     */
-    private void unsubscribe(String modelId, SseEmitter emitter) {
-        //Sanity checks
-        if ((modelId == null) || (modelId.isEmpty())) {
-            throw new IllegalArgumentException("Model ID must not be null or empty.");
-        } else if (emitter == null) {
-            throw new IllegalArgumentException("Emitter must not be null.");
+        //Events without coalescing key must not replace other events
+        Object key = event.getCoalescingKey();
+        if (key == null) {
+            key = eventId;
         }
 
-        //Ckeck if somebody subscribed to the model
-        if (!subscriptions.containsKey(modelId)) {
-            return;
+        //Add the event to the outboxes of all subscribers
+        for (BufferedSseSubscriber subscriber : subscribers) {
+            subscriber.offer(key, sseEvent);
         }
-
-        //Remove emitter from subscription set
-        subscriptions.get(modelId).remove(emitter);
     }
 
     /**
-     * Creates, configures and returns a new SSE emitter object for a certain model.
+     * Unsubscribes a subscriber from a model.
      *
-     * @param modelId The ID of the model to create the emitter for
-     * @return The ready SSE emitter object
+     * @param modelId    The ID of the model to unsubscribe from
+     * @param subscriber The subscriber to unsubscribe
      */
-    private SseEmitter createEmitter(String modelId) {
-        //Sanity check
+    private void unsubscribe(String modelId, BufferedSseSubscriber subscriber) {
+        //Sanity checks
         if ((modelId == null) || (modelId.isEmpty())) {
             throw new IllegalArgumentException("Model ID must not be null or empty.");
+        } else if (subscriber == null) {
+            throw new IllegalArgumentException("Subscriber must not be null.");
         }
 
-        //Create new emitter with timeout
-        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT);
+        //Stop the writer task of the subscriber
+        subscriber.cancelWriterTask();
 
-        //Unsubscribe on timeout or completion
-        Runnable unsubscribe = () -> this.unsubscribe(modelId, emitter);
-        emitter.onCompletion(unsubscribe);
-        emitter.onTimeout(unsubscribe);
-
-        //Return configured emitter
-        return emitter;
+        //Remove subscriber from subscription set and drop the set if it became empty
+        subscriptions.computeIfPresent(modelId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
     }
 
     /**
@@ -159,12 +193,6 @@ public class EnvironmentModelEventService {
      */
     private String generateEventID() {
         //Get next event ID and convert to string
-        String eventID = Long.toString(EVENT_ID_COUNTER);
-
-        //Increase counter
-        EVENT_ID_COUNTER++;
-
-        //Return generated ID
-        return eventID;
+        return Long.toString(EVENT_ID_COUNTER.getAndIncrement());
     }
 }
@@ -1,5 +1,6 @@
 package de.ipvs.as.mbp.service.env_model.events.types;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.bson.Document;
 
 public class ComponentValueEvent extends EnvironmentModelEvent {
@@ -27,6 +28,17 @@ public class ComponentValueEvent extends EnvironmentModelEvent {
         return EVENT_NAME;
     }
 
+    /**
+     * Returns the key by which value events are coalesced, such that only the latest value per node is delivered.
+     *
+     * @return The coalescing key
+     */
+    @Override
+    @JsonIgnore
+    public Object getCoalescingKey() {
+        return EVENT_NAME + ":" + nodeId;
+    }
+
     public String getNodeId() {
         return nodeId;
     }
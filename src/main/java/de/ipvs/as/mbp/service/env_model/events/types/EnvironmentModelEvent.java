@@ -1,5 +1,6 @@
 package de.ipvs.as.mbp.service.env_model.events.types;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -14,6 +15,17 @@ public abstract class EnvironmentModelEvent {
      */
     public abstract String getName();
 
+    /**
+     * Returns the key by which the event may be coalesced with other events of the same model, such that only
+     * the latest of these events needs to be delivered to subscribers. Events without key are never coalesced.
+     *
+     * @return The coalescing key or null, if the event must not be coalesced
+     */
+    @JsonIgnore
+    public Object getCoalescingKey() {
+        return null;
+    }
+
     /**
      * Transforms the event to a JSON string and returns it.
      *
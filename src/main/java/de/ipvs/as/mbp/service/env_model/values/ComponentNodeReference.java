@@ -0,0 +1,71 @@
+package de.ipvs.as.mbp.service.env_model.values;
+
+/**
+ * Immutable reference from a registered component to the node of the environment model that represents it,
+ * together with the ID and unit of the component's operator. Used for forwarding incoming values to the
+ * subscribers of the environment model without accessing the database.
+ */
+public class ComponentNodeReference {
+    //ID of the environment model
+    private final String modelId;
+
+    //ID of the node within the environment model
+    private final String nodeId;
+
+    //ID of the operator of the component
+    private final String operatorId;
+
+    //Unit of the operator of the component
+    private final String unit;
+
+    /**
+     * Creates a new component node reference.
+     *
+     * @param modelId    The ID of the environment model
+     * @param nodeId     The ID of the node within the environment model
+     * @param operatorId The ID of the operator of the component
+     * @param unit       The unit of the operator of the component
+     */
+    public ComponentNodeReference(String modelId, String nodeId, String operatorId, String unit) {
+        this.modelId = modelId;
+        this.nodeId = nodeId;
+        this.operatorId = operatorId;
+        this.unit = unit;
+    }
+
+    /**
+     * Returns the ID of the environment model.
+     *
+     * @return The model ID
+     */
+    public String getModelId() {
+        return modelId;
+    }
+
+    /**
+     * Returns the ID of the node within the environment model.
+     *
+     * @return The node ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Returns the ID of the operator of the component.
+     *
+     * @return The operator ID
+     */
+    public String getOperatorId() {
+        return operatorId;
+    }
+
+    /**
+     * Returns the unit of the operator of the component.
+     *
+     * @return The unit
+     */
+    public String getUnit() {
+        return unit;
+    }
+}
@@ -1,27 +1,18 @@
 package de.ipvs.as.mbp.service.env_model.values;
 
-import de.ipvs.as.mbp.domain.component.Component;
-import de.ipvs.as.mbp.domain.env_model.EnvironmentModel;
-import de.ipvs.as.mbp.domain.user_entity.UserEntity;
 import de.ipvs.as.mbp.domain.valueLog.ValueLog;
-import de.ipvs.as.mbp.repository.ActuatorRepository;
-import de.ipvs.as.mbp.repository.SensorRepository;
+import de.ipvs.as.mbp.service.env_model.EnvironmentModelService;
 import de.ipvs.as.mbp.service.receiver.ValueLogReceiver;
 import de.ipvs.as.mbp.service.receiver.ValueLogObserver;
 import de.ipvs.as.mbp.service.env_model.events.EnvironmentModelEventService;
 import de.ipvs.as.mbp.service.env_model.events.types.ComponentValueEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import java.util.Map;
-
 @org.springframework.stereotype.Component
 public class EnvironmentModelValueReceiver implements ValueLogObserver {
 
     @Autowired
-    private ActuatorRepository actuatorRepository;
-
-    @Autowired
-    private SensorRepository sensorRepository;
+    private EnvironmentModelService environmentModelService;
 
     @Autowired
     private EnvironmentModelEventService eventService;
@@ -39,7 +30,8 @@ public class EnvironmentModelValueReceiver implements ValueLogObserver {
 
     /**
      * Called in case a new value message arrives at the ValueLogReceiver. The transformed message is passed
-     * as value log.
+     * as value log. The environment model node of the component is looked up in the component node index
+     * of the environment model service, such that no database access is required.
      *
      * @param valueLog The corresponding value log that arrived
      */
@@ -50,54 +42,18 @@ public class EnvironmentModelValueReceiver implements ValueLogObserver {
             return;
         }
 
-        //Get component type
-        String componentType = valueLog.getComponent().toLowerCase();
-
-        //Get component from repository
-        Component component = null;
-        if (componentType.equals("actuator")) {
-            component = actuatorRepository.findById(valueLog.getIdref()).get();
-        } else if (componentType.equals("sensor")) {
-            component = sensorRepository.findById(valueLog.getIdref()).get();
-        }
-
-        //Check if component could be found
-        if (component == null) {
-            return;
-        }
-
-        //Get environment model of the component
-        EnvironmentModel model = component.getEnvironmentModel();
+        //Find node of the component
+        ComponentNodeReference node = environmentModelService.getComponentNode(valueLog.getIdref());
 
         //Check if component is part of an environment model
-        if (model == null) {
-            return;
-        }
-
-        //Get all entities of the model
-        Map<String, UserEntity> entityMap = model.getEntityMap();
-
-        //Find node id of the component
-        String nodeId = null;
-        for (String currentNodeId : entityMap.keySet()) {
-            if (entityMap.get(currentNodeId).equals(component)) {
-                nodeId = currentNodeId;
-                break;
-            }
-        }
-
-        //Check if id could be found
-        if ((nodeId == null) || nodeId.isEmpty()) {
+        if ((node == null) || (node.getNodeId() == null) || node.getNodeId().isEmpty()) {
             return;
         }
 
-        //Get adapter unit
-        String adapterUnit = component.getOperator().getUnit();
-
         //Create corresponding event
-        ComponentValueEvent event = new ComponentValueEvent(nodeId, adapterUnit, valueLog.getValue());
+        ComponentValueEvent event = new ComponentValueEvent(node.getNodeId(), node.getUnit(), valueLog.getValue());
 
         //Publish event to all subscribers of the model
-        eventService.publishEvent(model.getId(), event);
+        eventService.publishEvent(node.getModelId(), event);
     }
 }
@@ -8,6 +8,9 @@ import de.ipvs.as.mbp.service.receiver.ValueLogReceiver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Service that registers itself as observer at the ValueLogReceiver and writes all arrived value logs
  * into the InfluxDB time series database.
@@ -21,6 +24,9 @@ public class ValueLogWriter implements ValueLogObserver {
     //Cache for value logs
     private CEPValueLogCache cepValueLogCache;
 
+    //Observers that want to be notified about value logs after they were written
+    private final List<ValueLogObserver> writeObservers = new CopyOnWriteArrayList<>();
+
     /**
      * Creates and starts the service by passing references to a {@link ValueLogReceiver} service, the
      * {@link ValueLogRepository} that is supposed to be used for storing the received value logs in and
@@ -57,5 +63,31 @@ public class ValueLogWriter implements ValueLogObserver {
         valueLogRepository.write(valueLog);
         // Remove the value log from the CEPValueLogCache as it should be now written to the database
         cepValueLogCache.removeValueLog(valueLog);
+
+        //Notify observers about the written value log
+        writeObservers.forEach(o -> o.onValueReceived(valueLog));
+    }
+
+    /**
+     * Registers an observer that is notified about value logs after they were written into the repository.
+     *
+     * @param observer The observer to register
+     */
+    public void registerWriteObserver(ValueLogObserver observer) {
+        //Sanity check
+        if (observer == null) {
+            throw new IllegalArgumentException("Observer must not be null.");
+        }
+
+        writeObservers.add(observer);
+    }
+
+    /**
+     * Unregisters an observer that was notified about value logs after they were written into the repository.
+     *
+     * @param observer The observer to unregister
+     */
+    public void unregisterWriteObserver(ValueLogObserver observer) {
+        writeObservers.remove(observer);
     }
 }
\ No newline at end of file
@@ -4,6 +4,9 @@ import de.ipvs.as.mbp.service.messaging.handler.PubSubConnectionLossHandler;
 import de.ipvs.as.mbp.service.messaging.handler.PubSubExceptionHandler;
 import de.ipvs.as.mbp.service.messaging.handler.PubSubMessageHandler;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Collection of technology-agnostic interfaces that a publish-subscribe middleware client must implement
  * in order to be usable within the MBP. The purpose of this interface is to abstract from concrete
@@ -60,6 +63,42 @@ public interface PubSubClient {
      */
     void publish(String topic, String message);
 
+    /**
+     * Publishes a given string message under a given topic at the publish-subscribe messaging broker without
+     * waiting for the completion of the publication. The returned future completes as soon as the publication
+     * is completed according to the QoS level that is used for the topic. The default implementation delegates
+     * to the blocking {@link #publish(String, String)} method.
+     *
+     * @param topic   The topic under which the message is supposed to be published
+     * @param message The message to publish
+     * @return The future that completes when the publication is completed
+     */
+    default CompletableFuture<Void> publishAsync(String topic, String message) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            publish(topic, message);
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Publishes a given string message under several given topics at the publish-subscribe messaging broker without
+     * waiting for the completion of the publications. The returned future completes as soon as all publications
+     * are completed. The default implementation publishes the message under each topic individually.
+     *
+     * @param topics  The topics under which the message is supposed to be published
+     * @param message The message to publish
+     * @return The future that completes when all publications are completed
+     */
+    default CompletableFuture<Void> publishAsync(Collection<String> topics, String message) {
+        return CompletableFuture.allOf(topics.stream()
+                .map(t -> publishAsync(t, message))
+                .toArray(CompletableFuture[]::new));
+    }
+
     /**
      * Registers a subscription for a given topic filter at the publish-subscribe messaging broker, such that
      * the client will be notified about future messages that are published at the broker under a topic that matches
@@ -112,4 +151,16 @@ public interface PubSubClient {
      * @return True, if the topic matches the topic filter; false otherwise
      */
     boolean topicMatchesFilter(String topic, String topicFilter);
+
+    /**
+     * Returns the topic filter that needs to be subscribed in order to join a shared subscription of a given group
+     * for a given topic filter. The broker distributes the messages that match the topic filter among all clients
+     * that subscribed with the same group name, instead of delivering each message to all of them. Messages that
+     * are received for the resulting topic filter still carry their original topic.
+     *
+     * @param groupName   The name of the shared subscription group
+     * @param topicFilter The topic filter to share
+     * @return The resulting topic filter of the shared subscription
+     */
+    String getSharedTopicFilter(String groupName, String topicFilter);
 }
@@ -3,10 +3,12 @@ package de.ipvs.as.mbp.service.messaging;
 import de.ipvs.as.mbp.domain.settings.BrokerLocation;
 import de.ipvs.as.mbp.domain.settings.Settings;
 import de.ipvs.as.mbp.domain.user.User;
+import de.ipvs.as.mbp.service.messaging.dispatcher.IngestAdmissionControl;
 import de.ipvs.as.mbp.service.messaging.dispatcher.MessageDispatcher;
 import de.ipvs.as.mbp.service.messaging.dispatcher.listener.DomainMessageListener;
 import de.ipvs.as.mbp.service.messaging.dispatcher.listener.JSONMessageListener;
 import de.ipvs.as.mbp.service.messaging.dispatcher.listener.MessageListener;
+import de.ipvs.as.mbp.service.messaging.dispatcher.listener.RawMessageListener;
 import de.ipvs.as.mbp.service.messaging.dispatcher.listener.StringMessageListener;
 import de.ipvs.as.mbp.service.messaging.message.DomainMessage;
 import de.ipvs.as.mbp.service.messaging.message.types.RequestMessage;
@@ -14,6 +16,7 @@ import de.ipvs.as.mbp.service.messaging.scatter_gather.ScatterGatherRequestBuild
 import de.ipvs.as.mbp.service.messaging.topics.ReturnTopicGenerator;
 import de.ipvs.as.mbp.service.settings.SettingsService;
 import de.ipvs.as.mbp.util.Json;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,11 +32,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This service offers technology-agnostic messaging functions for interacting with a messaging client that connects
@@ -46,6 +53,9 @@ public class PubSubService {
     //Delay between re-connect attempts
     private static final int RECONNECT_DELAY = 10 * 1000;
 
+    //Logger
+    private static final Logger LOGGER = Logger.getLogger(PubSubService.class.getName());
+
     //Auto-wired components
     private final PubSubClient pubSubClient;
     private final ReturnTopicGenerator returnTopicGenerator;
@@ -54,6 +64,9 @@ public class PubSubService {
     //Dispatcher for incoming messages
     private final MessageDispatcher messageDispatcher;
 
+    //Admission control for incoming messages, null if messages are dispatched inline
+    private final IngestAdmissionControl admissionControl;
+
     //Thread pool for re-connects on connection los
     private final ScheduledExecutorService threadPool = Executors.newSingleThreadScheduledExecutor();
 
@@ -92,20 +105,44 @@ public class PubSubService {
      * @param pubSubClient         The messaging client to use (auto-wired)
      * @param returnTopicGenerator The return topic generator to use (auto-wired)
      * @param settingsService      The settings service (auto-wired)
+     * @param meterRegistry        The registry for metrics (auto-wired)
+     * @param admissionEnabled     Whether incoming messages are supposed to pass the admission control
+     * @param controlCapacity      The number of queued control messages beyond which they count as overflow
+     * @param telemetryCapacity    The maximum number of queued telemetry messages
+     * @param telemetryPolicy      The policy for telemetry messages when the telemetry queue is full
+     * @param blockTimeout         The maximum time in milliseconds that telemetry messages wait for space in the queue
+     * @param sampleRate           Every n-th overflowing telemetry message is admitted when sampling
+     * @param admissionWorkers     The number of threads passing admitted messages to the dispatcher
      */
     @Autowired
-    public PubSubService(PubSubClient pubSubClient, ReturnTopicGenerator returnTopicGenerator, SettingsService settingsService) {
+    public PubSubService(PubSubClient pubSubClient, ReturnTopicGenerator returnTopicGenerator, SettingsService settingsService,
+                         MeterRegistry meterRegistry,
+                         @Value("${mbp.ingest.admission.enabled:false}") boolean admissionEnabled,
+                         @Value("${mbp.ingest.admission.control_capacity:10000}") int controlCapacity,
+                         @Value("${mbp.ingest.admission.telemetry_capacity:50000}") int telemetryCapacity,
+                         @Value("${mbp.ingest.admission.telemetry_policy:block}") String telemetryPolicy,
+                         @Value("${mbp.ingest.admission.block_timeout_ms:1000}") long blockTimeout,
+                         @Value("${mbp.ingest.admission.sample_rate:10}") int sampleRate,
+                         @Value("${mbp.ingest.admission.workers:1}") int admissionWorkers) {
         //Store references to components
         this.pubSubClient = pubSubClient;
         this.returnTopicGenerator = returnTopicGenerator;
         this.settingsService = settingsService;
 
         //Initialize sub-components and data structures
-        this.messageDispatcher = new MessageDispatcher(pubSubClient);
+        this.messageDispatcher = new MessageDispatcher(pubSubClient, meterRegistry);
         this.subscribedTopicFilters = new HashSet<>();
 
-        //Set a message handler that delegates incoming messages to the dispatcher
-        pubSubClient.setMessageHandler(messageDispatcher::dispatchMessage);
+        //Set a message handler that delegates incoming messages to the dispatcher, possibly via admission control
+        if (admissionEnabled) {
+            this.admissionControl = new IngestAdmissionControl(messageDispatcher::dispatchMessage, controlCapacity,
+                    telemetryCapacity, IngestAdmissionControl.OverflowPolicy.fromName(telemetryPolicy), blockTimeout,
+                    sampleRate, admissionWorkers, meterRegistry);
+            pubSubClient.setMessageHandler(admissionControl);
+        } else {
+            this.admissionControl = null;
+            pubSubClient.setMessageHandler(messageDispatcher::dispatchMessage);
+        }
 
         //Provide the responsible method of this service as connection loss handler
         pubSubClient.setConnectionLossHandler(this::handleConnectionLoss);
@@ -114,6 +151,15 @@ public class PubSubService {
         connectClient();
     }
 
+    /**
+     * Stops the admission control for incoming messages, if enabled.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (admissionControl != null) {
+            admissionControl.shutdown();
+        }
+    }
 
     /**
      * Publishes a message, given as string, under a given topic at the messaging broker.
@@ -126,6 +172,19 @@ public class PubSubService {
         pubSubClient.publish(topic, message);
     }
 
+    /**
+     * Publishes a message, given as string, under a given topic at the messaging broker without waiting for the
+     * completion of the publication.
+     *
+     * @param topic   The topic under which the string message is supposed to be published
+     * @param message The message to publish
+     * @return The future that completes when the publication is completed
+     */
+    public CompletableFuture<Void> publishAsync(String topic, String message) {
+        //Publish message via the client
+        return pubSubClient.publishAsync(topic, message);
+    }
+
     /**
      * Publishes a message, given as JSON object, under a given topic at the messaging broker.
      *
@@ -156,14 +215,34 @@ public class PubSubService {
     }
 
     /**
-     * Publishes a message, given as string, under several given topics at the messaging broker.
+     * Publishes a message, given as string, under several given topics at the messaging broker. The publications
+     * are sent as batch. The method does not wait for their completion, since it may be called by message
+     * listeners on the thread of the messaging client, which also completes the publications. Failed publications
+     * are logged.
      *
      * @param topics  Collection of topics under which the string message is supposed to be published
      * @param message The message to publish
      */
     public void publish(Collection<String> topics, String message) {
-        //Publish the message under each provided topic individually
-        topics.forEach(t -> publish(t, message));
+        //Publish the message under all provided topics as batch and log failures on completion
+        publishAsync(topics, message).whenComplete((v, e) -> {
+            if (e != null) {
+                LOGGER.log(Level.WARNING, "Failed to publish message under " + topics.size() + " topics.", e);
+            }
+        });
+    }
+
+    /**
+     * Publishes a message, given as string, under several given topics at the messaging broker without waiting for
+     * the completion of the publications.
+     *
+     * @param topics  Collection of topics under which the string message is supposed to be published
+     * @param message The message to publish
+     * @return The future that completes when all publications are completed
+     */
+    public CompletableFuture<Void> publishAsync(Collection<String> topics, String message) {
+        //Publish the message under all provided topics as batch via the client
+        return pubSubClient.publishAsync(topics, message);
     }
 
     /**
@@ -209,6 +288,21 @@ public class PubSubService {
         this.messageDispatcher.subscribe(topicFilter, listener);
     }
 
+    /**
+     * Subscribes a given raw message listener to a given topic filter at the messaging broker, such that the listener
+     * is notified when a message is published at the broker under a topic that matches the topic filter.
+     *
+     * @param topicFilter The topic filter to subscribe to
+     * @param listener    The listener to call in case a matching message is published at the broker
+     */
+    public void subscribeRaw(String topicFilter, RawMessageListener listener) {
+        //Add subscription
+        addSubscription(topicFilter);
+
+        //Create corresponding subscription at the dispatcher
+        this.messageDispatcher.subscribeRaw(topicFilter, listener);
+    }
+
     /**
      * Subscribes a given JSON message listener to a given topic filter at the messaging broker, such that the listener
      * is notified when a message is published at the broker under a topic that matches the topic filter.
@@ -252,6 +346,33 @@ public class PubSubService {
         topicFilters.forEach(t -> subscribe(t, listener));
     }
 
+    /**
+     * Subscribes a given raw message listener to several given topic filters at the messaging broker, such that the
+     * listener is notified when a message is published at the broker under a topic that matches at least one
+     * of the topic filters.
+     *
+     * @param topicFilters The topic filters to subscribe to
+     * @param listener     The listener to call in case a matching message is published at the broker
+     */
+    public void subscribeRaw(List<String> topicFilters, RawMessageListener listener) {
+        //Create one subscription for each topic filter
+        topicFilters.forEach(t -> subscribeRaw(t, listener));
+    }
+
+    /**
+     * Subscribes a given raw message listener to several given topic filters as member of a shared subscription group
+     * at the messaging broker. The broker distributes the messages that match the topic filters among all
+     * subscribers of the group, such that each message is only passed to the listener of one of them.
+     *
+     * @param groupName    The name of the shared subscription group
+     * @param topicFilters The topic filters to subscribe to
+     * @param listener     The listener to call in case a matching message is published at the broker
+     */
+    public void subscribeRawShared(String groupName, List<String> topicFilters, RawMessageListener listener) {
+        //Create one shared subscription for each topic filter
+        topicFilters.forEach(t -> subscribeRaw(pubSubClient.getSharedTopicFilter(groupName, t), listener));
+    }
+
     /**
      * Subscribes a given JSON message listener to several given topic filters at the messaging broker, such that the
      * listener is notified when a message is published at the broker under a topic that matches at least one
@@ -0,0 +1,420 @@
+package de.ipvs.as.mbp.service.messaging.dispatcher;
+
+import de.ipvs.as.mbp.service.messaging.handler.PubSubMessageHandler;
+import de.ipvs.as.mbp.service.metrics.PipelineStageTimer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Admission control for messages that arrive at the publish-subscribe-based messaging client. Instead of handling
+ * the messages inline on the thread of the client, they are classified by their topics and added to the queues of
+ * their traffic class, from which dedicated worker threads pass them to the actual message handler. Control
+ * messages (e.g. replies on return topics, actuator and device messages) are always handled before telemetry, such
+ * that they remain responsive when telemetry bursts, for example after a reconnect to the broker. Control messages
+ * are never shed; when their queue is full, they are admitted nevertheless and counted as overflow. When the
+ * telemetry queue is full, arriving telemetry messages are treated according to a configurable
+ * {@link OverflowPolicy}. The thread of the messaging client is never blocked, since it must keep serving the
+ * connection to the broker. All messages that are shed are counted per traffic class and reason.
+ */
+public class IngestAdmissionControl implements PubSubMessageHandler {
+    //Logger for failures of message handling
+    private static final Logger LOGGER = Logger.getLogger(IngestAdmissionControl.class.getName());
+
+    //Topic prefixes of telemetry messages
+    private static final List<String> TELEMETRY_TOPIC_PREFIXES = Arrays.asList("sensor/", "monitoring/", "dynamic/");
+
+    //Prefix of the topics under which value log messages are forwarded between instances
+    private static final String FORWARD_TOPIC_PREFIX = "mbp/ingest/";
+
+    //Reasons for shedding messages
+    private static final String REASON_TIMEOUT = "timeout";
+    private static final String REASON_DROPPED_OLDEST = "dropped_oldest";
+    private static final String REASON_SAMPLED = "sampled";
+
+    //Timeout in milliseconds for finishing the worker thread on shutdown
+    private static final long SHUTDOWN_TIMEOUT = 5000;
+
+    /**
+     * Traffic classes of arriving messages, in the order of their priority.
+     */
+    public enum TrafficClass {
+        CONTROL, TELEMETRY
+    }
+
+    /**
+     * Policies for treating arriving telemetry messages when the telemetry queue is full.
+     */
+    public enum OverflowPolicy {
+        //Let the message wait for space in the queue, in the order of arrival, until the block timeout expires
+        BLOCK,
+        //Discard the oldest queued message in favour of the arriving message
+        DROP_OLDEST,
+        //Admit only every n-th arriving message in place of the oldest queued message and discard the others
+        SAMPLE;
+
+        /**
+         * Returns the overflow policy that corresponds to a given name, ignoring the case.
+         *
+         * @param name The name of the policy
+         * @return The corresponding overflow policy
+         */
+        public static OverflowPolicy fromName(String name) {
+            return OverflowPolicy.valueOf(name.trim().toUpperCase());
+        }
+    }
+
+    //The handler to which admitted messages are passed
+    private final PubSubMessageHandler messageHandler;
+
+    //Policy for telemetry messages when the telemetry queue is full
+    private final OverflowPolicy telemetryPolicy;
+
+    //Maximum time in nanoseconds that telemetry messages wait for space in the queue
+    private final long blockTimeout;
+
+    //Every n-th overflowing telemetry message is admitted when sampling
+    private final int sampleRate;
+
+    //Queues and capacities of the traffic classes, guarded by the lock
+    private final Map<TrafficClass, ArrayDeque<QueuedMessage>> queues;
+    private final Map<TrafficClass, Integer> capacities;
+
+    //Telemetry messages that wait for space in the telemetry queue in case of the block policy, guarded by the lock
+    private final ArrayDeque<QueuedMessage> blockedTelemetry = new ArrayDeque<>();
+
+    //Lock and condition for the queues
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    //Number of telemetry messages that overflowed the queue, used for sampling; guarded by the lock
+    private long telemetryOverflows = 0;
+
+    //Worker threads that pass the queued messages to the message handler
+    private final List<Thread> workers;
+    private volatile boolean running = true;
+
+    //Metrics for the queues, overflowing control messages and shed telemetry messages (reason --> counter)
+    private final PipelineStageTimer queueTimer;
+    private final Counter controlOverflowCounter;
+    private final Map<String, Counter> telemetryShedCounters;
+
+    /**
+     * Creates and starts the admission control for a given message handler.
+     *
+     * @param messageHandler    The handler to which admitted messages are passed
+     * @param controlCapacity   The number of queued control messages beyond which control messages count as overflow
+     * @param telemetryCapacity The maximum number of queued telemetry messages
+     * @param telemetryPolicy   The policy for telemetry messages when the telemetry queue is full
+     * @param blockTimeout      The maximum time in milliseconds that telemetry messages wait for space in the queue
+     * @param sampleRate        Every n-th overflowing telemetry message is admitted when sampling
+     * @param workerCount       The number of worker threads passing messages to the message handler
+     * @param meterRegistry     The registry for the metrics of the admission control
+     */
+    public IngestAdmissionControl(PubSubMessageHandler messageHandler, int controlCapacity, int telemetryCapacity,
+                                  OverflowPolicy telemetryPolicy, long blockTimeout, int sampleRate, int workerCount,
+                                  MeterRegistry meterRegistry) {
+        //Sanity checks
+        if (messageHandler == null) {
+            throw new IllegalArgumentException("The message handler must not be null.");
+        } else if ((controlCapacity < 1) || (telemetryCapacity < 1)) {
+            throw new IllegalArgumentException("The queue capacities must be positive.");
+        } else if (telemetryPolicy == null) {
+            throw new IllegalArgumentException("The overflow policy must not be null.");
+        } else if (blockTimeout < 0) {
+            throw new IllegalArgumentException("The block timeout must not be negative.");
+        } else if (sampleRate < 1) {
+            throw new IllegalArgumentException("The sample rate must be positive.");
+        } else if (workerCount < 1) {
+            throw new IllegalArgumentException("The number of workers must be positive.");
+        }
+
+        //Store parameters
+        this.messageHandler = messageHandler;
+        this.telemetryPolicy = telemetryPolicy;
+        this.blockTimeout = TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+        this.sampleRate = sampleRate;
+
+        //Create queues
+        this.queues = new EnumMap<>(TrafficClass.class);
+        this.capacities = new EnumMap<>(TrafficClass.class);
+        capacities.put(TrafficClass.CONTROL, controlCapacity);
+        capacities.put(TrafficClass.TELEMETRY, telemetryCapacity);
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            ArrayDeque<QueuedMessage> queue = new ArrayDeque<>();
+            queues.put(trafficClass, queue);
+
+            //Queue size is only read for metrics, thus no locking required
+            Gauge.builder("mbp.ingest.queue.size", queue, ArrayDeque::size).tag("class", getTagValue(trafficClass))
+                    .description("Number of messages waiting for being dispatched").register(meterRegistry);
+        }
+
+        //Register metrics once, since they are updated for every message in case of overload
+        this.queueTimer = new PipelineStageTimer(meterRegistry, "mbp.ingest.queued",
+                "Waiting of admitted messages for being dispatched");
+        this.controlOverflowCounter = Counter.builder("mbp.ingest.overflow").tag("class", getTagValue(TrafficClass.CONTROL))
+                .description("Number of messages that were admitted beyond the capacity of their queue")
+                .register(meterRegistry);
+        this.telemetryShedCounters = new HashMap<>();
+        for (String reason : Arrays.asList(REASON_TIMEOUT, REASON_DROPPED_OLDEST, REASON_SAMPLED)) {
+            telemetryShedCounters.put(reason, Counter.builder("mbp.ingest.shed")
+                    .tag("class", getTagValue(TrafficClass.TELEMETRY)).tag("reason", reason)
+                    .description("Number of arriving messages that were discarded due to overload")
+                    .register(meterRegistry));
+        }
+
+        //Start worker threads
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::dispatchQueuedMessages, "mbp-ingest-dispatcher-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Classifies a message that was published under a given topic and adds it to the queue of its traffic class.
+     * If the queue is full, a control message is admitted nevertheless, while a telemetry message is treated
+     * according to the configured overflow policy. The calling thread is never blocked.
+     *
+     * @param topic   The topic under which the message was published
+     * @param payload The payload bytes of the published message; must not be modified
+     */
+    @Override
+    public void handleMessage(String topic, byte[] payload) {
+        TrafficClass trafficClass = classifyTopic(topic);
+        QueuedMessage message = new QueuedMessage(topic, payload);
+
+        lock.lock();
+        try {
+            ArrayDeque<QueuedMessage> queue = queues.get(trafficClass);
+
+            //Check whether the queue is full
+            if (queue.size() >= capacities.get(trafficClass)) {
+                if (trafficClass == TrafficClass.CONTROL) {
+                    //Control messages are never shed
+                    controlOverflowCounter.increment();
+                } else if (!admitOverflowingTelemetry(message)) {
+                    return;
+                }
+            } else if ((trafficClass == TrafficClass.TELEMETRY) && (!blockedTelemetry.isEmpty())) {
+                //Keep the order of arrival for messages that are waiting for space
+                shedExpiredTelemetry(message.queueTime);
+                blockedTelemetry.addLast(message);
+                admitBlockedTelemetry();
+                return;
+            }
+
+            //Enqueue message and wake up a worker
+            queue.addLast(message);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Treats a telemetry message that arrived while the telemetry queue is full according to the overflow policy.
+     * Must be called while holding the lock.
+     *
+     * @param message The arriving message
+     * @return True, if the message is supposed to be added to the queue; false if it was shed or has to wait
+     */
+    private boolean admitOverflowingTelemetry(QueuedMessage message) {
+        ArrayDeque<QueuedMessage> queue = queues.get(TrafficClass.TELEMETRY);
+        switch (telemetryPolicy) {
+            case DROP_OLDEST:
+                queue.pollFirst();
+                shed(REASON_DROPPED_OLDEST);
+                return true;
+            case SAMPLE:
+                //Admit every n-th overflowing message in place of the oldest one
+                shed(REASON_SAMPLED);
+                if ((telemetryOverflows++ % sampleRate) != 0) {
+                    return false;
+                }
+                queue.pollFirst();
+                return true;
+            default:
+                //Wait for space, but not forever in order to bound the memory of waiting messages
+                shedExpiredTelemetry(message.queueTime);
+                if (blockTimeout <= 0) {
+                    shed(REASON_TIMEOUT);
+                } else {
+                    blockedTelemetry.addLast(message);
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Moves waiting telemetry messages into the telemetry queue as long as it has space. Must be called while
+     * holding the lock.
+     */
+    private void admitBlockedTelemetry() {
+        ArrayDeque<QueuedMessage> queue = queues.get(TrafficClass.TELEMETRY);
+        int capacity = capacities.get(TrafficClass.TELEMETRY);
+        while ((queue.size() < capacity) && (!blockedTelemetry.isEmpty())) {
+            queue.addLast(blockedTelemetry.pollFirst());
+            notEmpty.signal();
+        }
+    }
+
+    /**
+     * Sheds the waiting telemetry messages whose block timeout expired at a given point in time. Must be called
+     * while holding the lock.
+     *
+     * @param now The current value of {@link System#nanoTime()}
+     */
+    private void shedExpiredTelemetry(long now) {
+        while ((!blockedTelemetry.isEmpty()) && (now - blockedTelemetry.peekFirst().queueTime > blockTimeout)) {
+            blockedTelemetry.pollFirst();
+            shed(REASON_TIMEOUT);
+        }
+    }
+
+    /**
+     * Stops the worker threads and waits for a limited time until they finished handling their current messages.
+     * Messages that are still queued are discarded.
+     */
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        try {
+            for (Thread worker : workers) {
+                worker.join(SHUTDOWN_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the traffic class of messages that were published under a given topic. Value logs of sensors,
+     * monitoring operators and dynamic deployments are considered as telemetry, also when they were forwarded by
+     * other instances; all other messages are considered as control messages.
+     *
+     * @param topic The topic to classify
+     * @return The resulting traffic class
+     */
+    public static TrafficClass classifyTopic(String topic) {
+        //Sanity check
+        if (topic == null) {
+            return TrafficClass.CONTROL;
+        }
+
+        //Skip the forwarding prefix and node index of forwarded messages
+        int offset = 0;
+        if (topic.startsWith(FORWARD_TOPIC_PREFIX)) {
+            offset = topic.indexOf('/', FORWARD_TOPIC_PREFIX.length()) + 1;
+        }
+
+        //Check for telemetry topics
+        for (String prefix : TELEMETRY_TOPIC_PREFIXES) {
+            if (topic.startsWith(prefix, offset)) {
+                return TrafficClass.TELEMETRY;
+            }
+        }
+        return TrafficClass.CONTROL;
+    }
+
+    /**
+     * Takes the queued messages one after another, control messages first, and passes them to the message handler
+     * until the admission control is shut down. With several workers, messages may be handled out of order.
+     */
+    private void dispatchQueuedMessages() {
+        while (running) {
+            QueuedMessage message;
+            try {
+                message = takeNextMessage();
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            //Pass message to the handler; failures must not stop the worker
+            try {
+                queueTimer.record(message.queueTime, PipelineStageTimer.getComponentTypeOfTopic(message.topic),
+                        PipelineStageTimer.OUTCOME_SUCCESS);
+                messageHandler.handleMessage(message.topic, message.payload);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to handle message of topic " + message.topic, e);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the next message with the highest priority, waiting until a message becomes available.
+     *
+     * @return The next message
+     * @throws InterruptedException If interrupted while waiting
+     */
+    private QueuedMessage takeNextMessage() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                //Iterate over the traffic classes in the order of their priority
+                for (TrafficClass trafficClass : TrafficClass.values()) {
+                    QueuedMessage message = queues.get(trafficClass).pollFirst();
+                    if (message != null) {
+                        if (trafficClass == TrafficClass.TELEMETRY) {
+                            shedExpiredTelemetry(System.nanoTime());
+                            admitBlockedTelemetry();
+                        }
+                        return message;
+                    }
+                }
+                notEmpty.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts a telemetry message that was shed for a given reason.
+     *
+     * @param reason The reason for shedding the message
+     */
+    private void shed(String reason) {
+        telemetryShedCounters.get(reason).increment();
+    }
+
+    /**
+     * Returns the value of the metrics tag for a given traffic class.
+     *
+     * @param trafficClass The traffic class
+     * @return The resulting tag value
+     */
+    private static String getTagValue(TrafficClass trafficClass) {
+        return trafficClass.name().toLowerCase();
+    }
+
+    /**
+     * Message that waits for being passed to the message handler.
+     */
+    private static class QueuedMessage {
+        private final String topic;
+        private final byte[] payload;
+        private final long queueTime;
+
+        private QueuedMessage(String topic, byte[] payload) {
+            this.topic = topic;
+            this.payload = payload;
+            this.queueTime = System.nanoTime();
+        }
+    }
+}
@@ -4,7 +4,12 @@ import de.ipvs.as.mbp.service.messaging.PubSubClient;
 import de.ipvs.as.mbp.service.messaging.dispatcher.listener.DomainMessageListener;
 import de.ipvs.as.mbp.service.messaging.dispatcher.listener.JSONMessageListener;
 import de.ipvs.as.mbp.service.messaging.dispatcher.listener.MessageListener;
+import de.ipvs.as.mbp.service.messaging.dispatcher.listener.RawMessageListener;
 import de.ipvs.as.mbp.service.messaging.dispatcher.listener.StringMessageListener;
+import de.ipvs.as.mbp.service.messaging.message.RawMessage;
+import de.ipvs.as.mbp.service.metrics.PipelineStageTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -22,23 +27,36 @@ import java.util.concurrent.ConcurrentHashMap;
  * to interested components of the MBP.
  */
 public class MessageDispatcher {
+    //Outcome of dispatching messages for which no listeners subscribed
+    private static final String OUTCOME_NO_LISTENERS = "no_listeners";
+
     //Reference to the publish-subscribe-based client that is used
     private final PubSubClient pubSubClient;
 
     //Map (topic filter --> list of subscriptions) to store subscriptions
     private final Map<String, Set<MessageListener<?>>> subscriptionMap;
 
+    //Timer for dispatching messages
+    private final PipelineStageTimer dispatchTimer;
+
     /**
      * Creates and initializes the message dispatcher.
      *
-     * @param pubSubClient The publish-subscribe-based client that is used
+     * @param pubSubClient  The publish-subscribe-based client that is used
+     * @param meterRegistry The registry for the metrics of the dispatcher
      */
-    public MessageDispatcher(PubSubClient pubSubClient) {
+    public MessageDispatcher(PubSubClient pubSubClient, MeterRegistry meterRegistry) {
         //Store reference to client
         this.pubSubClient = pubSubClient;
 
         //Initialize subscription map
         this.subscriptionMap = new ConcurrentHashMap<>();
+
+        //Create metrics
+        this.dispatchTimer = new PipelineStageTimer(meterRegistry, "mbp.messages.dispatched",
+                "Dispatching of messages to the subscribed listeners");
+        Gauge.builder("mbp.messages.subscriptions", subscriptionMap, Map::size)
+                .description("Number of topic filters to which listeners subscribed").register(meterRegistry);
     }
 
     /**
@@ -53,6 +71,19 @@ public class MessageDispatcher {
         performSubscription(topicFilter, listener);
     }
 
+    /**
+     * Subscribes a given raw message listener to a given topic filter at the dispatcher, such that incoming
+     * messages will be dispatched to the listener as read-only raw messages if the topic of the message matches
+     * the topic filter.
+     *
+     * @param topicFilter The topic filter to subscribe to
+     * @param listener    The listener to dispatch matching messages to
+     */
+    public synchronized void subscribeRaw(String topicFilter, RawMessageListener listener) {
+        //Perform subscription
+        performSubscription(topicFilter, listener);
+    }
+
     /**
      * Subscribes a given JSON message listener to a given topic filter at the dispatcher, such that incoming
      * JSON messages will be dispatched to the listener if the topic of the message matches the topic filter.
@@ -117,13 +148,34 @@ public class MessageDispatcher {
     }
 
     /**
-     * Dispatches a message, given as string, to the listeners that subscribed themselves at the message dispatcher
-     * to at least one topic filter that matches the topic of the message.
+     * Dispatches a message, given as payload bytes, to the listeners that subscribed themselves at the message
+     * dispatcher to at least one topic filter that matches the topic of the message. The payload is wrapped into
+     * a single {@link RawMessage} that is shared by all listeners, such that it is decoded at most once.
      *
      * @param topic   The topic of the message to dispatch
-     * @param message The body of the message to dispatch
+     * @param payload The payload bytes of the message to dispatch
      */
-    public synchronized void dispatchMessage(String topic, String message) {
+    public synchronized void dispatchMessage(String topic, byte[] payload) {
+        long startTime = System.nanoTime();
+        String outcome = PipelineStageTimer.OUTCOME_FAILURE;
+        try {
+            outcome = notifySubscribers(topic, payload) ? PipelineStageTimer.OUTCOME_SUCCESS : OUTCOME_NO_LISTENERS;
+        } finally {
+            dispatchTimer.record(startTime, PipelineStageTimer.getComponentTypeOfTopic(topic), outcome);
+        }
+    }
+
+    /**
+     * Notifies the listeners that subscribed to at least one topic filter that matches the topic of a given message.
+     *
+     * @param topic   The topic of the message to dispatch
+     * @param payload The payload bytes of the message to dispatch
+     * @return True, if at least one listener was notified; false otherwise
+     */
+    private boolean notifySubscribers(String topic, byte[] payload) {
+        //Wrap payload as raw message
+        RawMessage message = new RawMessage(payload);
+
         //Create map (listener --> topic filter) for all subscribers that need to be notified
         Map<MessageListener<?>, String> subscribers = new HashMap<>();
 
@@ -135,19 +187,24 @@ public class MessageDispatcher {
         //Stream through all affected subscribers and notify them
         subscribers.forEach((listener, topicFilter) -> {
             //Check listener type
-            if (listener instanceof DomainMessageListener) {
+            if (listener instanceof RawMessageListener) {
                 //Notify listener
-                ((DomainMessageListener<?>) listener).onMessageDispatched(message, topic, topicFilter);
+                ((RawMessageListener) listener).onMessageDispatched(message, topic, topicFilter);
+            } else if (listener instanceof DomainMessageListener) {
+                //Notify listener
+                ((DomainMessageListener<?>) listener).onMessageDispatched(message.getText(), topic, topicFilter);
             } else if (listener instanceof StringMessageListener) {
                 //Notify listener
-                ((StringMessageListener) listener).onMessageDispatched(message, topic, topicFilter);
+                ((StringMessageListener) listener).onMessageDispatched(message.getText(), topic, topicFilter);
             } else if (listener instanceof JSONMessageListener) {
-                //Convert message to JSON object
-                JSONObject jsonMessage = transformMessageToJSON(message);
+                //Convert message to JSON object; each listener gets its own object as JSON objects are mutable
+                JSONObject jsonMessage = transformMessageToJSON(message.getText());
                 //Notify listener
                 ((JSONMessageListener) listener).onMessageDispatched(jsonMessage, topic, topicFilter);
             }
         });
+
+        return !subscribers.isEmpty();
     }
 
     /**
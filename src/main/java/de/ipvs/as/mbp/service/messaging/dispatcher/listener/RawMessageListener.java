@@ -0,0 +1,14 @@
+package de.ipvs.as.mbp.service.messaging.dispatcher.listener;
+
+import de.ipvs.as.mbp.service.messaging.message.RawMessage;
+
+/**
+ * This interface provides a callback method that is triggered when a message is delivered by the messaging broker
+ * that was published under a topic that matches the topic filter to which the component implementing this
+ * interface subscribed itself to at the message dispatcher of the messaging service. In contrast to the other
+ * listener types, the message is passed as read-only {@link RawMessage}, which allows to process the payload
+ * bytes directly without decoding them.
+ */
+public interface RawMessageListener extends MessageListener<RawMessage> {
+
+}
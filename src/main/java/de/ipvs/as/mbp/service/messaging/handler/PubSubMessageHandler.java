@@ -11,7 +11,7 @@ public interface PubSubMessageHandler {
      * matches at least one of the topic filters for which subscriptions were previously created.
      *
      * @param topic   The topic under which the message was published
-     * @param message The published message
+     * @param payload The payload bytes of the published message; must not be modified
      */
-    void handleMessage(String topic, String message);
+    void handleMessage(String topic, byte[] payload);
 }
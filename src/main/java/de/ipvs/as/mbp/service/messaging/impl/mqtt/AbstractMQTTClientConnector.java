@@ -0,0 +1,274 @@
+package de.ipvs.as.mbp.service.messaging.impl.mqtt;
+
+import de.ipvs.as.mbp.service.messaging.PubSubClient;
+import de.ipvs.as.mbp.service.messaging.handler.PubSubConnectionLossHandler;
+import de.ipvs.as.mbp.service.messaging.handler.PubSubExceptionHandler;
+import de.ipvs.as.mbp.service.messaging.handler.PubSubMessageHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.validator.routines.UrlValidator;
+import org.eclipse.paho.client.mqttv3.MqttCallback;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttTopic;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+
+import java.util.UUID;
+
+/**
+ * Base class for connectors to actual MQTT clients that enable publish-subscribe-based messaging via MQTT
+ * in cooperation with an external messaging broker. It holds the handlers, the QoS policy and the connect options
+ * that are common to all MQTT connectors, while the subclasses wrap a concrete MQTT client.
+ */
+public abstract class AbstractMQTTClientConnector implements PubSubClient {
+
+    //Template of the broker's host URL
+    private static final String BROKER_URL_TEMPLATE = "tcp://%s:%d";
+
+    //Prefix of topic filters of shared subscriptions, followed by the group name
+    private static final String SHARED_SUBSCRIPTION_PREFIX = "$share/";
+
+    //Timeout in milliseconds for finishing work before disconnecting (may be zero)
+    protected static final int DISCONNECT_TIMEOUT = 1000;
+
+    //ID that is assigned to the client with an unique suffix in order to avoid name collisions
+    protected static final String CLIENT_ID = "mbp-client-" + generateUniqueID();
+
+    //Memory persistence to use for the client
+    protected final MemoryPersistence memoryPersistence;
+
+    //Callback object to use for handling asynchronous events
+    protected final MqttCallback mqttCallback;
+
+    //Policy that determines the QoS levels to use for publishing
+    protected final MQTTQoSPolicy qosPolicy;
+
+    //Maximum number of messages that may be in-flight at the same time
+    protected final int maxInflight;
+
+    //Registry for the metrics of the connector
+    protected final MeterRegistry meterRegistry;
+
+    //Handlers for messages, exceptions and connection losses
+    private PubSubMessageHandler messageHandler;
+    private PubSubExceptionHandler exceptionHandler;
+    private PubSubConnectionLossHandler connectionLossHandler;
+
+    /**
+     * Initializes the MQTT client connector.
+     *
+     * @param qosPolicy     The policy that determines the QoS levels to use for publishing
+     * @param maxInflight   The maximum number of messages that may be in-flight at the same time
+     * @param meterRegistry The registry for the metrics of the connector
+     */
+    protected AbstractMQTTClientConnector(MQTTQoSPolicy qosPolicy, int maxInflight, MeterRegistry meterRegistry) {
+        //Sanity checks
+        if (qosPolicy == null) {
+            throw new IllegalArgumentException("QoS policy must not be null.");
+        } else if (maxInflight < 1) {
+            throw new IllegalArgumentException("Maximum number of in-flight messages must be positive.");
+        } else if (meterRegistry == null) {
+            throw new IllegalArgumentException("Meter registry must not be null.");
+        }
+
+        this.qosPolicy = qosPolicy;
+        this.maxInflight = maxInflight;
+        this.meterRegistry = meterRegistry;
+
+        //Create memory persistence and callback object
+        this.memoryPersistence = new MemoryPersistence();
+        this.mqttCallback = new MQTTClientCallback(this, meterRegistry);
+    }
+
+    /**
+     * Registers a message handler that is notified about all messages that are published at the publish-subscribe
+     * messaging broker under a topic that matches at least one of the topic filters for which subscriptions were
+     * previously created.
+     *
+     * @param messageHandler The message handler to set
+     */
+    @Override
+    public void setMessageHandler(PubSubMessageHandler messageHandler) {
+        //Set message handler
+        this.messageHandler = messageHandler;
+    }
+
+    /**
+     * Registers an exception handler that is notified about all client-side and messaging-related exceptions
+     * that occur while working with the publish-subscribe messaging broker.
+     *
+     * @param exceptionHandler The exception handler to set
+     */
+    @Override
+    public void setExceptionHandler(PubSubExceptionHandler exceptionHandler) {
+        //Set exception handler
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Registers an connection loss handler that is notified when the connection to the publish-subscribe messaging
+     * broker is lost.
+     *
+     * @param connectionLossHandler The connection loss handler to set
+     */
+    @Override
+    public void setConnectionLossHandler(PubSubConnectionLossHandler connectionLossHandler) {
+        //Set connection loss handler
+        this.connectionLossHandler = connectionLossHandler;
+    }
+
+    /**
+     * Returns whether a given topic matches a given topic filter, according to the topic pattern that is used by
+     * the publish-subscribe message broker. Since this check typically only includes syntactic comparisons,
+     * no active connection to the broker is required for the execution of this method.
+     *
+     * @param topic       The topic to check
+     * @param topicFilter The topic filter to check the topic against
+     * @return True, if the topic matches the topic filter; false otherwise
+     */
+    @Override
+    public boolean topicMatchesFilter(String topic, String topicFilter) {
+        return MqttTopic.isMatched(getUnsharedTopicFilter(topicFilter), topic);
+    }
+
+    /**
+     * Returns the topic filter that needs to be subscribed in order to join a shared subscription of a given group
+     * for a given topic filter. The resulting topic filter follows the "$share/{group}/{filter}" syntax of MQTT v5,
+     * which is also supported for MQTT v3.1.1 clients by common brokers such as mosquitto.
+     *
+     * @param groupName   The name of the shared subscription group
+     * @param topicFilter The topic filter to share
+     * @return The resulting topic filter of the shared subscription
+     */
+    @Override
+    public String getSharedTopicFilter(String groupName, String topicFilter) {
+        //Sanity checks
+        if ((groupName == null) || groupName.isEmpty() || groupName.contains(MqttTopic.TOPIC_LEVEL_SEPARATOR)
+                || groupName.contains(MqttTopic.MULTI_LEVEL_WILDCARD) || groupName.contains(MqttTopic.SINGLE_LEVEL_WILDCARD)) {
+            throw new IllegalArgumentException("Invalid shared subscription group name provided.");
+        } else if ((topicFilter == null) || topicFilter.isEmpty()) {
+            throw new IllegalArgumentException("The topic filter must not be empty.");
+        }
+
+        return SHARED_SUBSCRIPTION_PREFIX + groupName + MqttTopic.TOPIC_LEVEL_SEPARATOR + topicFilter;
+    }
+
+    /**
+     * Returns the currently active message handler of the connector or null if none was set.
+     *
+     * @return THe current message handler
+     */
+    protected PubSubMessageHandler getMessageHandler() {
+        return this.messageHandler;
+    }
+
+    /**
+     * Returns the currently active exception handler of the connector or null if none was set.
+     *
+     * @return The current exception handler
+     */
+    protected PubSubExceptionHandler getExceptionHandler() {
+        return this.exceptionHandler;
+    }
+
+    /**
+     * Returns the currently active connection less handler of the connector or null if none was set.
+     *
+     * @return The current connection loss handler
+     */
+    protected PubSubConnectionLossHandler getConnectionLossHandler() {
+        return this.connectionLossHandler;
+    }
+
+    /**
+     * Creates, configures and returns a new {@link MqttConnectOptions} object that contains all desired connect options
+     * for the MQTT client and can optionally be extended for further options, e.g. secure-related ones.
+     *
+     * @return The resulting connect options
+     */
+    protected MqttConnectOptions createConnectOptions() {
+        //Create new connect options object
+        MqttConnectOptions connectOptions = new MqttConnectOptions();
+
+        //Set desired connect options
+        connectOptions.setCleanSession(true);
+        connectOptions.setConnectionTimeout(5000);
+        connectOptions.setMaxInflight(maxInflight);
+
+        //Return finished connect options
+        return connectOptions;
+    }
+
+    /**
+     * Handles a given MQTT exception by either passing it to a exception handler (if set) or by printing the exception
+     * to the standard output.
+     *
+     * @param exception The exception to handle
+     */
+    protected void handleException(MqttException exception) {
+        //Check if exception handler is set
+        if (exceptionHandler != null) {
+            exceptionHandler.handleException(exception);
+            return;
+        }
+
+        //No exception handler set, thus print to standard output
+        System.err.printf("%s: %s%n", exception.getClass().getSimpleName(), exception.getMessage());
+        exception.printStackTrace();
+    }
+
+    /**
+     * Takes the host address and port of an MQTT messaging broker and puts them together in order to form and return
+     * the full host URL of the broker. In addition, sanity checks are applied and exception thrown in case the
+     * provided parameters are invalid.
+     *
+     * @param hostAddress The host address of the MQTT broker
+     * @param port        The port of the MQTT broker
+     * @return The resulting full host address of the MQTT broker
+     */
+    protected static String getBrokerHostAddress(String hostAddress, int port) {
+        //Sanity check
+        if ((hostAddress == null) || hostAddress.isEmpty()) {
+            throw new IllegalArgumentException("No MQTT broker host address provided.");
+        } else if ((port < 10) || (port > 65535)) {
+            throw new IllegalArgumentException("Invalid MQTT broker port number provided.");
+        }
+
+        //Put broker host URL together
+        String brokerURL = String.format(BROKER_URL_TEMPLATE, hostAddress, port).toLowerCase();
+
+        //Validate resulting host address
+        if (!(new UrlValidator(new String[]{"http", "https", "udp", "tcp"}, UrlValidator.ALLOW_LOCAL_URLS).isValid(brokerURL))) {
+            throw new IllegalArgumentException("Resulting MQTT broker URL is invalid.");
+        }
+
+        //Return result
+        return brokerURL;
+    }
+
+    /**
+     * Strips the prefix of a shared subscription from a given topic filter, if present, and returns the
+     * topic filter that is actually matched against the topics of the messages.
+     *
+     * @param topicFilter The topic filter to strip
+     * @return The topic filter without prefix of a shared subscription
+     */
+    static String getUnsharedTopicFilter(String topicFilter) {
+        //Check for prefix of shared subscriptions
+        if (!topicFilter.startsWith(SHARED_SUBSCRIPTION_PREFIX)) {
+            return topicFilter;
+        }
+
+        //Remove prefix and group name
+        int filterIndex = topicFilter.indexOf(MqttTopic.TOPIC_LEVEL_SEPARATOR, SHARED_SUBSCRIPTION_PREFIX.length());
+        return (filterIndex < 0) ? topicFilter : topicFilter.substring(filterIndex + 1);
+    }
+
+    /**
+     * Creates an unique identifier that may be appended to a MQTT client ID in order to avoid name collisions.
+     *
+     * @return The generated unique identifier
+     */
+    private static String generateUniqueID() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
@@ -0,0 +1,509 @@
+package de.ipvs.as.mbp.service.messaging.impl.mqtt;
+
+import de.ipvs.as.mbp.service.messaging.PubSubClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connector to an asynchronous MQTT client that enables publish-subscribe-based messaging via MQTT
+ * in cooperation with an external messaging broker. The connector implements the {@link PubSubClient} interface and
+ * thus exposes its functionality via uniform methods. Publications do not block the caller, since they are
+ * completed by the callback thread of the client, on which also arriving messages are handled; asynchronous
+ * publications return futures that complete as soon as the publications are completed according to the QoS levels
+ * of their topics. The number
+ * of in-flight publications is limited by a window; publications that do not fit into the window are queued and
+ * sent as soon as earlier publications complete, such that no thread needs to wait for a free slot. The queue is
+ * bounded as well; publications that do not fit into the queue are rejected by failing their futures. Failed
+ * publications are counted.
+ */
+public class MQTTAsyncClientConnector extends AbstractMQTTClientConnector {
+
+    //Logger
+    private static final Logger LOGGER = Logger.getLogger(MQTTAsyncClientConnector.class.getName());
+
+    //Timeout in milliseconds for connecting, subscribing and unsubscribing
+    private static final long OPERATION_TIMEOUT = 10 * 1000;
+
+    //The actual MQTT client to use
+    private volatile MqttAsyncClient mqttClient = null;
+
+    //Permits for in-flight publications of the current MQTT client
+    private volatile Semaphore inflightPermits;
+
+    //Publications that wait for a free slot in the in-flight window (bounded)
+    private final BlockingQueue<PendingPublication> pendingPublications;
+
+    //Counters for publications that were rejected due to a full queue and for publications that failed otherwise
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    /**
+     * Initializes the MQTT client connector.
+     *
+     * @param qosPolicy     The policy that determines the QoS levels to use for publishing
+     * @param maxInflight   The maximum number of messages that may be in-flight at the same time
+     * @param maxPending    The maximum number of messages that may wait for a free slot in the in-flight window
+     * @param meterRegistry The registry for the metrics of the connector
+     */
+    public MQTTAsyncClientConnector(MQTTQoSPolicy qosPolicy, int maxInflight, int maxPending, MeterRegistry meterRegistry) {
+        super(qosPolicy, maxInflight, meterRegistry);
+
+        //Sanity check
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("The maximum number of pending publications must be positive.");
+        }
+
+        this.inflightPermits = new Semaphore(maxInflight);
+        this.pendingPublications = new LinkedBlockingQueue<>(maxPending);
+
+        //Count publications that were not completed successfully
+        this.rejectedCounter = Counter.builder("mbp.mqtt.publications.failed").tag("reason", "rejected")
+                .description("Number of MQTT publications that failed").register(meterRegistry);
+        this.failedCounter = Counter.builder("mbp.mqtt.publications.failed").tag("reason", "error")
+                .description("Number of MQTT publications that failed").register(meterRegistry);
+
+        //Expose the occupation of the in-flight window and the number of waiting publications
+        Gauge.builder("mbp.mqtt.publications.inflight", this, c -> c.maxInflight - c.inflightPermits.availablePermits())
+                .description("Number of MQTT publications that are in-flight").register(meterRegistry);
+        Gauge.builder("mbp.mqtt.publications.pending", pendingPublications, BlockingQueue::size)
+                .description("Number of MQTT publications that wait for a free slot in the in-flight window").register(meterRegistry);
+    }
+
+    /**
+     * Establishes an unsecured connection to the publish-subscribe messaging broker that is available at a given
+     * host address with a given port. In case there is already an active connection to the messaging broker,
+     * this connection is gracefully aborted and a new connection is established.
+     *
+     * @param hostAddress The host address of the messaging broker
+     * @param port        The port of the messaging broker
+     */
+    @Override
+    public void connect(String hostAddress, int port) {
+        try {
+            //Create or re-create the MQTT client
+            createMQTTClient(hostAddress, port);
+
+            //Let the client connect to the broker using the options and wait for completion
+            this.mqttClient.connect(createConnectOptions()).waitForCompletion(OPERATION_TIMEOUT);
+        } catch (MqttException e) {
+            //Handle the exception
+            handleException(e);
+        }
+    }
+
+    /**
+     * Establishes a secured connection to the publish-subscribe messaging broker that is available at a given
+     * host address with a given port, by using a given username and password for authentication. In case there is
+     * already an active connection to the messaging broker, this connection is gracefully aborted and a new connection
+     * is established.
+     *
+     * @param hostAddress The host address of the messaging broker
+     * @param port        The port of the messaging broker
+     * @param username    The username to use for authentication
+     * @param password    The password to use for authentication
+     */
+    @Override
+    public void connectSecure(String hostAddress, int port, String username, String password) {
+        try {
+            //Create or re-create the MQTT client
+            createMQTTClient(hostAddress, port);
+
+            //Create connect options and extend them for security parameters
+            MqttConnectOptions connectOptions = createConnectOptions();
+            connectOptions.setUserName(username);
+            connectOptions.setPassword(password.toCharArray());
+
+            //Let the client connect to the broker using the options and wait for completion
+            this.mqttClient.connect(connectOptions).waitForCompletion(OPERATION_TIMEOUT);
+        } catch (MqttException e) {
+            //Handle the exception
+            handleException(e);
+        }
+    }
+
+    /**
+     * Gracefully disconnects from the publish-subscribe messaging broker in case a connection was
+     * previously established.
+     */
+    @Override
+    public void disconnect() {
+        //Check if client is initialized and connected
+        if (!isConnected()) {
+            return;
+        }
+
+        try {
+            //Disconnect the client with timeout
+            this.mqttClient.disconnect(DISCONNECT_TIMEOUT).waitForCompletion(OPERATION_TIMEOUT);
+        } catch (MqttException e) {
+            //Handle the exception
+            handleException(e);
+        }
+    }
+
+    /**
+     * Disconnects and destroys the client such that all allocated resources are released.
+     */
+    @Override
+    public void close() {
+        //Check if client is initialized
+        if (this.mqttClient == null) {
+            return;
+        }
+
+        try {
+            //Destroy the client
+            destroyMQTTClient();
+        } catch (MqttException e) {
+            //Handle the exception
+            handleException(e);
+        }
+
+        //Unset the client reference
+        this.mqttClient = null;
+    }
+
+    /**
+     * Returns whether there is currently an active connection to the publish-subscribe messaging broker.
+     *
+     * @return True, if a connection exists; false otherwise
+     */
+    @Override
+    public boolean isConnected() {
+        //Check if MQTT client is initialized and connected
+        MqttAsyncClient client = this.mqttClient;
+        return (client != null) && (client.isConnected());
+    }
+
+    /**
+     * Publishes a given string message under a given topic at the publish-subscribe messaging broker. In contrast
+     * to the synchronous client, the method does not wait for the completion of the publication, since it may be
+     * called by message handlers on the callback thread of the client, which is also the thread that completes
+     * the publication. MQTT-related failures are passed to the exception handler, other failures are logged.
+     *
+     * @param topic   The topic under which the message is supposed to be published
+     * @param message The message to publish
+     */
+    @Override
+    public void publish(String topic, String message) {
+        publishAsync(topic, message).whenComplete((v, e) -> {
+            //MQTT-related failures were already passed to the exception handler
+            if ((e != null) && (!(e instanceof MqttException))) {
+                LOGGER.log(Level.WARNING, "Failed to publish message under topic " + topic + ".", e);
+            }
+        });
+    }
+
+    /**
+     * Publishes a given string message under a given topic at the publish-subscribe messaging broker without
+     * waiting for the completion of the publication. The returned future completes as soon as the publication
+     * is completed according to the QoS level that is used for the topic.
+     *
+     * @param topic   The topic under which the message is supposed to be published
+     * @param message The message to publish
+     * @return The future that completes when the publication is completed
+     */
+    @Override
+    public CompletableFuture<Void> publishAsync(String topic, String message) {
+        //Check if client is initialized
+        requireInitialized();
+
+        //Sanity check for parameters
+        requireValidPublication(topic, message);
+
+        //Enqueue publication and send as many pending publications as the window permits
+        CompletableFuture<Void> future = enqueuePublication(topic, message.getBytes(StandardCharsets.UTF_8));
+        sendPendingPublications();
+        return future;
+    }
+
+    /**
+     * Publishes a given string message under several given topics at the publish-subscribe messaging broker without
+     * waiting for the completion of the publications. The message is encoded only once and the publications are
+     * enqueued together, such that they are sent as a batch. The returned future completes as soon as all
+     * publications are completed.
+     *
+     * @param topics  The topics under which the message is supposed to be published
+     * @param message The message to publish
+     * @return The future that completes when all publications are completed
+     */
+    @Override
+    public CompletableFuture<Void> publishAsync(Collection<String> topics, String message) {
+        //Check if client is initialized
+        requireInitialized();
+
+        //Sanity check for parameters
+        topics.forEach(t -> requireValidPublication(t, message));
+
+        //Encode the message once for all topics
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+
+        //Enqueue all publications before sending them
+        CompletableFuture<?>[] futures = topics.stream()
+                .map(t -> enqueuePublication(t, payload))
+                .toArray(CompletableFuture[]::new);
+        sendPendingPublications();
+
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * Registers a subscription for a given topic filter at the publish-subscribe messaging broker, such that
+     * the client will be notified about future messages that are published at the broker under a topic that matches
+     * the filter.
+     *
+     * @param topicFilter The topic filter to use for the subscription
+     */
+    @Override
+    public void subscribe(String topicFilter) {
+        //Check if client is initialized and connected
+        requireInitialized();
+
+        //Sanity check for topic filter
+        if ((topicFilter == null) || (topicFilter.isEmpty())) {
+            throw new IllegalArgumentException("The topic filter must not be empty.");
+        }
+
+        try {
+            //Perform subscription and wait for completion
+            this.mqttClient.subscribe(topicFilter, qosPolicy.getSubscriptionQoS(topicFilter)).waitForCompletion(OPERATION_TIMEOUT);
+        } catch (MqttException e) {
+            //Handle the exception
+            handleException(e);
+        }
+    }
+
+    /**
+     * Unregisters a subscription for a given topic filter at the publish-subscribe messaging broker. This can only be
+     * done if exactly the same topic filter is passed that was also used for the creation of the subscription.
+     *
+     * @param topicFilter The topic filter to unsubscribe
+     */
+    @Override
+    public void unsubscribe(String topicFilter) {
+        //Check if client is initialized and connected
+        requireInitialized();
+
+        //Sanity check for topic filter
+        if ((topicFilter == null) || (topicFilter.isEmpty())) {
+            throw new IllegalArgumentException("The topic filter must not be empty.");
+        }
+
+        try {
+            //Remove subscription and wait for completion
+            this.mqttClient.unsubscribe(topicFilter).waitForCompletion(OPERATION_TIMEOUT);
+        } catch (MqttException e) {
+            //Handle the exception
+            handleException(e);
+        }
+    }
+
+    /**
+     * Creates a pending publication for a given topic and payload, adds it to the queue of pending publications
+     * and returns the future of the publication.
+     *
+     * @param topic   The topic under which the payload is supposed to be published
+     * @param payload The payload to publish
+     * @return The future of the publication
+     */
+    private CompletableFuture<Void> enqueuePublication(String topic, byte[] payload) {
+        PendingPublication publication = new PendingPublication(topic, payload);
+
+        //Reject the publication if the queue is full
+        if (!pendingPublications.offer(publication)) {
+            rejectedCounter.increment();
+            publication.future.completeExceptionally(new RejectedExecutionException(
+                    "Too many pending MQTT publications, rejected publication under topic " + topic + "."));
+        }
+        return publication.future;
+    }
+
+    /**
+     * Sends pending publications as long as there are free slots within the in-flight window. This method is
+     * called after publications were enqueued and after publications completed, such that queued publications
+     * are sent as soon as a slot becomes available.
+     */
+    private void sendPendingPublications() {
+        //Get permits of the current MQTT client
+        Semaphore permits = this.inflightPermits;
+
+        while ((!pendingPublications.isEmpty()) && permits.tryAcquire()) {
+            //Take next pending publication
+            PendingPublication publication = pendingPublications.poll();
+
+            //Check if another thread took the publication
+            if (publication == null) {
+                permits.release();
+                continue;
+            }
+
+            //Send the publication
+            publication.permits = permits;
+            send(publication);
+        }
+    }
+
+    /**
+     * Sends a given pending publication via the MQTT client. The caller must hold a permit of the in-flight window
+     * and store it within the publication, such that it can be released as soon as the publication completed.
+     *
+     * @param publication The publication to send
+     */
+    private void send(PendingPublication publication) {
+        //Create message
+        MqttMessage mqttMessage = new MqttMessage(publication.payload);
+        mqttMessage.setQos(qosPolicy.getPublishQoS(publication.topic));
+
+        try {
+            //Publish message and complete the future on completion
+            this.mqttClient.publish(publication.topic, mqttMessage, null, new IMqttActionListener() {
+                @Override
+                public void onSuccess(IMqttToken asyncActionToken) {
+                    complete(publication, null);
+                    sendPendingPublications();
+                }
+
+                @Override
+                public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+                    //Handle the exception
+                    if (exception instanceof MqttException) {
+                        handleException((MqttException) exception);
+                    } else {
+                        LOGGER.log(Level.WARNING, "Failed to publish message under topic " + publication.topic + ".", exception);
+                    }
+                    complete(publication, exception);
+                    sendPendingPublications();
+                }
+            });
+        } catch (MqttException e) {
+            //Handle the exception; further pending publications are sent by the calling loop
+            handleException(e);
+            complete(publication, e);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to publish message under topic " + publication.topic + ".", e);
+            complete(publication, e);
+        }
+    }
+
+    /**
+     * Completes a given publication and releases its slot of the in-flight window.
+     *
+     * @param publication The publication to complete
+     * @param exception   The exception that caused the publication to fail or null, if it succeeded
+     */
+    private void complete(PendingPublication publication, Throwable exception) {
+        //Release slot of the in-flight window
+        publication.permits.release();
+
+        //Complete the future of the publication
+        if (exception == null) {
+            publication.future.complete(null);
+        } else {
+            failedCounter.increment();
+            publication.future.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Checks whether a given topic and message are valid for a publication and throws an exception otherwise.
+     *
+     * @param topic   The topic to check
+     * @param message The message to check
+     */
+    private void requireValidPublication(String topic, String message) {
+        if ((topic == null) || (topic.isEmpty())) {
+            throw new IllegalArgumentException("The topic must not be empty.");
+        } else if ((message == null) || (message.isEmpty())) {
+            throw new IllegalArgumentException("The message must not be empty.");
+        }
+    }
+
+    /**
+     * Checks whether the MQTT client is initialized, but not necessarily connected to the MQTT messaging broker.
+     * An exception is thrown if not initialization was done.
+     */
+    private void requireInitialized() {
+        //Check if client is initialized
+        if (this.mqttClient == null) {
+            throw new IllegalStateException("The MQTT client is not initialized.");
+        }
+    }
+
+    /**
+     * Creates a new MQTT client that is able to connect to a MQTT messaging broker at a given host address
+     * with a given port.
+     *
+     * @param hostAddress The host address of the messaging broker
+     * @param port        The port of the messaging broker
+     * @throws MqttException In case of an unexpected MQTT-related failure
+     */
+    private void createMQTTClient(String hostAddress, int port) throws MqttException {
+        //Validate parameters and put broker URL together
+        String brokerURL = getBrokerHostAddress(hostAddress, port);
+
+        //Check if client is already initialized
+        if (this.mqttClient != null) {
+            destroyMQTTClient();
+        }
+
+        //Create new MQTT client with a fresh in-flight window, as publications of the previous client may never complete
+        MqttAsyncClient client = new MqttAsyncClient(brokerURL, CLIENT_ID, memoryPersistence);
+        this.inflightPermits = new Semaphore(maxInflight);
+
+        //Configure the new MQTT client
+        client.setManualAcks(false);
+        client.setCallback(this.mqttCallback);
+        this.mqttClient = client;
+    }
+
+    /**
+     * Gracefully disconnects the current MQTT client if it is connected and releases its resources.
+     *
+     * @throws MqttException In case of an unexpected MQTT-related failure
+     */
+    private void destroyMQTTClient() throws MqttException {
+        //Check if the client is connected
+        if (this.mqttClient.isConnected()) {
+            //Disconnect the client gracefully
+            this.mqttClient.disconnect(DISCONNECT_TIMEOUT).waitForCompletion(OPERATION_TIMEOUT);
+        }
+
+        //Destroy client and release resources
+        this.mqttClient.close();
+    }
+
+    /**
+     * Publication that waits for being sent or for being completed.
+     */
+    private static class PendingPublication {
+        private final String topic;
+        private final byte[] payload;
+        private final CompletableFuture<Void> future;
+
+        //Permits of the in-flight window from which a permit was acquired for sending
+        private Semaphore permits;
+
+        private PendingPublication(String topic, byte[] payload) {
+            this.topic = topic;
+            this.payload = payload;
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
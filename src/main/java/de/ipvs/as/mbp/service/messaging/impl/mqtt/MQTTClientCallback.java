@@ -2,6 +2,8 @@ package de.ipvs.as.mbp.service.messaging.impl.mqtt;
 
 import de.ipvs.as.mbp.service.messaging.handler.PubSubConnectionLossHandler;
 import de.ipvs.as.mbp.service.messaging.handler.PubSubMessageHandler;
+import de.ipvs.as.mbp.service.metrics.PipelineStageTimer;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
@@ -20,10 +22,15 @@ public class MQTTClientCallback implements MqttCallback {
     private static final ExecutorService EXECUTOR_SERVICE = Executors.newSingleThreadExecutor();
 
     //The MQTT client that makes use of this callback
-    private MQTTClientConnector mqttClient;
+    private AbstractMQTTClientConnector mqttClient;
 
-    public MQTTClientCallback(MQTTClientConnector mqttClient) {
+    //Timer for the handling of arrived messages
+    private final PipelineStageTimer messageArrivedTimer;
+
+    public MQTTClientCallback(AbstractMQTTClientConnector mqttClient, MeterRegistry meterRegistry) {
         this.mqttClient = mqttClient;
+        this.messageArrivedTimer = new PipelineStageTimer(meterRegistry, "mbp.mqtt.messages.arrived",
+                "Handling of messages that arrived at the MQTT client");
     }
 
     /**
@@ -91,11 +98,15 @@ public class MQTTClientCallback implements MqttCallback {
             return;
         }
 
-        //Extract payload from message and transform it to a string
-        String messagePayload = new String(message.getPayload());
-
-        //Let the message handler handle the message
-        messageHandler.handleMessage(topic, messagePayload);
+        //Let the message handler handle the payload of the message without decoding it
+        long startTime = System.nanoTime();
+        String outcome = PipelineStageTimer.OUTCOME_FAILURE;
+        try {
+            messageHandler.handleMessage(topic, message.getPayload());
+            outcome = PipelineStageTimer.OUTCOME_SUCCESS;
+        } finally {
+            messageArrivedTimer.record(startTime, PipelineStageTimer.getComponentTypeOfTopic(topic), outcome);
+        }
     }
 
     /**
@@ -1,53 +1,31 @@
 package de.ipvs.as.mbp.service.messaging.impl.mqtt;
 
 import de.ipvs.as.mbp.service.messaging.PubSubClient;
-import de.ipvs.as.mbp.service.messaging.handler.PubSubConnectionLossHandler;
-import de.ipvs.as.mbp.service.messaging.handler.PubSubExceptionHandler;
-import de.ipvs.as.mbp.service.messaging.handler.PubSubMessageHandler;
-import org.apache.commons.validator.routines.UrlValidator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.eclipse.paho.client.mqttv3.*;
-import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 
 import java.nio.charset.StandardCharsets;
-import java.util.UUID;
 
 /**
  * Connector to an actual MQTT client that enables publish-subscribe-based messaging via MQTT
  * in cooperation with an external messaging broker. The connector implements the {@link PubSubClient} interface and
- * thus exposes its functionality via uniform methods.
+ * thus exposes its functionality via uniform methods. It wraps the blocking {@link MqttClient}, such that each
+ * publication blocks the caller until the client accepted the message.
  */
-public class MQTTClientConnector implements PubSubClient {
-
-    //Template of the broker's host URL
-    private static final String BROKER_URL_TEMPLATE = "tcp://%s:%d";
-
-    //Timeout in milliseconds for finishing work before disconnecting (may be zero)
-    private static final int DISCONNECT_TIMEOUT = 1000;
-
-    //ID that is assigned to the client with an unique suffix in order to avoid name collisions
-    private static final String CLIENT_ID = "mbp-client-" + generateUniqueID();
+public class MQTTClientConnector extends AbstractMQTTClientConnector {
 
     //The actual MQTT client to use
     private MqttClient mqttClient = null;
 
-    //Memory persistence to use for the client
-    private final MemoryPersistence memoryPersistence;
-
-    //Callback object to use for handling asynchronous events
-    private final MqttCallback mqttCallback;
-
-    //Handlers for messages, exceptions and connection losses
-    private PubSubMessageHandler messageHandler;
-    private PubSubExceptionHandler exceptionHandler;
-    private PubSubConnectionLossHandler connectionLossHandler;
-
     /**
      * Initializes the MQTT client connector.
+     *
+     * @param qosPolicy     The policy that determines the QoS levels to use for publishing
+     * @param maxInflight   The maximum number of messages that may be in-flight at the same time
+     * @param meterRegistry The registry for the metrics of the connector
      */
-    public MQTTClientConnector() {
-        //Create memory persistence and callback object
-        this.memoryPersistence = new MemoryPersistence();
-        this.mqttCallback = new MQTTClientCallback(this);
+    public MQTTClientConnector(MQTTQoSPolicy qosPolicy, int maxInflight, MeterRegistry meterRegistry) {
+        super(qosPolicy, maxInflight, meterRegistry);
     }
 
 
@@ -185,6 +163,7 @@ public class MQTTClientConnector implements PubSubClient {
 
         //Create message
         MqttMessage mqttMessage = new MqttMessage(message.getBytes(StandardCharsets.UTF_8));
+        mqttMessage.setQos(qosPolicy.getPublishQoS(topic));
 
         //Publish message
         try {
@@ -214,7 +193,7 @@ public class MQTTClientConnector implements PubSubClient {
 
         try {
             //Perform subscription
-            this.mqttClient.subscribe(topicFilter);
+            this.mqttClient.subscribe(topicFilter, qosPolicy.getSubscriptionQoS(topicFilter));
         } catch (MqttException e) {
             //Handle the exception
             handleException(e);
@@ -246,84 +225,6 @@ public class MQTTClientConnector implements PubSubClient {
         }
     }
 
-    /**
-     * Registers a message handler that is notified about all messages that are published at the publish-subscribe
-     * messaging broker under a topic that matches at least one of the topic filters for which subscriptions were
-     * previously created.
-     *
-     * @param messageHandler The message handler to set
-     */
-    @Override
-    public void setMessageHandler(PubSubMessageHandler messageHandler) {
-        //Set message handler
-        this.messageHandler = messageHandler;
-    }
-
-    /**
-     * Registers an exception handler that is notified about all client-side and messaging-related exceptions
-     * that occur while working with the publish-subscribe messaging broker.
-     *
-     * @param exceptionHandler The exception handler to set
-     */
-    @Override
-    public void setExceptionHandler(PubSubExceptionHandler exceptionHandler) {
-        //Set exception handler
-        this.exceptionHandler = exceptionHandler;
-    }
-
-    /**
-     * Registers an connection loss handler that is notified when the connection to the publish-subscribe messaging
-     * broker is lost.
-     *
-     * @param connectionLossHandler The connection loss handler to set
-     */
-    @Override
-    public void setConnectionLossHandler(PubSubConnectionLossHandler connectionLossHandler) {
-        //Set connection loss handler
-        this.connectionLossHandler = connectionLossHandler;
-    }
-
-    /**
-     * Returns whether a given topic matches a given topic filter, according to the topic pattern that is used by
-     * the publish-subscribe message broker. Since this check typically only includes syntactic comparisons,
-     * no active connection to the broker is required for the execution of this method.
-     *
-     * @param topic       The topic to check
-     * @param topicFilter The topic filter to check the topic against
-     * @return True, if the topic matches the topic filter; false otherwise
-     */
-    @Override
-    public boolean topicMatchesFilter(String topic, String topicFilter) {
-        return MqttTopic.isMatched(topicFilter, topic);
-    }
-
-    /**
-     * Returns the currently active message handler of the connector or null if none was set.
-     *
-     * @return THe current message handler
-     */
-    protected PubSubMessageHandler getMessageHandler() {
-        return this.messageHandler;
-    }
-
-    /**
-     * Returns the currently active exception handler of the connector or null if none was set.
-     *
-     * @return The current exception handler
-     */
-    protected PubSubExceptionHandler getExceptionHandler() {
-        return this.exceptionHandler;
-    }
-
-    /**
-     * Returns the currently active connection less handler of the connector or null if none was set.
-     *
-     * @return The current connection loss handler
-     */
-    protected PubSubConnectionLossHandler getConnectionLossHandler() {
-        return this.connectionLossHandler;
-    }
-
     /**
      * Checks whether the MQTT client is initialized, but not necessarily connected to the MQTT messaging broker.
      * An exception is thrown if not initialization was done.
@@ -366,78 +267,4 @@ public class MQTTClientConnector implements PubSubClient {
         this.mqttClient.setManualAcks(false);
         this.mqttClient.setCallback(this.mqttCallback);
     }
-
-    /**
-     * Creates, configures and returns a new {@link MqttConnectOptions} object that contains all desired connect options
-     * for the MQTT client and can optionally be extended for further options, e.g. secure-related ones.
-     *
-     * @return The resulting connect options
-     */
-    private MqttConnectOptions createConnectOptions() {
-        //Create new connect options object
-        MqttConnectOptions connectOptions = new MqttConnectOptions();
-
-        //Set desired connect options
-        connectOptions.setCleanSession(true);
-        connectOptions.setConnectionTimeout(5000);
-
-        //Return finished connect options
-        return connectOptions;
-    }
-
-    /**
-     * Handles a given MQTT exception by either passing it to a exception handler (if set) or by printing the exception
-     * to the standard output.
-     *
-     * @param exception The exception to handle
-     */
-    private void handleException(MqttException exception) {
-        //Check if exception handler is set
-        if (exceptionHandler != null) {
-            exceptionHandler.handleException(exception);
-            return;
-        }
-
-        //No exception handler set, thus print to standard output
-        System.err.printf("%s: %s%n", exception.getClass().getSimpleName(), exception.getMessage());
-        exception.printStackTrace();
-    }
-
-    /**
-     * Takes the host address and port of an MQTT messaging broker and puts them together in order to form and return
-     * the full host URL of the broker. In addition, sanity checks are applied and exception thrown in case the
-     * provided parameters are invalid.
-     *
-     * @param hostAddress The host address of the MQTT broker
-     * @param port        The port of the MQTT broker
-     * @return The resulting full host address of the MQTT broker
-     */
-    private static String getBrokerHostAddress(String hostAddress, int port) {
-        //Sanity check
-        if ((hostAddress == null) || hostAddress.isEmpty()) {
-            throw new IllegalArgumentException("No MQTT broker host address provided.");
-        } else if ((port < 10) || (port > 65535)) {
-            throw new IllegalArgumentException("Invalid MQTT broker port number provided.");
-        }
-
-        //Put broker host URL together
-        String brokerURL = String.format(BROKER_URL_TEMPLATE, hostAddress, port).toLowerCase();
-
-        //Validate resulting host address
-        if (!(new UrlValidator(new String[]{"http", "https", "udp", "tcp"}, UrlValidator.ALLOW_LOCAL_URLS).isValid(brokerURL))) {
-            throw new IllegalArgumentException("Resulting MQTT broker URL is invalid.");
-        }
-
-        //Return result
-        return brokerURL;
-    }
-
-    /**
-     * Creates an unique identifier that may be appended to a MQTT client ID in order to avoid name collisions.
-     *
-     * @return The generated unique identifier
-     */
-    private static String generateUniqueID() {
-        return UUID.randomUUID().toString().replace("-", "");
-    }
 }
@@ -0,0 +1,155 @@
+package de.ipvs.as.mbp.service.messaging.impl.mqtt;
+
+import org.eclipse.paho.client.mqttv3.MqttTopic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Determines the MQTT quality of service level that is supposed to be used for publishing messages under a certain
+ * topic or for subscribing to a certain topic filter. The policy consists of an ordered list of rules, each mapping
+ * a topic filter to a QoS level, and of a default QoS level for topics that do not match any of the rules. This allows
+ * to use different QoS levels for different classes of topics, e.g. QoS 0 for telemetry and QoS 1 for actuator
+ * commands.
+ */
+public class MQTTQoSPolicy {
+    //Separator between the rules in the textual representation
+    private static final String RULE_SEPARATOR = ",";
+
+    //Separator between topic filter and QoS level within a rule
+    private static final String QOS_SEPARATOR = "=";
+
+    //QoS level to use for topics that do not match any rule
+    private final int defaultQoS;
+
+    //Ordered list of rules
+    private final List<Rule> rules;
+
+    /**
+     * Creates a new QoS policy from a given default QoS level and a given textual representation of the rules.
+     * The rules must be provided in the form "filter1=qos1,filter2=qos2", e.g. "action/#=1,discovery/#=1". In case
+     * a topic matches multiple rules, the first rule is applied.
+     *
+     * @param defaultQoS The QoS level to use for topics that do not match any rule
+     * @param rules      The textual representation of the rules (may be null or empty)
+     */
+    public MQTTQoSPolicy(int defaultQoS, String rules) {
+        //Sanity check
+        requireValidQoS(defaultQoS);
+
+        this.defaultQoS = defaultQoS;
+        this.rules = parseRules(rules);
+    }
+
+    /**
+     * Returns the QoS level that is supposed to be used for publishing messages under a given topic.
+     *
+     * @param topic The topic to check
+     * @return The QoS level to use
+     */
+    public int getPublishQoS(String topic) {
+        //Find the first matching rule
+        for (Rule rule : rules) {
+            if (MqttTopic.isMatched(rule.topicFilter, topic)) {
+                return rule.qos;
+            }
+        }
+
+        //No matching rule, use default QoS
+        return defaultQoS;
+    }
+
+    /**
+     * Returns the QoS level that is supposed to be used for subscribing to a given topic filter. A rule applies if
+     * its topic filter is equal to the given one or, in case the given topic filter does not contain wildcards,
+     * if it matches the given topic filter. For shared subscriptions, the rules are applied to the shared topic filter.
+     *
+     * @param topicFilter The topic filter to check
+     * @return The QoS level to use
+     */
+    public int getSubscriptionQoS(String topicFilter) {
+        //Strip the prefix of shared subscriptions
+        topicFilter = AbstractMQTTClientConnector.getUnsharedTopicFilter(topicFilter);
+
+        //Check whether the topic filter contains wildcards
+        boolean hasWildcards = topicFilter.contains(MqttTopic.MULTI_LEVEL_WILDCARD) || topicFilter.contains(MqttTopic.SINGLE_LEVEL_WILDCARD);
+
+        //Find the first applicable rule
+        for (Rule rule : rules) {
+            if (rule.topicFilter.equals(topicFilter) || ((!hasWildcards) && MqttTopic.isMatched(rule.topicFilter, topicFilter))) {
+                return rule.qos;
+            }
+        }
+
+        //No applicable rule, use default QoS
+        return defaultQoS;
+    }
+
+    /**
+     * Returns the QoS level that is used for topics that do not match any rule.
+     *
+     * @return The default QoS level
+     */
+    public int getDefaultQoS() {
+        return defaultQoS;
+    }
+
+    /**
+     * Parses the rules from a given textual representation.
+     *
+     * @param rules The textual representation of the rules
+     * @return The resulting list of rules
+     */
+    private static List<Rule> parseRules(String rules) {
+        //Check if rules are provided
+        if ((rules == null) || rules.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Rule> ruleList = new ArrayList<>();
+
+        //Iterate over all rules
+        for (String rule : rules.split(RULE_SEPARATOR)) {
+            //Split rule into topic filter and QoS level
+            int separatorIndex = rule.lastIndexOf(QOS_SEPARATOR);
+            if (separatorIndex < 1) {
+                throw new IllegalArgumentException("Invalid QoS rule \"" + rule + "\", expected \"<topic filter>=<qos>\".");
+            }
+            String topicFilter = rule.substring(0, separatorIndex).trim();
+            int qos = Integer.parseInt(rule.substring(separatorIndex + 1).trim());
+
+            //Validate topic filter and QoS
+            MqttTopic.validate(topicFilter, true);
+            requireValidQoS(qos);
+
+            ruleList.add(new Rule(topicFilter, qos));
+        }
+
+        return Collections.unmodifiableList(ruleList);
+    }
+
+    /**
+     * Checks whether a given QoS level is valid and throws an exception otherwise.
+     *
+     * @param qos The QoS level to check
+     */
+    private static void requireValidQoS(int qos) {
+        if ((qos < 0) || (qos > 2)) {
+            throw new IllegalArgumentException("Invalid QoS level " + qos + ", must be 0, 1 or 2.");
+        }
+    }
+
+    /**
+     * Rule mapping a topic filter to a QoS level.
+     */
+    private static class Rule {
+        private final String topicFilter;
+        private final int qos;
+
+        private Rule(String topicFilter, int qos) {
+            this.topicFilter = topicFilter;
+            this.qos = qos;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package de.ipvs.as.mbp.service.messaging.message;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view on the payload of a message that was received from the messaging broker. The payload bytes are
+ * shared between all listeners to which the message is dispatched and are never copied. A string representation
+ * of the payload is decoded lazily on first request and then shared as well, such that each payload is decoded
+ * at most once, regardless of the number of listeners.
+ */
+public class RawMessage {
+    //The payload bytes as received from the broker
+    private final byte[] payload;
+
+    //The payload decoded as UTF-8 string, created on first request
+    private String text;
+
+    /**
+     * Creates a new raw message from given payload bytes. The bytes must not be modified afterwards.
+     *
+     * @param payload The payload bytes
+     */
+    public RawMessage(byte[] payload) {
+        //Sanity check
+        if (payload == null) {
+            throw new IllegalArgumentException("Payload must not be null.");
+        }
+
+        this.payload = payload;
+    }
+
+    /**
+     * Returns the length of the payload in bytes.
+     *
+     * @return The payload length
+     */
+    public int getLength() {
+        return payload.length;
+    }
+
+    /**
+     * Returns a read-only buffer that wraps the payload bytes without copying them.
+     *
+     * @return The read-only payload buffer
+     */
+    public ByteBuffer getPayloadBuffer() {
+        return ByteBuffer.wrap(payload).asReadOnlyBuffer();
+    }
+
+    /**
+     * Creates a streaming JSON parser from a given factory that reads directly from the payload bytes.
+     *
+     * @param jsonFactory The factory to use
+     * @return The created parser
+     * @throws IOException In case the parser could not be created
+     */
+    public JsonParser createParser(JsonFactory jsonFactory) throws IOException {
+        return jsonFactory.createParser(payload);
+    }
+
+    /**
+     * Returns the payload decoded as UTF-8 string. The string is decoded on first request and then reused.
+     *
+     * @return The payload as string
+     */
+    public String getText() {
+        //Decode payload on first request; concurrent decodings yield equal strings
+        if (text == null) {
+            text = new String(payload, StandardCharsets.UTF_8);
+        }
+        return text;
+    }
+
+    /**
+     * Returns the payload decoded as UTF-8 string.
+     *
+     * @return The payload as string
+     */
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
@@ -0,0 +1,131 @@
+package de.ipvs.as.mbp.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer for a single stage of the value log pipeline, which records the durations of the stage tagged by
+ * the type of the affected component and the outcome of the stage. The timers for the individual combinations of
+ * tag values are registered at the meter registry on demand and cached afterwards, so that recording a duration
+ * does not require a lookup in the registry. Since each timer also counts its recordings, no separate counters
+ * are needed for the outcomes.
+ */
+public class PipelineStageTimer {
+    //Tag keys
+    public static final String TAG_COMPONENT_TYPE = "component_type";
+    public static final String TAG_OUTCOME = "outcome";
+
+    //Common outcomes
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_FAILURE = "failure";
+
+    //Component type to use if the type is not known
+    public static final String UNKNOWN_COMPONENT_TYPE = "unknown";
+
+    //Registry at which the timers are registered
+    private final MeterRegistry meterRegistry;
+
+    //Name and description of the timers
+    private final String name;
+    private final String description;
+
+    //Further tags that are common to all timers
+    private final Tags tags;
+
+    //Cached timers (component type -> outcome -> timer)
+    private final ConcurrentMap<String, ConcurrentMap<String, Timer>> timers;
+
+    /**
+     * Creates a new timer for a stage of the value log pipeline.
+     *
+     * @param meterRegistry The registry at which the timers are supposed to be registered
+     * @param name          The name of the timers
+     * @param description   The description of the timers
+     */
+    public PipelineStageTimer(MeterRegistry meterRegistry, String name, String description) {
+        this(meterRegistry, name, description, Tags.empty());
+    }
+
+    /**
+     * Creates a new timer for a stage of the value log pipeline, whose timers carry further given tags next to
+     * the component type and the outcome.
+     *
+     * @param meterRegistry The registry at which the timers are supposed to be registered
+     * @param name          The name of the timers
+     * @param description   The description of the timers
+     * @param tags          The further tags of the timers
+     */
+    public PipelineStageTimer(MeterRegistry meterRegistry, String name, String description, Tags tags) {
+        //Sanity check
+        if (meterRegistry == null) {
+            throw new IllegalArgumentException("Meter registry must not be null.");
+        }
+
+        this.meterRegistry = meterRegistry;
+        this.name = name;
+        this.description = description;
+        this.tags = tags;
+        this.timers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records the duration of the stage from a given start time until now.
+     *
+     * @param startTime     The start time of the stage, as returned by {@link System#nanoTime()}
+     * @param componentType The type of the affected component or null, if unknown
+     * @param outcome       The outcome of the stage
+     */
+    public void record(long startTime, String componentType, String outcome) {
+        getTimer(componentType, outcome).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the timer for a given component type and outcome and registers it if necessary.
+     *
+     * @param componentType The type of the affected component or null, if unknown
+     * @param outcome       The outcome of the stage
+     * @return The timer
+     */
+    private Timer getTimer(String componentType, String outcome) {
+        String type = (componentType == null) ? UNKNOWN_COMPONENT_TYPE : componentType;
+
+        //Try to find cached timer without locking
+        ConcurrentMap<String, Timer> outcomeTimers = timers.get(type);
+        Timer timer = (outcomeTimers == null) ? null : outcomeTimers.get(outcome);
+        if (timer != null) {
+            return timer;
+        }
+
+        //Register timer
+        return timers.computeIfAbsent(type, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, o -> Timer.builder(name)
+                        .description(description)
+                        .tags(tags)
+                        .tag(TAG_COMPONENT_TYPE, type)
+                        .tag(TAG_OUTCOME, o)
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Returns the component type that corresponds to a given topic, i.e. the first level of the topic.
+     *
+     * @param topic The topic to evaluate
+     * @return The resulting component type
+     */
+    public static String getComponentTypeOfTopic(String topic) {
+        //Sanity check
+        if ((topic == null) || topic.isEmpty()) {
+            return UNKNOWN_COMPONENT_TYPE;
+        }
+
+        //Extract first topic level
+        int separatorIndex = topic.indexOf('/');
+        return (separatorIndex < 0) ? topic : topic.substring(0, separatorIndex);
+    }
+}
@@ -0,0 +1,357 @@
+package de.ipvs.as.mbp.service.receiver;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.ipvs.as.mbp.domain.data_model.DataModelDataType;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTreeNode;
+import org.bson.Document;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validator and converter for the values of value log messages that was compiled from a {@link DataModelTree}.
+ * The tree is translated once into a structure of readers that directly consume the tokens of a streaming JSON
+ * parser and build the resulting {@link Document}, such that no intermediate JSON representation of the message
+ * needs to be created and no tree traversal is required per message. The validation rules are the same as
+ * the ones of {@link ValueLogReceiveVerifier}: all fields of the data model must be present with a value of
+ * a compatible type, while additional fields and array elements are ignored.
+ */
+public class CompiledDataModel {
+
+    //Factory for streaming JSON parsers
+    static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    //Reader for the root of the value, producing a document
+    private final ValueReader rootReader;
+
+    /**
+     * Creates a new compiled data model for a given root reader.
+     *
+     * @param rootReader The reader for the root of the value, producing a document
+     */
+    private CompiledDataModel(ValueReader rootReader) {
+        this.rootReader = rootReader;
+    }
+
+    /**
+     * Compiles a given {@link DataModelTree}.
+     *
+     * @param dataModel The data model tree to compile
+     * @return The compiled data model
+     */
+    public static CompiledDataModel compile(DataModelTree dataModel) {
+        return new CompiledDataModel(compileObject(dataModel.getRoot()));
+    }
+
+    /**
+     * Creates a compiled data model for values that consist of a single double instead of an object, as sent by
+     * monitoring operators. The resulting documents contain the double under a given field name.
+     *
+     * @param fieldName The name of the field under which the double is stored in the resulting documents
+     * @return The compiled data model
+     */
+    public static CompiledDataModel compileDoubleValue(String fieldName) {
+        return new CompiledDataModel(p -> new Document(fieldName, readDouble(p)));
+    }
+
+    /**
+     * Reads a value from a given streaming JSON parser that is currently positioned at the start of the value
+     * object, validates it against the data model and returns it as {@link Document} that can be inserted into
+     * the database. After the call, the parser is positioned at the end of the value object.
+     *
+     * @param parser The parser to read the value from
+     * @return The resulting document
+     * @throws IOException    If the JSON is malformed
+     * @throws JSONException  If the JSON is not matching the data model
+     * @throws ParseException If a date was specified by the data model but the provided value is not parseable
+     */
+    public Document readValue(JsonParser parser) throws IOException, JSONException, ParseException {
+        return (Document) rootReader.read(parser);
+    }
+
+    /**
+     * Reads a value, given as JSON string of the value object, validates it against the data model and
+     * returns it as {@link Document} that can be inserted into the database.
+     *
+     * @param valueJson The JSON string of the value object
+     * @return The resulting document
+     * @throws IOException    If the JSON is malformed
+     * @throws JSONException  If the JSON is not matching the data model
+     * @throws ParseException If a date was specified by the data model but the provided value is not parseable
+     */
+    public Document readValue(String valueJson) throws IOException, JSONException, ParseException {
+        try (JsonParser parser = JSON_FACTORY.createParser(valueJson)) {
+            parser.nextToken();
+            return readValue(parser);
+        }
+    }
+
+    /**
+     * Compiles the reader for a given data model tree node.
+     *
+     * @param node The node to compile
+     * @return The reader for the node
+     */
+    private static ValueReader compileNode(DataModelTreeNode node) {
+        switch (node.getType()) {
+            case OBJECT:
+                return compileObject(node);
+            case ARRAY:
+                return new ArrayReader(node.getSize(), compileNode(node.getChildren().get(0)));
+            case DOUBLE:
+                return CompiledDataModel::readDouble;
+            case DECIMAL128:
+                return CompiledDataModel::readDecimal;
+            case INT:
+                return p -> readNumber(p, DataModelDataType.INT).intValue();
+            case LONG:
+                return p -> readNumber(p, DataModelDataType.LONG).longValue();
+            case BINARY:
+                return p -> Base64.getDecoder().decode(readString(p, DataModelDataType.BINARY));
+            case STRING:
+                return p -> readString(p, DataModelDataType.STRING);
+            case BOOLEAN:
+                return CompiledDataModel::readBoolean;
+            case DATE:
+                return CompiledDataModel::readDate;
+            default:
+                throw new IllegalArgumentException("Unsupported data model type " + node.getType() + ".");
+        }
+    }
+
+    /**
+     * Compiles the reader for a given data model tree node of type object.
+     *
+     * @param node The node to compile
+     * @return The reader for the object node
+     */
+    private static ObjectReader compileObject(DataModelTreeNode node) {
+        List<DataModelTreeNode> children = node.getChildren();
+        String[] names = new String[children.size()];
+        ValueReader[] readers = new ValueReader[children.size()];
+        for (int i = 0; i < children.size(); i++) {
+            names[i] = children.get(i).getName();
+            readers[i] = compileNode(children.get(i));
+        }
+        return new ObjectReader(names, readers);
+    }
+
+    private static Double readDouble(JsonParser parser) throws IOException, JSONException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_STRING:
+                try {
+                    return Double.valueOf(parser.getText());
+                } catch (NumberFormatException e) {
+                    throw mismatch(parser, DataModelDataType.DOUBLE);
+                }
+            default:
+                throw mismatch(parser, DataModelDataType.DOUBLE);
+        }
+    }
+
+    private static BigDecimal readDecimal(JsonParser parser) throws IOException, JSONException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDecimalValue();
+            case VALUE_STRING:
+                try {
+                    return new BigDecimal(parser.getText());
+                } catch (NumberFormatException e) {
+                    throw mismatch(parser, DataModelDataType.DECIMAL128);
+                }
+            default:
+                throw mismatch(parser, DataModelDataType.DECIMAL128);
+        }
+    }
+
+    private static Number readNumber(JsonParser parser, DataModelDataType type) throws IOException, JSONException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_STRING:
+                try {
+                    return new BigDecimal(parser.getText());
+                } catch (NumberFormatException e) {
+                    throw mismatch(parser, type);
+                }
+            default:
+                throw mismatch(parser, type);
+        }
+    }
+
+    private static String readString(JsonParser parser, DataModelDataType type) throws IOException, JSONException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw mismatch(parser, type);
+        }
+        return parser.getText();
+    }
+
+    private static Boolean readBoolean(JsonParser parser) throws IOException, JSONException {
+        switch (parser.currentToken()) {
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_STRING:
+                String text = parser.getText();
+                if ("true".equalsIgnoreCase(text)) {
+                    return Boolean.TRUE;
+                } else if ("false".equalsIgnoreCase(text)) {
+                    return Boolean.FALSE;
+                }
+                throw mismatch(parser, DataModelDataType.BOOLEAN);
+            default:
+                throw mismatch(parser, DataModelDataType.BOOLEAN);
+        }
+    }
+
+    private static Date readDate(JsonParser parser) throws IOException, JSONException, ParseException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+                // The date is provided as unix time stamp in milliseconds (milliseconds since Jan 01 1970 (GMT)
+                return new Date(parser.getLongValue());
+            case VALUE_STRING:
+                // The date is provided as string, try some formats to parse it
+                return ValueLogReceiveVerifier.parseDateString(parser.getText());
+            default:
+                throw mismatch(parser, DataModelDataType.DATE);
+        }
+    }
+
+    private static JSONException mismatch(JsonParser parser, DataModelDataType expectedType) throws IOException {
+        return new JSONException("Error while validating mqtt value message. Expected " + expectedType.getName()
+                + " for \"" + parser.getCurrentName() + "\", but found " + parser.currentToken() + ".");
+    }
+
+    /**
+     * Reader for a single value of a data model node.
+     */
+    @FunctionalInterface
+    private interface ValueReader {
+        /**
+         * Reads the value at which the parser is currently positioned. After the call, the parser is
+         * positioned at the last token of the value.
+         *
+         * @param parser The parser to read from
+         * @return The read value
+         */
+        Object read(JsonParser parser) throws IOException, JSONException, ParseException;
+    }
+
+    /**
+     * Reader for objects, holding one reader per field of the data model.
+     */
+    private static class ObjectReader implements ValueReader {
+        //Names of the fields in the order of the data model
+        private final String[] names;
+
+        //Readers of the fields in the order of the data model
+        private final ValueReader[] readers;
+
+        //Map (field name -> index) for looking up fields by name
+        private final Map<String, Integer> indices;
+
+        private ObjectReader(String[] names, ValueReader[] readers) {
+            this.names = names;
+            this.readers = readers;
+            this.indices = new HashMap<>();
+            for (int i = 0; i < names.length; i++) {
+                indices.put(names[i], i);
+            }
+        }
+
+        @Override
+        public Document read(JsonParser parser) throws IOException, JSONException, ParseException {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                throw new JSONException("Error while validating mqtt value message. Expected object for \""
+                        + parser.getCurrentName() + "\", but found " + parser.currentToken() + ".");
+            }
+
+            //Read all fields, skipping the ones that are not part of the data model
+            Object[] values = new Object[names.length];
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Integer index = indices.get(parser.getCurrentName());
+                JsonToken token = parser.nextToken();
+                if (index == null) {
+                    parser.skipChildren();
+                } else if (token == JsonToken.VALUE_NULL) {
+                    values[index] = null;
+                } else {
+                    values[index] = readers[index].read(parser);
+                }
+            }
+
+            //Create document in the order of the data model and check that all fields are present
+            Document document = new Document();
+            for (int i = 0; i < names.length; i++) {
+                if (values[i] == null) {
+                    throw new JSONException("Error while validating mqtt value message. Field \"" + names[i] + "\" is missing.");
+                }
+                document.append(names[i], values[i]);
+            }
+            return document;
+        }
+    }
+
+    /**
+     * Reader for arrays of a fixed size, holding the reader for the elements.
+     */
+    private static class ArrayReader implements ValueReader {
+        //Number of elements required by the data model
+        private final int size;
+
+        //Reader of the elements
+        private final ValueReader elementReader;
+
+        private ArrayReader(int size, ValueReader elementReader) {
+            this.size = size;
+            this.elementReader = elementReader;
+        }
+
+        @Override
+        public List<Object> read(JsonParser parser) throws IOException, JSONException, ParseException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new JSONException("Error while validating mqtt value message. Expected array for \""
+                        + parser.getCurrentName() + "\", but found " + parser.currentToken() + ".");
+            }
+
+            //Read the required number of elements and skip the remaining ones
+            List<Object> list = new ArrayList<>(size);
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new JSONException("Error while validating mqtt value message. Unexpected end of array.");
+                } else if (list.size() >= size) {
+                    parser.skipChildren();
+                } else if (token == JsonToken.VALUE_NULL) {
+                    throw new JSONException("Error while validating mqtt value message. Array element " + list.size() + " is null.");
+                } else {
+                    list.add(elementReader.read(parser));
+                }
+            }
+
+            //Check that all required elements are present
+            if (list.size() < size) {
+                throw new JSONException("Error while validating mqtt value message. Expected " + size
+                        + " array elements, but found " + list.size() + ".");
+            }
+            return list;
+        }
+    }
+}
@@ -12,13 +12,26 @@ import de.ipvs.as.mbp.repository.*;
 import de.ipvs.as.mbp.repository.discovery.DynamicDeploymentRepository;
 import de.ipvs.as.mbp.service.discovery.deployment.DynamicDeployableComponent;
 import de.ipvs.as.mbp.service.messaging.PubSubService;
+import de.ipvs.as.mbp.service.messaging.message.RawMessage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import de.ipvs.as.mbp.service.metrics.PipelineStageTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.time.Instant;
@@ -56,6 +69,20 @@ import org.json.JSONObject;
  * In order to be treated and processed as value logs, the topics of the incoming messages must comply to certain
  * topics filters. This service implements the observer pattern which allows {@link ValueLogObserver}s to register
  * themselves to the ValueLogReceiver and get notified in case a new value log from a device arrives at the MBP.
+ * <p>
+ * In order to scale the ingestion of value logs horizontally, several MBP instances may receive the messages
+ * via shared subscriptions, such that the broker distributes them among the instances. Each component is then
+ * owned by exactly one of the instances, determined from the hash of its ID. Messages of components that are owned
+ * by a different instance are forwarded to this instance, so that the value logs of a component are always
+ * processed by the same instance and the state of CEP and rules remains consistent. Since the broker distributes
+ * the messages without regard to their components, a message reaches its owner directly only with a probability
+ * of 1/N for N instances; the remaining (N-1)/N of the messages are published a second time for forwarding.
+ * Triggers that reference the events of several components can therefore not be evaluated consistently and are
+ * rejected as long as the components are partitioned (see {@link #isPartitioned()}).
+ * <p>
+ * Instances that serve live streams of components owned by other instances announce their interest in these
+ * components to the owners periodically. The owners then pass the messages of these components on to the interested
+ * instances as well, where they are only handed to the stream observers. Interests that are not renewed expire.
  */
 @Service
 @EnableScheduling
@@ -63,17 +90,43 @@ public class ValueLogReceiver {
     //List of topic filters to subscribe to
     private static final List<String> SUBSCRIBE_TOPIC_FILTERS = Arrays.asList("device/#", "sensor/#", "actuator/#", "monitoring/#", "dynamic/#");
 
+    //Logger for failures of value log processing
+    private static final Logger LOGGER = Logger.getLogger(ValueLogReceiver.class.getName());
+
+    //Outcome of processing messages that were forwarded to other instances
+    private static final String OUTCOME_FORWARDED = "forwarded";
+
+    //Prefix of the topics under which messages are forwarded to the instances that own their components
+    private static final String FORWARD_TOPIC_PREFIX = "mbp/ingest/";
+
+    //Prefix of the topics under which instances exchange stream interests and the messages of streamed components
+    private static final String STREAM_TOPIC_PREFIX = "mbp/stream/";
+    private static final String STREAM_INTEREST_LEVEL = "interest/";
+    private static final String STREAM_VALUES_LEVEL = "values/";
+
+    //Number of announcement intervals after which a stream interest of another instance expires
+    private static final int STREAM_INTEREST_EXPIRY_INTERVALS = 3;
+
     //JSON key names of value log messages
     private static final String JSON_KEY_COMPONENT_TYPE = "component";
     private static final String JSON_COMPONENT_ID = "id";
     private static final String JSON_KEY_VALUE = "value";
 
+    //Compiled data model for the values of monitoring operators, which just send doubles
+    private static final CompiledDataModel MONITORING_VALUE_MODEL = CompiledDataModel.compileDoubleValue(JSON_KEY_VALUE);
+
+    //Factory for streaming JSON parsers
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     //Pattern for retrieving component types from message topics
     private static final Pattern COMPONENT_TYPES_PATTERN = Pattern.compile("^([a-zA-Z0-9_-]+)/.+");
 
     //Set ob observers which want to be notified about incoming value logs
     private final Set<ValueLogObserver> observerSet;
 
+    //Set of observers which also want to be notified about value logs of streamed components owned by other instances
+    private final Set<ValueLogObserver> streamObserverSet = ConcurrentHashMap.newKeySet();
+
     //References to repositories to check the validity of incoming value logs
     private final ActuatorRepository actuatorRepository;
     private final SensorRepository sensorRepository;
@@ -84,6 +137,28 @@ public class ValueLogReceiver {
     // Cache of data model trees to provide fast supply
     private DataModelTreeCache dataModelTreeCache;
 
+    //Whether the raw payloads of the messages are supposed to be stored within the value logs
+    private final boolean storeRawMessage;
+
+    //Messaging service to use for forwarding messages to other instances
+    private final PubSubService pubSubService;
+
+    //Index of this instance and total number of instances that ingest value logs
+    private final int nodeIndex;
+    private final int nodeCount;
+
+    //Interval in which the stream interests are announced to the other instances
+    private final long streamInterestInterval;
+
+    //Components owned by other instances for which this instance serves live streams
+    private Set<String> streamInterests = Collections.emptySet();
+
+    //Interests of other instances in components of this instance (component ID -> (node index -> announcement time))
+    private final Map<String, Map<Integer, Long>> remoteStreamInterests = new ConcurrentHashMap<>();
+
+    //Timer for reading and validating received value logs
+    private final PipelineStageTimer receiveTimer;
+
     /**
      * Initializes the value log receiver service.
      *
@@ -94,13 +169,34 @@ public class ValueLogReceiver {
      * @param monitoringOperatorRepository Repository in which the {@link MonitoringOperator}s are stored
      * @param dynamicDeploymentRepository  Repository in which the {@link DynamicDeployment}s are stored
      * @param dataModelTreeCache           Cache of data model trees
+     * @param storeRawMessage              Whether the raw payloads of the messages are supposed to be stored
+     *                                     within the value logs
+     * @param sharedSubscriptions          Whether the value logs are supposed to be received via shared
+     *                                     subscriptions together with other instances
+     * @param groupName                    The name of the shared subscription group
+     * @param nodeIndex                    The index of this instance among all instances of the group
+"     * @param nodeCount                    The total number of instances of the group
+     * @param streamInterestInterval       The interval in which stream interests are announced, in milliseconds
+     * @param meterRegistry                The registry for the metrics of the receiver
      */
     @Autowired
     public ValueLogReceiver(PubSubService pubSubService, ActuatorRepository actuatorRepository,
                             SensorRepository sensorRepository, DeviceRepository deviceRepository,
                             MonitoringOperatorRepository monitoringOperatorRepository,
                             DynamicDeploymentRepository dynamicDeploymentRepository,
-                            DataModelTreeCache dataModelTreeCache) {
+                            DataModelTreeCache dataModelTreeCache,
+                            @Value("${mbp.value_logs.store_raw_message:false}") boolean storeRawMessage,
+                            @Value("${mbp.ingest.shared_subscriptions:false}") boolean sharedSubscriptions,
+                            @Value("${mbp.ingest.group_name:mbp-ingest}") String groupName,
+                            @Value("${mbp.ingest.node_index:0}") int nodeIndex,
+                            @Value("${mbp.ingest.node_count:1}") int nodeCount,
+                            @Value("${mbp.ingest.stream_interest_interval_ms:10000}") long streamInterestInterval,
+                            MeterRegistry meterRegistry) {
+        //Sanity check
+        if ((nodeCount < 1) || (nodeIndex < 0) || (nodeIndex >= nodeCount)) {
+            throw new IllegalArgumentException("Invalid node index " + nodeIndex + " for " + nodeCount + " ingest nodes.");
+        }
+
         //Store component references
         this.actuatorRepository = actuatorRepository;
         this.sensorRepository = sensorRepository;
@@ -108,12 +204,51 @@ public class ValueLogReceiver {
         this.monitoringOperatorRepository = monitoringOperatorRepository;
         this.dynamicDeploymentRepository = dynamicDeploymentRepository;
         this.dataModelTreeCache = dataModelTreeCache;
+        this.storeRawMessage = storeRawMessage;
+        this.pubSubService = pubSubService;
+
+        //Partitioning of the components only applies to shared subscriptions
+        this.nodeIndex = sharedSubscriptions ? nodeIndex : 0;
+        this.nodeCount = sharedSubscriptions ? nodeCount : 1;
+        this.streamInterestInterval = streamInterestInterval;
 
         //Initialize the set of observers
         observerSet = new HashSet<>();
 
-        //Subscribe to all topics that are relevant for receiving the value logs
-        pubSubService.subscribeJSON(SUBSCRIBE_TOPIC_FILTERS, (m, t, tf) -> processValueLogMessage(m, t));
+        //Create metrics
+        this.receiveTimer = new PipelineStageTimer(meterRegistry, "mbp.value_logs.received",
+                "Reading and validation of received value log messages");
+
+        //Check whether value logs are supposed to be received via shared subscriptions
+        if (!sharedSubscriptions) {
+            //Subscribe to all topics that are relevant for receiving the value logs
+            pubSubService.subscribeRaw(SUBSCRIBE_TOPIC_FILTERS, (m, t, tf) -> processValueLogMessage(m, t, Delivery.RECEIVED));
+            return;
+        }
+
+        //Share the subscriptions for all relevant topics with the other instances of the group
+        pubSubService.subscribeRawShared(groupName, SUBSCRIBE_TOPIC_FILTERS, (m, t, tf) -> processValueLogMessage(m, t, Delivery.RECEIVED));
+
+        //Subscribe to messages that are forwarded by other instances
+        if (nodeCount > 1) {
+            String forwardTopicPrefix = getForwardTopicPrefix(nodeIndex);
+            pubSubService.subscribeRaw(forwardTopicPrefix + "#",
+                    (m, t, tf) -> processValueLogMessage(m, t.substring(forwardTopicPrefix.length()), Delivery.FORWARDED));
+
+            //Subscribe to stream interests of other instances and to messages of the components streamed here
+            String streamTopicPrefix = getStreamTopicPrefix(nodeIndex);
+            pubSubService.subscribeRaw(streamTopicPrefix + "#", (m, t, tf) -> processStreamMessage(m, t.substring(streamTopicPrefix.length())));
+        }
+    }
+
+    /**
+     * Returns whether the components are partitioned among several instances that share the ingestion of value
+     * logs. In this case, each instance only evaluates the value logs of the components it owns.
+     *
+     * @return True, if the components are partitioned; false otherwise
+     */
+    public boolean isPartitioned() {
+        return nodeCount > 1;
     }
 
 
@@ -148,11 +283,85 @@ public class ValueLogReceiver {
         observerSet.remove(observer);
     }
 
+    /**
+     * Registers an observer at the ValueLogReceiver which will be notified about the value logs of components that
+     * are owned by other instances and for which stream interests were announced via
+     * {@link #updateStreamInterests(Set)}. The observer is not notified about the value logs of these components
+     * by {@link #registerObserver(ValueLogObserver)}, since they are not processed by this instance.
+     *
+     * @param observer The observer to register
+     */
+    public void registerStreamObserver(ValueLogObserver observer) {
+        //Sanity check
+        if (observer == null) {
+            throw new IllegalArgumentException("Observer must not be null.");
+        }
+
+        //Add observer to set
+        streamObserverSet.add(observer);
+    }
+
+    /**
+     * Updates the IDs of the components for which live streams are served by this instance. For components that
+     * are owned by other instances, the interest is announced to the owners, which then pass the messages of these
+     * components on to this instance for the stream observers.
+     *
+     * @param componentIDs The IDs of the streamed components
+     */
+    public synchronized void updateStreamInterests(Set<String> componentIDs) {
+        //Nothing to announce if the components are not partitioned
+        if (!isPartitioned()) {
+            return;
+        }
+
+        //Only components of other instances are of interest
+        Set<String> interests = new HashSet<>();
+        for (String componentID : componentIDs) {
+            if (getOwnerIndex(componentID) != nodeIndex) {
+                interests.add(componentID);
+            }
+        }
+
+        //Announce the interests if they changed
+        if (!interests.equals(streamInterests)) {
+            streamInterests = interests;
+            announceStreamInterests();
+        }
+    }
+
+    /**
+     * Announces the stream interests of this instance to all other instances, including empty ones, so that the
+     * other instances can drop interests that no longer exist. Interests are announced periodically, since
+     * instances may start after the announcement and announcements of stopped instances need to expire.
+     */
+    @Scheduled(fixedDelayString = "${mbp.ingest.stream_interest_interval_ms:10000}")
+    public synchronized void announceStreamInterests() {
+        //Nothing to announce if the components are not partitioned
+        if (!isPartitioned()) {
+            return;
+        }
+
+        //Group the interests by the owners of the components
+        Map<Integer, JSONArray> interestsByOwner = new HashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            interestsByOwner.put(i, new JSONArray());
+        }
+        streamInterests.forEach(id -> interestsByOwner.get(getOwnerIndex(id)).put(id));
+
+        //Publish the interests to all other instances
+        interestsByOwner.forEach((ownerIndex, interests) -> {
+            if (ownerIndex != nodeIndex) {
+                pubSubService.publish(getStreamTopicPrefix(ownerIndex) + STREAM_INTEREST_LEVEL + nodeIndex, interests.toString());
+            }
+        });
+    }
+
     /**
      * Unregisters all observers.
      */
     public void clearObservers() {
         observerSet.clear();
+        streamObserverSet.clear();
     }
 
     /**
@@ -172,66 +381,257 @@ public class ValueLogReceiver {
 
     /**
      * Processes a recently received value log message by transforming it into a value log object and
-     * notifying all registered observers about its arrival.
+     * notifying all registered observers about its arrival. The payload bytes of the message are parsed in a single
+     * pass by a streaming parser, which reads the value directly into a document by using the compiled data model
+     * of the component. The payload is only decoded to a string if the raw messages are supposed to be stored.
+     * Messages of components that are owned by other instances are forwarded to them instead.
      *
-     * @param message The arrived message
-     * @param topic   The topic under which the message arrived
+     * @param message  The arrived message
+     * @param topic    The original topic under which the message was published
+     * @param delivery The way in which the message arrived at this instance
      */
-    private void processValueLogMessage(JSONObject message, String topic) {
+    private void processValueLogMessage(RawMessage message, String topic, Delivery delivery) {
         //Sanity check
-        if ((message == null) || message.equals(JSONObject.NULL)) {
+        if ((message == null) || (message.getLength() == 0)) {
             return;
         }
 
+        //Remember start of processing for the metrics
+        long startTime = System.nanoTime();
+
+        //Extract component type from topic under which the message was published
+        String componentType = extractComponentType(topic);
+
+        ValueLog valueLog;
+
         //Catch errors during message processing to avoid crashes of the receiver
-        try {
+        try (JsonParser parser = message.createParser(JSON_FACTORY)) {
             //Record current time
             Instant time = ZonedDateTime.now().toInstant();
 
-            //Create new empty value log
-            ValueLog valueLog = new ValueLog();
-
-            //Retrieve component ID from message
-            String componentID = message.getString(JSON_COMPONENT_ID);
+            //Check whether the message is a JSON object
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JSONException("A JSONObject text must begin with '{'.");
+            }
 
-            //Extract component type from topic under which the message was published
-            String componentType = extractComponentType(topic);
+            String componentID = null;
+            CompiledDataModel dataModel = null;
+            TokenBuffer bufferedValue = null;
+            Document value = null;
+
+            //Stream through the fields of the message
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+
+                if (JSON_COMPONENT_ID.equals(fieldName)) {
+                    //Retrieve component ID from message
+                    componentID = parser.getValueAsString();
+
+                    //Forward the message if the component is owned by another instance
+                    if ((delivery == Delivery.RECEIVED) && (componentID != null) && forwardValueLogMessage(message, topic, componentID)) {
+                        receiveTimer.record(startTime, componentType, OUTCOME_FORWARDED);
+                        return;
+                    }
+
+                    //Check component ID for validity
+                    if (!isComponentIDValid(componentID, componentType, topic)) {
+                        receiveTimer.record(startTime, componentType, PipelineStageTimer.OUTCOME_INVALID);
+                        LOGGER.log(Level.FINE, "Value with invalid component ID \"{0}\" received", componentID);
+                        return;
+                    }
+
+                    //Get the compiled data model of the component as this is needed to infer the right database types
+                    dataModel = getCompiledDataModel(componentID, componentType);
+
+                    //Read the value if it occurred before the component ID
+                    if (bufferedValue != null) {
+                        JsonParser bufferParser = bufferedValue.asParser();
+                        bufferParser.nextToken();
+                        value = dataModel.readValue(bufferParser);
+                    }
+                } else if (JSON_KEY_VALUE.equals(fieldName)) {
+                    if (dataModel != null) {
+                        //Validate the value and transfer it to a document representation
+                        value = dataModel.readValue(parser);
+                    } else {
+                        //Component ID is not known yet, so buffer the tokens of the value
+                        bufferedValue = new TokenBuffer(parser);
+                        bufferedValue.copyCurrentStructure(parser);
+                    }
+                } else {
+                    //Skip fields that are not of interest
+                    parser.skipChildren();
+                }
+            }
 
-            //Check component ID for validity
-            if (!isComponentIDValid(componentID, componentType, topic)) {
-                System.out.println("Value with invalid component ID \"" + componentID + "\" received");
-                return;
+            //Check whether all required fields were found
+            if (componentID == null) {
+                throw new JSONException("JSONObject[\"" + JSON_COMPONENT_ID + "\"] not found.");
+            } else if (value == null) {
+                throw new JSONException("JSONObject[\"" + JSON_KEY_VALUE + "\"] not found.");
             }
 
-            //Set value log fields
+            //Create new value log and set its fields
+            valueLog = new ValueLog();
             valueLog.setTopic(topic);
-            valueLog.setMessage(message.toString());
+            if (storeRawMessage) {
+                valueLog.setMessage(message.getText());
+            }
             valueLog.setTime(time);
             valueLog.setIdref(componentID);
             valueLog.setComponent(componentType);
+            valueLog.setValue(value);
+        } catch (Exception e) {
+            receiveTimer.record(startTime, componentType, PipelineStageTimer.OUTCOME_FAILURE);
+            LOGGER.log(Level.WARNING, "Value log processing failed: {0}", e.getMessage());
+            return;
+        }
+        receiveTimer.record(startTime, componentType, PipelineStageTimer.OUTCOME_SUCCESS);
 
-            //Differentiate between ordinary value logs and monitoring value logs
-            if (!componentType.equalsIgnoreCase("monitoring")) {
-                // Validate the value object part of the json object and transfer the json to a document representation
-                valueLog.setValue(ValueLogReceiveVerifier.validateJsonValueAndGetDocument(
-                        // Retrieve the root node which must be part of the mqtt message by convention
-                        message.getJSONObject(JSON_KEY_VALUE),
-                        // Get the data model tree of the component as this is needed to infer the right database types
-                        dataModelTreeCache.getDataModelOfComponent(componentID)
-                ));
+        //Notify all observers; catch errors to avoid crashes of the receiver
+        try {
+            if (delivery == Delivery.STREAMED) {
+                //Value logs of components that are owned by other instances are only streamed
+                streamObserverSet.forEach(o -> o.onValueReceived(valueLog));
             } else {
-                // Extra case for monitoring operators as they do not have data models and just send doubles
-                double monitoringOperatorVal = message.getDouble(JSON_KEY_VALUE);
-                Document valueDoubleDoc = new Document();
-                valueDoubleDoc.append(JSON_KEY_VALUE, monitoringOperatorVal);
-                valueLog.setValue(valueDoubleDoc);
+                notifyValueLogObservers(valueLog);
+                streamValueLogMessage(message, topic, valueLog.getIdref());
             }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Value log observer failed: {0}", e.getMessage());
+        }
+    }
 
-            //Notify all observers
-            notifyValueLogObservers(valueLog);
+    /**
+     * Processes a message that was published by another instance under the stream topics of this instance. Such
+     * a message either announces the stream interests of the other instance or carries a value log message of a
+     * component that is streamed by this instance.
+     *
+     * @param message The arrived message
+     * @param topic   The topic under which the message was published, relative to the stream topic prefix
+     */
+    private void processStreamMessage(RawMessage message, String topic) {
+        //Check whether the message carries a value log message
+        if (topic.startsWith(STREAM_VALUES_LEVEL)) {
+            processValueLogMessage(message, topic.substring(STREAM_VALUES_LEVEL.length()), Delivery.STREAMED);
+            return;
+        } else if (!topic.startsWith(STREAM_INTEREST_LEVEL)) {
+            return;
+        }
+
+        //Replace the interests of the announcing instance
+        try {
+            int interestedIndex = Integer.parseInt(topic.substring(STREAM_INTEREST_LEVEL.length()));
+            JSONArray interests = new JSONArray(message.getText());
+            long now = System.currentTimeMillis();
+            Set<String> interestSet = new HashSet<>();
+            for (int i = 0; i < interests.length(); i++) {
+                interestSet.add(interests.getString(i));
+                remoteStreamInterests.computeIfAbsent(interests.getString(i), id -> new ConcurrentHashMap<>())
+                        .put(interestedIndex, now);
+            }
+            remoteStreamInterests.forEach((id, nodes) -> {
+                if (!interestSet.contains(id)) {
+                    nodes.remove(interestedIndex);
+                }
+            });
+            remoteStreamInterests.values().removeIf(Map::isEmpty);
         } catch (Exception e) {
-            System.err.println("Value log processing failed: " + e.getMessage());
+            LOGGER.log(Level.WARNING, "Invalid stream interests received: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Passes a given value log message on to the instances that announced their interest in streaming the
+     * component of the message. Interests that were not renewed in time are dropped.
+     *
+     * @param message     The message to pass on
+     * @param topic       The original topic under which the message was published
+     * @param componentID The ID of the component
+     */
+    private void streamValueLogMessage(RawMessage message, String topic, String componentID) {
+        //Check whether other instances are interested in the component
+        Map<Integer, Long> interestedNodes = remoteStreamInterests.get(componentID);
+        if (interestedNodes == null) {
+            return;
+        }
+
+        //Pass the message on to all instances with interests that did not expire yet
+        long expiryTime = System.currentTimeMillis() - STREAM_INTEREST_EXPIRY_INTERVALS * streamInterestInterval;
+        interestedNodes.values().removeIf(t -> t < expiryTime);
+        interestedNodes.keySet().forEach(i -> pubSubService.publish(getStreamTopicPrefix(i) + STREAM_VALUES_LEVEL + topic, message.getText()));
+    }
+
+    /**
+     * Forwards a given value log message to the instance that owns the component of the message, in case this is
+     * not the current instance. The ownership of components is determined from the hash of the component ID, such
+     * that all instances with the same number of nodes agree on it.
+     *
+     * @param message     The message to forward
+     * @param topic       The original topic under which the message was published
+     * @param componentID The ID of the component
+     * @return True, if the message was forwarded to another instance; false otherwise
+     */
+    private boolean forwardValueLogMessage(RawMessage message, String topic, String componentID) {
+        //Determine the owning instance of the component
+        int ownerIndex = getOwnerIndex(componentID);
+
+        //Check whether the component is owned by the current instance
+        if (ownerIndex == nodeIndex) {
+            return false;
         }
+
+        //Forward the message to the owning instance
+        pubSubService.publish(getForwardTopicPrefix(ownerIndex) + topic, message.getText());
+        return true;
+    }
+
+    /**
+     * Returns the index of the instance that owns the component with a given ID. The ownership of components is
+     * determined from the hash of the component ID, such that all instances with the same number of nodes agree on it.
+     *
+     * @param componentID The ID of the component
+     * @return The index of the owning instance
+     */
+    private int getOwnerIndex(String componentID) {
+        return isPartitioned() ? Math.floorMod(componentID.hashCode(), nodeCount) : nodeIndex;
+    }
+
+    /**
+     * Returns the prefix of the topics under which stream interests and value log messages of streamed components
+     * are published to the instance with a given index.
+     *
+     * @param nodeIndex The index of the instance
+     * @return The resulting topic prefix
+     */
+    private static String getStreamTopicPrefix(int nodeIndex) {
+        return STREAM_TOPIC_PREFIX + nodeIndex + "/";
+    }
+
+    /**
+     * Returns the prefix of the topics under which messages are forwarded to the instance with a given index.
+     *
+     * @param nodeIndex The index of the instance
+     * @return The resulting topic prefix
+     */
+    private static String getForwardTopicPrefix(int nodeIndex) {
+        return FORWARD_TOPIC_PREFIX + nodeIndex + "/";
+    }
+
+    /**
+     * Returns the compiled data model that is supposed to be used for reading the values of a given component.
+     *
+     * @param componentID   The ID of the component
+     * @param componentType The type of the component
+     * @return The compiled data model
+     */
+    private CompiledDataModel getCompiledDataModel(String componentID, String componentType) {
+        //Extra case for monitoring operators as they do not have data models and just send doubles
+        if (componentType.equalsIgnoreCase("monitoring")) {
+            return MONITORING_VALUE_MODEL;
+        }
+        return dataModelTreeCache.getCompiledDataModelOfComponent(componentID);
     }
 
     /**
@@ -317,4 +717,16 @@ public class ValueLogReceiver {
         //Return group result containing the component type
         return matcher.group(1);
     }
-}
\ No newline at end of file
+
+    /**
+     * Ways in which value log messages arrive at an instance.
+     */
+    private enum Delivery {
+        //Received from the broker, possibly for a component that is owned by another instance
+        RECEIVED,
+        //Forwarded by another instance to this instance, which owns the component
+        FORWARDED,
+        //Passed on by the owning instance to this instance, which streams the component
+        STREAMED
+    }
+}
@@ -0,0 +1,165 @@
+package de.ipvs.as.mbp.service.retention;
+
+import de.ipvs.as.mbp.repository.ValueLogBucketCodec;
+import de.ipvs.as.mbp.repository.ValueLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background job that converts full documents of the {@link ValueLogRepository} to the columnar format of the
+ * {@link ValueLogBucketCodec}. Documents are converted as soon as the repository reports that they became full,
+ * while documents that were written before the conversion was enabled are converted by a sweep over the value log
+ * and archive collections after startup. The sweep processes the documents in bounded batches and pauses between
+ * them, so that it does not compete with the ingestion of new value logs. If too many components wait for the
+ * conversion of their documents, further components are not remembered individually; instead, another sweep over
+ * the value log collection is performed, so that no full document stays in the row format.
+ */
+@Service
+public class ValueLogCompactionService {
+    //Logger
+    private static final Logger LOGGER = Logger.getLogger(ValueLogCompactionService.class.getName());
+
+    //Whether full documents are supposed to be converted to the columnar format
+    @Value("${mbp.value_logs.columnar.enabled:false}")
+    private boolean enabled;
+
+    //Maximum number of documents that are processed per batch of the sweep
+    @Value("${mbp.value_logs.columnar.batch_size:100}")
+    private int batchSize;
+
+    //Pause in milliseconds between two batches of the sweep and between two conversions of pending documents
+    @Value("${mbp.value_logs.columnar.batch_pause_ms:200}")
+    private long batchPause;
+
+    //Maximum number of components whose full documents wait for being converted
+    @Value("${mbp.value_logs.columnar.max_pending:10000}")
+    private int maxPending;
+
+    @Autowired
+    private ValueLogRepository valueLogRepository;
+
+    //IDs of components whose full documents wait for being converted
+    private final Set<String> pendingIdrefs = ConcurrentHashMap.newKeySet();
+
+    //Whether components were not remembered due to too many pending components since the last overflow sweep
+    private final AtomicBoolean overflowed = new AtomicBoolean(false);
+
+    //Thread that converts the documents
+    private ScheduledExecutorService executor;
+
+    //Counter for converted documents
+    private final Counter compactedDocuments;
+
+    /**
+     * Creates the value log compaction service.
+     *
+     * @param meterRegistry The registry for the metrics of the service
+     */
+    @Autowired
+    public ValueLogCompactionService(MeterRegistry meterRegistry) {
+        this.compactedDocuments = Counter.builder("mbp.value_logs.columnar.compacted")
+                .description("Number of value log documents that were converted to the columnar format")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers at the value log repository and starts the sweep, if the conversion is enabled.
+     */
+    @PostConstruct
+    private void initialize() {
+        if (!enabled) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mbp-value-log-compaction");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        //Components are only remembered once, further documents of them are converted together
+        valueLogRepository.setSealedDocumentListener(idref -> {
+            if (pendingIdrefs.size() >= maxPending) {
+                //Convert the documents of components that were not remembered by a sweep
+                if (overflowed.compareAndSet(false, true)) {
+                    executor.execute(this::sweepOverflow);
+                }
+            } else if (pendingIdrefs.add(idref)) {
+                executor.schedule(() -> compactPending(idref), batchPause, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        executor.execute(() -> {
+            sweep(false);
+            sweep(true);
+        });
+    }
+
+    /**
+     * Stops the conversion.
+     */
+    @PreDestroy
+    private void shutdown() {
+        if (executor != null) {
+            valueLogRepository.setSealedDocumentListener(null);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Converts the full documents of a component that became full.
+     *
+     * @param idref The idref of the component
+     */
+    private void compactPending(String idref) {
+        pendingIdrefs.remove(idref);
+        try {
+            compactedDocuments.increment(valueLogRepository.compactFullDocuments(idref));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to convert value logs of component " + idref + ".", e);
+        }
+    }
+
+    /**
+     * Converts the full documents of the value log collection after components were not remembered due to too many
+     * pending components. Components that overflow during the sweep cause another sweep.
+     */
+    private void sweepOverflow() {
+        overflowed.set(false);
+        sweep(false);
+    }
+
+    /**
+     * Converts all documents of the value log or the archive collection that were written in the row format.
+     *
+     * @param archive True, if the archive collection is supposed to be processed
+     */
+    private void sweep(boolean archive) {
+        try {
+            Object lastId = null;
+            do {
+                lastId = valueLogRepository.compactBatch(archive, lastId, batchSize);
+                Thread.sleep(batchPause);
+            } while ((lastId != null) && (!Thread.currentThread().isInterrupted()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to convert existing value logs to the columnar format.", e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package de.ipvs.as.mbp.service.retention;
+
+import de.ipvs.as.mbp.repository.ValueLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Background job that applies the retention policy for value logs. Documents of value logs that are older than the
+ * retention period of their component type are moved to the archive of the {@link ValueLogRepository}, where they
+ * remain queryable. Optionally, archived value logs that exceed a second horizon are downsampled. The job processes
+ * the documents in bounded batches and pauses between them, so that it does not compete with the ingestion of new
+ * value logs.
+ */
+@Service
+public class ValueLogRetentionService {
+    //Logger
+    private static final Logger LOGGER = Logger.getLogger(ValueLogRetentionService.class.getName());
+
+    //Retention period after which value logs are archived (ISO-8601 duration, empty = disabled)
+    @Value("${mbp.value_logs.retention.archive_after:}")
+    private String archiveAfter;
+
+    //Retention periods per component type in the form "type1=duration1,type2=duration2"
+    @Value("${mbp.value_logs.retention.archive_after_by_type:}")
+    private String archiveAfterByType;
+
+    //Period after which archived value logs are downsampled (ISO-8601 duration, empty = disabled)
+    @Value("${mbp.value_logs.retention.downsample_after:}")
+    private String downsampleAfter;
+
+    //Interval for which one value log is retained when downsampling (ISO-8601 duration)
+    @Value("${mbp.value_logs.retention.downsample_interval:PT1M}")
+    private String downsampleInterval;
+
+    //Maximum number of documents that are processed per batch
+    @Value("${mbp.value_logs.retention.batch_size:100}")
+    private int batchSize;
+
+    //Pause in milliseconds between two batches
+    @Value("${mbp.value_logs.retention.batch_pause_ms:500}")
+    private long batchPause;
+
+    //Interval in milliseconds in which the retention policy is applied
+    @Value("${mbp.value_logs.retention.interval_ms:3600000}")
+    private long interval;
+
+    @Autowired
+    private ValueLogRepository valueLogRepository;
+
+    //Parsed retention policy
+    private Duration defaultRetention;
+    private final Map<String, Duration> retentionByType = new LinkedHashMap<>();
+    private Duration downsampleRetention;
+    private Duration downsampleResolution;
+
+    //Thread that applies the retention policy
+    private ScheduledExecutorService executor;
+
+    //Counters for processed documents
+    private final Counter archivedDocuments;
+    private final Counter downsampledDocuments;
+
+    /**
+     * Creates the value log retention service.
+     *
+     * @param meterRegistry The registry for the metrics of the service
+     */
+    @Autowired
+    public ValueLogRetentionService(MeterRegistry meterRegistry) {
+        this.archivedDocuments = Counter.builder("mbp.value_logs.retention.archived")
+                .description("Number of value log documents that were moved to the archive").register(meterRegistry);
+        this.downsampledDocuments = Counter.builder("mbp.value_logs.retention.downsampled")
+                .description("Number of archived value log documents that were downsampled").register(meterRegistry);
+    }
+
+    /**
+     * Parses the retention policy and schedules its application, if any retention period is configured.
+     */
+    @PostConstruct
+    private void initialize() {
+        //Parse retention periods
+        defaultRetention = parseDuration(archiveAfter);
+        for (String rule : archiveAfterByType.split(",")) {
+            if (rule.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = rule.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid value log retention rule \"" + rule + "\".");
+            }
+            retentionByType.put(parts[0].trim(), parseDuration(parts[1]));
+        }
+        downsampleRetention = parseDuration(downsampleAfter);
+        downsampleResolution = parseDuration(downsampleInterval);
+
+        //Check whether there is anything to do
+        if ((defaultRetention == null) && retentionByType.isEmpty()) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mbp-value-log-retention");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::applyRetentionPolicy, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the application of the retention policy.
+     */
+    @PreDestroy
+    private void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies the retention policy by archiving and downsampling all documents that exceed their retention period.
+     */
+    public void applyRetentionPolicy() {
+        try {
+            Instant now = Instant.now();
+
+            //Archive value logs of component types with specific retention period
+            for (Map.Entry<String, Duration> entry : retentionByType.entrySet()) {
+                Instant threshold = now.minus(entry.getValue());
+                processBatches(() -> valueLogRepository.archiveBatch(threshold,
+                        Collections.singleton(entry.getKey()), false, batchSize), archivedDocuments);
+            }
+
+            //Archive value logs of the remaining component types
+            if (defaultRetention != null) {
+                Instant threshold = now.minus(defaultRetention);
+                processBatches(() -> valueLogRepository.archiveBatch(threshold, retentionByType.keySet(), true,
+                        batchSize), archivedDocuments);
+            }
+
+            //Downsample archived value logs
+            if ((downsampleRetention != null) && (downsampleResolution != null)) {
+                Instant threshold = now.minus(downsampleRetention);
+                processBatches(() -> valueLogRepository.downsampleArchiveBatch(threshold, downsampleResolution,
+                        batchSize), downsampledDocuments);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to apply the retention policy for value logs.", e);
+        }
+    }
+
+    /**
+     * Repeatedly processes batches of documents until a batch is not full, pausing between the batches.
+     *
+     * @param batch   Processes one batch and returns the number of processed documents
+     * @param counter The counter for the processed documents
+     * @throws InterruptedException If the thread was interrupted while pausing
+     */
+    private void processBatches(IntSupplier batch, Counter counter) throws InterruptedException {
+        int processed;
+        do {
+            processed = batch.getAsInt();
+            counter.increment(processed);
+            Thread.sleep(batchPause);
+        } while ((processed >= batchSize) && (!Thread.currentThread().isInterrupted()));
+    }
+
+    /**
+     * Parses a given ISO-8601 duration.
+     *
+     * @param duration The duration to parse
+     * @return The parsed duration or null, if the duration is empty
+     */
+    private static Duration parseDuration(String duration) {
+        if ((duration == null) || duration.trim().isEmpty()) {
+            return null;
+        }
+        return Duration.parse(duration.trim());
+    }
+}
@@ -2,20 +2,17 @@ package de.ipvs.as.mbp.service.rules;
 
 import de.ipvs.as.mbp.domain.rules.Rule;
 import de.ipvs.as.mbp.domain.rules.RuleTrigger;
-import de.ipvs.as.mbp.domain.testing.Testing;
-import de.ipvs.as.mbp.domain.valueLog.ValueLog;
 import de.ipvs.as.mbp.repository.RuleRepository;
-import de.ipvs.as.mbp.repository.TestRepository;
-import de.ipvs.as.mbp.repository.ValueLogRepository;
 import de.ipvs.as.mbp.service.cep.engine.core.output.CEPOutput;
 import de.ipvs.as.mbp.service.cep.engine.core.queries.CEPQueryValidation;
 import de.ipvs.as.mbp.service.cep.trigger.CEPTriggerService;
-import de.ipvs.as.mbp.service.cep.trigger.CEPValueLogCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
 
 /**
  * The rule engine component manages all rules and provides means for enabling and disabling them. In addition,
@@ -23,6 +20,8 @@ import java.util.*;
  */
 @Component
 public class RuleEngine {
+    //Logger
+    private static final Logger LOGGER = Logger.getLogger(RuleEngine.class.getName());
 
     private final RuleRepository ruleRepository;
 
@@ -32,33 +31,30 @@ public class RuleEngine {
 
     private final Map<RuleTrigger, Set<Rule>> triggerMap;
 
-    private final TestRepository testRepo;
-
-    @Autowired
-    private CEPValueLogCache cepValueLogCache;
-
-    @Autowired
-    private ValueLogRepository valueLogRepository;
+    private final RuleProvenanceRecorder provenanceRecorder;
 
     /**
      * Initializes the rule engine component and activates all already enabled rules.
      *
-     * @param ruleRepository The repository in which the rules are stored (autowired)
-     * @param triggerService The CEP trigger service to use (autowired)
-     * @param ruleExecutor   The rule executor to use (autowired)
+     * @param ruleRepository     The repository in which the rules are stored (autowired)
+     * @param triggerService     The CEP trigger service to use (autowired)
+     * @param ruleExecutor       The rule executor to use (autowired)
+     * @param provenanceRecorder The recorder for the provenance of rule executions (autowired)
+     * @param startupThreads     The number of threads for registering the triggers on startup, 0 for one per processor
      */
     @Autowired
-    private RuleEngine(RuleRepository ruleRepository, CEPTriggerService triggerService, RuleExecutor ruleExecutor, TestRepository testRepo) {
+    private RuleEngine(RuleRepository ruleRepository, CEPTriggerService triggerService, RuleExecutor ruleExecutor, RuleProvenanceRecorder provenanceRecorder,
+                       @Value("${mbp.rules.startup_threads:0}") int startupThreads) {
         this.ruleRepository = ruleRepository;
         this.triggerService = triggerService;
         this.ruleExecutor = ruleExecutor;
-        this.testRepo = testRepo;
+        this.provenanceRecorder = provenanceRecorder;
 
-        //Initialize trigger map
-        triggerMap = new HashMap<>();
+        //Initialize trigger map, which is accessed by the threads of the trigger service
+        triggerMap = new ConcurrentHashMap<>();
 
         //Load available rules
-        loadRulesOnStartup();
+        loadRulesOnStartup(startupThreads > 0 ? startupThreads : Runtime.getRuntime().availableProcessors());
     }
 
     /**
@@ -97,7 +93,7 @@ public class RuleEngine {
             //Induce the executions of rules that use this trigger on callback
             triggerService.registerTrigger(trigger, this::induceRuleExecution);
 
-            Set<Rule> rulesOfTrigger = new HashSet<>();
+            Set<Rule> rulesOfTrigger = ConcurrentHashMap.newKeySet();
             rulesOfTrigger.add(rule);
             triggerMap.put(trigger, rulesOfTrigger);
         }
@@ -162,33 +158,21 @@ public class RuleEngine {
 
         //Get all rules from the map that use the given trigger
         Set<Rule> ruleSet = triggerMap.get(ruleTrigger);
+        if (ruleSet == null) {
+            //Trigger was unregistered in the meantime
+            return;
+        }
         Set<String> ruleNames = new HashSet<>();
 
+        //Provenance is only needed while tests are running
+        boolean recordProvenance = provenanceRecorder.isRecording();
+
         //Iterate over all rules and execute them
         for (Rule rule : ruleSet) {
-
             ruleNames.add(rule.getName());
-            Testing testing = new Testing();
-            testing.setTrigger(ruleTrigger);
-            testing.setOutput(output);
-            testing.setRule(ruleNames);
-            Map<String, String> eventTypeComponentIDMap = ruleTrigger.getEventNameToComponentMapping();
-            Map<String, ValueLog> valueLogEventNameMap = new HashMap<>();
-
-            // Get the ValueLogs of the respective event and save them to Testing
-            for (Map.Entry<String, String> e : eventTypeComponentIDMap.entrySet()) {
-                Instant time = Instant.ofEpochMilli((Long) ((Map<Object, Object>) output.getOutputMap().get(e.getKey())).get("time"));
-                ValueLog valueLogToRetrieve = cepValueLogCache.getValueLog(e.getValue(), time);
-
-                if (valueLogToRetrieve == null) {
-                    // If the cache does not contain the entry it should be alraedy in the database --> get it from there
-                    valueLogToRetrieve = valueLogRepository.findByIdRefAndTimeStamp(e.getValue(), time);
-                }
-                valueLogEventNameMap.put(e.getKey(), valueLogToRetrieve);
+            if (recordProvenance) {
+                provenanceRecorder.record(ruleTrigger, output, new HashSet<>(ruleNames));
             }
-            testing.setValueLogEventNameMap(valueLogEventNameMap);
-
-            testRepo.insert(testing);
             ruleExecutor.executeRule(rule, output);
         }
 
@@ -196,18 +180,86 @@ public class RuleEngine {
     }
 
     /**
-     * Ensures that enabled rules will be active and working after the startup of the application.
+     * Ensures that enabled rules will be active and working after the startup of the application. In contrast to
+     * {@link #enableRule(Rule)}, the triggers of the rules are validated and registered in parallel, since the
+     * compilation of their queries dominates the startup time in case of many rules.
+     *
+     * @param threads The number of threads to use
      */
-    private void loadRulesOnStartup() {
-        //Get all rules
-        List<Rule> rules = ruleRepository.findAll();
+    private void loadRulesOnStartup(int threads) {
+        long startTime = System.nanoTime();
 
-        //Iterate over all rules
-        for (Rule rule : rules) {
-            //Enable rule if it is enabled
+        //Group all enabled rules by their triggers
+        Map<RuleTrigger, Set<Rule>> enabledRules = new HashMap<>();
+        for (Rule rule : ruleRepository.findAll()) {
             if (rule.isEnabled()) {
-                enableRule(rule);
+                enabledRules.computeIfAbsent(rule.getTrigger(), t -> ConcurrentHashMap.newKeySet()).add(rule);
+            }
+        }
+
+        //Validate and register the triggers in parallel
+        Map<RuleTrigger, Future<Boolean>> results = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (RuleTrigger trigger : enabledRules.keySet()) {
+                //Add the rules before registering, since the trigger may fire as soon as it is registered
+                triggerMap.put(trigger, enabledRules.get(trigger));
+                results.put(trigger, executor.submit(() -> registerTriggerOnStartup(trigger)));
             }
+
+            //Remove the rules of triggers that could not be registered from the trigger map and disable them
+            List<Rule> invalidRules = new ArrayList<>();
+            for (Map.Entry<RuleTrigger, Future<Boolean>> entry : results.entrySet()) {
+                if (!awaitRegistration(entry.getKey(), entry.getValue())) {
+                    triggerMap.remove(entry.getKey());
+                    enabledRules.get(entry.getKey()).forEach(r -> r.setEnabled(false));
+                    invalidRules.addAll(enabledRules.get(entry.getKey()));
+                }
+            }
+            ruleRepository.saveAll(invalidRules);
+        } finally {
+            executor.shutdown();
+        }
+
+        LOGGER.info(String.format("Loaded %d rules with %d triggers in %d ms", triggerMap.values().stream().mapToInt(Set::size).sum(),
+                triggerMap.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)));
+    }
+
+    /**
+     * Waits for the registration of a given trigger on startup to complete. In case the registration failed with
+     * an exception, the rules of the trigger are removed from the trigger map before the exception is propagated.
+     *
+     * @param trigger The trigger that is registered
+     * @param result  The future of the registration
+     * @return True, if the trigger was registered successfully; false otherwise
+     */
+    private boolean awaitRegistration(RuleTrigger trigger, Future<Boolean> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            triggerMap.remove(trigger);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading rules.", e);
+        } catch (ExecutionException e) {
+            triggerMap.remove(trigger);
+            throw new IllegalStateException("Failed to load rules.", e.getCause());
+        }
+    }
+
+    /**
+     * Validates a given trigger and registers it at the trigger service in case it is valid.
+     *
+     * @param trigger The trigger to register
+     * @return True, if the trigger was registered successfully; false otherwise
+     */
+    private boolean registerTriggerOnStartup(RuleTrigger trigger) {
+        //Check if trigger is still valid (all components exist)
+        if (!triggerService.isValidTriggerQuery(trigger).isValid()) {
+            return false;
         }
+
+        //Register trigger at the trigger service
+        triggerService.registerTrigger(trigger, this::induceRuleExecution);
+        return true;
     }
 }
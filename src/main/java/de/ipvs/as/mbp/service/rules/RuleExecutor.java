@@ -2,24 +2,62 @@ package de.ipvs.as.mbp.service.rules;
 
 import de.ipvs.as.mbp.domain.rules.Rule;
 import de.ipvs.as.mbp.domain.rules.RuleAction;
+import de.ipvs.as.mbp.domain.rules.RuleActionType;
 import de.ipvs.as.mbp.domain.rules.RuleExecutionResult;
 import de.ipvs.as.mbp.repository.RuleRepository;
 import de.ipvs.as.mbp.service.cep.engine.core.output.CEPOutput;
+import de.ipvs.as.mbp.service.cep.trigger.CEPTriggerService;
+import de.ipvs.as.mbp.service.metrics.PipelineStageTimer;
 import de.ipvs.as.mbp.service.rules.execution.RuleActionExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
- * Component which takes care about executing the actions of given rules on demand.
+ * Component which takes care about executing the actions of given rules on demand. The durations of the executions
+ * are recorded per type of the components that triggered the rules and per outcome, those of the actions also per
+ * action type.
  */
 @Component
 public class RuleExecutor {
 
+    //Tag key for the type of rule actions
+    private static final String TAG_ACTION_TYPE = "action_type";
+
     @Autowired
     private RuleRepository ruleRepository;
 
+    @Autowired
+    private CEPTriggerService triggerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    //Timer for the execution of rules
+    private PipelineStageTimer ruleTimer;
+
+    //Timers for the execution of rule actions (action type -> timer)
+    private final Map<RuleActionType, PipelineStageTimer> actionTimers = new EnumMap<>(RuleActionType.class);
+
+    /**
+     * Creates the timers for rules and rule actions.
+     */
+    @PostConstruct
+    private void initialize() {
+        ruleTimer = new PipelineStageTimer(meterRegistry, "mbp.rules.executed",
+                "Execution of rules, including all of their actions");
+        for (RuleActionType actionType : RuleActionType.values()) {
+            actionTimers.put(actionType, new PipelineStageTimer(meterRegistry, "mbp.rules.actions.executed",
+                    "Execution of rule actions by their executors", Tags.of(TAG_ACTION_TYPE, actionType.name())));
+        }
+    }
+
     /**
      * Tests the execution of a given rule action and returns whether the execution was successful.
      *
@@ -58,6 +96,11 @@ public class RuleExecutor {
             throw new IllegalArgumentException("Rule object most not be null.");
         }
 
+        long startTime = System.nanoTime();
+
+        //Get type of the components that triggered the rule for the metrics
+        String componentType = triggerService.getComponentTypeOfTrigger(rule.getTrigger());
+
         //Update meta data
         updateRuleMetaData(rule);
 
@@ -69,12 +112,32 @@ public class RuleExecutor {
             //Get responsible rule action executor
             RuleActionExecutor executor = ruleAction.getType().getExecutor();
 
-            //Execute rule using the executor
-            success &= executor.execute(ruleAction, rule, output);
+            //Execute rule using the executor and record the duration per action type and outcome
+            long actionStartTime = System.nanoTime();
+            boolean actionSuccess = false;
+            try {
+                actionSuccess = executor.execute(ruleAction, rule, output);
+            } finally {
+                actionTimers.get(ruleAction.getType()).record(actionStartTime, componentType, getOutcome(actionSuccess));
+            }
+            success &= actionSuccess;
         }
 
         //Update aftermath fields
         updateAftermath(rule, success);
+
+        //Record duration of the whole execution
+        ruleTimer.record(startTime, componentType, getOutcome(success));
+    }
+
+    /**
+     * Returns the outcome that corresponds to the success of an execution, for tagging the metrics.
+     *
+     * @param success True, if the execution was successful; false otherwise
+     * @return The resulting outcome
+     */
+    private static String getOutcome(boolean success) {
+        return success ? PipelineStageTimer.OUTCOME_SUCCESS : PipelineStageTimer.OUTCOME_FAILURE;
     }
 
     /**
@@ -0,0 +1,266 @@
+package de.ipvs.as.mbp.service.rules;
+
+import de.ipvs.as.mbp.domain.rules.RuleTrigger;
+import de.ipvs.as.mbp.domain.testing.Testing;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.repository.ValueLogRepository;
+import de.ipvs.as.mbp.service.cep.engine.core.output.CEPOutput;
+import de.ipvs.as.mbp.service.cep.trigger.CEPValueLogCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the provenance of rule executions, i.e. the rules that were fired by a trigger together with the CEP output
+ * and the value logs that caused the firing, as {@link Testing} documents. These documents are evaluated by the
+ * testing tool in order to determine the values that triggered the rules of a test. Therefore, provenance is only
+ * recorded while at least one test is running, unless it is configured to be recorded permanently.
+ * <p>
+ * The records are buffered and written to the database in batches by a background thread, so that the execution
+ * of rules does not wait for the database. Value logs that are not available from the {@link CEPValueLogCache}
+ * are also retrieved by the background thread. The records are stored in a capped collection, such that the oldest
+ * records are discarded when the configured size is exceeded.
+ */
+@Component
+public class RuleProvenanceRecorder {
+    //Logger
+    private static final Logger LOGGER = Logger.getLogger(RuleProvenanceRecorder.class.getName());
+
+    //Whether provenance is supposed to be recorded even if no test is running
+    @Value("${mbp.rules.provenance.always_record:false}")
+    private boolean alwaysRecord;
+
+    //Maximum number of records that wait for being written before further records are dropped
+    @Value("${mbp.rules.provenance.buffer_size:10000}")
+    private int bufferSize;
+
+    //Maximum number of records that are written to the database at once
+    @Value("${mbp.rules.provenance.batch_size:500}")
+    private int batchSize;
+
+    //Interval in milliseconds in which buffered records are written to the database
+    @Value("${mbp.rules.provenance.flush_interval_ms:500}")
+    private long flushInterval;
+
+    //Maximum size of the record collection in bytes
+    @Value("${mbp.rules.provenance.max_bytes:67108864}")
+    private long maxBytes;
+
+    //Maximum number of documents in the record collection
+    @Value("${mbp.rules.provenance.max_documents:100000}")
+    private long maxDocuments;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CEPValueLogCache cepValueLogCache;
+
+    @Autowired
+    private ValueLogRepository valueLogRepository;
+
+    //IDs of the tests that are currently running
+    private final Set<String> runningTests = ConcurrentHashMap.newKeySet();
+
+    //Records that wait for being written to the database
+    private BlockingQueue<PendingRecord> buffer;
+
+    //Thread that writes the buffered records to the database
+    private ScheduledExecutorService writer;
+
+    //Counter for records that were dropped due to a full buffer
+    private final Counter droppedRecords;
+
+    /**
+     * Creates the rule provenance recorder.
+     *
+     * @param meterRegistry The registry for the metrics of the recorder
+     */
+    @Autowired
+    public RuleProvenanceRecorder(MeterRegistry meterRegistry) {
+        Gauge.builder("mbp.rules.provenance.pending", this, r -> r.buffer == null ? 0 : r.buffer.size())
+                .description("Number of rule provenance records that wait for being written").register(meterRegistry);
+        this.droppedRecords = Counter.builder("mbp.rules.provenance.dropped")
+                .description("Number of rule provenance records that were dropped due to a full buffer").register(meterRegistry);
+    }
+
+    /**
+     * Creates the record collection and starts the writer thread.
+     */
+    @PostConstruct
+    private void initialize() {
+        ensureCappedCollection();
+
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mbp-rule-provenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the writer thread and writes the remaining records.
+     */
+    @PreDestroy
+    private void shutdown() {
+        writer.shutdownNow();
+        flush();
+    }
+
+    /**
+     * Notifies the recorder that a test has been started, such that provenance is recorded until it ends.
+     *
+     * @param testId The ID of the test
+     */
+    public void startRecording(String testId) {
+        runningTests.add(testId);
+    }
+
+    /**
+     * Notifies the recorder that a test has ended.
+     *
+     * @param testId The ID of the test
+     */
+    public void stopRecording(String testId) {
+        runningTests.remove(testId);
+    }
+
+    /**
+     * Returns whether provenance is currently supposed to be recorded.
+     *
+     * @return True, if provenance is recorded; false otherwise
+     */
+    public boolean isRecording() {
+        return alwaysRecord || !runningTests.isEmpty();
+    }
+
+    /**
+     * Records the firing of rules by a given trigger. The value logs that caused the firing are looked up in the
+     * {@link CEPValueLogCache} immediately, while value logs that are no longer cached are retrieved from the database
+     * when the record is written.
+     *
+     * @param ruleTrigger The trigger that fired
+     * @param output      The CEP output that caused the firing
+     * @param ruleNames   The names of the fired rules
+     */
+    public void record(RuleTrigger ruleTrigger, CEPOutput output, Set<String> ruleNames) {
+        Testing testing = new Testing();
+        testing.setTrigger(ruleTrigger);
+        testing.setOutput(output);
+        testing.setRule(ruleNames);
+
+        // Get the ValueLogs of the respective event from the cache
+        Map<String, ValueLog> valueLogEventNameMap = new HashMap<>();
+        Map<String, ValueLogReference> missingValueLogs = new HashMap<>();
+        for (Map.Entry<String, String> e : ruleTrigger.getEventNameToComponentMapping().entrySet()) {
+            Instant time = Instant.ofEpochMilli((Long) ((Map<Object, Object>) output.getOutputMap().get(e.getKey())).get("time"));
+            ValueLog valueLog = cepValueLogCache.getValueLog(e.getValue(), time);
+            if (valueLog == null) {
+                missingValueLogs.put(e.getKey(), new ValueLogReference(e.getValue(), time));
+            } else {
+                valueLogEventNameMap.put(e.getKey(), valueLog);
+            }
+        }
+        testing.setValueLogEventNameMap(valueLogEventNameMap);
+
+        //Buffer the record and drop it if the buffer is full
+        if (!buffer.offer(new PendingRecord(testing, missingValueLogs))) {
+            droppedRecords.increment();
+        }
+    }
+
+    /**
+     * Writes all buffered records to the database and returns after they were written. Records that are buffered
+     * concurrently are not guaranteed to be written.
+     */
+    public synchronized void flush() {
+        List<PendingRecord> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            try {
+                writeBatch(batch);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to write " + batch.size() + " rule provenance records.", e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Completes the value logs of a given batch of records and writes the records to the database.
+     *
+     * @param batch The batch of records to write
+     */
+    private void writeBatch(List<PendingRecord> batch) {
+        List<Testing> records = new ArrayList<>(batch.size());
+        for (PendingRecord pendingRecord : batch) {
+            // If the cache did not contain the entry it should be already in the database --> get it from there
+            for (Map.Entry<String, ValueLogReference> e : pendingRecord.missingValueLogs.entrySet()) {
+                pendingRecord.testing.getValueLogEventNameMap().put(e.getKey(),
+                        valueLogRepository.findByIdRefAndTimeStamp(e.getValue().componentId, e.getValue().time));
+            }
+            records.add(pendingRecord.testing);
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Testing.class).insert(records).execute();
+    }
+
+    /**
+     * Creates the record collection as capped collection if it does not exist yet and ensures that it is indexed by
+     * the trigger references of the records. Existing collections that are not capped are left unchanged, since
+     * converting them would block the database for large collections and would not limit the number of documents.
+     */
+    private void ensureCappedCollection() {
+        String collectionName = mongoTemplate.getCollectionName(Testing.class);
+        if (!mongoTemplate.collectionExists(collectionName)) {
+            mongoTemplate.createCollection(collectionName, CollectionOptions.empty().capped().size(maxBytes).maxDocuments(maxDocuments));
+        } else if (!Boolean.TRUE.equals(mongoTemplate.executeCommand(new Document("collStats", collectionName)).get("capped"))) {
+            LOGGER.warning("Collection \"" + collectionName + "\" of rule provenance records is not capped and thus not limited in size. " +
+                    "Drop the collection in order to re-create it as capped collection.");
+        }
+        mongoTemplate.indexOps(collectionName).ensureIndex(new Index().on("trigger.$id", Sort.Direction.ASC));
+    }
+
+    /**
+     * Record whose value logs are partially not yet available.
+     */
+    private static class PendingRecord {
+        private final Testing testing;
+        private final Map<String, ValueLogReference> missingValueLogs;
+
+        private PendingRecord(Testing testing, Map<String, ValueLogReference> missingValueLogs) {
+            this.testing = testing;
+            this.missingValueLogs = missingValueLogs;
+        }
+    }
+
+    /**
+     * Reference to a value log by the ID of its component and its timestamp.
+     */
+    private static class ValueLogReference {
+        private final String componentId;
+        private final Instant time;
+
+        private ValueLogReference(String componentId, Instant time) {
+            this.componentId = componentId;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.ipvs.as.mbp.service.settings;
+
+import de.ipvs.as.mbp.domain.settings.Settings;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Application event that is published by the {@link SettingsService} after the application-wide settings were
+ * changed. Beans depending on the settings may listen to this event in order to adjust themselves accordingly.
+ * The settings objects are shared snapshots and must not be modified.
+ */
+public class SettingsChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 3419262513573407482L;
+
+    //Settings before the change
+    private final transient Settings previousSettings;
+
+    //Settings after the change
+    private final transient Settings settings;
+
+    /**
+     * Creates a new settings changed event.
+     *
+     * @param source           The settings service that changed the settings
+     * @param previousSettings The settings before the change
+     * @param settings         The settings after the change
+     */
+    public SettingsChangedEvent(SettingsService source, Settings previousSettings, Settings settings) {
+        super(source);
+        this.previousSettings = previousSettings;
+        this.settings = settings;
+    }
+
+    /**
+     * Returns the settings that were applied before the change.
+     *
+     * @return The previous settings
+     */
+    public Settings getPreviousSettings() {
+        return previousSettings;
+    }
+
+    /**
+     * Returns the settings that are applied after the change.
+     *
+     * @return The current settings
+     */
+    public Settings getSettings() {
+        return settings;
+    }
+}
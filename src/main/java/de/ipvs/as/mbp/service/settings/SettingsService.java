@@ -6,30 +6,46 @@ import de.ipvs.as.mbp.domain.settings.MBPInfo;
 import de.ipvs.as.mbp.domain.settings.Settings;
 import de.ipvs.as.mbp.error.MBPException;
 import de.ipvs.as.mbp.repository.SettingsRepository;
-import de.ipvs.as.mbp.service.deployment.demo.DemoDeployer;
 import de.ipvs.as.mbp.service.messaging.PubSubService;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
 import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This service provides features for the management of application-wide settings that may be changed by the users.
  * The settings are implicitly stored within a MongoDB repository. implicitly stores the settings persistently in a properties file on disk and enables changes of the settings.
+ * The currently applied settings are held in memory as snapshot, which is replaced on every change of the settings.
+ * Afterwards, a {@link SettingsChangedEvent} is published, such that dependent beans can react to the change.
+ * Since the settings may also be changed by other MBP instances that share the same database, the snapshot is
+ * periodically compared with the stored settings and refreshed in the same way if they differ.
  */
 @Configuration
 @PropertySource("classpath:git.properties")
 public class SettingsService {
 
+    private static final Logger LOGGER = Logger.getLogger(SettingsService.class.getName());
+
     @Autowired
     private SettingsRepository settingsRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    //Snapshot of the currently applied settings (null if not loaded yet)
+    private volatile Settings settings;
+
     /*
     Auto-injected data
      */
@@ -96,16 +112,22 @@ public class SettingsService {
     }
 
     /**
-     * Loads and returns the application-wide settings that are currently applied from the MongoDB repository.
+     * Returns the application-wide settings that are currently applied. The settings are loaded from the MongoDB
+     * repository only once, afterwards a snapshot is returned. Since this snapshot is shared, it must not be
+     * modified; in order to change the settings, a copy needs to be created and passed to
+     * {@link #updateSettings(Settings)}.
      *
-     * @return The retrieved settings
+     * @return The current settings
      */
     public Settings getSettings() {
-        //Retrieve settings from repository
-        Optional<Settings> settingsOptional = settingsRepository.findById(Settings.SETTINGS_DOC_ID);
+        //Check whether the settings were already loaded
+        Settings currentSettings = this.settings;
+        if (currentSettings != null) {
+            return currentSettings;
+        }
 
-        //Return retrieved settings or the default ones if not found
-        return settingsOptional.orElse(createDefaultSettings());
+        //Settings need to be loaded
+        return loadSettings();
     }
 
     /**
@@ -114,43 +136,99 @@ public class SettingsService {
      *
      * @param settings The new settings
      */
-    public void updateSettings(Settings settings) throws MqttException {
+    public synchronized void updateSettings(Settings settings) throws MqttException {
         //Get previous settings
         Settings previousSettings = getSettings();
 
         //Check whether the messaging broker settings changed
-        if ((!previousSettings.getBrokerLocation().equals(settings.getBrokerLocation())) ||
-                (!previousSettings.getBrokerIPAddress().equals(settings.getBrokerIPAddress())) ||
-                (previousSettings.getBrokerPort() != settings.getBrokerPort())) {
+        if (isBrokerDifferent(previousSettings, settings)) {
             //Broker settings changed, so re-connect the messaging client with the new settings
             reconnectMessagingClient(settings.getBrokerLocation(), settings.getBrokerIPAddress(), settings.getBrokerPort());
         }
 
-        //Check whether the demo mode setting changed
-        if (!previousSettings.isDemoMode() == settings.isDemoMode()) {
-            //Retrieve demo deployer component bean
-            DemoDeployer demoDeployer = DynamicBeanProvider.get(DemoDeployer.class);
-            demoDeployer.resetDeployedComponents();
-        }
-
-        //Everything worked, thus save settings to repository
+        //Everything worked, thus save settings to repository and notify the dependent components
         saveSettings(settings);
     }
 
     /**
-     * Saves all settings that are provided as part of the settings object persistently in the MongoDB repository
-     * without updating possibly affected components.
+     * Saves all settings that are provided as part of the settings object persistently in the MongoDB repository,
+     * replaces the settings snapshot and publishes a {@link SettingsChangedEvent}.
      *
      * @param settings The new settings
      */
-    public void saveSettings(Settings settings) {
+    public synchronized void saveSettings(Settings settings) {
         //Sanity check
         if (settings == null) {
             throw new IllegalArgumentException("Settings must not be null.");
         }
 
+        //Get previous settings
+        Settings previousSettings = getSettings();
+
         //Save settings into repository
         settingsRepository.save(settings);
+
+        //Replace snapshot by a copy, such that later modifications of the given object do not affect it
+        Settings newSettings = new Settings(settings);
+        this.settings = newSettings;
+
+        //Notify dependent components
+        eventPublisher.publishEvent(new SettingsChangedEvent(this, previousSettings, newSettings));
+    }
+
+    /**
+     * Periodically compares the settings snapshot with the settings that are stored in the MongoDB repository, in
+     * order to apply changes that were saved by other MBP instances. If the stored settings differ, the messaging
+     * client is re-connected in case the broker settings changed, the snapshot is replaced and a
+     * {@link SettingsChangedEvent} is published, as if the settings were saved by this instance.
+     */
+    @Scheduled(initialDelayString = "${mbp.settings.refresh_interval_ms:10000}",
+            fixedDelayString = "${mbp.settings.refresh_interval_ms:10000}")
+    public synchronized void refreshSettings() {
+        //Skip refresh if the settings were not loaded yet, since they are loaded from the repository on demand
+        Settings previousSettings = this.settings;
+        if (previousSettings == null) {
+            return;
+        }
+
+        //Retrieve stored settings and check whether they differ from the snapshot
+        Optional<Settings> settingsOptional = settingsRepository.findById(Settings.SETTINGS_DOC_ID);
+        if ((!settingsOptional.isPresent()) || (!isDifferent(previousSettings, settingsOptional.get()))) {
+            return;
+        }
+        Settings newSettings = settingsOptional.get();
+
+        //Check whether the messaging broker settings changed
+        if (isBrokerDifferent(previousSettings, newSettings)) {
+            try {
+                reconnectMessagingClient(newSettings.getBrokerLocation(), newSettings.getBrokerIPAddress(), newSettings.getBrokerPort());
+            } catch (RuntimeException e) {
+                //The settings are stored already, thus apply them anyway
+                LOGGER.log(Level.WARNING, "Failed to re-connect to the messaging broker after settings were changed by another instance.", e);
+            }
+        }
+
+        //Replace snapshot and notify dependent components
+        this.settings = newSettings;
+        eventPublisher.publishEvent(new SettingsChangedEvent(this, previousSettings, newSettings));
+    }
+
+    /**
+     * Loads the settings from the MongoDB repository and stores them as snapshot, unless they were already
+     * loaded by another thread.
+     *
+     * @return The loaded settings
+     */
+    private synchronized Settings loadSettings() {
+        //Check whether the settings were loaded in the meanwhile
+        if (this.settings != null) {
+            return this.settings;
+        }
+
+        //Retrieve settings from repository or use the default ones if not found
+        Optional<Settings> settingsOptional = settingsRepository.findById(Settings.SETTINGS_DOC_ID);
+        this.settings = settingsOptional.orElseGet(this::createDefaultSettings);
+        return this.settings;
     }
 
     /**
@@ -175,6 +253,32 @@ public class SettingsService {
         }
     }
 
+    /**
+     * Checks whether two given settings objects differ in any of their settings.
+     *
+     * @param settings      The first settings object
+     * @param otherSettings The second settings object
+     * @return True, if the settings differ; false otherwise
+     */
+    private boolean isDifferent(Settings settings, Settings otherSettings) {
+        return isBrokerDifferent(settings, otherSettings) ||
+                (!Objects.equals(settings.getSenderName(), otherSettings.getSenderName())) ||
+                (settings.isDemoMode() != otherSettings.isDemoMode());
+    }
+
+    /**
+     * Checks whether two given settings objects differ in their messaging broker settings.
+     *
+     * @param settings      The first settings object
+     * @param otherSettings The second settings object
+     * @return True, if the broker settings differ; false otherwise
+     */
+    private boolean isBrokerDifferent(Settings settings, Settings otherSettings) {
+        return (settings.getBrokerLocation() != otherSettings.getBrokerLocation()) ||
+                (!Objects.equals(settings.getBrokerIPAddress(), otherSettings.getBrokerIPAddress())) ||
+                (settings.getBrokerPort() != otherSettings.getBrokerPort());
+    }
+
     /**
      * Creates and returns a basic settings object with default settings.
      *
@@ -0,0 +1,207 @@
+package de.ipvs.as.mbp.service.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Subscriber of a server-sent events stream that wraps the SSE emitter of a client together with a bounded
+ * outbox of events that still need to be sent to it. Events are only written to the emitter when the outbox is
+ * flushed, which is done periodically by exactly one writer task per subscriber. Events with the same coalescing
+ * key replace each other within the outbox, such that only the latest one is sent per flush, at the position of
+ * the latest one.
+ * <p>
+ * The writer task only hands the pending events over to a sender executor, so that a client that does not accept
+ * events does not delay the writer tasks of other subscribers. At most one send operation is running per subscriber;
+ * if it does not finish within the send timeout, the subscriber is considered stalled and closed. Subscribers whose
+ * outbox overflows are closed as well.
+ */
+public class BufferedSseSubscriber {
+
+    //The emitter of the client
+    private final SseEmitter emitter;
+
+    //Maximum number of events that may be pending in the outbox
+    private final int maxPendingEvents;
+
+    //Executor for sending the events to the emitter
+    private final Executor sender;
+
+    //Time in milliseconds after which a running send operation is considered stalled
+    private final long sendTimeout;
+
+    //Start time of the running send operation or 0, if no send operation is running
+    private volatile long sendStartTime = 0;
+
+    //Outbox of pending events (coalescing key or unique ID -> SSE event), guarded by this
+    private Map<Object, SseEmitter.SseEventBuilder> outbox = new LinkedHashMap<>();
+
+    //The periodic writer task of this subscriber
+    private ScheduledFuture<?> writerTask;
+
+    //Whether the subscriber was closed
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new subscriber for a given emitter.
+     *
+     * @param emitter          The emitter of the client
+     * @param maxPendingEvents The maximum number of events that may be pending in the outbox
+     * @param sender           The executor for sending the events to the emitter
+     * @param sendTimeout      The time in milliseconds after which a running send operation is considered stalled
+     */
+    public BufferedSseSubscriber(SseEmitter emitter, int maxPendingEvents, Executor sender, long sendTimeout) {
+        this.emitter = emitter;
+        this.maxPendingEvents = maxPendingEvents;
+        this.sender = sender;
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * Adds an event to the outbox of the subscriber. If an event with the same coalescing key is still pending,
+     * it is removed and the new event is added at the end of the outbox, so that the events remain in the order
+     * of their latest occurrence. If the outbox is full, the subscriber is considered too slow and closed.
+     *
+     * @param key   The coalescing key of the event or a unique ID if the event must not be coalesced
+     * @param event The SSE event to add
+     * @return True, if the event was added; false if the subscriber is closed or was closed due to a full outbox
+     */
+    public boolean offer(Object key, SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return false;
+        }
+
+        synchronized (this) {
+            //Check if the event would exceed the capacity of the outbox
+            if ((outbox.size() >= maxPendingEvents) && (!outbox.containsKey(key))) {
+                closed = true;
+            } else {
+                outbox.remove(key);
+                outbox.put(key, event);
+                return true;
+            }
+        }
+
+        //Client is too slow, drop it instead of buffering further events
+        close(new IllegalStateException("Subscriber could not keep up with the events."));
+        return false;
+    }
+
+    /**
+     * Hands all pending events of the outbox over to the sender executor, unless the previous send operation is
+     * still running. Closes the subscriber if the previous send operation exceeded the send timeout. Must only be
+     * called by the writer task of the subscriber.
+     */
+    public void flush() {
+        //Check whether the previous send operation is still running
+        long startTime = sendStartTime;
+        if (startTime != 0) {
+            if (System.currentTimeMillis() - startTime > sendTimeout) {
+                //Client does not accept events, drop it
+                close(new IllegalStateException("Subscriber did not accept the events within the send timeout."));
+            }
+            return;
+        }
+
+        //Swap outbox for an empty one
+        List<SseEmitter.SseEventBuilder> events;
+        synchronized (this) {
+            if (outbox.isEmpty()) {
+                return;
+            }
+            events = new ArrayList<>(outbox.values());
+            outbox = new LinkedHashMap<>();
+        }
+
+        //Send events asynchronously
+        sendStartTime = System.currentTimeMillis();
+        try {
+            sender.execute(() -> send(events));
+        } catch (RejectedExecutionException e) {
+            sendStartTime = 0;
+            close(e);
+        }
+    }
+
+    /**
+     * Sends given events to the emitter.
+     *
+     * @param events The events to send
+     */
+    private void send(List<SseEmitter.SseEventBuilder> events) {
+        try {
+            for (SseEmitter.SseEventBuilder event : events) {
+                if (closed) {
+                    return;
+                }
+                emitter.send(event);
+            }
+        } catch (Exception e) {
+            //Complete emitter, leading to unsubscription
+            close(e);
+        } finally {
+            sendStartTime = 0;
+        }
+    }
+
+    /**
+     * Closes the subscriber by stopping its writer task and completing its emitter with an error.
+     *
+     * @param cause The cause of closing the subscriber
+     */
+    public void close(Throwable cause) {
+        closed = true;
+        cancelWriterTask();
+        try {
+            emitter.completeWithError(cause);
+        } catch (Exception ignored) {
+        }
+    }
+
+    /**
+     * Stops the writer task of the subscriber and drops all pending events.
+     */
+    public synchronized void cancelWriterTask() {
+        closed = true;
+        outbox.clear();
+        if (writerTask != null) {
+            writerTask.cancel(false);
+        }
+    }
+
+    /**
+     * Sets the writer task of the subscriber.
+     *
+     * @param writerTask The writer task to set
+     */
+    public synchronized void setWriterTask(ScheduledFuture<?> writerTask) {
+        this.writerTask = writerTask;
+        if (closed) {
+            writerTask.cancel(false);
+        }
+    }
+
+    /**
+     * Returns the emitter of the subscriber.
+     *
+     * @return The emitter
+     */
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Returns the number of events that are currently pending in the outbox.
+     *
+     * @return The number of pending events
+     */
+    public synchronized int getPendingEventsCount() {
+        return outbox.size();
+    }
+}
@@ -5,11 +5,11 @@ import de.ipvs.as.mbp.domain.component.Component;
 import de.ipvs.as.mbp.domain.valueLog.ValueLog;
 import de.ipvs.as.mbp.repository.ValueLogRepository;
 import de.ipvs.as.mbp.service.UnitConverterService;
+import de.ipvs.as.mbp.service.ValueLogUnitConverter;
 import de.ipvs.as.mbp.service.stats.model.ValueLogStats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.measure.converter.UnitConverter;
 import javax.measure.unit.Unit;
 import java.util.List;
 
@@ -57,18 +57,15 @@ public class ValueLogStatsService {
         }
 
         //Get adapter unit object
-        Unit<?> adapterUnit = component.getOperator().getUnitObject();
+        Unit<?> adapterUnit = unitConverterService.parseUnit(component.getOperator().getUnit());
 
         //Check if value conversion is desired and possible
         if ((unit != null) && adapterUnit.isCompatible(unit)) {
             //Get converter
-            UnitConverter converter = adapterUnit.getConverterTo(unit);
+            ValueLogUnitConverter converter = unitConverterService.getValueLogConverter(componentId, adapterUnit, unit);
 
             //Iterate over all value logs and convert them
-            for (ValueLog valueLog : valueLogList) {
-                //Convert
-                unitConverterService.convertValueLogValue(valueLog, converter);
-            }
+            valueLogList.forEach(converter::convert);
         }
 
         /*
@@ -6,7 +6,6 @@ import de.ipvs.as.mbp.domain.rules.Rule;
 import de.ipvs.as.mbp.domain.testing.TestReport;
 import de.ipvs.as.mbp.repository.*;
 import de.ipvs.as.mbp.domain.testing.TestDetails;
-import org.bson.Document;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -17,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Component
 public class TestEngine {
@@ -31,6 +31,9 @@ public class TestEngine {
     @Autowired
     private TestReportRepository testReportRepository;
 
+    @Autowired
+    private TestSimulationValueService testSimulationValueService;
+
 
 
     /**
@@ -46,7 +49,7 @@ public class TestEngine {
 
         try {
             if (testDetailsOptional.isPresent()) {
-                for (TestReport testReport : testReportRepository.findAllByName(testDetailsOptional.get().getName())) {
+                for (TestReport testReport : testReportRepository.findAllMetadataByName(testDetailsOptional.get().getName())) {
                     nullList.put(Long.valueOf(testReport.getStartTimeUnix()), testReport);
                 }
             }
@@ -61,40 +64,17 @@ public class TestEngine {
 
     /**
      * Returns a list of the generated sensor values of a specific test execution with a specific format to display them in the Highchart.
+     * The values may be restricted to a single sensor and a time window and downsampled to a maximum number of points per sensor.
      *
-     * @param reportId of the report for which the sensor values should be returned
+     * @param reportId   of the report for which the sensor values should be returned
+     * @param sensorName name of the sensor for which the values should be returned or null for all sensors
+     * @param from       unix timestamp in milliseconds from which on the values should be returned or null
+     * @param to         unix timestamp in milliseconds up to which the values should be returned or null
+     * @param maxPoints  maximum number of values to return per sensor or 0 for all values
      * @return list of sensor values for all sensors within the test report
      */
-    public Map<String, ArrayList> getSimulationValues(String reportId) {
-        Map<String, ArrayList> simulationValues = new HashMap<>();
-
-        if (testReportRepository.findById(reportId).isPresent()) {
-            TestReport testReport = testReportRepository.findById(reportId).get();
-
-            Map<String, LinkedHashMap<Long, Document>> simulationList = testReport.getSimulationList();
-
-            if (simulationList != null && simulationList.size() > 0) {
-                for (Map.Entry<String, LinkedHashMap<Long, Document>> entry : simulationList.entrySet()) {
-                    ArrayList tupelList = new ArrayList();
-
-
-                    String key = entry.getKey();
-                    LinkedHashMap<Long, Document> valueList = entry.getValue();
-                    for (Map.Entry<Long, Document> list : valueList.entrySet()) {
-                        List timeValueTupel = new ArrayList<>();
-                        timeValueTupel.add(list.getKey() * 1000);
-                        timeValueTupel.add(list.getValue());
-                        tupelList.add(timeValueTupel);
-                    }
-
-                    simulationValues.put(key, tupelList);
-
-                }
-            }
-
-
-        }
-        return simulationValues;
+    public Map<String, List<List<Object>>> getSimulationValues(String reportId, String sensorName, Long from, Long to, int maxPoints) {
+        return testSimulationValueService.getTimeSeries(reportId, sensorName, from, to, maxPoints);
     }
 
     /**
@@ -220,7 +200,10 @@ public class TestEngine {
     public ResponseEntity<Void> deleteReport(String reportId) {
         try {
             Optional<TestReport> testReportOptional = testReportRepository.findById(reportId);
-            testReportOptional.ifPresent(testReport -> testReportRepository.delete(testReport));
+            testReportOptional.ifPresent(testReport -> {
+                testReportRepository.delete(testReport);
+                testSimulationValueService.deleteValues(Collections.singletonList(testReport.getId()));
+            });
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
@@ -236,8 +219,9 @@ public class TestEngine {
         Optional<TestDetails> testDetailsOptional = testDetailsRepository.findById(testId);
 
         if (testDetailsOptional.isPresent()) {
-            List<TestReport> testReportList = testReportRepository.findAllByName(testDetailsOptional.get().getName());
+            List<TestReport> testReportList = testReportRepository.findAllMetadataByName(testDetailsOptional.get().getName());
             testReportRepository.deleteAll(testReportList);
+            testSimulationValueService.deleteValues(testReportList.stream().map(TestReport::getId).collect(Collectors.toList()));
         }
 
 
@@ -0,0 +1,232 @@
+package de.ipvs.as.mbp.service.testing;
+
+import de.ipvs.as.mbp.domain.testing.TestReport;
+import de.ipvs.as.mbp.domain.testing.TestSimulationValue;
+import de.ipvs.as.mbp.repository.TestSimulationValueRepository;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+
+/**
+ * Service for storing and retrieving the sensor values that were generated during the execution of tests. The values
+ * are stored as separate documents, one per value, and can be retrieved per sensor, time window and in a downsampled
+ * form. For test reports that were created before the values were stored separately, the values that are embedded
+ * into the report documents are used instead.
+ */
+@Service
+public class TestSimulationValueService {
+
+    //Name of the index on the report IDs, sensor names and timestamps of the values
+    private static final String REPORT_SENSOR_TIME_INDEX_NAME = "report_sensor_time";
+
+    @Autowired
+    private TestSimulationValueRepository testSimulationValueRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Ensures that the index for retrieving the values of a report per sensor and time window exists.
+     */
+    @PostConstruct
+    private void ensureIndex() {
+        mongoTemplate.indexOps(TestSimulationValue.class).ensureIndex(new Index()
+                .on("reportId", Sort.Direction.ASC)
+                .on("sensorName", Sort.Direction.ASC)
+                .on("time", Sort.Direction.ASC)
+                .named(REPORT_SENSOR_TIME_INDEX_NAME));
+    }
+
+    /**
+     * Stores the values that were generated during the execution of a test for a given test report.
+     *
+     * @param reportId       The ID of the test report to which the values belong
+     * @param valuesBySensor Map (sensor name --> map (Unix timestamp in seconds --> value)) of the generated values
+     */
+    public void saveValues(String reportId, Map<String, LinkedHashMap<Long, Document>> valuesBySensor) {
+        List<TestSimulationValue> values = new ArrayList<>();
+        for (Map.Entry<String, LinkedHashMap<Long, Document>> sensorValues : valuesBySensor.entrySet()) {
+            for (Map.Entry<Long, Document> value : sensorValues.getValue().entrySet()) {
+                values.add(new TestSimulationValue(reportId, sensorValues.getKey(), value.getKey() * 1000, value.getValue()));
+            }
+        }
+
+        //Insert all values at once
+        if (!values.isEmpty()) {
+            mongoTemplate.insert(values, TestSimulationValue.class);
+        }
+    }
+
+    /**
+     * Returns all values that were generated during the execution of the test of a given test report, in the
+     * format in which they were originally collected.
+     *
+     * @param testReport The test report to retrieve the values for
+     * @return Map (sensor name --> map (Unix timestamp in seconds --> value)) of the generated values
+     */
+    public Map<String, LinkedHashMap<Long, Document>> getValues(TestReport testReport) {
+        //Fall back to the values that are embedded into the report
+        if (!testSimulationValueRepository.existsByReportId(testReport.getId())) {
+            return testReport.getSimulationList() == null ? new HashMap<>() : testReport.getSimulationList();
+        }
+
+        Map<String, LinkedHashMap<Long, Document>> valuesBySensor = new HashMap<>();
+        Query query = new Query(Criteria.where("reportId").is(testReport.getId()))
+                .with(Sort.by("sensorName", "time"));
+        try (CloseableIterator<TestSimulationValue> values = mongoTemplate.stream(query, TestSimulationValue.class)) {
+            values.forEachRemaining(v -> valuesBySensor.computeIfAbsent(v.getSensorName(), s -> new LinkedHashMap<>())
+                    .put(v.getTime() / 1000, v.getValue()));
+        }
+        return valuesBySensor;
+    }
+
+    /**
+     * Returns the values that were generated during the execution of the test of a given test report as time series
+     * of [timestamp in milliseconds, value] tuples per sensor. The values may be restricted to a single sensor and
+     * a time window. If a maximum number of points is given, each time series is downsampled by only returning every
+     * n-th value, such that the series does not exceed the maximum number of points.
+     *
+     * @param reportId   The ID of the test report to retrieve the values for
+     * @param sensorName The name of the sensor to retrieve the values for or null for all sensors
+     * @param from       The Unix timestamp in milliseconds from which on values are retrieved or null
+     * @param to         The Unix timestamp in milliseconds up to which values are retrieved or null
+     * @param maxPoints  The maximum number of points per time series or 0 for no limitation
+     * @return Map (sensor name --> list of [timestamp, value] tuples) of the generated values
+     */
+    public Map<String, List<List<Object>>> getTimeSeries(String reportId, String sensorName, Long from, Long to, int maxPoints) {
+        //Fall back to the values that are embedded into the report
+        if (!testSimulationValueRepository.existsByReportId(reportId)) {
+            return getLegacyTimeSeries(reportId, sensorName, from, to, maxPoints);
+        }
+
+        //Build criteria for the requested values
+        Criteria criteria = Criteria.where("reportId").is(reportId);
+        if (sensorName != null) {
+            criteria = criteria.and("sensorName").is(sensorName);
+        }
+        if ((from != null) || (to != null)) {
+            criteria = criteria.and("time");
+            if (from != null) {
+                criteria = criteria.gte(from);
+            }
+            if (to != null) {
+                criteria = criteria.lte(to);
+            }
+        }
+
+        //Count the values per sensor in order to determine the sampling steps
+        Map<String, Integer> steps = new HashMap<>();
+        if (maxPoints > 0) {
+            Aggregation aggregation = Aggregation.newAggregation(Aggregation.match(criteria),
+                    Aggregation.group("sensorName").count().as("count"));
+            for (Document result : mongoTemplate.aggregate(aggregation, TestSimulationValue.class, Document.class)) {
+                steps.put(result.getString("_id"), getSamplingStep(result.get("count", Number.class).longValue(), maxPoints));
+            }
+        }
+
+        //Stream the values and pick the samples
+        Query query = new Query(criteria).with(Sort.by("sensorName", "time"));
+        query.fields().include("sensorName").include("time").include("value");
+        try (CloseableIterator<TestSimulationValue> values = mongoTemplate.stream(query, TestSimulationValue.class)) {
+            return sample(values, steps);
+        }
+    }
+
+    /**
+     * Deletes all values that belong to the given test reports.
+     *
+     * @param reportIds The IDs of the test reports whose values are supposed to be deleted
+     */
+    public void deleteValues(Collection<String> reportIds) {
+        testSimulationValueRepository.deleteByReportIdIn(reportIds);
+    }
+
+    /**
+     * Returns the values that are embedded into a test report as time series, restricted and downsampled in the
+     * same way as {@link #getTimeSeries(String, String, Long, Long, int)} does.
+     *
+     * @param reportId   The ID of the test report to retrieve the values for
+     * @param sensorName The name of the sensor to retrieve the values for or null for all sensors
+     * @param from       The Unix timestamp in milliseconds from which on values are retrieved or null
+     * @param to         The Unix timestamp in milliseconds up to which values are retrieved or null
+     * @param maxPoints  The maximum number of points per time series or 0 for no limitation
+     * @return Map (sensor name --> list of [timestamp, value] tuples) of the generated values
+     */
+    private Map<String, List<List<Object>>> getLegacyTimeSeries(String reportId, String sensorName, Long from, Long to, int maxPoints) {
+        //Only retrieve the embedded values from the report
+        Query query = new Query(Criteria.where("id").is(reportId));
+        query.fields().include("simulationList");
+        TestReport testReport = mongoTemplate.findOne(query, TestReport.class);
+        if ((testReport == null) || (testReport.getSimulationList() == null)) {
+            return new LinkedHashMap<>();
+        }
+
+        //Filter the values
+        List<TestSimulationValue> values = new ArrayList<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, LinkedHashMap<Long, Document>> sensorValues : testReport.getSimulationList().entrySet()) {
+            if ((sensorName != null) && !sensorName.equals(sensorValues.getKey())) {
+                continue;
+            }
+            for (Map.Entry<Long, Document> value : sensorValues.getValue().entrySet()) {
+                long time = value.getKey() * 1000;
+                if (((from == null) || (time >= from)) && ((to == null) || (time <= to))) {
+                    values.add(new TestSimulationValue(reportId, sensorValues.getKey(), time, value.getValue()));
+                    counts.merge(sensorValues.getKey(), 1, Integer::sum);
+                }
+            }
+        }
+
+        //Determine the sampling steps
+        Map<String, Integer> steps = new HashMap<>();
+        if (maxPoints > 0) {
+            counts.forEach((name, count) -> steps.put(name, getSamplingStep(count, maxPoints)));
+        }
+
+        return sample(values.iterator(), steps);
+    }
+
+    /**
+     * Converts the values that are provided by a given iterator to time series of [timestamp, value] tuples per
+     * sensor, thereby only picking every n-th value of a sensor as given by the sampling steps.
+     *
+     * @param values The values to convert, grouped by sensor and sorted by time
+     * @param steps  Map (sensor name --> sampling step) of the sampling steps; sensors without step are not sampled
+     * @return Map (sensor name --> list of [timestamp, value] tuples) of the sampled values
+     */
+    private Map<String, List<List<Object>>> sample(Iterator<TestSimulationValue> values, Map<String, Integer> steps) {
+        Map<String, List<List<Object>>> timeSeries = new LinkedHashMap<>();
+        Map<String, Integer> positions = new HashMap<>();
+        while (values.hasNext()) {
+            TestSimulationValue value = values.next();
+            int position = positions.merge(value.getSensorName(), 1, Integer::sum) - 1;
+            if (position % steps.getOrDefault(value.getSensorName(), 1) == 0) {
+                timeSeries.computeIfAbsent(value.getSensorName(), s -> new ArrayList<>())
+                        .add(Arrays.asList(value.getTime(), value.getValue()));
+            }
+        }
+        return timeSeries;
+    }
+
+    /**
+     * Returns the sampling step that is required for reducing a given number of values to a given maximum number
+     * of points.
+     *
+     * @param count     The number of values
+     * @param maxPoints The maximum number of points
+     * @return The sampling step
+     */
+    private static int getSamplingStep(long count, int maxPoints) {
+        return (int) Math.max(1, (count + maxPoints - 1) / maxPoints);
+    }
+}
@@ -10,6 +10,7 @@ import de.ipvs.as.mbp.domain.valueLog.ValueLog;
 import de.ipvs.as.mbp.repository.*;
 import de.ipvs.as.mbp.service.receiver.ValueLogObserver;
 import de.ipvs.as.mbp.service.receiver.ValueLogReceiver;
+import de.ipvs.as.mbp.service.rules.RuleProvenanceRecorder;
 import de.ipvs.as.mbp.service.testing.executor.TestExecutor;
 import de.ipvs.as.mbp.web.rest.helper.DeploymentWrapper;
 import org.bson.Document;
@@ -31,6 +32,9 @@ public class TestAnalyzer implements ValueLogObserver {
     @Autowired
     private TestRepository testRepo;
 
+    @Autowired
+    private RuleProvenanceRecorder ruleProvenanceRecorder;
+
     @Autowired
     private RuleRepository ruleRepository;
 
@@ -254,6 +258,9 @@ public class TestAnalyzer implements ValueLogObserver {
     public Map<String, List<Document>> getTriggerValues(String reportId) {
         Map<String, List<Document>> testValues = new HashMap<>();
 
+        //Make sure that all rule executions of the test are written
+        ruleProvenanceRecorder.flush();
+
         //Try to find specific test report
         Optional<TestReport> testReportOptional = testReportRepository.findById(reportId);
 
@@ -13,8 +13,10 @@ import de.ipvs.as.mbp.service.deployment.DeployerDispatcher;
 import de.ipvs.as.mbp.service.deployment.IDeployer;
 import de.ipvs.as.mbp.service.deployment.demo.DemoDeployer;
 import de.ipvs.as.mbp.service.rules.RuleEngine;
+import de.ipvs.as.mbp.service.rules.RuleProvenanceRecorder;
 import de.ipvs.as.mbp.service.settings.SettingsService;
 import de.ipvs.as.mbp.service.testing.TestDevicePropertiesService;
+import de.ipvs.as.mbp.service.testing.TestSimulationValueService;
 import de.ipvs.as.mbp.service.testing.analyzer.TestAnalyzer;
 import org.bson.Document;
 import org.eclipse.paho.client.mqttv3.MqttException;
@@ -42,6 +44,12 @@ public class TestExecutor {
     @Autowired
     private TestDetailsRepository testDetailsRepository;
 
+    @Autowired
+    private TestSimulationValueService testSimulationValueService;
+
+    @Autowired
+    private RuleProvenanceRecorder ruleProvenanceRecorder;
+
     @Autowired
     private ActuatorRepository actuatorRepository;
 
@@ -143,8 +151,8 @@ public class TestExecutor {
      * @param testReportId test report with all needed information for the repetition
      */
     public void rerunTest(TestDetails test, String testReportId) {
-        // Get the current (old) status of the demonstration mode
-        Settings currSetting = settingsService.getSettings();
+        // Get a copy of the current (old) settings, including the status of the demonstration mode
+        Settings currSetting = new Settings(settingsService.getSettings());
 
         // Marker whether the demo mode should be set again to false after testing
         boolean setDemoModeFalseAfterTest = false;
@@ -170,7 +178,8 @@ public class TestExecutor {
 
                 if (testReportRepository.findById(reportId).isPresent()) {
                     updatedReport = testReportRepository.findById(reportId).get();
-                    // add test and sensors to the activation list
+                    // add test and sensors to the activation list and record the rule executions
+                    ruleProvenanceRecorder.startRecording(test.getId());
                     activateTest(updatedReport.getSensor(), test.getId(), true);
 
                     // Enable rules that belong to the test
@@ -180,7 +189,7 @@ public class TestExecutor {
                     startActuator();
 
                     // start Sensors
-                    sensorRerunService(updatedReport, oldReport.getSimulationList());
+                    sensorRerunService(updatedReport, testSimulationValueService.getValues(oldReport));
 
                     // Get List of all simulated Values
                     Map<String, LinkedHashMap<Long, Document>> valueList = testAnalyzer.isFinished(reportId, test.getId(), false);
@@ -200,6 +209,8 @@ public class TestExecutor {
             List<Rule> rulesAfter = testAnalyzer.getCorrespondingRules(test.getRules(), test.getSensor());
             saveAmountRulesTriggered(updatedReport.getId(), rulesAfter);
         } finally {
+            ruleProvenanceRecorder.stopRecording(test.getId());
+
             // Set the demo mode again to false if test finsihed or an error occured and it was set to false before the rerun
             if (setDemoModeFalseAfterTest) {
                 currSetting.setDemoMode(false);
@@ -346,7 +357,8 @@ public class TestExecutor {
         try {
             String reportId = setReportInformation(test);
 
-            // add test and sensors to the activation list
+            // add test and sensors to the activation list and record the rule executions
+            ruleProvenanceRecorder.startRecording(test.getId());
             activateTest(test.getSensor(), test.getId(), true);
 
             // start all components relevant for the test
@@ -367,6 +379,8 @@ public class TestExecutor {
             stopTest(test.getId());
             saveAmountRulesTriggered(testReport.getId(), rulesAfter);
 
+        } finally {
+            ruleProvenanceRecorder.stopRecording(test.getId());
         }
     }
 
@@ -535,7 +549,8 @@ public class TestExecutor {
 
 
     /**
-     * Saves the generated values during the test in the repository.
+     * Saves the generated values during the test in the repository. The values of the report are stored separately
+     * from the report and test documents by the {@link TestSimulationValueService}.
      *
      * @param testDetails executed test
      * @param valueList   generated value list
@@ -551,13 +566,17 @@ public class TestExecutor {
                 if (valueList.get(sensor.getId()) != null) {
                     LinkedHashMap<Long, Document> temp = valueList.get(sensor.getId());
                     valueListTest.put(sensor.getName(), temp);
-                    testReport.setSimulationList(valueListTest);
-                    testDetails.setSimulationList(valueListTest);
                 }
 
             }
-            testReportRepository.save(testReport);
-            testDetailsRepository.save(testDetails);
+            // Store the values separately from the report
+            testSimulationValueService.saveValues(reportId, valueListTest);
+
+            // Drop values that were embedded into the test by previous runs
+            if (testDetails.getSimulationList() != null) {
+                testDetails.setSimulationList(null);
+                testDetailsRepository.save(testDetails);
+            }
         }
 
     }
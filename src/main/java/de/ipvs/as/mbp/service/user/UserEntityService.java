@@ -15,6 +15,9 @@ import de.ipvs.as.mbp.service.validation.IDeleteValidator;
 import de.ipvs.as.mbp.util.C;
 import de.ipvs.as.mbp.util.Pages;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.hateoas.EntityModel;
@@ -24,7 +27,9 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -67,6 +72,12 @@ public class UserEntityService {
      * Retrieves a page of user entities from the database. Note that only those entities are returned,
      * that are either owned by the requesting user or for which a policy grants reading access
      * to the requesting user.
+     * <p>
+     * The owner and policy checks are pushed down to the database: only the policies that are referenced by
+     * entities of other users are retrieved, policies whose conditions only refer to the requesting user are
+     * evaluated once and the database is queried for entities that are owned by the user or reference one of
+     * the granting policies. Only if there are policies that need to be evaluated per entity,
+     * the candidate entities are filtered in memory before the page is extracted.
      *
      * @param <E>           the type of the {@link UserEntity}.
      * @param repository    the repository to retrieve the user entities from.
@@ -74,11 +85,79 @@ public class UserEntityService {
      * @param accessRequest the {@link ACAccessRequest} containing the contextual information
      *                      of the requesting user required to evaluate the policies.
      * @param pageable      the {@link Pageable} to configure the resulting list.
-     * @return the page of (filtered) user entities.
+     * @return the page of (filtered) user entities, including the total number of accessible entities.
      */
-    public <E extends UserEntity> List<E> getPageWithAccessControlCheck(UserEntityRepository<E> repository, ACAccessType accessType, ACAccessRequest accessRequest, Pageable pageable) {
-        // Extract requested page from all entities
-        return Pages.page(getAllWithAccessControlCheck(repository, accessType, accessRequest), pageable);
+    public <E extends UserEntity> Page<E> getPageWithAccessControlCheck(UserEntityRepository<E> repository, ACAccessType accessType, ACAccessRequest accessRequest, Pageable pageable) {
+        // Retrieve the currently logged in user from the database
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return Page.empty(pageable);
+        }
+
+        //User must be loginable
+        requireLoginable(user);
+
+        // Sort by name unless requested otherwise
+        Sort sort = pageable.getSortOr(DEFAULT_SORT);
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+        }
+
+        // Admin users are allowed to access everything
+        if (user.isAdmin()) {
+            return pageable.isPaged() ? repository.findAll(pageable) : toPage(repository.findAll(sort), pageable);
+        }
+
+        // Retrieve only the applicable policies that are referenced by entities of other users
+        List<String> referencedPolicyIds = repository.findPolicyIdsReferencedByOthers(user.getId());
+        List<ACPolicy> policies = referencedPolicyIds.isEmpty() ? Collections.emptyList() :
+                policyRepository.findByIdAnyAndAccessTypeAll(referencedPolicyIds, C.listOf(accessType.toString()));
+
+        // Evaluate the policies that do not depend on the entities once for the requesting user
+        List<String> grantingPolicyIds = new ArrayList<>();
+        List<String> residualPolicyIds = new ArrayList<>();
+        Map<String, Optional<Boolean>> results = policyEvaluationService.evaluateForAnyEntity(policies, accessType, user, accessRequest);
+        for (ACPolicy policy : policies) {
+            Optional<Boolean> result = results.get(policy.getId());
+            if (!result.isPresent()) {
+                residualPolicyIds.add(policy.getId());
+            } else if (result.get()) {
+                grantingPolicyIds.add(policy.getId());
+            }
+        }
+
+        // Let the database do the filtering and paging if no policies need to be evaluated per entity
+        if (residualPolicyIds.isEmpty()) {
+            return pageable.isPaged() ? repository.findByOwnerOrPolicyIdAny(user.getId(), grantingPolicyIds, pageable)
+                    : toPage(repository.findByOwnerOrPolicyIdAny(user.getId(), grantingPolicyIds, sort), pageable);
+        }
+
+        // Retrieve the candidates from the database and evaluate the remaining policies in memory
+        List<String> candidatePolicyIds = new ArrayList<>(grantingPolicyIds);
+        candidatePolicyIds.addAll(residualPolicyIds);
+        List<E> entities = repository.findByOwnerOrPolicyIdAny(user.getId(), candidatePolicyIds, sort).stream()
+                .filter(e -> checkOwner(user.getId(), e)
+                        || e.getAccessControlPolicyIds().stream().anyMatch(grantingPolicyIds::contains)
+                        || checkPermission(e, accessType, accessRequest))
+                .collect(Collectors.toList());
+
+        // Extract requested page from all accessible entities
+        if (pageable.isUnpaged()) {
+            return toPage(entities, pageable);
+        }
+        return new PageImpl<>(Pages.page(entities, pageable), pageable, entities.size());
+    }
+
+    /**
+     * Wraps a complete, already sorted list of entities into a page for an unpaged request.
+     *
+     * @param <E>      the type of the {@link UserEntity}.
+     * @param entities the list of entities.
+     * @param pageable the unpaged {@link Pageable}.
+     * @return the page holding all entities.
+     */
+    private <E extends UserEntity> Page<E> toPage(List<E> entities, Pageable pageable) {
+        return new PageImpl<>(entities, pageable, entities.size());
     }
 
     /**
@@ -160,6 +239,71 @@ public class UserEntityService {
         return Optional.empty();
     }
 
+    /**
+     * Retrieves for each of a list of entities the first applicable policy that grants the requested access,
+     * analogously to {@link #getFirstPolicyGrantingAccess(UserEntity, ACAccessType, ACAccessRequest)}. The checks
+     * are performed in bulk: the requesting user is retrieved only once, the policies of all entities are retrieved
+     * with a single query and policies whose conditions do not refer to the requested entity are evaluated only once.
+     *
+     * @param <E>           the type of the {@link UserEntity}.
+     * @param entities      the list of {@link UserEntity}s access is requested for.
+     * @param accessType    the {@link ACAccessType}.
+     * @param accessRequest the {@link ACAccessRequest} containing the contextual
+     *                      information of the requesting user required to evaluate
+     *                      the policies.
+     * @return a map from the ids of all accessible entities to the first policy granting access wrapped in an
+     * {@link Optional}, which is empty if the requesting user is admin or owner of the entity.
+     */
+    public <E extends UserEntity> Map<String, Optional<ACPolicy>> getFirstPoliciesGrantingAccess(List<E> entities, ACAccessType accessType, ACAccessRequest accessRequest) {
+        Map<String, Optional<ACPolicy>> result = new HashMap<>();
+
+        // Retrieve the currently logged in user from the database
+        User user = userService.getLoggedInUser();
+        if (user == null) {
+            return result;
+        }
+
+        //User must be loginable
+        requireLoginable(user);
+
+        // Admin users and owners do not need any policies
+        List<E> notOwnedEntities = new ArrayList<>();
+        for (E entity : entities) {
+            if (user.isAdmin() || checkOwner(user.getId(), entity)) {
+                result.put(entity.getId(), Optional.empty());
+            } else {
+                notOwnedEntities.add(entity);
+            }
+        }
+        if (notOwnedEntities.isEmpty()) {
+            return result;
+        }
+
+        // Retrieve the policies of all remaining entities at once
+        List<String> policyIds = notOwnedEntities.stream().flatMap(e -> e.getAccessControlPolicyIds().stream())
+                .distinct().collect(Collectors.toList());
+        Map<String, ACPolicy> policies = policyRepository.findByIdAny(policyIds).stream()
+                .collect(Collectors.toMap(ACPolicy::getId, p -> p));
+
+        // Evaluate the policies, re-using the results of policies that do not depend on the entities
+        Map<String, Optional<Boolean>> entityIndependentResults = new HashMap<>();
+        for (E entity : notOwnedEntities) {
+            for (String policyId : entity.getAccessControlPolicyIds()) {
+                ACPolicy policy = policies.get(policyId);
+                if (policy == null) {
+                    continue;
+                }
+                Optional<Boolean> granted = entityIndependentResults.computeIfAbsent(policyId,
+                        id -> policyEvaluationService.evaluateForAnyEntity(policy, accessType, user, accessRequest));
+                if (granted.orElseGet(() -> policyEvaluationService.evaluate(policy, new ACAccess(accessType, user, entity), accessRequest))) {
+                    result.put(entity.getId(), Optional.of(policy));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
     public <E extends UserEntity> E create(UserEntityRepository<E> repository, E entity) throws EntityNotFoundException {
         //Retrieve the currently logged in user from the database
         User user = userService.getLoggedInUser();
@@ -426,9 +570,9 @@ public class UserEntityService {
         return false;
     }
 
-    public <E extends UserEntity> PagedModel<EntityModel<E>> entitiesToPagedModel(List<E> entities, Link selfLink, Pageable pageable) {
-        List<EntityModel<E>> deviceEntityModels = entities.stream().map(this::entityToEntityModel).collect(Collectors.toList());
-        return PagedModel.of(deviceEntityModels, Pages.metaDataOf(pageable, deviceEntityModels.size()), C.listOf(selfLink));
+    public <E extends UserEntity> PagedModel<EntityModel<E>> entitiesToPagedModel(Page<E> entities, Link selfLink) {
+        List<EntityModel<E>> entityModels = entities.stream().map(this::entityToEntityModel).collect(Collectors.toList());
+        return PagedModel.of(entityModels, Pages.metaDataOf(entities), C.listOf(selfLink));
     }
 
     public <E extends UserEntity> EntityModel<E> entityToEntityModel(E entity) {
@@ -7,39 +7,108 @@ import de.ipvs.as.mbp.domain.user.UserSession;
 import de.ipvs.as.mbp.repository.UserRepository;
 import de.ipvs.as.mbp.repository.UserSessionRepository;
 import de.ipvs.as.mbp.security.UserSessionCookieFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.ResponseCookie;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 
 /**
- * Service class for managing user sessions that is also responsible for periodically cleaning the session repository
- * by deleting old user sessions.
+ * Service class for managing user sessions. Expired sessions are removed by the database itself by means of
+ * a TTL index on the creation timestamp of the sessions.
  */
 @Service
 public class UserSessionService {
 
+    //Name of the TTL index on the session creation timestamps
+    private static final String SESSION_TTL_INDEX_NAME = "created_ttl";
+
+    //Name of the field holding the joined user document
+    private static final String JOINED_USER_FIELD = "user";
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private UserSessionRepository userSessionRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    //Lifetime of sessions after which they expire
+    private final Duration sessionLifetime;
+
     //Cache users that are associated with session IDs
     private final Cache<String, User> sessionCache;
 
+    //Cache session IDs for which no valid session exists
+    private final Cache<String, Boolean> unknownSessionCache;
+
     /**
      * Creates the user session service.
+     *
+     * @param sessionLifetimeDays       Number of days after which sessions expire
+     * @param sessionCacheSize          Maximum number of cached sessions
+     * @param sessionCacheExpiry        Number of seconds after the last access at which cached sessions are evicted
+     * @param unknownSessionCacheSize   Maximum number of cached unknown session IDs
+     * @param unknownSessionCacheExpiry Number of seconds after which cached unknown session IDs are evicted
+     * @param meterRegistry             The registry to expose the cache metrics to
      */
-    public UserSessionService() {
-        //Create and configure cache
-        this.sessionCache = Caffeine.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).maximumSize(1000).build();
+    @Autowired
+    public UserSessionService(@Value("${mbp.sessions.lifetime_days:7}") long sessionLifetimeDays,
+                              @Value("${mbp.sessions.cache.size:1000}") long sessionCacheSize,
+                              @Value("${mbp.sessions.cache.expiry_seconds:60}") long sessionCacheExpiry,
+                              @Value("${mbp.sessions.unknown_cache.size:10000}") long unknownSessionCacheSize,
+                              @Value("${mbp.sessions.unknown_cache.expiry_seconds:10}") long unknownSessionCacheExpiry,
+                              MeterRegistry meterRegistry) {
+        this.sessionLifetime = Duration.ofDays(sessionLifetimeDays);
+
+        //Create and configure caches
+        this.sessionCache = Caffeine.newBuilder().expireAfterAccess(Duration.ofSeconds(sessionCacheExpiry))
+                .maximumSize(sessionCacheSize).recordStats().build();
+        this.unknownSessionCache = Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(unknownSessionCacheExpiry))
+                .maximumSize(unknownSessionCacheSize).recordStats().build();
+
+        //Expose size and hit rates of the caches
+        CaffeineCacheMetrics.monitor(meterRegistry, sessionCache, "user_sessions");
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownSessionCache, "user_sessions_unknown");
+    }
+
+    /**
+     * Ensures that the TTL index for expiring sessions exists on the session collection and matches the
+     * configured session lifetime.
+     */
+    @PostConstruct
+    private void ensureSessionTTLIndex() {
+        IndexOperations indexOperations = mongoTemplate.indexOps(UserSession.class);
+
+        //Drop the index if it was created for a different session lifetime
+        for (IndexInfo indexInfo : indexOperations.getIndexInfo()) {
+            if (indexInfo.getName().equals(SESSION_TTL_INDEX_NAME)
+                    && !indexInfo.getExpireAfter().equals(Optional.of(sessionLifetime))) {
+                indexOperations.dropIndex(SESSION_TTL_INDEX_NAME);
+            }
+        }
+
+        //Create index if not already existing
+        indexOperations.ensureIndex(new Index().on("created", Sort.Direction.ASC)
+                .named(SESSION_TTL_INDEX_NAME).expire(sessionLifetime));
     }
 
     /**
@@ -57,30 +126,65 @@ public class UserSessionService {
             return Optional.of(cachedUser);
         }
 
-        //User is not cached, retrieve corresponding session from repository
-        Optional<UserSession> userSessionOptional = userSessionRepository.findFirstBySessionId(sessionId);
+        //Check whether the session ID is already known to be invalid
+        if ((sessionId == null) || (unknownSessionCache.getIfPresent(sessionId) != null)) {
+            return Optional.empty();
+        }
+
+        //User is not cached, retrieve session and corresponding user from the database in one query
+        Optional<User> userOptional = findUserBySessionId(sessionId);
+
+        //Update the caches depending on whether the user was found
+        if (userOptional.isPresent()) {
+            sessionCache.put(sessionId, userOptional.get());
+        } else {
+            unknownSessionCache.put(sessionId, Boolean.TRUE);
+        }
+
+        //Return user optional
+        return userOptional;
+    }
+
+    /**
+     * Retrieves the user that is associated with a non-expired session from the database by joining
+     * the session with the corresponding user document.
+     *
+     * @param sessionId The ID of the session to retrieve the user for
+     * @return Optional containing the user that is associated with the session (if existing)
+     */
+    private Optional<User> findUserBySessionId(String sessionId) {
+        //Only consider sessions that have not expired yet (the TTL monitor only runs periodically)
+        Date expiryThreshold = Date.from(Instant.now().minus(sessionLifetime));
+
+        //Match the session, convert its user ID to an object ID and join it with the corresponding user
+        Aggregation aggregation = Aggregation.newAggregation(UserSession.class,
+                Aggregation.match(Criteria.where("sessionId").is(sessionId).and("created").gt(expiryThreshold)),
+                Aggregation.limit(1),
+                context -> new Document("$addFields", new Document("userObjectId", new Document("$convert",
+                        new Document("input", "$userId").append("to", "objectId")
+                                .append("onError", null).append("onNull", null)))),
+                Aggregation.lookup(mongoTemplate.getCollectionName(User.class), "userObjectId", "_id", JOINED_USER_FIELD));
+
+        //Execute aggregation
+        Document sessionDocument = mongoTemplate.aggregate(aggregation, UserSession.class, Document.class).getUniqueMappedResult();
 
         //Check if session exists
-        if ((!userSessionOptional.isPresent())) {
+        if (sessionDocument == null) {
             return Optional.empty();
         }
 
-        //Get user ID from session
-        String userId = userSessionOptional.get().getUserId();
+        //Check if the user could be joined
+        List<Document> joinedUsers = sessionDocument.getList(JOINED_USER_FIELD, Document.class);
+        if ((joinedUsers != null) && !joinedUsers.isEmpty()) {
+            return Optional.of(mongoTemplate.getConverter().read(User.class, joinedUsers.get(0)));
+        }
 
-        //Check if user ID is available
+        //Fall back to a lookup by ID for user IDs that are no object IDs
+        String userId = sessionDocument.getString("userId");
         if ((userId == null) || userId.isEmpty()) {
             return Optional.empty();
         }
-
-        //Retrieve corresponding user by its ID
-        Optional<User> userOptional = userRepository.findById(userId);
-
-        //Update cache if user was found
-        userOptional.ifPresent(user -> sessionCache.put(sessionId, user));
-
-        //Return user optional
-        return userOptional;
+        return userRepository.findById(userId);
     }
 
     /**
@@ -94,6 +198,7 @@ public class UserSessionService {
 
         //Invalidate entry in cache
         sessionCache.invalidate(sessionId);
+        unknownSessionCache.put(sessionId, Boolean.TRUE);
     }
 
     /**
@@ -137,19 +242,4 @@ public class UserSessionService {
         //Store session in repository
         return userSessionRepository.insert(userSession);
     }
-
-    /**
-     * Runs once a day and removes all user sessions from the session repository that are older than 7 days.
-     */
-    @Scheduled(fixedRate = 1000 * 60 * 60 * 24)
-    private void cleanupSessionRepository() {
-        //Iterate over all stored user sessions
-        for (UserSession userSession : userSessionRepository.findAll()) {
-            //Check if user session is older than 7 days
-            if (userSession.getCreated().plus(7, ChronoUnit.DAYS).isBefore(Instant.now())) {
-                //Invalidate session
-                invalidateSession(userSession.getSessionId());
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package de.ipvs.as.mbp.service.value_export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats in which value logs can be exported.
+ */
+public enum ValueLogExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    ValueLogExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Returns the media type of the format.
+     *
+     * @return The media type
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the file extension of the format.
+     *
+     * @return The file extension
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
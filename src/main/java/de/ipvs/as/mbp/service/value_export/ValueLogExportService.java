@@ -0,0 +1,190 @@
+package de.ipvs.as.mbp.service.value_export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.ipvs.as.mbp.domain.access_control.ACAbstractEffect;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.repository.ValueLogRepository;
+import de.ipvs.as.mbp.service.ValueLogUnitConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service that exports the value logs of a component within a time range to an output stream, either as
+ * newline-delimited JSON or as CSV. The value logs are read from a database cursor and written one by one, with unit
+ * conversion and policy effects applied per value log, so that arbitrarily many value logs can be exported with
+ * constant memory. Since the output stream blocks when the client does not keep up, reading from the database is
+ * slowed down accordingly.
+ */
+@Service
+public class ValueLogExportService {
+    //Size of the output buffer
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    //Fixed CSV columns preceding the value columns
+    private static final String CSV_HEADER = "time,idref,component,qos,topic";
+
+    @Autowired
+    private ValueLogRepository valueLogRepository;
+
+    //Writer for serializing value logs in the same way as the REST interface
+    private final ObjectWriter jsonWriter;
+
+    /**
+     * Creates the value log export service.
+     *
+     * @param objectMapper The object mapper to use for serializing value logs (auto-wired)
+     */
+    @Autowired
+    public ValueLogExportService(ObjectMapper objectMapper) {
+        this.jsonWriter = objectMapper.writerFor(ValueLog.class);
+    }
+
+    /**
+     * Exports the value logs of a given component within an optional time range to a given output stream. The
+     * caller is responsible for checking the permissions of the client.
+     *
+     * @param componentId  The ID of the component whose value logs are exported
+     * @param startTime    The inclusive start of the time range or null
+     * @param endTime      The exclusive end of the time range or null
+     * @param ascending    True, if the value logs are supposed to be ordered ascending by time
+     * @param format       The format to export the value logs in
+     * @param converter    The unit converter to apply or null
+     * @param effect       The policy effect to apply or null
+     * @param outputStream The output stream to write to
+     * @return The number of exported value logs
+     * @throws IOException If writing to the output stream failed
+     */
+    public long export(String componentId, Instant startTime, Instant endTime, boolean ascending, ValueLogExportFormat format,
+                       ValueLogUnitConverter converter, ACAbstractEffect effect, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RecordWriter recordWriter = format == ValueLogExportFormat.CSV ? new CsvRecordWriter(writer) : new JsonRecordWriter(writer);
+
+        //Stream value logs from the database to the writer
+        long[] count = {0};
+        try {
+            valueLogRepository.streamByIdRef(componentId, startTime, endTime, ascending, valueLog -> {
+                if (converter != null) {
+                    converter.convert(valueLog);
+                }
+                ValueLog result = effect == null ? valueLog : effect.apply(valueLog);
+                try {
+                    recordWriter.write(result);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        return count[0];
+    }
+
+    /**
+     * Writes single value logs in a certain format.
+     */
+    private interface RecordWriter {
+        void write(ValueLog valueLog) throws IOException;
+    }
+
+    /**
+     * Writes value logs as newline-delimited JSON.
+     */
+    private class JsonRecordWriter implements RecordWriter {
+        private final Writer writer;
+
+        private JsonRecordWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ValueLog valueLog) throws IOException {
+            writer.write(jsonWriter.writeValueAsString(valueLog));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Writes value logs as CSV with one column per leaf of the value. Since all value logs of a component conform
+     * to the same data model, the value columns are determined from the first value log.
+     */
+    private static class CsvRecordWriter implements RecordWriter {
+        private final Writer writer;
+        private List<String> valueColumns = null;
+
+        private CsvRecordWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(ValueLog valueLog) throws IOException {
+            //Flatten value into columns
+            Map<String, Object> leaves = new LinkedHashMap<>();
+            flatten(valueLog.getValue(), "", leaves);
+
+            //Write header for first value log
+            if (valueColumns == null) {
+                valueColumns = new ArrayList<>(leaves.keySet());
+                writer.write(CSV_HEADER);
+                for (String column : valueColumns) {
+                    writer.write(',');
+                    writer.write(escape(column));
+                }
+                writer.write('\n');
+            }
+
+            writer.write(valueLog.getTime() == null ? "" : valueLog.getTime().toString());
+            writer.write(',');
+            writer.write(escape(valueLog.getIdref()));
+            writer.write(',');
+            writer.write(escape(valueLog.getComponent()));
+            writer.write(',');
+            writer.write(valueLog.getQos() == null ? "" : valueLog.getQos().toString());
+            writer.write(',');
+            writer.write(escape(valueLog.getTopic()));
+            for (String column : valueColumns) {
+                writer.write(',');
+                Object leaf = leaves.get(column);
+                writer.write(leaf == null ? "" : escape(leaf.toString()));
+            }
+            writer.write('\n');
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void flatten(Object value, String prefix, Map<String, Object> leaves) {
+            if (value instanceof Map) {
+                for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                    flatten(entry.getValue(), prefix.isEmpty() ? entry.getKey() : prefix + "." + entry.getKey(), leaves);
+                }
+            } else if (value instanceof List) {
+                List<Object> list = (List<Object>) value;
+                for (int i = 0; i < list.size(); i++) {
+                    flatten(list.get(i), prefix.isEmpty() ? String.valueOf(i) : prefix + "." + i, leaves);
+                }
+            } else {
+                leaves.put(prefix, value);
+            }
+        }
+
+        private static String escape(String field) {
+            if (field == null) {
+                return "";
+            }
+            if ((field.indexOf(',') < 0) && (field.indexOf('"') < 0) && (field.indexOf('\n') < 0) && (field.indexOf('\r') < 0)) {
+                return field;
+            }
+            return '"' + field.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package de.ipvs.as.mbp.service.value_import;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Objects of this class summarize the outcome of a bulk import of value logs.
+ */
+@ApiModel(description = "Result of a bulk import of value logs")
+public class ValueLogImportResult {
+
+    @ApiModelProperty(notes = "Number of imported value logs", example = "525600")
+    private long importedValues = 0;
+
+    @ApiModelProperty(notes = "Number of rejected records", example = "0")
+    private long rejectedRecords = 0;
+
+    @ApiModelProperty(notes = "Number of inserted documents", example = "6570")
+    private long insertedDocuments = 0;
+
+    @ApiModelProperty(notes = "Duration of the import in milliseconds", example = "2500")
+    private long durationMillis = 0;
+
+    @ApiModelProperty(notes = "Error messages of the first rejected records")
+    private final List<String> errors = new ArrayList<>();
+
+    public long getImportedValues() {
+        return importedValues;
+    }
+
+    public long getRejectedRecords() {
+        return rejectedRecords;
+    }
+
+    public long getInsertedDocuments() {
+        return insertedDocuments;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Returns the throughput of the import.
+     *
+     * @return The number of imported value logs per second
+     */
+    @ApiModelProperty(notes = "Number of imported value logs per second", example = "210240")
+    public double getValuesPerSecond() {
+        return durationMillis == 0 ? importedValues : importedValues * 1000.0 / durationMillis;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    void addImported(long values, long documents) {
+        this.importedValues += values;
+        this.insertedDocuments += documents;
+    }
+
+    void addRejected(String error, int maxErrors) {
+        this.rejectedRecords++;
+        if (errors.size() < maxErrors) {
+            errors.add(error);
+        }
+    }
+
+    void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
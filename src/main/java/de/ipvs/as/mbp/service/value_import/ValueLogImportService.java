@@ -0,0 +1,173 @@
+package de.ipvs.as.mbp.service.value_import;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.ipvs.as.mbp.domain.component.Component;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.repository.DataModelTreeCache;
+import de.ipvs.as.mbp.repository.ValueLogRepository;
+import de.ipvs.as.mbp.service.receiver.CompiledDataModel;
+import org.bson.Document;
+import org.json.JSONException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service that imports historical value logs of a component, given as newline-delimited JSON records of the form
+ * <code>{"time": ..., "value": {...}}</code>, where the time is given either in epoch milliseconds or as ISO-8601
+ * string. The values are validated against the data model of the component, which is compiled only once per import.
+ * The records must be ordered by time; records that are older than their predecessor are rejected. The value logs
+ * are collected into batches and written as full documents by means of unordered bulk inserts.
+ * In contrast to value logs that are received via the messaging broker, imported value logs are not passed to the
+ * observers of the value log receiver, thus they do not trigger CEP queries or rules.
+ */
+@Service
+public class ValueLogImportService {
+    //Factory for streaming JSON parsers
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    //Names of the fields of the records
+    private static final String JSON_KEY_TIME = "time";
+    private static final String JSON_KEY_VALUE = "value";
+
+    //Maximum number of error messages to include into the result
+    private static final int MAX_ERRORS = 10;
+
+    //Number of value logs that are written per batch
+    @Value("${mbp.value_logs.import.batch_size:8000}")
+    private int batchSize;
+
+    @Autowired
+    private DataModelTreeCache dataModelTreeCache;
+
+    @Autowired
+    private ValueLogRepository valueLogRepository;
+
+    /**
+     * Imports the value logs that are provided by a given input stream for a given component. Records that are
+     * malformed or do not match the data model of the component are rejected, while the remaining records are
+     * imported. The caller is responsible for checking the permissions of the client.
+     *
+     * @param component   The component to import the value logs for
+     * @param inputStream The input stream providing the records
+     * @return The result of the import
+     * @throws IOException If reading from the input stream failed
+     */
+    public ValueLogImportResult importValueLogs(Component component, InputStream inputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        ValueLogImportResult result = new ValueLogImportResult();
+
+        //Compile the data model only once for the entire import
+        CompiledDataModel dataModel = dataModelTreeCache.getCompiledDataModelOfComponent(component.getId());
+        String componentType = component.getComponentTypeName();
+        String topic = componentType + "/" + component.getId();
+
+        //Read records line by line and write them in batches
+        List<ValueLog> batch = new ArrayList<>(batchSize);
+        Instant previousTime = null;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            ValueLog valueLog;
+            try {
+                valueLog = parseRecord(line, dataModel);
+            } catch (Exception e) {
+                result.addRejected("Line " + lineNumber + ": " + e.getMessage(), MAX_ERRORS);
+                continue;
+            }
+
+            //Documents of consecutive batches must not overlap in time
+            if ((previousTime != null) && valueLog.getTime().isBefore(previousTime)) {
+                result.addRejected("Line " + lineNumber + ": Records must be ordered by time.", MAX_ERRORS);
+                continue;
+            }
+            previousTime = valueLog.getTime();
+            batch.add(valueLog.setIdref(component.getId()).setComponent(componentType).setTopic(topic));
+
+            if (batch.size() >= batchSize) {
+                writeBatch(component.getId(), batch, result);
+            }
+        }
+        writeBatch(component.getId(), batch, result);
+
+        result.setDurationMillis(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * Writes a given batch of value logs and clears it afterwards.
+     *
+     * @param componentId The ID of the component
+     * @param batch       The batch to write
+     * @param result      The result to update
+     */
+    private void writeBatch(String componentId, List<ValueLog> batch, ValueLogImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int documents = valueLogRepository.writeAll(componentId, batch);
+        result.addImported(batch.size(), documents);
+        batch.clear();
+    }
+
+    /**
+     * Parses a single record and validates its value against a given compiled data model.
+     *
+     * @param record    The JSON string of the record
+     * @param dataModel The compiled data model to use
+     * @return The resulting value log, containing only time and value
+     * @throws Exception If the record is malformed or does not match the data model
+     */
+    private ValueLog parseRecord(String record, CompiledDataModel dataModel) throws Exception {
+        try (JsonParser parser = JSON_FACTORY.createParser(record)) {
+            //Check whether the record is a JSON object
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JSONException("A record must be a JSON object.");
+            }
+
+            Instant time = null;
+            Document value = null;
+
+            //Stream through the fields of the record
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+
+                if (JSON_KEY_TIME.equals(fieldName)) {
+                    time = (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) ?
+                            Instant.ofEpochMilli(parser.getLongValue()) : Instant.parse(parser.getText());
+                } else if (JSON_KEY_VALUE.equals(fieldName)) {
+                    value = dataModel.readValue(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            //Check whether all required fields were found
+            if (time == null) {
+                throw new JSONException("Field \"" + JSON_KEY_TIME + "\" not found.");
+            } else if (value == null) {
+                throw new JSONException("Field \"" + JSON_KEY_VALUE + "\" not found.");
+            }
+
+            return new ValueLog().setTime(time).setValue(value);
+        }
+    }
+}
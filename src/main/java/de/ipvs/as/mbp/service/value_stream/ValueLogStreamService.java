@@ -0,0 +1,360 @@
+package de.ipvs.as.mbp.service.value_stream;
+
+import de.ipvs.as.mbp.domain.access_control.ACAbstractEffect;
+import de.ipvs.as.mbp.domain.access_control.ACAccessRequest;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.error.EntityNotFoundException;
+import de.ipvs.as.mbp.error.MissingPermissionException;
+import de.ipvs.as.mbp.service.ValueLogUnitConverter;
+import de.ipvs.as.mbp.service.receiver.ValueLogObserver;
+import de.ipvs.as.mbp.service.receiver.ValueLogReceiver;
+import de.ipvs.as.mbp.service.sse.BufferedSseSubscriber;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Service that streams incoming value logs of components to subscribed clients via server-sent events. The
+ * service observes the {@link ValueLogReceiver} and only does work for components that currently have
+ * subscribers. Unit conversion and policy effects are resolved once per subscription and applied to each
+ * value log before it is handed over to the subscriber. The permissions of all subscribers are re-checked
+ * periodically and subscribers that lost access are closed. The subscribers send their pending events at most
+ * once per update interval, which can be chosen by the clients within configured bounds; on request of the
+ * client, only the latest value log of a component is sent per interval.
+ * <p>
+ * If the components are partitioned among several MBP instances, the value logs of streamed components that are
+ * owned by other instances are requested from the owners via the stream interests of the {@link ValueLogReceiver}.
+ * <p>
+ * Since browser event sources cannot set headers, clients may obtain a short-lived, single-use stream token
+ * for their access request beforehand and pass it as request parameter instead.
+ */
+@Service
+public class ValueLogStreamService implements ValueLogObserver {
+    //Logger
+    private static final Logger LOGGER = Logger.getLogger(ValueLogStreamService.class.getName());
+
+    //Time after which the emitter times out
+    private static final Long EMITTER_TIMEOUT = 30 * 60 * 1000L;
+
+    //Name of the events that carry value logs
+    private static final String EVENT_NAME_VALUE_LOG = "value_log";
+
+    //Key under which value logs replace each other in the outbox of a subscriber
+    private static final String COALESCING_KEY = "latest";
+
+    //Minimum update interval that may be requested by clients
+    @Value("${mbp.value_stream.min_interval_ms:200}")
+    private long minInterval;
+
+    //Maximum update interval that may be requested by clients
+    @Value("${mbp.value_stream.max_interval_ms:60000}")
+    private long maxInterval;
+
+    //Maximum number of pending events per subscriber before the subscriber is dropped
+    @Value("${mbp.value_stream.max_pending_events:1000}")
+    private int maxPendingEvents;
+
+    //Number of threads that execute the writer tasks of the subscribers
+    @Value("${mbp.value_stream.writer_threads:2}")
+    private int writerThreads;
+
+    //Interval in which the permissions of the subscribers are re-checked
+    @Value("${mbp.value_stream.recheck_interval_ms:30000}")
+    private long recheckInterval;
+
+    //Time after which a subscriber that does not accept sent events is dropped
+    @Value("${mbp.value_stream.send_timeout_ms:5000}")
+    private long sendTimeout;
+
+    //Time after which unused stream tokens expire
+    @Value("${mbp.value_stream.token_ttl_ms:30000}")
+    private long tokenTimeToLive;
+
+    //Thread pool for the writer tasks
+    private ScheduledExecutorService writerPool;
+
+    //Thread pool for sending the events to the subscribers
+    private ExecutorService senderPool;
+
+    //Value log receiver to announce the streamed components to
+    private final ValueLogReceiver valueLogReceiver;
+
+    //Subscription map (component id -> set of subscriptions)
+    private final Map<String, Set<ValueLogStreamSubscription>> subscriptions = new ConcurrentHashMap<>();
+
+    //Issued stream tokens that were not redeemed yet (token -> stream token)
+    private final Map<String, StreamToken> streamTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Initializes the value log stream service and registers it as observer at the value log receiver.
+     *
+     * @param valueLogReceiver The value log receiver to observe
+     * @param meterRegistry    The registry for the metrics of the service
+     */
+    @Autowired
+    public ValueLogStreamService(ValueLogReceiver valueLogReceiver, MeterRegistry meterRegistry) {
+        //Observe incoming value logs, including those of streamed components that are owned by other instances
+        this.valueLogReceiver = valueLogReceiver;
+        valueLogReceiver.registerObserver(this);
+        valueLogReceiver.registerStreamObserver(this);
+
+        //Expose the number of subscriptions and their pending events
+        Gauge.builder("mbp.value_stream.subscriptions", this, s -> s.getSubscriptions().count())
+                .description("Number of live value log stream subscriptions").register(meterRegistry);
+        Gauge.builder("mbp.value_stream.pending_events", this,
+                s -> s.getSubscriptions().mapToInt(c -> c.getSubscriber().getPendingEventsCount()).sum())
+                .description("Number of value log events that wait for being sent to stream subscribers").register(meterRegistry);
+    }
+
+    /**
+     * Returns a stream of all current subscriptions.
+     *
+     * @return The stream of subscriptions
+     */
+    private Stream<ValueLogStreamSubscription> getSubscriptions() {
+        return subscriptions.values().stream().flatMap(Set::stream);
+    }
+
+    /**
+     * Creates the thread pool for the writer tasks and schedules the periodic permission checks.
+     */
+    @PostConstruct
+    private void initialize() {
+        writerPool = Executors.newScheduledThreadPool(writerThreads);
+        writerPool.scheduleWithFixedDelay(this::recheckAccess, recheckInterval, recheckInterval, TimeUnit.MILLISECONDS);
+        senderPool = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "mbp-value-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops all writer tasks.
+     */
+    @PreDestroy
+    private void shutdown() {
+        writerPool.shutdownNow();
+        senderPool.shutdownNow();
+    }
+
+    /**
+     * Issues a short-lived, single-use stream token for a given access request of a given user, which can be
+     * passed instead of the access request when subscribing to value logs.
+     *
+     * @param username      The name of the user that requests the token
+     * @param accessRequest The access request of the user
+     * @return The stream token
+     */
+    public String issueToken(String username, ACAccessRequest accessRequest) {
+        //Drop expired tokens
+        long now = System.currentTimeMillis();
+        streamTokens.values().removeIf(t -> t.expiresAt < now);
+
+        String token = UUID.randomUUID().toString();
+        streamTokens.put(token, new StreamToken(username, accessRequest, now + tokenTimeToLive));
+        return token;
+    }
+
+    /**
+     * Redeems a stream token that was previously issued for a given user and returns the access request it was
+     * issued for. Each token can only be redeemed once.
+     *
+     * @param token    The stream token to redeem
+     * @param username The name of the user that redeems the token
+     * @return The access request or null, if the token is unknown, expired or was issued for a different user
+     */
+    public ACAccessRequest redeemToken(String token, String username) {
+        StreamToken streamToken = (token == null) ? null : streamTokens.remove(token);
+        if ((streamToken == null) || (streamToken.expiresAt < System.currentTimeMillis())
+                || (!streamToken.username.equals(username))) {
+            return null;
+        }
+        return streamToken.accessRequest;
+    }
+
+    /**
+     * Creates a new emitter, subscribes it to the value logs of the component with a given ID and returns it.
+     * The caller is responsible for checking the permissions of the client before subscribing and for providing
+     * an access check that repeats this check on behalf of the client.
+     *
+     * @param componentId The ID of the component to subscribe to
+     * @param converter   The converter to the desired unit or null, if no conversion is required
+     * @param effect      The effect of the policy that granted access or null, if no effect needs to be applied
+     * @param accessCheck The check that resolves the current effect or fails if the client lost access
+     * @param interval    The desired update interval in milliseconds; will be limited to the configured bounds
+     * @param coalesce    Whether only the latest value log is supposed to be sent per update interval
+     * @return The SSE emitter that is supposed to be returned to the client
+     */
+    public SseEmitter subscribe(String componentId, ValueLogUnitConverter converter, ACAbstractEffect effect,
+                                Callable<ACAbstractEffect> accessCheck, long interval, boolean coalesce) {
+        //Sanity check
+        if ((componentId == null) || (componentId.isEmpty())) {
+            throw new IllegalArgumentException("Component ID must not be null or empty.");
+        }
+
+        //Create new emitter and wrap it as subscription
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT);
+        BufferedSseSubscriber subscriber = new BufferedSseSubscriber(emitter, maxPendingEvents, senderPool, sendTimeout);
+        ValueLogStreamSubscription subscription = new ValueLogStreamSubscription(componentId, subscriber, converter, effect, accessCheck, coalesce);
+
+        //Unsubscribe on timeout, error or completion
+        Runnable unsubscribe = () -> this.unsubscribe(subscription);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        //Add subscription to the set of subscriptions of the component
+        subscriptions.compute(componentId, (id, subscriptionSet) -> {
+            Set<ValueLogStreamSubscription> newSet = (subscriptionSet == null) ? ConcurrentHashMap.newKeySet() : subscriptionSet;
+            newSet.add(subscription);
+            return newSet;
+        });
+        valueLogReceiver.updateStreamInterests(subscriptions.keySet());
+
+        //Start the writer task of the subscriber with the bounded interval
+        long boundedInterval = Math.max(minInterval, Math.min(maxInterval, interval));
+        subscriber.setWriterTask(writerPool.scheduleWithFixedDelay(subscriber::flush, boundedInterval, boundedInterval, TimeUnit.MILLISECONDS));
+
+        return emitter;
+    }
+
+    /**
+     * Called in case a new value message arrives at the ValueLogReceiver. The value log is converted and
+     * passed to all subscribers of the pertaining component.
+     *
+     * @param valueLog The corresponding value log that arrived
+     */
+    @Override
+    public void onValueReceived(ValueLog valueLog) {
+        //Sanity check
+        if ((valueLog == null) || (valueLog.getIdref() == null)) {
+            return;
+        }
+
+        //Get subscriptions for the component
+        Set<ValueLogStreamSubscription> subscriptionSet = subscriptions.get(valueLog.getIdref());
+
+        //Check if somebody subscribed to the component
+        if ((subscriptionSet == null) || subscriptionSet.isEmpty()) {
+            return;
+        }
+
+        //Pass value log to all subscribers
+        for (ValueLogStreamSubscription subscription : subscriptionSet) {
+            ValueLog transformedValueLog = copyValueLog(valueLog);
+            try {
+                //Convert value log to the desired unit if required, without modifying the shared value
+                if (subscription.getConverter() != null) {
+                    subscription.getConverter().convertCopy(transformedValueLog);
+                }
+
+                //Apply effect (constraints)
+                ACAbstractEffect effect = subscription.getEffect();
+                if (effect != null) {
+                    effect.apply(transformedValueLog);
+                }
+            } catch (Exception e) {
+                //Value log cannot be provided to this subscriber
+                continue;
+            }
+
+            //Wrap value log as SSE event and add it to the outbox of the subscriber
+            subscription.getSubscriber().offer(subscription.isCoalesce() ? COALESCING_KEY : new Object(), SseEmitter.event()
+                    .name(EVENT_NAME_VALUE_LOG)
+                    .data(transformedValueLog, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Re-checks the permissions of all subscribers and updates the effects that are applied to their value logs.
+     * Subscribers that lost access to the value logs, e.g. because the granting policy was changed or deleted,
+     * are closed.
+     */
+    private void recheckAccess() {
+        getSubscriptions().forEach(subscription -> {
+            try {
+                subscription.setEffect(subscription.getAccessCheck().call());
+            } catch (MissingPermissionException | EntityNotFoundException e) {
+                //Access is gone, close the stream
+                subscription.getSubscriber().close(e);
+                unsubscribe(subscription);
+            } catch (Exception e) {
+                //Keep the subscription and check again next time
+                LOGGER.log(Level.WARNING, "Failed to re-check the access of a value log stream subscriber.", e);
+            }
+        });
+    }
+
+    /**
+     * Removes a given subscription.
+     *
+     * @param subscription The subscription to remove
+     */
+    private void unsubscribe(ValueLogStreamSubscription subscription) {
+        //Stop the writer task of the subscriber
+        subscription.getSubscriber().cancelWriterTask();
+
+        //Remove subscription from subscription set and drop the set if it became empty
+        subscriptions.computeIfPresent(subscription.getComponentId(), (id, subscriptionSet) -> {
+            subscriptionSet.remove(subscription);
+            return subscriptionSet.isEmpty() ? null : subscriptionSet;
+        });
+        valueLogReceiver.updateStreamInterests(subscriptions.keySet());
+    }
+
+    /**
+     * Creates a shallow copy of a given value log, such that its value can be replaced without affecting
+     * the other observers of the value log receiver.
+     *
+     * @param valueLog The value log to copy
+     * @return The copy of the value log
+     */
+    private ValueLog copyValueLog(ValueLog valueLog) {
+        return new ValueLog()
+                .setTime(valueLog.getTime())
+                .setTopic(valueLog.getTopic())
+                .setIdref(valueLog.getIdref())
+                .setComponent(valueLog.getComponent())
+                .setValue(valueLog.getValue());
+    }
+
+    /**
+     * Stream token that was issued for the access request of a certain user.
+     */
+    private static class StreamToken {
+        //Name of the user the token was issued for
+        private final String username;
+
+        //Access request the token stands for
+        private final ACAccessRequest accessRequest;
+
+        //Time at which the token expires
+        private final long expiresAt;
+
+        private StreamToken(String username, ACAccessRequest accessRequest, long expiresAt) {
+            this.username = username;
+            this.accessRequest = accessRequest;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package de.ipvs.as.mbp.service.value_stream;
+
+import de.ipvs.as.mbp.domain.access_control.ACAbstractEffect;
+import de.ipvs.as.mbp.service.ValueLogUnitConverter;
+import de.ipvs.as.mbp.service.sse.BufferedSseSubscriber;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Subscription of a client to the live value logs of a certain component. Besides the subscriber that buffers
+ * the events for the client, it holds the unit converter and the access-control effect that need to be applied
+ * to each value log before it is sent to the client. The effect is resolved at subscription time and refreshed
+ * by the access check whenever the permission of the client is re-checked.
+ */
+public class ValueLogStreamSubscription {
+    //ID of the subscribed component
+    private final String componentId;
+
+    //Subscriber that buffers and sends the events
+    private final BufferedSseSubscriber subscriber;
+
+    //Converter to the unit requested by the client (may be null)
+    private final ValueLogUnitConverter converter;
+
+    //Effect of the policy that granted access (may be null)
+    private volatile ACAbstractEffect effect;
+
+    //Check that resolves the current effect or fails if the client lost access to the value logs
+    private final Callable<ACAbstractEffect> accessCheck;
+
+    //Whether only the latest value log is sent per update interval
+    private final boolean coalesce;
+
+    /**
+     * Creates a new subscription.
+     *
+     * @param componentId The ID of the subscribed component
+     * @param subscriber  The subscriber that buffers and sends the events
+     * @param converter   The converter to the unit requested by the client or null, if no conversion is required
+     * @param effect      The effect of the policy that granted access or null, if no effect needs to be applied
+     * @param accessCheck The check that resolves the current effect or fails if the client lost access
+     * @param coalesce    Whether only the latest value log is sent per update interval
+     */
+    public ValueLogStreamSubscription(String componentId, BufferedSseSubscriber subscriber, ValueLogUnitConverter converter,
+                                      ACAbstractEffect effect, Callable<ACAbstractEffect> accessCheck, boolean coalesce) {
+        this.componentId = componentId;
+        this.subscriber = subscriber;
+        this.converter = converter;
+        this.effect = effect;
+        this.accessCheck = accessCheck;
+        this.coalesce = coalesce;
+    }
+
+    /**
+     * Returns the ID of the subscribed component.
+     *
+     * @return The component ID
+     */
+    public String getComponentId() {
+        return componentId;
+    }
+
+    /**
+     * Returns the subscriber that buffers and sends the events.
+     *
+     * @return The subscriber
+     */
+    public BufferedSseSubscriber getSubscriber() {
+        return subscriber;
+    }
+
+    /**
+     * Returns the converter to the unit requested by the client.
+     *
+     * @return The unit converter or null, if no conversion is required
+     */
+    public ValueLogUnitConverter getConverter() {
+        return converter;
+    }
+
+    /**
+     * Returns the effect of the policy that granted access to the value logs.
+     *
+     * @return The effect or null, if no effect needs to be applied
+     */
+    public ACAbstractEffect getEffect() {
+        return effect;
+    }
+
+    /**
+     * Sets the effect of the policy that grants access to the value logs.
+     *
+     * @param effect The effect or null, if no effect needs to be applied
+     */
+    public void setEffect(ACAbstractEffect effect) {
+        this.effect = effect;
+    }
+
+    /**
+     * Returns the check that resolves the current effect or fails if the client lost access to the value logs.
+     *
+     * @return The access check
+     */
+    public Callable<ACAbstractEffect> getAccessCheck() {
+        return accessCheck;
+    }
+
+    /**
+     * Returns whether only the latest value log is sent per update interval.
+     *
+     * @return True, if value logs are coalesced; false otherwise
+     */
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+}
@@ -76,5 +76,15 @@ public class Pages {
 	public static final PageMetadata metaDataOf(Pageable pageable, int total, int totalPages) {
 		return new PageMetadata(pageable.getPageSize(), pageable.getPageNumber(), total, totalPages);
 	}
+	
+	/**
+	 * Creates page meta data based on a page that already knows the total number of elements.
+	 * 
+	 * @param page the {@link Page}.
+	 * @return the created {@link PageMetadata}.
+	 */
+	public static final PageMetadata metaDataOf(Page<?> page) {
+		return new PageMetadata(page.getSize(), page.getNumber(), page.getTotalElements(), page.getTotalPages());
+	}
 
 }
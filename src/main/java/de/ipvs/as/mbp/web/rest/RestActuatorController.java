@@ -14,6 +14,7 @@ import de.ipvs.as.mbp.repository.OperatorRepository;
 import de.ipvs.as.mbp.service.user.UserEntityService;
 import io.swagger.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -22,8 +23,6 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
@@ -61,12 +60,12 @@ public class RestActuatorController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding actuators (includes access-control)
-        List<Actuator> actuators = userEntityService.getPageWithAccessControlCheck(actuatorRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<Actuator> actuators = userEntityService.getPageWithAccessControlCheck(actuatorRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(actuators, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(actuators, selfLink));
     }
 
     @GetMapping(path = "/{actuatorId}", produces = "application/hal+json")
@@ -19,6 +19,7 @@ import de.ipvs.as.mbp.domain.access_control.ACAccessType;
 import de.ipvs.as.mbp.domain.device.Device;
 import de.ipvs.as.mbp.domain.device.DeviceDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -70,12 +71,12 @@ public class RestDeviceController {
 		ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 		
     	// Retrieve the corresponding devices (includes access-control)
-    	List<Device> devices = userEntityService.getPageWithAccessControlCheck(deviceRepository, ACAccessType.READ, accessRequest, pageable);
+    	Page<Device> devices = userEntityService.getPageWithAccessControlCheck(deviceRepository, ACAccessType.READ, accessRequest, pageable);
     	
     	// Create self link
     	Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
     	
-    	return ResponseEntity.ok(userEntityService.entitiesToPagedModel(devices, selfLink, pageable));
+    	return ResponseEntity.ok(userEntityService.entitiesToPagedModel(devices, selfLink));
     }
     
     @GetMapping(path = "/{deviceId}", produces = "application/hal+json")
@@ -3,8 +3,6 @@ package de.ipvs.as.mbp.web.rest;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-import java.util.List;
-
 import de.ipvs.as.mbp.constants.Constants;
 import de.ipvs.as.mbp.error.EntityAlreadyExistsException;
 import de.ipvs.as.mbp.error.EntityNotFoundException;
@@ -15,6 +13,7 @@ import de.ipvs.as.mbp.domain.access_control.ACAccessRequest;
 import de.ipvs.as.mbp.domain.access_control.ACAccessType;
 import de.ipvs.as.mbp.domain.entity_type.DeviceType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -65,12 +64,12 @@ public class RestDeviceTypeController {
 		ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 		
     	// Retrieve the corresponding device types (includes access-control)
-    	List<DeviceType> devices = userEntityService.getPageWithAccessControlCheck(deviceTypeRepository, ACAccessType.READ, accessRequest, pageable);
+    	Page<DeviceType> devices = userEntityService.getPageWithAccessControlCheck(deviceTypeRepository, ACAccessType.READ, accessRequest, pageable);
     	
     	// Create self link
     	Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
     	
-    	return ResponseEntity.ok(userEntityService.entitiesToPagedModel(devices, selfLink, pageable));
+    	return ResponseEntity.ok(userEntityService.entitiesToPagedModel(devices, selfLink));
     }
     
     @GetMapping(path = "/{deviceTypeId}", produces = "application/hal+json")
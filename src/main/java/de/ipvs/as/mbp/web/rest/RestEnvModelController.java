@@ -14,6 +14,7 @@ import de.ipvs.as.mbp.domain.env_model.EnvironmentModel;
 import de.ipvs.as.mbp.service.env_model.EntityState;
 import de.ipvs.as.mbp.service.env_model.EnvironmentModelService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -22,7 +23,6 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -58,12 +58,12 @@ public class RestEnvModelController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding environment models (includes access-control)
-        List<EnvironmentModel> environmentModels = userEntityService.getPageWithAccessControlCheck(environmentModelRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<EnvironmentModel> environmentModels = userEntityService.getPageWithAccessControlCheck(environmentModelRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(environmentModels, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(environmentModels, selfLink));
     }
 
     @GetMapping(path = "/{id}", produces = "application/hal+json")
@@ -3,8 +3,6 @@ package de.ipvs.as.mbp.web.rest;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-import java.util.List;
-
 import de.ipvs.as.mbp.constants.Constants;
 import de.ipvs.as.mbp.error.EntityAlreadyExistsException;
 import de.ipvs.as.mbp.error.EntityNotFoundException;
@@ -19,6 +17,7 @@ import de.ipvs.as.mbp.domain.access_control.ACAccessType;
 import de.ipvs.as.mbp.domain.key_pair.KeyPair;
 import de.ipvs.as.mbp.service.crypto.SSHKeyPairGenerator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -74,12 +73,12 @@ public class RestKeyPairController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding key-pairs (includes access-control)
-        List<KeyPair> adapters = userEntityService.getPageWithAccessControlCheck(keyPairRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<KeyPair> adapters = userEntityService.getPageWithAccessControlCheck(keyPairRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(adapters, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(adapters, selfLink));
     }
 
     @GetMapping(path = "/{keyPairId}", produces = "application/hal+json")
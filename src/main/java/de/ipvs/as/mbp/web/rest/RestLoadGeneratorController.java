@@ -0,0 +1,83 @@
+package de.ipvs.as.mbp.web.rest;
+
+import de.ipvs.as.mbp.constants.Constants;
+import de.ipvs.as.mbp.error.MissingAdminPrivilegesException;
+import de.ipvs.as.mbp.service.deployment.demo.LoadGenerator;
+import de.ipvs.as.mbp.service.deployment.demo.LoadProfile;
+import de.ipvs.as.mbp.service.deployment.demo.LoadReport;
+import de.ipvs.as.mbp.service.user.UserEntityService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for controlling the synthetic load generation.
+ */
+@RestController
+@RequestMapping(Constants.BASE_PATH + "/load-generator")
+@Api(tags = {"Load generator"}, description = "Generation of synthetic load for sizing MBP installations")
+public class RestLoadGeneratorController {
+
+    @Autowired
+    private LoadGenerator loadGenerator;
+
+    @Autowired
+    private UserEntityService userEntityService;
+
+    /**
+     * Starts the generation of load according to a given load profile.
+     *
+     * @param profile The load profile to use
+     * @return A response entity containing the result of the request
+     * @throws MissingAdminPrivilegesException In case the current user misses admin privileges
+     */
+    @PostMapping(value = "/start")
+    @ApiOperation(value = "Starts the generation of synthetic load according to a given load profile.", produces = "application/hal+json")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success"), @ApiResponse(code = 400, message = "Invalid load profile"), @ApiResponse(code = 403, message = "Not authorized or load generation not enabled"), @ApiResponse(code = 409, message = "Load generation is already running")})
+    public ResponseEntity<Void> start(@RequestBody LoadProfile profile) throws MissingAdminPrivilegesException {
+        userEntityService.requireAdmin();
+
+        loadGenerator.start(profile);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    /**
+     * Stops the currently running load generation.
+     *
+     * @return A response entity containing the result of the request
+     * @throws MissingAdminPrivilegesException In case the current user misses admin privileges
+     */
+    @PostMapping(value = "/stop")
+    @ApiOperation(value = "Stops the currently running generation of synthetic load.", produces = "application/hal+json")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success"), @ApiResponse(code = 403, message = "Not authorized to perform this action")})
+    public ResponseEntity<Void> stop() throws MissingAdminPrivilegesException {
+        userEntityService.requireAdmin();
+
+        loadGenerator.stop();
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    /**
+     * Returns the report of the currently or most recently active load generation.
+     *
+     * @return A response entity containing the report
+     * @throws MissingAdminPrivilegesException In case the current user misses admin privileges
+     */
+    @GetMapping(value = "/report")
+    @ApiOperation(value = "Returns the report of the currently or most recently active generation of synthetic load.", produces = "application/hal+json")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success"), @ApiResponse(code = 403, message = "Not authorized to perform this action"), @ApiResponse(code = 404, message = "No load was generated yet")})
+    public ResponseEntity<LoadReport> getReport() throws MissingAdminPrivilegesException {
+        userEntityService.requireAdmin();
+
+        LoadReport report = loadGenerator.getReport();
+        if (report == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+}
@@ -14,6 +14,7 @@ import de.ipvs.as.mbp.repository.MonitoringOperatorRepository;
 import de.ipvs.as.mbp.service.user.UserEntityService;
 import io.swagger.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -58,12 +59,12 @@ public class RestMonitoringOperatorController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding monitoring operators (includes access-control)
-        List<MonitoringOperator> monitoringOperators = userEntityService.getPageWithAccessControlCheck(monitoringOperatorRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<MonitoringOperator> monitoringOperators = userEntityService.getPageWithAccessControlCheck(monitoringOperatorRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(monitoringOperators, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(monitoringOperators, selfLink));
     }
 
     @GetMapping(path = "/{monitoringOperatorId}", produces = "application/hal+json")
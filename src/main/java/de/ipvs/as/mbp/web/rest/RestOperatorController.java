@@ -13,6 +13,7 @@ import de.ipvs.as.mbp.error.MissingPermissionException;
 import de.ipvs.as.mbp.repository.OperatorRepository;
 import de.ipvs.as.mbp.service.user.UserEntityService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -21,8 +22,6 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
@@ -57,12 +56,12 @@ public class RestOperatorController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding operators (includes access-control)
-        List<Operator> operators = userEntityService.getPageWithAccessControlCheck(operatorRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<Operator> operators = userEntityService.getPageWithAccessControlCheck(operatorRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(operators, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(operators, selfLink));
     }
 
     @GetMapping(path = "/{operatorId}", produces = "application/hal+json")
@@ -3,8 +3,6 @@ package de.ipvs.as.mbp.web.rest;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-import java.util.List;
-
 import de.ipvs.as.mbp.constants.Constants;
 import de.ipvs.as.mbp.error.EntityAlreadyExistsException;
 import de.ipvs.as.mbp.error.EntityNotFoundException;
@@ -17,6 +15,7 @@ import de.ipvs.as.mbp.domain.rules.RuleAction;
 import de.ipvs.as.mbp.domain.rules.RuleActionType;
 import de.ipvs.as.mbp.service.rules.RuleExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -67,12 +66,12 @@ public class RestRuleActionController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding rule actions (includes access-control)
-        List<RuleAction> ruleActions = userEntityService.getPageWithAccessControlCheck(ruleActionRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<RuleAction> ruleActions = userEntityService.getPageWithAccessControlCheck(ruleActionRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(ruleActions, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(ruleActions, selfLink));
     }
 
     @GetMapping(path = "/{ruleActionId}", produces = "application/hal+json")
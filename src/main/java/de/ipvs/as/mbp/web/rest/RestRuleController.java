@@ -18,6 +18,7 @@ import de.ipvs.as.mbp.service.rules.RuleEngine;
 import de.ipvs.as.mbp.service.rules.RuleExecutor;
 import io.swagger.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -70,12 +71,12 @@ public class RestRuleController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding rules (includes access-control)
-        List<Rule> rules = userEntityService.getPageWithAccessControlCheck(ruleRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<Rule> rules = userEntityService.getPageWithAccessControlCheck(ruleRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(rules, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(rules, selfLink));
     }
 
     @GetMapping(path = "/{ruleId}", produces = "application/hal+json")
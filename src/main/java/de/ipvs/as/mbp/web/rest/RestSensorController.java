@@ -17,6 +17,7 @@ import de.ipvs.as.mbp.repository.TestDetailsRepository;
 import de.ipvs.as.mbp.service.user.UserEntityService;
 import io.swagger.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -67,12 +68,12 @@ public class RestSensorController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding sensors (includes access-control)
-        List<Sensor> sensors = userEntityService.getPageWithAccessControlCheck(sensorRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<Sensor> sensors = userEntityService.getPageWithAccessControlCheck(sensorRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(sensors, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(sensors, selfLink));
     }
 
     @GetMapping(path = "/{sensorId}", produces = "application/hal+json")
@@ -31,6 +31,7 @@ import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -82,13 +83,13 @@ public class RestTestingController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding devices (includes access-control)
-        List<TestDetails> tests = userEntityService.getPageWithAccessControlCheck(testDetailsRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<TestDetails> tests = userEntityService.getPageWithAccessControlCheck(testDetailsRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(tests, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(tests, selfLink));
     }
 
     @GetMapping(path = "/{testId}", produces = "application/hal+json")
@@ -254,15 +255,26 @@ public class RestTestingController {
     }
 
     /**
-     * Returns a specific Test Report regarding to a specific test.
+     * Returns the sensor values that were generated during a specific test execution, optionally restricted to
+     * a single sensor and a time window and downsampled to a maximum number of values per sensor.
      *
-     * @param reportId ID of the test report to be found
-     * @return Https Status with the Report regarding to the specific test
+     * @param reportId   ID of the test report to be found
+     * @param sensorName Name of the sensor for which the values should be returned (optional)
+     * @param from       Unix timestamp in milliseconds from which on the values should be returned (optional)
+     * @param to         Unix timestamp in milliseconds up to which the values should be returned (optional)
+     * @param maxPoints  Maximum number of values to return per sensor (optional)
+     * @return The sensor values of the test report
      */
     @GetMapping(value = "/test-report/{reportId}")
-    public Map<String, ArrayList> getTestReport(@PathVariable(value = "reportId") String reportId) {
-
-        return testEngine.getSimulationValues(reportId);
+    @ApiOperation(value = "Retrieves the sensor values that were generated during a test execution.")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!")})
+    public Map<String, List<List<Object>>> getTestReport(@PathVariable(value = "reportId") String reportId,
+                                                         @RequestParam(value = "sensor", required = false) @ApiParam(value = "Name of the sensor", example = "TestingTemperatureSensor") String sensorName,
+                                                         @RequestParam(value = "from", required = false) @ApiParam(value = "Start of the time window (Unix timestamp in milliseconds)", example = "1600000000000") Long from,
+                                                         @RequestParam(value = "to", required = false) @ApiParam(value = "End of the time window (Unix timestamp in milliseconds)", example = "1600000060000") Long to,
+                                                         @RequestParam(value = "maxPoints", required = false, defaultValue = "0") @ApiParam(value = "Maximum number of values per sensor (0 for all)", example = "500") int maxPoints) {
+
+        return testEngine.getSimulationValues(reportId, sensorName, from, to, maxPoints);
     }
 
 
@@ -10,7 +10,9 @@ import de.ipvs.as.mbp.domain.component.Component;
 import de.ipvs.as.mbp.domain.component.Sensor;
 import de.ipvs.as.mbp.domain.discovery.deployment.DynamicDeployment;
 import de.ipvs.as.mbp.domain.monitoring.MonitoringComponent;
+import de.ipvs.as.mbp.domain.valueLog.ComponentValueLogs;
 import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.domain.valueLog.ValueLogQueryRequestDTO;
 import de.ipvs.as.mbp.error.EntityNotFoundException;
 import de.ipvs.as.mbp.error.MBPException;
 import de.ipvs.as.mbp.error.MissingPermissionException;
@@ -18,9 +20,16 @@ import de.ipvs.as.mbp.repository.ActuatorRepository;
 import de.ipvs.as.mbp.repository.SensorRepository;
 import de.ipvs.as.mbp.repository.ValueLogRepository;
 import de.ipvs.as.mbp.repository.discovery.DynamicDeploymentRepository;
+import de.ipvs.as.mbp.security.SecurityUtils;
 import de.ipvs.as.mbp.service.UnitConverterService;
+import de.ipvs.as.mbp.service.ValueLogUnitConverter;
 import de.ipvs.as.mbp.service.access_control.ACEffectService;
 import de.ipvs.as.mbp.service.discovery.deployment.DynamicDeployableComponent;
+import de.ipvs.as.mbp.service.value_export.ValueLogExportFormat;
+import de.ipvs.as.mbp.service.value_export.ValueLogExportService;
+import de.ipvs.as.mbp.service.value_import.ValueLogImportResult;
+import de.ipvs.as.mbp.service.value_import.ValueLogImportService;
+import de.ipvs.as.mbp.service.value_stream.ValueLogStreamService;
 import de.ipvs.as.mbp.service.user.UserEntityService;
 import de.ipvs.as.mbp.util.S;
 import de.ipvs.as.mbp.web.rest.helper.MonitoringHelper;
@@ -30,15 +39,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.measure.converter.UnitConverter;
-import javax.measure.quantity.Quantity;
 import javax.measure.unit.Unit;
-import java.util.Collections;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 /**
@@ -51,6 +66,13 @@ import java.util.stream.Collectors;
 @Api(tags = {"Value logs"})
 public class RestValueLogController {
 
+    //Maximum number of components per value log query
+    private static final int MAX_QUERY_COMPONENTS = 100;
+
+    //Default and maximum number of value logs per component and value log query
+    private static final int DEFAULT_QUERY_LIMIT = 100;
+    private static final int MAX_QUERY_LIMIT = 10000;
+
     @Autowired
     private ActuatorRepository actuatorRepository;
 
@@ -75,6 +97,15 @@ public class RestValueLogController {
     @Autowired
     private MonitoringHelper monitoringHelper;
 
+    @Autowired
+    private ValueLogStreamService valueLogStreamService;
+
+    @Autowired
+    private ValueLogExportService valueLogExportService;
+
+    @Autowired
+    private ValueLogImportService valueLogImportService;
+
 
     @GetMapping("/actuators/{id}/valueLogs")
     @ApiOperation(value = "Retrieves a list of recorded actuator value logs in a certain unit which fit onto a given page", produces = "application/hal+json")
@@ -167,6 +198,198 @@ public class RestValueLogController {
         return ResponseEntity.ok(valueLogs);
     }
 
+    @PostMapping("/valueLogs/query")
+    @ApiOperation(value = "Retrieves the recorded value logs of several sensors and actuators within a shared time range in a single request", produces = "application/hal+json")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Invalid request or unit specification!"),
+            @ApiResponse(code = 404, message = "Requesting user not found!")})
+    public ResponseEntity<List<ComponentValueLogs>> queryValueLogs(
+            @RequestHeader("X-MBP-Access-Request") String accessRequestHeader,
+            @RequestBody @ApiParam(value = "The components and the time range to retrieve value logs for", required = true) ValueLogQueryRequestDTO requestDto) throws EntityNotFoundException {
+        // Retrieve value logs (includes access-control)
+        return ResponseEntity.ok(getValueLogsOfComponents(requestDto, ACAccessRequest.valueOf(accessRequestHeader)));
+    }
+
+    @PostMapping(value = "/valueLogs/stream/tokens")
+    @ApiOperation(value = "Issues a short-lived, single-use token for the access request of the user that can be passed to the value log stream endpoints instead of the access request header")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 404, message = "Requesting user not found!")})
+    public ResponseEntity<Map<String, String>> issueStreamToken(
+            @RequestHeader("X-MBP-Access-Request") String accessRequestHeader) {
+        // Issue token for the access request of the user
+        String token = valueLogStreamService.issueToken(SecurityUtils.getCurrentUserUsername(), ACAccessRequest.valueOf(accessRequestHeader));
+        return ResponseEntity.ok(Collections.singletonMap("token", token));
+    }
+
+    @GetMapping(value = "/actuators/{id}/valueLogs/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "Subscribes to the value logs of an actuator, which are then pushed in a certain unit as server-sent events")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Invalid unit specification!"),
+            @ApiResponse(code = 401, message = "Not authorized to access value logs of this actuator!"),
+            @ApiResponse(code = 404, message = "Actuator or requesting user not found!")})
+    public ResponseEntity<SseEmitter> streamActuatorValueLogs(
+            @RequestHeader(value = "X-MBP-Access-Request", required = false) String accessRequestHeader,
+            @RequestParam(value = "token", required = false) @ApiParam(value = "Stream token, for clients that cannot set the access request header", required = false) String token,
+            @PathVariable(value = "id") @ApiParam(value = "ID of the actuator to subscribe to", example = "5c97dc2583aeb6078c5ab672", required = true) String actuatorId,
+            @RequestParam(value = "unit", required = false) @ApiParam(value = "The desired unit of the actuator values", example = "°C", required = false) String unit,
+            @RequestParam(value = "interval", defaultValue = "1000") @ApiParam(value = "The desired update interval in milliseconds", example = "1000", required = false) long interval,
+            @RequestParam(value = "coalesce", defaultValue = "false") @ApiParam(value = "Whether only the latest value log is sent per update interval", example = "true", required = false) boolean coalesce) throws EntityNotFoundException, MissingPermissionException {
+        // Retrieve actuator from the database
+        Actuator actuator = userEntityService.getForId(actuatorRepository, actuatorId);
+
+        // Subscribe to value logs (includes access-control)
+        return ResponseEntity.ok(streamValueLogs(actuator, () -> userEntityService.getForId(actuatorRepository, actuatorId),
+                unit, interval, coalesce, parseAccessRequest(accessRequestHeader, token)));
+    }
+
+    @GetMapping(value = "/sensors/{id}/valueLogs/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "Subscribes to the value logs of a sensor, which are then pushed in a certain unit as server-sent events")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Invalid unit specification!"),
+            @ApiResponse(code = 401, message = "Not authorized to access value logs of this sensor!"),
+            @ApiResponse(code = 404, message = "Sensor or requesting user not found!")})
+    public ResponseEntity<SseEmitter> streamSensorValueLogs(
+            @RequestHeader(value = "X-MBP-Access-Request", required = false) String accessRequestHeader,
+            @RequestParam(value = "token", required = false) @ApiParam(value = "Stream token, for clients that cannot set the access request header", required = false) String token,
+            @PathVariable(value = "id") @ApiParam(value = "ID of the sensor to subscribe to", example = "5c97dc2583aeb6078c5ab672", required = true) String sensorId,
+            @RequestParam(value = "unit", required = false) @ApiParam(value = "The desired unit of the sensor values", example = "°C", required = false) String unit,
+            @RequestParam(value = "interval", defaultValue = "1000") @ApiParam(value = "The desired update interval in milliseconds", example = "1000", required = false) long interval,
+            @RequestParam(value = "coalesce", defaultValue = "false") @ApiParam(value = "Whether only the latest value log is sent per update interval", example = "true", required = false) boolean coalesce) throws EntityNotFoundException, MissingPermissionException {
+        // Retrieve sensor from the database
+        Sensor sensor = userEntityService.getForId(sensorRepository, sensorId);
+
+        // Subscribe to value logs (includes access-control)
+        return ResponseEntity.ok(streamValueLogs(sensor, () -> userEntityService.getForId(sensorRepository, sensorId),
+                unit, interval, coalesce, parseAccessRequest(accessRequestHeader, token)));
+    }
+
+    @GetMapping(value = "/discovery/dynamic-deployments/{dynamicDeploymentId}/valueLogs/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "Subscribes to the value logs of a dynamic deployment, which are then pushed in a certain unit as server-sent events")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Invalid unit specification!"),
+            @ApiResponse(code = 401, message = "Not authorized to access value logs of this dynamic deployment!"),
+            @ApiResponse(code = 404, message = "Dynamic deployment or requesting user not found!")})
+    public ResponseEntity<SseEmitter> streamDynamicDeploymentValueLogs(
+            @RequestHeader(value = "X-MBP-Access-Request", required = false) String accessRequestHeader,
+            @RequestParam(value = "token", required = false) @ApiParam(value = "Stream token, for clients that cannot set the access request header", required = false) String token,
+            @PathVariable(value = "dynamicDeploymentId") @ApiParam(value = "ID of the dynamic deployment to subscribe to", example = "5c97dc2583aeb6078c5ab672", required = true) String dynamicDeploymentId,
+            @RequestParam(value = "unit", required = false) @ApiParam(value = "The desired unit of the dynamic deployment values", example = "°C", required = false) String unit,
+            @RequestParam(value = "interval", defaultValue = "1000") @ApiParam(value = "The desired update interval in milliseconds", example = "1000", required = false) long interval,
+            @RequestParam(value = "coalesce", defaultValue = "false") @ApiParam(value = "Whether only the latest value log is sent per update interval", example = "true", required = false) boolean coalesce) throws EntityNotFoundException, MissingPermissionException {
+        //Retrieve dynamic deployment from the database
+        DynamicDeployment dynamicDeployment = userEntityService.getForId(dynamicDeploymentRepository, dynamicDeploymentId);
+
+        //Create deployable component from dynamic deployment
+        DynamicDeployableComponent component = new DynamicDeployableComponent(dynamicDeployment);
+
+        // Subscribe to value logs (includes access-control)
+        return ResponseEntity.ok(streamValueLogs(component,
+                () -> new DynamicDeployableComponent(userEntityService.getForId(dynamicDeploymentRepository, dynamicDeploymentId)),
+                unit, interval, coalesce, parseAccessRequest(accessRequestHeader, token)));
+    }
+
+    @GetMapping("/actuators/{id}/valueLogs/export")
+    @ApiOperation(value = "Exports the recorded actuator value logs within a time range in a certain unit as NDJSON or CSV", produces = "application/x-ndjson, text/csv")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Invalid unit or format specification!"),
+            @ApiResponse(code = 401, message = "Not authorized to access value logs of this actuator!"),
+            @ApiResponse(code = 404, message = "Actuator or requesting user not found!")})
+    public ResponseEntity<StreamingResponseBody> exportActuatorValueLogs(
+            @RequestHeader("X-MBP-Access-Request") String accessRequestHeader,
+            @PathVariable(value = "id") @ApiParam(value = "ID of the actuator to export value logs for", example = "5c97dc2583aeb6078c5ab672", required = true) String actuatorId,
+            @RequestParam(value = "unit", required = false) @ApiParam(value = "The desired unit of the actuator values", example = "°C", required = false) String unit,
+            @RequestParam(value = "startTime", required = false) @ApiParam(value = "The desired start time in milliseconds for filtering in time", example = "1570635657000", required = false) Long startTime,
+            @RequestParam(value = "endTime", required = false) @ApiParam(value = "The desired end time in milliseconds for filtering in time", example = "1570635657000", required = false) Long endTime,
+            @RequestParam(value = "format", defaultValue = "ndjson") @ApiParam(value = "The desired export format (ndjson or csv)", example = "csv", required = false) String format,
+            @RequestParam(value = "ascending", defaultValue = "true") @ApiParam(value = "Whether the value logs are ordered ascending by time", example = "true", required = false) boolean ascending) throws EntityNotFoundException, MissingPermissionException {
+        // Retrieve actuator from the database (includes access-control)
+        Actuator actuator = userEntityService.getForId(actuatorRepository, actuatorId);
+
+        // Export value logs
+        return exportValueLogs(actuator, unit, startTime, endTime, format, ascending, ACAccessRequest.valueOf(accessRequestHeader));
+    }
+
+    @GetMapping("/sensors/{id}/valueLogs/export")
+    @ApiOperation(value = "Exports the recorded sensor value logs within a time range in a certain unit as NDJSON or CSV", produces = "application/x-ndjson, text/csv")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Invalid unit or format specification!"),
+            @ApiResponse(code = 401, message = "Not authorized to access value logs of this sensor!"),
+            @ApiResponse(code = 404, message = "Sensor or requesting user not found!")})
+    public ResponseEntity<StreamingResponseBody> exportSensorValueLogs(
+            @RequestHeader("X-MBP-Access-Request") String accessRequestHeader,
+            @PathVariable(value = "id") @ApiParam(value = "ID of the sensor to export value logs for", example = "5c97dc2583aeb6078c5ab672", required = true) String sensorId,
+            @RequestParam(value = "unit", required = false) @ApiParam(value = "The desired unit of the sensor values", example = "°C", required = false) String unit,
+            @RequestParam(value = "startTime", required = false) @ApiParam(value = "The desired start time in milliseconds for filtering in time", example = "1570635657000", required = false) Long startTime,
+            @RequestParam(value = "endTime", required = false) @ApiParam(value = "The desired end time in milliseconds for filtering in time", example = "1570635657000", required = false) Long endTime,
+            @RequestParam(value = "format", defaultValue = "ndjson") @ApiParam(value = "The desired export format (ndjson or csv)", example = "csv", required = false) String format,
+            @RequestParam(value = "ascending", defaultValue = "true") @ApiParam(value = "Whether the value logs are ordered ascending by time", example = "true", required = false) boolean ascending) throws EntityNotFoundException, MissingPermissionException {
+        // Retrieve sensor from the database (includes access-control)
+        Sensor sensor = userEntityService.getForId(sensorRepository, sensorId);
+
+        // Export value logs
+        return exportValueLogs(sensor, unit, startTime, endTime, format, ascending, ACAccessRequest.valueOf(accessRequestHeader));
+    }
+
+    @GetMapping("/discovery/dynamic-deployments/{dynamicDeploymentId}/valueLogs/export")
+    @ApiOperation(value = "Exports the dynamic deployment value logs within a time range in a certain unit as NDJSON or CSV", produces = "application/x-ndjson, text/csv")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Invalid unit or format specification!"),
+            @ApiResponse(code = 401, message = "Not authorized to access value logs of this dynamic deployment!"),
+            @ApiResponse(code = 404, message = "Dynamic deployment or requesting user not found!")})
+    public ResponseEntity<StreamingResponseBody> exportDynamicDeploymentValueLogs(
+            @RequestHeader("X-MBP-Access-Request") String accessRequestHeader,
+            @PathVariable(value = "dynamicDeploymentId") @ApiParam(value = "ID of the dynamic deployment to export the value logs for", example = "5c97dc2583aeb6078c5ab672", required = true) String dynamicDeploymentId,
+            @RequestParam(value = "unit", required = false) @ApiParam(value = "The desired unit of the dynamic deployment values", example = "°C", required = false) String unit,
+            @RequestParam(value = "startTime", required = false) @ApiParam(value = "The desired start time in milliseconds for filtering in time", example = "1570635657000", required = false) Long startTime,
+            @RequestParam(value = "endTime", required = false) @ApiParam(value = "The desired end time in milliseconds for filtering in time", example = "1570635657000", required = false) Long endTime,
+            @RequestParam(value = "format", defaultValue = "ndjson") @ApiParam(value = "The desired export format (ndjson or csv)", example = "csv", required = false) String format,
+            @RequestParam(value = "ascending", defaultValue = "true") @ApiParam(value = "Whether the value logs are ordered ascending by time", example = "true", required = false) boolean ascending) throws EntityNotFoundException, MissingPermissionException {
+        //Retrieve dynamic deployment from the database (includes access-control)
+        DynamicDeployment dynamicDeployment = userEntityService.getForId(dynamicDeploymentRepository, dynamicDeploymentId);
+
+        //Create deployable component from dynamic deployment
+        DynamicDeployableComponent component = new DynamicDeployableComponent(dynamicDeployment);
+
+        // Export value logs
+        return exportValueLogs(component, unit, startTime, endTime, format, ascending, ACAccessRequest.valueOf(accessRequestHeader));
+    }
+
+    @PostMapping(value = "/actuators/{id}/valueLogs/import", consumes = "application/x-ndjson")
+    @ApiOperation(value = "Imports historical actuator value logs, given as newline-delimited JSON records of the form {\"time\": ..., \"value\": {...}}", produces = "application/json")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Failed to read the records!"),
+            @ApiResponse(code = 401, message = "Not authorized to update this actuator!"),
+            @ApiResponse(code = 404, message = "Actuator or requesting user not found!")})
+    public ResponseEntity<ValueLogImportResult> importActuatorValueLogs(
+            @RequestHeader("X-MBP-Access-Request") String accessRequestHeader,
+            @PathVariable(value = "id") @ApiParam(value = "ID of the actuator to import value logs for", example = "5c97dc2583aeb6078c5ab672", required = true) String actuatorId,
+            InputStream inputStream) throws EntityNotFoundException, MissingPermissionException {
+        // Retrieve actuator from the database and check permission
+        Actuator actuator = userEntityService.getForId(actuatorRepository, actuatorId);
+        userEntityService.requirePermission(actuator, ACAccessType.UPDATE, ACAccessRequest.valueOf(accessRequestHeader));
+
+        // Import value logs
+        return ResponseEntity.ok(importValueLogs(actuator, inputStream));
+    }
+
+    @PostMapping(value = "/sensors/{id}/valueLogs/import", consumes = "application/x-ndjson")
+    @ApiOperation(value = "Imports historical sensor value logs, given as newline-delimited JSON records of the form {\"time\": ..., \"value\": {...}}", produces = "application/json")
+    @ApiResponses({@ApiResponse(code = 200, message = "Success!"),
+            @ApiResponse(code = 400, message = "Failed to read the records!"),
+            @ApiResponse(code = 401, message = "Not authorized to update this sensor!"),
+            @ApiResponse(code = 404, message = "Sensor or requesting user not found!")})
+    public ResponseEntity<ValueLogImportResult> importSensorValueLogs(
+            @RequestHeader("X-MBP-Access-Request") String accessRequestHeader,
+            @PathVariable(value = "id") @ApiParam(value = "ID of the sensor to import value logs for", example = "5c97dc2583aeb6078c5ab672", required = true) String sensorId,
+            InputStream inputStream) throws EntityNotFoundException, MissingPermissionException {
+        // Retrieve sensor from the database and check permission
+        Sensor sensor = userEntityService.getForId(sensorRepository, sensorId);
+        userEntityService.requirePermission(sensor, ACAccessType.UPDATE, ACAccessRequest.valueOf(accessRequestHeader));
+
+        // Import value logs
+        return ResponseEntity.ok(importValueLogs(sensor, inputStream));
+    }
+
     @DeleteMapping("/actuators/{id}/valueLogs")
     @ApiResponses({@ApiResponse(code = 204, message = "Success!"),
             @ApiResponse(code = 401, message = "Not authorized to delete value logs of this actuator!"),
@@ -246,12 +469,8 @@ public class RestValueLogController {
      * @throws EntityNotFoundException    In case that the entity could not be found
      */
     private <C extends Component> Page<ValueLog> getValueLogs(C component, String unit, Long startTime, Long endTime, Pageable pageable, ACAccessRequest accessRequest) throws MissingPermissionException, EntityNotFoundException {
-        ACPolicy policy = null;
-        if (!userEntityService.checkAdmin() && !userEntityService.checkOwner(component)) {
-            // Check permission (if access is granted, the policy that grants access is returned)
-            policy = userEntityService.getFirstPolicyGrantingAccess(component, ACAccessType.READ_VALUE_LOGS, accessRequest)
-                    .orElseThrow(() -> new MissingPermissionException("Component", component.getId(), ACAccessType.READ_VALUE_LOGS));
-        }
+        // Check permission
+        ACPolicy policy = getPolicyGrantingValueLogAccess(component, accessRequest);
 
         //Retrieve all value logs from database
         List<ValueLog> valueLogsList = valueLogRepository.findAllByIdRef(component.getId());
@@ -267,23 +486,9 @@ public class RestValueLogController {
         }
 
         // Convert value logs to target unit if required
-        if (S.notEmpty(unit)) {
-            // Parse unit
-            Unit<? extends Quantity> targetUnit;
-            try {
-                targetUnit = Unit.valueOf(unit);
-            } catch (Exception e) {
-                throw new MBPException(HttpStatus.BAD_REQUEST, "Invalid unit!");
-            }
-
-            // Get source unit
-            Unit<? extends Quantity> sourceUnit = component.getOperator().getUnitObject();
-
-            // Convert value logs using corresponding converter
-            UnitConverter converter = sourceUnit.getConverterTo(targetUnit);
-            for (ValueLog valueLog : valueLogsList) {
-                unitConverterService.convertValueLogValue(valueLog, converter);
-            }
+        ValueLogUnitConverter converter = getUnitConverter(component, unit);
+        if (converter != null) {
+            valueLogsList.forEach(converter::convert);
         }
         // Apply effect (constraints)
         if (policy != null && policy.getEffectId() != null) {
@@ -312,4 +517,266 @@ public class RestValueLogController {
         final int end = Math.min((start + pageable.getPageSize()), valueLogsList.size());
         return new PageImpl<>(valueLogsList.subList(start, end), pageable, valueLogsList.size());
     }
+
+    /**
+     * Retrieves the value logs of several components within a shared time range. The permissions are checked for
+     * all components at once. The value logs of each accessible component are then read through a cursor per
+     * component, which merges the live and the archived documents in the requested order by using the index on
+     * idref and time; the first value logs up to the limit of the component are retained within a bounded priority
+     * queue, so that reading stops once no further document can contribute. Components that do not exist or whose
+     * value logs may not be read are reported with a corresponding status instead of failing the entire request.
+     *
+     * @param requestDto    The {@link ValueLogQueryRequestDTO} describing the components and the time range.
+     * @param accessRequest The access request of the client.
+     * @return the list of {@link ComponentValueLogs} in the order of the requested components.
+     * @throws EntityNotFoundException In case that the effect of a granting policy could not be found
+     */
+    private List<ComponentValueLogs> getValueLogsOfComponents(ValueLogQueryRequestDTO requestDto, ACAccessRequest accessRequest) throws EntityNotFoundException {
+        // Validate request
+        List<ValueLogQueryRequestDTO.ComponentQuery> queries = requestDto.getComponents();
+        if ((queries == null) || queries.isEmpty() || (queries.size() > MAX_QUERY_COMPONENTS)) {
+            throw new MBPException(HttpStatus.BAD_REQUEST, "Between 1 and " + MAX_QUERY_COMPONENTS + " components must be requested!");
+        }
+        List<String> componentIds = queries.stream().map(ValueLogQueryRequestDTO.ComponentQuery::getId).collect(Collectors.toList());
+        if (componentIds.contains(null) || (new HashSet<>(componentIds).size() < componentIds.size())) {
+            throw new MBPException(HttpStatus.BAD_REQUEST, "Component IDs must be given and unique!");
+        }
+
+        // Retrieve all requested sensors and actuators from the database
+        Map<String, Component> components = new HashMap<>();
+        sensorRepository.findAllById(componentIds).forEach(c -> components.put(c.getId(), c));
+        actuatorRepository.findAllById(componentIds).forEach(c -> components.put(c.getId(), c));
+
+        // Check permissions of all components at once
+        Map<String, Optional<ACPolicy>> policies = userEntityService.getFirstPoliciesGrantingAccess(
+                new ArrayList<>(components.values()), ACAccessType.READ_VALUE_LOGS, accessRequest);
+
+        // Determine the limits of all accessible components
+        Map<String, Integer> limits = new HashMap<>();
+        for (ValueLogQueryRequestDTO.ComponentQuery query : queries) {
+            if (policies.containsKey(query.getId())) {
+                Integer limit = (query.getLimit() != null) ? query.getLimit() : requestDto.getLimit();
+                limits.put(query.getId(), Math.max(0, Math.min((limit == null) ? DEFAULT_QUERY_LIMIT : limit, MAX_QUERY_LIMIT)));
+            }
+        }
+
+        // Retrieve the value logs of all accessible components from the database at once
+        Instant start = ((requestDto.getStartTime() != null) && (requestDto.getStartTime() > 0)) ? Instant.ofEpochMilli(requestDto.getStartTime()) : null;
+        Instant end = ((requestDto.getEndTime() != null) && (requestDto.getEndTime() > 0)) ? Instant.ofEpochMilli(requestDto.getEndTime()) : null;
+        Map<String, List<ValueLog>> valueLogs = limits.isEmpty() ? Collections.emptyMap() :
+                valueLogRepository.findAllByIdRefs(limits, start, end, requestDto.isAscending());
+
+        // Create results in the order of the requested components
+        Map<String, ACAbstractEffect> effects = new HashMap<>();
+        List<ComponentValueLogs> results = new ArrayList<>();
+        for (ValueLogQueryRequestDTO.ComponentQuery query : queries) {
+            Component component = components.get(query.getId());
+            if (component == null) {
+                results.add(new ComponentValueLogs(query.getId(), ComponentValueLogs.Status.NOT_FOUND));
+                continue;
+            } else if (!policies.containsKey(query.getId())) {
+                results.add(new ComponentValueLogs(query.getId(), ComponentValueLogs.Status.FORBIDDEN));
+                continue;
+            }
+
+            // Convert value logs to target unit if required
+            List<ValueLog> valueLogsList = valueLogs.get(query.getId());
+            ValueLogUnitConverter converter = getUnitConverter(component, query.getUnit());
+            if (converter != null) {
+                valueLogsList.forEach(converter::convert);
+            }
+
+            // Apply effect (constraints), retrieving each effect only once
+            ACPolicy policy = policies.get(query.getId()).orElse(null);
+            if (policy != null && policy.getEffectId() != null) {
+                ACAbstractEffect effect = effects.get(policy.getEffectId());
+                if (effect == null) {
+                    effect = effectService.getForId(policy.getEffectId());
+                    effects.put(policy.getEffectId(), effect);
+                }
+                valueLogsList.forEach(effect::apply);
+            }
+            results.add(new ComponentValueLogs(query.getId(), ComponentValueLogs.Status.OK).setValueLogs(valueLogsList));
+        }
+        return results;
+    }
+
+    /**
+     * Subscribes to the value logs that are received for a given component from now on. The value logs are
+     * converted to a given unit and pushed to the client via server-sent events. The permission of the client is
+     * re-checked periodically on behalf of the client, using the current state of the component.
+     *
+     * @param component       The {@link Component} to subscribe to.
+     * @param componentLoader Loader that retrieves the current state of the component from the database.
+     * @param unit            The target unit as {@code String}.
+     * @param interval        The desired update interval in milliseconds.
+     * @param coalesce        Whether only the latest value log is sent per update interval.
+     * @param accessRequest   The access request of the client.
+     * @return the {@link SseEmitter} that streams the value logs.
+     * @throws MissingPermissionException In case of missing permissions
+     * @throws EntityNotFoundException    In case that the entity could not be found
+     */
+    private <C extends Component> SseEmitter streamValueLogs(C component, Callable<C> componentLoader, String unit, long interval, boolean coalesce, ACAccessRequest accessRequest) throws MissingPermissionException, EntityNotFoundException {
+        // Check permission and resolve effect (constraints)
+        ACAbstractEffect effect = getValueLogAccessEffect(component, accessRequest);
+
+        // Repeat the check in the security context of the client
+        Callable<ACAbstractEffect> accessCheck = new DelegatingSecurityContextCallable<>(
+                () -> getValueLogAccessEffect(componentLoader.call(), accessRequest));
+
+        // Subscribe to the value logs of the component
+        return valueLogStreamService.subscribe(component.getId(), getUnitConverter(component, unit), effect, accessCheck, interval, coalesce);
+    }
+
+    /**
+     * Checks whether the client is allowed to access the value logs of a given component and resolves the effect
+     * of the policy that grants the access.
+     *
+     * @param component     The {@link Component} whose value logs are accessed.
+     * @param accessRequest The access request of the client.
+     * @return the effect of the granting policy or null, if no effect needs to be applied.
+     * @throws MissingPermissionException In case of missing permissions
+     * @throws EntityNotFoundException    In case that the effect could not be found
+     */
+    private <C extends Component> ACAbstractEffect getValueLogAccessEffect(C component, ACAccessRequest accessRequest) throws MissingPermissionException, EntityNotFoundException {
+        // Check permission
+        ACPolicy policy = getPolicyGrantingValueLogAccess(component, accessRequest);
+
+        // Resolve effect (constraints)
+        if (policy != null && policy.getEffectId() != null) {
+            return effectService.getForId(policy.getEffectId());
+        }
+        return null;
+    }
+
+    /**
+     * Exports the value logs of a given component within an optional time window in a given unit and format by
+     * streaming them from the database to the response.
+     *
+     * @param component     The {@link Component} the value logs should be exported for.
+     * @param unit          The target unit as {@code String}.
+     * @param startTime     The start time for filtering in time
+     * @param endTime       The end time for filtering in time
+     * @param format        The export format as {@code String}.
+     * @param ascending     Whether the value logs are ordered ascending by time.
+     * @param accessRequest The access request of the client.
+     * @return the {@link ResponseEntity} that streams the value logs.
+     * @throws MissingPermissionException In case of missing permissions
+     * @throws EntityNotFoundException    In case that the entity could not be found
+     */
+    private <C extends Component> ResponseEntity<StreamingResponseBody> exportValueLogs(C component, String unit, Long startTime, Long endTime, String format, boolean ascending, ACAccessRequest accessRequest) throws MissingPermissionException, EntityNotFoundException {
+        // Check permission
+        ACPolicy policy = getPolicyGrantingValueLogAccess(component, accessRequest);
+
+        // Resolve effect (constraints)
+        ACAbstractEffect effect = null;
+        if (policy != null && policy.getEffectId() != null) {
+            effect = effectService.getForId(policy.getEffectId());
+        }
+        ACAbstractEffect exportEffect = effect;
+
+        // Parse format
+        ValueLogExportFormat exportFormat;
+        try {
+            exportFormat = ValueLogExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new MBPException(HttpStatus.BAD_REQUEST, "Invalid export format!");
+        }
+
+        // Resolve time window and unit converter before the response is committed
+        Instant start = ((startTime != null) && (startTime > 0)) ? Instant.ofEpochMilli(startTime) : null;
+        Instant end = ((endTime != null) && (endTime > 0)) ? Instant.ofEpochMilli(endTime) : null;
+        ValueLogUnitConverter converter = getUnitConverter(component, unit);
+
+        // Stream value logs to the response
+        StreamingResponseBody body = outputStream -> valueLogExportService.export(component.getId(), start, end,
+                ascending, exportFormat, converter, exportEffect, outputStream);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + component.getId() + "."
+                        + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Checks whether the requesting user may read the value logs of a given component.
+     *
+     * @param component     The {@link Component} the value logs should be retrieved for.
+     * @param accessRequest The access request of the client.
+     * @return the {@link ACPolicy} that grants access or null, if the user is admin or owner of the component.
+     * @throws MissingPermissionException In case of missing permissions
+     */
+    private <C extends Component> ACPolicy getPolicyGrantingValueLogAccess(C component, ACAccessRequest accessRequest) throws MissingPermissionException {
+        if (userEntityService.checkAdmin() || userEntityService.checkOwner(component)) {
+            return null;
+        }
+
+        // Check permission (if access is granted, the policy that grants access is returned)
+        return userEntityService.getFirstPolicyGrantingAccess(component, ACAccessType.READ_VALUE_LOGS, accessRequest)
+                .orElseThrow(() -> new MissingPermissionException("Component", component.getId(), ACAccessType.READ_VALUE_LOGS));
+    }
+
+    /**
+     * Creates a converter for the value logs of a given component from the unit of the component to a given
+     * target unit.
+     *
+     * @param component The {@link Component} whose values should be converted.
+     * @param unit      The target unit as {@code String}.
+     * @return the {@link ValueLogUnitConverter} or null, if no target unit is given.
+     */
+    private <C extends Component> ValueLogUnitConverter getUnitConverter(C component, String unit) {
+        if (S.nullOrEmpty(unit)) {
+            return null;
+        }
+
+        // Parse unit
+        Unit<?> targetUnit;
+        try {
+            targetUnit = unitConverterService.parseUnit(unit);
+        } catch (Exception e) {
+            throw new MBPException(HttpStatus.BAD_REQUEST, "Invalid unit!");
+        }
+
+        // Get source unit
+        Unit<?> sourceUnit = unitConverterService.parseUnit(component.getOperator().getUnit());
+        return unitConverterService.getValueLogConverter(component.getId(), sourceUnit, targetUnit);
+    }
+
+    /**
+     * Parses the access request of a client, which is either passed as header or, for clients that cannot set
+     * custom headers (such as browser event sources), as a previously issued stream token.
+     *
+     * @param accessRequestHeader The access request header or null.
+     * @param token               The stream token or null.
+     * @return the parsed {@link ACAccessRequest}.
+     */
+    private ACAccessRequest parseAccessRequest(String accessRequestHeader, String token) {
+        if (S.notEmpty(accessRequestHeader)) {
+            return ACAccessRequest.valueOf(accessRequestHeader);
+        } else if (S.nullOrEmpty(token)) {
+            throw new MBPException(HttpStatus.BAD_REQUEST, "Access request is missing!");
+        }
+
+        // Redeem the stream token
+        ACAccessRequest accessRequest = valueLogStreamService.redeemToken(token, SecurityUtils.getCurrentUserUsername());
+        if (accessRequest == null) {
+            throw new MBPException(HttpStatus.UNAUTHORIZED, "Stream token is invalid or expired!");
+        }
+        return accessRequest;
+    }
+
+    /**
+     * Imports the value logs that are provided by a given input stream for a given component.
+     *
+     * @param component   The component to import the value logs for.
+     * @param inputStream The input stream providing the records.
+     * @return the {@link ValueLogImportResult}.
+     */
+    private ValueLogImportResult importValueLogs(Component component, InputStream inputStream) {
+        try {
+            return valueLogImportService.importValueLogs(component, inputStream);
+        } catch (IOException e) {
+            throw new MBPException(HttpStatus.BAD_REQUEST, "Failed to read the records: " + e.getMessage());
+        }
+    }
 }
@@ -16,6 +16,7 @@ import de.ipvs.as.mbp.error.MissingPermissionException;
 import de.ipvs.as.mbp.repository.ActuatorRepository;
 import de.ipvs.as.mbp.repository.SensorRepository;
 import de.ipvs.as.mbp.repository.discovery.DynamicDeploymentRepository;
+import de.ipvs.as.mbp.service.UnitConverterService;
 import de.ipvs.as.mbp.service.access_control.ACEffectService;
 import de.ipvs.as.mbp.service.discovery.deployment.DynamicDeployableComponent;
 import de.ipvs.as.mbp.service.stats.ValueLogStatsService;
@@ -29,7 +30,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import javax.measure.quantity.Quantity;
 import javax.measure.unit.Unit;
 
 /**
@@ -61,6 +61,9 @@ public class RestValueLogStatsController {
     @Autowired
     private UserEntityService userEntityService;
 
+    @Autowired
+    private UnitConverterService unitConverterService;
+
 
     /**
      * Responds with the value log stats for a certain actuator.
@@ -200,10 +203,10 @@ public class RestValueLogStatsController {
         }
 
         // Parse unit
-        Unit<? extends Quantity> unit = null;
+        Unit<?> unit = null;
         if (S.notEmpty(unitString)) {
             try {
-                unit = Unit.valueOf(unitString);
+                unit = unitConverterService.parseUnit(unitString);
             } catch (Exception e) {
                 throw new MBPException(HttpStatus.BAD_REQUEST, "Invalid unit!");
             }
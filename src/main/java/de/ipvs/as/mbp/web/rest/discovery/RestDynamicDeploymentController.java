@@ -27,8 +27,6 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
@@ -72,11 +70,11 @@ public class RestDynamicDeploymentController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         //Retrieve the corresponding dynamic deployments and filter for those that are not flagged for deletion
-        List<DynamicDeployment> dynamicDeployments = userEntityService.getPageWithAccessControlCheck(dynamicDeploymentRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<DynamicDeployment> dynamicDeployments = userEntityService.getPageWithAccessControlCheck(dynamicDeploymentRepository, ACAccessType.READ, accessRequest, pageable);
 
         //Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(dynamicDeployments, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(dynamicDeployments, selfLink));
     }
 
     @GetMapping(path = "/{dynamicDeploymentId}", produces = "application/hal+json")
@@ -11,6 +11,7 @@ import de.ipvs.as.mbp.service.discovery.DiscoveryService;
 import de.ipvs.as.mbp.service.user.UserEntityService;
 import io.swagger.annotations.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
@@ -19,8 +20,6 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
@@ -52,12 +51,12 @@ public class RestRequestTopicController {
         ACAccessRequest accessRequest = ACAccessRequest.valueOf(accessRequestHeader);
 
         // Retrieve the corresponding request topics (includes access-control)
-        List<RequestTopic> requestTopics = userEntityService.getPageWithAccessControlCheck(requestTopicRepository, ACAccessType.READ, accessRequest, pageable);
+        Page<RequestTopic> requestTopics = userEntityService.getPageWithAccessControlCheck(requestTopicRepository, ACAccessType.READ, accessRequest, pageable);
 
         // Create self link
         Link selfLink = linkTo(methodOn(getClass()).all(accessRequestHeader, pageable)).withSelfRel();
 
-        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(requestTopics, selfLink, pageable));
+        return ResponseEntity.ok(userEntityService.entitiesToPagedModel(requestTopics, selfLink));
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = "application/hal+json")
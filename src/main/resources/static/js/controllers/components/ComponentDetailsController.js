@@ -275,6 +275,19 @@ app.controller('ComponentDetailsController',
                 return ComponentService.getValueLogs(COMPONENT_ID, COMPONENT_TYPE, pageDetails, unit);
             }
 
+            /**
+             * [Public]
+             * Subscribes to the value logs that are received for the current component from now on.
+             *
+             * @param unit The unit in which the values are supposed to be retrieved
+             * @param interval The minimum time between two updates in milliseconds
+             * @param onValues Callback function that is called with the received value logs
+             * @returns {EventSource} The created event source object
+             */
+            function subscribeComponentData(unit, interval, onValues) {
+                return ComponentService.subscribeValueLogs(COMPONENT_ID, COMPONENT_TYPE, unit, interval, onValues);
+            }
+
             /**
              * [Public]
              * Asks the user if he really wants to delete all value logs for the current component. If this is the case,
@@ -401,7 +414,8 @@ app.controller('ComponentDetailsController',
                     loadingStart: loadingStart,
                     loadingFinish: loadingFinish,
                     isUpdateable: isUpdateable,
-                    getData: retrieveComponentData
+                    getData: retrieveComponentData,
+                    subscribeData: subscribeComponentData
                 };
             }
 
@@ -169,6 +169,19 @@ app.controller('DynamicDeploymentDetailsController',
                 return DiscoveryService.getValueLogs(DEPLOYMENT_ID, pageDetails, unit);
             }
 
+            /**
+             * [Public]
+             * Subscribes to the value logs that are received for the current dynamic deployment from now on.
+             *
+             * @param unit The unit in which the values are supposed to be retrieved
+             * @param interval The minimum time between two updates in milliseconds
+             * @param onValues Callback function that is called with the received value logs
+             * @returns {EventSource} The created event source object
+             */
+            function subscribeComponentData(unit, interval, onValues) {
+                return DiscoveryService.subscribeValueLogs(DEPLOYMENT_ID, unit, interval, onValues);
+            }
+
             /**
              * [Public]
              * Asks the user if he really wants to delete all value logs for the current dynamic deployment.
@@ -359,7 +372,8 @@ app.controller('DynamicDeploymentDetailsController',
                     loadingStart: loadingStart,
                     loadingFinish: loadingFinish,
                     isUpdateable: isUpdateable,
-                    getData: retrieveComponentData
+                    getData: retrieveComponentData,
+                    subscribeData: subscribeComponentData
                 };
             }
 
@@ -171,6 +171,19 @@ app.directive('customizableChartCard', ['ComponentService', function (ComponentS
             return ComponentService.getValueLogs(scope.componentData.id, scope.componentData.componentTypeName, pageDetails, unit);
         }
 
+        /**
+         * [Public]
+         * Subscribes to the value logs that are received for the current component from now on.
+         *
+         * @param unit The unit in which the values are supposed to be retrieved
+         * @param interval The minimum time between two updates in milliseconds
+         * @param onValues Callback function that is called with the received value logs
+         * @returns {EventSource} The created event source object
+         */
+        scope.subscribeData = function subscribeComponentData(unit, interval, onValues) {
+            return ComponentService.subscribeValueLogs(scope.componentData.id, scope.componentData.componentTypeName, unit, interval, onValues);
+        }
+
         /**
          * Function that checks whether the live chart is allowed to update its data.
          * @returns {boolean} True, if the chart may update; false otherwise
@@ -28,6 +28,11 @@ app.directive('liveGeoMapChart', ['$timeout', '$interval', function ($timeout, $
         var chartInterval = null;
         let chartIntervalUpdate = false;
 
+        //Server push objects
+        let eventSource = null;
+        let subscribeChartData = null;
+        let chartUpdateGeneration = 0;
+
         // Markers for the leaflet map module
         var markers = null;
 
@@ -74,6 +79,11 @@ app.directive('liveGeoMapChart', ['$timeout', '$interval', function ($timeout, $
 
                     //Trigger re-definition of interval
                     chartIntervalUpdate = true;
+
+                    //Re-subscribe with the new interval in case of server push
+                    if (eventSource) {
+                        subscribeChartData();
+                    }
                 }
             });
 
@@ -90,6 +100,88 @@ app.directive('liveGeoMapChart', ['$timeout', '$interval', function ($timeout, $
 
             var lastDate = null;
 
+            /**
+             * Adds an array of value logs (most recent log first) to the chart. Value logs that are
+             * already displayed in the chart are skipped.
+             *
+             * @param values The value logs to add
+             */
+            var addValues = function (values) {
+                //Abort of no data is available
+                if (values.length < 1) {
+                    return;
+                }
+
+                // As the directive takes the jsonPath parameter as string a conversion to an object is necessary
+                var jsonPathAsObj = JSON.parse(scope.jsonPath);
+
+                // Retrieve double values from the values by using JsonPath
+                values = values.map(applyJsonPath);
+
+                function applyJsonPath(value, index, array) {
+                    var newVal = [];
+                    if (scope.fieldCollectionId === 'default') {
+                        // Push time
+                        newVal.push(value[0]);
+                        // Push coordinates
+                        newVal.push([
+                            parseFloat(JSONPath.JSONPath({
+                                path: jsonPathAsObj.latitude.path,
+                                json: value[1]
+                            }).toString()),
+                            parseFloat(JSONPath.JSONPath({
+                                path: jsonPathAsObj.longitude.path,
+                                json: value[1]
+                            }).toString())]);
+                    } else {
+                        // Alternative approach
+                    }
+                    return newVal;
+                }
+
+                /*
+                 * The server requests returns a number of most recent logs; however, it is possible
+                 * that some of the value logs are already displayed in the chart and do not need
+                 * to be added again. Thus, filtering is needed, for which the variable lastDate
+                 * is used to remember the date of the most recent log displayed in the chart.
+                 */
+
+                /**
+                 * Displays array of data in the following format:
+                 * values = [time, [latitude, longitude]]}
+                 * @param values
+                 */
+                function displayData(values) {
+                    // Clear possibly already existing markers
+                    if (markers != null) {
+                        markers.clearLayers();
+                    }
+
+                    var latLngArr = [];
+
+                    markers = L.layerGroup([]);
+
+                    for (var i = 0; i < values.length; i++) {
+                        var marker = L.marker([values[i][1][0], values[i][1][1]]);
+                        latLngArr.push([values[i][1][0], values[i][1][1]])
+                        marker.bindPopup("<b>" + new Date(values[i][0]).toLocaleString() + "</b><br> Lat=" + values[i][1][0] + "°<br>Long=" + values[i][1][1] + "°");
+
+                        // add marker
+                        markers.addLayer(marker);
+                    }
+                    chart.addLayer(markers);
+                    chart.fitBounds(new L.LatLngBounds(latLngArr), {
+                        maxZoom: 5
+                    });
+                }
+
+                // Display data, as only the current live position is visualized no extra handlings are needed
+                displayData(values);
+
+                //Update lastDate with the most recent log that was added to the chart
+                lastDate = values[0][0];
+            };
+
             //Define the update function that can be called on a regular basis
             var intervalFunction = function () {
                 //Re-define interval with new delay if necessary
@@ -118,81 +210,7 @@ app.directive('liveGeoMapChart', ['$timeout', '$interval', function ($timeout, $
                     numberLogs: CHART_MAX_ELEMENTS,
                     descending: true,
                     unit: scope.unit
-                }).then(function (values) {
-                    //Abort of no data is available
-                    if (values.length < 1) {
-                        return;
-                    }
-
-                    // As the directive takes the jsonPath parameter as string a conversion to an object is necessary
-                    var jsonPathAsObj = JSON.parse(scope.jsonPath);
-
-                    // Retrieve double values from the values by using JsonPath
-                    values = values.map(applyJsonPath);
-
-                    function applyJsonPath(value, index, array) {
-                        var newVal = [];
-                        if (scope.fieldCollectionId === 'default') {
-                            // Push time
-                            newVal.push(value[0]);
-                            // Push coordinates
-                            newVal.push([
-                                parseFloat(JSONPath.JSONPath({
-                                    path: jsonPathAsObj.latitude.path,
-                                    json: value[1]
-                                }).toString()),
-                                parseFloat(JSONPath.JSONPath({
-                                    path: jsonPathAsObj.longitude.path,
-                                    json: value[1]
-                                }).toString())]);
-                        } else {
-                            // Alternative approach
-                        }
-                        return newVal;
-                    }
-
-                    /*
-                     * The server requests returns a number of most recent logs; however, it is possible
-                     * that some of the value logs are already displayed in the chart and do not need
-                     * to be added again. Thus, filtering is needed, for which the variable lastDate
-                     * is used to remember the date of the most recent log displayed in the chart.
-                     */
-
-                    /**
-                     * Displays array of data in the following format:
-                     * values = [time, [latitude, longitude]]}
-                     * @param values
-                     */
-                    function displayData(values) {
-                        // Clear possibly already existing markers
-                        if (markers != null) {
-                            markers.clearLayers();
-                        }
-
-                        var latLngArr = [];
-
-                        markers = L.layerGroup([]);
-
-                        for (var i = 0; i < values.length; i++) {
-                            var marker = L.marker([values[i][1][0], values[i][1][1]]);
-                            latLngArr.push([values[i][1][0], values[i][1][1]])
-                            marker.bindPopup("<b>" + new Date(values[i][0]).toLocaleString() + "</b><br> Lat=" + values[i][1][0] + "°<br>Long=" + values[i][1][1] + "°");
-
-                            // add marker
-                            markers.addLayer(marker);
-                        }
-                        chart.addLayer(markers);
-                        chart.fitBounds(new L.LatLngBounds(latLngArr), {
-                            maxZoom: 5
-                        });
-                    }
-
-                    // Display data, as only the current live position is visualized no extra handlings are needed
-                    displayData(values);
-
-                    //Update lastDate with the most recent log that was added to the chart
-                    lastDate = values[0][0];
-                }).then(function () {
+                }).then(addValues).then(function () {
                     //Loading finished
                     scope.loadingFinish();
 
@@ -201,8 +219,42 @@ app.directive('liveGeoMapChart', ['$timeout', '$interval', function ($timeout, $
                 });
             };
 
-            //Create an interval that calls the update function on a regular basis
-            chartInterval = $interval(intervalFunction, 1000 * scope.settings.refreshInterval);
+            //Check if the server is able to push new values
+            if (attrs.subscribeData) {
+                //Subscribes to the values that are received from now on
+                subscribeChartData = function () {
+                    closeEventSource();
+                    eventSource = scope.subscribeData({
+                        unit: scope.unit,
+                        interval: 1000 * scope.settings.refreshInterval,
+                        onValues: function (values) {
+                            //Do not update in case it is not possible/necessary
+                            if (scope.isUpdateable()) {
+                                addValues(values);
+                            }
+                        }
+                    });
+                };
+
+                //Retrieve the most recent component data once and subscribe to new data afterwards
+                let generation = ++chartUpdateGeneration;
+                scope.getData({
+                    numberLogs: CHART_MAX_ELEMENTS,
+                    descending: true,
+                    unit: scope.unit
+                }).then(addValues).then(function () {
+                    //Loading finished
+                    scope.loadingFinish();
+
+                    //Subscribe only if the chart update was not cancelled in the meantime
+                    if (generation === chartUpdateGeneration) {
+                        subscribeChartData();
+                    }
+                });
+            } else {
+                //Create an interval that calls the update function on a regular basis
+                chartInterval = $interval(intervalFunction, 1000 * scope.settings.refreshInterval);
+            }
 
             //Ensure that the interval is cancelled in case the user switches the page
             scope.$on('$destroy', function () {
@@ -218,6 +270,21 @@ app.directive('liveGeoMapChart', ['$timeout', '$interval', function ($timeout, $
             if (chartInterval) {
                 $interval.cancel(chartInterval);
             }
+
+            //Invalidate pending subscriptions and close the current one
+            chartUpdateGeneration++;
+            closeEventSource();
+        }
+
+        /**
+         * [Private]
+         * Closes the event source of the server push subscription, if existing.
+         */
+        function closeEventSource() {
+            if (eventSource) {
+                eventSource.close();
+                eventSource = null;
+            }
         }
 
         /**
@@ -297,6 +364,8 @@ app.directive('liveGeoMapChart', ['$timeout', '$interval', function ($timeout, $
             loadingFinish: '&loadingFinish',
             //Function for updating the displayed data
             getData: '&getData',
+            //Function for subscribing to data that is pushed by the server (optional, replaces polling)
+            subscribeData: '&subscribeData',
             //Function that checks whether the chart is allowed to update its data
             isUpdateable: '&isUpdateable'
         }
@@ -28,6 +28,11 @@ app.directive('liveChart', ['$timeout', '$interval', function ($timeout, $interv
         let chartInterval = null;
         let chartIntervalUpdate = false;
 
+        //Server push objects
+        let eventSource = null;
+        let subscribeChartData = null;
+        let chartUpdateGeneration = 0;
+
         //Progress jQuery element
         let progressBar = element.find('.progress-bar');
 
@@ -113,6 +118,11 @@ app.directive('liveChart', ['$timeout', '$interval', function ($timeout, $interv
 
                     //Trigger re-definition of interval
                     chartIntervalUpdate = true;
+
+                    //Re-subscribe with the new interval in case of server push
+                    if (eventSource) {
+                        subscribeChartData();
+                    }
                 }
             });
 
@@ -146,6 +156,133 @@ app.directive('liveChart', ['$timeout', '$interval', function ($timeout, $interv
 
             let lastDate = null;
 
+            /**
+             * Adds an array of value logs (most recent log first) to the chart. Value logs that are
+             * already displayed in the chart are skipped.
+             *
+             * @param values The value logs to add
+             */
+            let addValues = function (values) {
+                //Abort of no data is available
+                if (values.length < 1) {
+                    return;
+                }
+
+                // As the directive takes the jsonPath parameter as string a conversion to an object is necessary
+                var jsonPathAsObj = JSON.parse(scope.jsonPath);
+
+                console.log("Start JsonPath retrieval");
+                // Retrieve double values from the values by using JsonPath
+                values.forEach(applyJsonPath);
+
+                function applyJsonPath(value, index, array) {
+                    if (scope.fieldCollectionId === 'default') {
+                        array[index][1] = parseFloat(JSONPath.JSONPath({
+                            path: jsonPathAsObj.value.path,
+                            json: array[index][1]
+                        }).toString());
+                    } else if (scope.fieldCollectionId === 'arrVal'){
+                        array[index][1] = JSONPath.JSONPath({
+                            path: jsonPathAsObj.arrVal.path,
+                            json: array[index][1]
+                        });
+                    }
+                }
+
+                console.log("End JsonPath retrieval");
+
+                if (scope.fieldCollectionId != 'default') {
+                    // Add series if array visualization needs more series elements
+                    for (var i = series.length-1; i < values[0][1].length; i++) {
+                        chart.addSeries({
+                            name: 'Value' + i,
+                            data: [],
+                            showInNavigator: true
+                        });
+                        console.log("addChart");
+                    }
+                    // Update legend
+                    for (var i = 0; i < chart.series.length; i++) {
+                        chart.series[i].update({
+                            name: jsonPathAsObj.arrVal.name  + "[" + i + "]",
+                            tooltip: {valueSuffix: ' ' + (jsonPathAsObj.arrVal.unit ? jsonPathAsObj.arrVal.unit : '')}
+                        }, true);
+                    }
+                } else if (scope.fieldCollectionId === 'default') {
+                    series[0].update({
+                        name: jsonPathAsObj.value.name,
+                        tooltip: {valueSuffix: ' ' + (jsonPathAsObj.value.unit ? jsonPathAsObj.value.unit : '')}
+                    })
+                }
+
+                /*
+                 * The server requests returns a number of most recent logs; however, it is possible
+                 * that some of the value logs are already displayed in the chart and do not need
+                 * to be added again. Thus, filtering is needed, for which the variable lastDate
+                 * is used to remember the date of the most recent log displayed in the chart.
+                 */
+
+                var addArrayPointsToChart = function (valueIndex) {
+                    ++count;
+                    for (var j = 0; j < series.length; j++) {
+                        var newVal = [];
+                        newVal.push(values[valueIndex][0]);
+                        newVal.push(values[valueIndex][1][j])
+                        series[j].addPoint(newVal, true, (count >= CHART_MAX_ELEMENTS));
+                        //chart.xAxis.setExtremes();
+                    }
+                }
+
+                //Check if there is already data in the chart
+                if (lastDate == null) {
+                    //No data in the chart, thus add all received value logs
+                    console.log("No data in chart: Start adding points.");
+                    for (let i = values.length - 1; i >= 0; i--) {
+                        if (scope.fieldCollectionId === 'default') {
+                            series[0].addPoint(values[i], true, (++count >= CHART_MAX_ELEMENTS));
+                        } else {
+                            addArrayPointsToChart(i);
+                        }
+                    }
+                    console.log("No data in chart: Finish adding points.");
+                } else {
+                    /* There is already data in the chart, so iterate over all value logs but
+                     only take the ones from the array that occur before the log with lastDate */
+                    let insert = false;
+                    for (let i = values.length - 1; i >= 0; i--) {
+                        //Try to find the log with lastdate in the array
+                        if (values[i][0] === lastDate) {
+                            insert = true;
+                        } else if (insert) {
+                            //This is a log before the log with lastedate
+                            if (scope.fieldCollectionId === 'default') {
+                                series[0].addPoint(values[i], true, (++count >= CHART_MAX_ELEMENTS));
+                            } else {
+                                addArrayPointsToChart(i);
+                            }
+                        }
+                    }
+
+                    console.log("Data check of live chart compelted.");
+
+                    /* In case the log with lastDate could not be found, this means that all data is relevant
+                     and needs to be added to the chart */
+                    if (!insert) {
+                        for (let i = values.length - 1; i >= 0; i--) {
+                            if (scope.fieldCollectionId === 'default') {
+                                series[0].addPoint(values[i], true, (++count >= CHART_MAX_ELEMENTS));
+                            } else {
+                                addArrayPointsToChart(i);
+                            }
+                        }
+                    }
+                }
+
+                console.log("Added points to chart");
+                //Update lastDate with the most recent log that was added to the chart
+                lastDate = values[0][0];
+            };
+
             //Define the update function that can be called on a regular basis
             let intervalFunction = function () {
                 //Re-define interval with new delay if necessary
@@ -175,136 +312,51 @@ app.directive('liveChart', ['$timeout', '$interval', function ($timeout, $interv
                     numberLogs: CHART_MAX_ELEMENTS,
                     descending: true,
                     unit: scope.unit
-                }).then(function (values) {
-                    //Abort of no data is available
-                    if (values.length < 1) {
-                        return;
-                    }
-
-                    // As the directive takes the jsonPath parameter as string a conversion to an object is necessary
-                    var jsonPathAsObj = JSON.parse(scope.jsonPath);
-
-                    console.log("Start JsonPath retrieval");
-                    // Retrieve double values from the values by using JsonPath
-                    values.forEach(applyJsonPath);
-
-                    function applyJsonPath(value, index, array) {
-                        if (scope.fieldCollectionId === 'default') {
-                            array[index][1] = parseFloat(JSONPath.JSONPath({
-                                path: jsonPathAsObj.value.path,
-                                json: array[index][1]
-                            }).toString());
-                        } else if (scope.fieldCollectionId === 'arrVal'){
-                            array[index][1] = JSONPath.JSONPath({
-                                path: jsonPathAsObj.arrVal.path,
-                                json: array[index][1]
-                            });
-                        }
-                    }
-
-                    console.log("End JsonPath retrieval");
-
-                    if (scope.fieldCollectionId != 'default') {
-                        // Add series if array visualization needs more series elements
-                        for (var i = series.length-1; i < values[0][1].length; i++) {
-                            chart.addSeries({
-                                name: 'Value' + i,
-                                data: [],
-                                showInNavigator: true
-                            });
-                            console.log("addChart");
-                        }
-                        // Update legend
-                        for (var i = 0; i < chart.series.length; i++) {
-                            chart.series[i].update({
-                                name: jsonPathAsObj.arrVal.name  + "[" + i + "]",
-                                tooltip: {valueSuffix: ' ' + (jsonPathAsObj.arrVal.unit ? jsonPathAsObj.arrVal.unit : '')}
-                            }, true);
-                        }
-                    } else if (scope.fieldCollectionId === 'default') {
-                        series[0].update({
-                            name: jsonPathAsObj.value.name,
-                            tooltip: {valueSuffix: ' ' + (jsonPathAsObj.value.unit ? jsonPathAsObj.value.unit : '')}
-                        })
-                    }
-
-                    /*
-                     * The server requests returns a number of most recent logs; however, it is possible
-                     * that some of the value logs are already displayed in the chart and do not need
-                     * to be added again. Thus, filtering is needed, for which the variable lastDate
-                     * is used to remember the date of the most recent log displayed in the chart.
-                     */
-
-                    var addArrayPointsToChart = function (valueIndex) {
-                        ++count;
-                        for (var j = 0; j < series.length; j++) {
-                            var newVal = [];
-                            newVal.push(values[valueIndex][0]);
-                            newVal.push(values[valueIndex][1][j])
-                            series[j].addPoint(newVal, true, (count >= CHART_MAX_ELEMENTS));
-                            //chart.xAxis.setExtremes();
-                        }
-                    }
+                }).then(addValues).then(function () {
+                    //Loading finished
+                    scope.loadingFinish();
 
-                    //Check if there is already data in the chart
-                    if (lastDate == null) {
-                        //No data in the chart, thus add all received value logs
-                        console.log("No data in chart: Start adding points.");
-                        for (let i = values.length - 1; i >= 0; i--) {
-                            if (scope.fieldCollectionId === 'default') {
-                                series[0].addPoint(values[i], true, (++count >= CHART_MAX_ELEMENTS));
-                            } else {
-                                addArrayPointsToChart(i);
-                            }
-                        }
-                        console.log("No data in chart: Finish adding points.");
-                    } else {
-                        /* There is already data in the chart, so iterate over all value logs but
-                         only take the ones from the array that occur before the log with lastDate */
-                        let insert = false;
-                        for (let i = values.length - 1; i >= 0; i--) {
-                            //Try to find the log with lastdate in the array
-                            if (values[i][0] === lastDate) {
-                                insert = true;
-                            } else if (insert) {
-                                //This is a log before the log with lastedate
-                                if (scope.fieldCollectionId === 'default') {
-                                    series[0].addPoint(values[i], true, (++count >= CHART_MAX_ELEMENTS));
-                                } else {
-                                    addArrayPointsToChart(i);
-                                }
-                            }
-                        }
+                    //Visualize the time until the next refreshment
+                    runProgress(scope.settings.refreshInterval);
+                });
+            };
 
-                        console.log("Data check of live chart compelted.");
-
-                        /* In case the log with lastDate could not be found, this means that all data is relevant
-                         and needs to be added to the chart */
-                        if (!insert) {
-                            for (let i = values.length - 1; i >= 0; i--) {
-                                if (scope.fieldCollectionId === 'default') {
-                                    series[0].addPoint(values[i], true, (++count >= CHART_MAX_ELEMENTS));
-                                } else {
-                                    addArrayPointsToChart(i);
-                                }
+            //Check if the server is able to push new values
+            if (attrs.subscribeData) {
+                //Subscribes to the values that are received from now on
+                subscribeChartData = function () {
+                    closeEventSource();
+                    eventSource = scope.subscribeData({
+                        unit: scope.unit,
+                        interval: 1000 * scope.settings.refreshInterval,
+                        onValues: function (values) {
+                            //Do not update in case it is not possible/necessary
+                            if (scope.isUpdateable()) {
+                                addValues(values);
                             }
                         }
-                    }
+                    });
+                };
 
-                    console.log("Added points to chart");
-                    //Update lastDate with the most recent log that was added to the chart
-                    lastDate = values[0][0];
-                }).then(function () {
+                //Retrieve the most recent component data once and subscribe to new data afterwards
+                let generation = ++chartUpdateGeneration;
+                scope.getData({
+                    numberLogs: CHART_MAX_ELEMENTS,
+                    descending: true,
+                    unit: scope.unit
+                }).then(addValues).then(function () {
                     //Loading finished
                     scope.loadingFinish();
 
-                    //Visualize the time until the next refreshment
-                    runProgress(scope.settings.refreshInterval);
+                    //Subscribe only if the chart update was not cancelled in the meantime
+                    if (generation === chartUpdateGeneration) {
+                        subscribeChartData();
+                    }
                 });
-            };
-
-            //Create an interval that calls the update function on a regular basis
-            chartInterval = $interval(intervalFunction, 1000 * scope.settings.refreshInterval);
+            } else {
+                //Create an interval that calls the update function on a regular basis
+                chartInterval = $interval(intervalFunction, 1000 * scope.settings.refreshInterval);
+            }
 
             //Ensure that the interval is cancelled in case the user switches the page
             scope.$on('$destroy', function () {
@@ -320,6 +372,21 @@ app.directive('liveChart', ['$timeout', '$interval', function ($timeout, $interv
             if (chartInterval) {
                 $interval.cancel(chartInterval);
             }
+
+            //Invalidate pending subscriptions and close the current one
+            chartUpdateGeneration++;
+            closeEventSource();
+        }
+
+        /**
+         * [Private]
+         * Closes the event source of the server push subscription, if existing.
+         */
+        function closeEventSource() {
+            if (eventSource) {
+                eventSource.close();
+                eventSource = null;
+            }
         }
 
         /**
@@ -418,6 +485,8 @@ app.directive('liveChart', ['$timeout', '$interval', function ($timeout, $interv
             loadingFinish: '&loadingFinish',
             //Function for updating the displayed data
             getData: '&getData',
+            //Function for subscribing to data that is pushed by the server (optional, replaces polling)
+            subscribeData: '&subscribeData',
             //Function that checks whether the chart is allowed to update its data
             isUpdateable: '&isUpdateable'
         }
@@ -22,6 +22,14 @@ app.factory('ComponentService', ['HttpService', '$resource', '$q', 'ENDPOINT_URI
         const URL_GET_VALUE_LOG_STATS_SUFFIX = '/stats';
         //URL suffix under which the value logs of a certain component can be retrieved
         const URL_VALUE_LOGS_SUFFIX = '/valueLogs';
+        //URL suffix under which the value logs of a certain component can be subscribed
+        const URL_VALUE_LOGS_STREAM_SUFFIX = '/valueLogs/stream';
+        //URL under which tokens for subscribing to value logs can be obtained
+        const URL_VALUE_LOGS_STREAM_TOKENS = URL_PREFIX + 'valueLogs/stream/tokens';
+        //Delay in milliseconds before a broken value log subscription is re-established
+        const VALUE_LOGS_STREAM_RECONNECT_DELAY = 5000;
+        //Name of the server-sent events that carry value logs
+        const VALUE_LOG_EVENT = 'value_log';
         // URL suffix under which the active visualizations of a component can be retrieved or updated
         const URL_ACTIVE_VISUALIZATION_SUFFIX = 'component-vis';
 
@@ -147,6 +155,72 @@ app.factory('ComponentService', ['HttpService', '$resource', '$q', 'ENDPOINT_URI
         }
 
 
+        /**
+         * [Public]
+         * Subscribes to the value logs that are received for a certain component from now on. The value logs are
+         * pushed by the server as server-sent events, processed and passed to the given callback function.
+         *
+         * @param componentId The id of the component whose value logs are supposed to be subscribed
+         * @param component The type of the component
+         * @param unit The unit in which the values are supposed to be retrieved
+         * @param interval The minimum time between two updates in milliseconds
+         * @param onValues Callback function that is called with the processed value logs
+         * @returns {{close: function}} The subscription object that needs to be closed by the caller
+         */
+        function subscribeValueLogs(componentId, component, unit, interval, onValues) {
+            let eventSource = null;
+            let closed = false;
+
+            function connect() {
+                //Event sources cannot set headers, thus obtain a single-use token for the access request first
+                HttpService.postRequest(URL_VALUE_LOGS_STREAM_TOKENS).then(function (response) {
+                    //Check if the subscription was closed in the meantime
+                    if (closed) {
+                        return;
+                    }
+
+                    //Pass parameters via query
+                    let parameters = {
+                        interval: interval,
+                        token: response.token
+                    };
+
+                    //Check if unit was provided
+                    if (unit) {
+                        parameters.unit = unit;
+                    }
+
+                    //Create event source
+                    eventSource = new EventSource(URL_PREFIX + component + 's/' + componentId + URL_VALUE_LOGS_STREAM_SUFFIX
+                        + '?' + $.param(parameters));
+
+                    //Process received logs in order to be able to display them in a chart
+                    eventSource.addEventListener(VALUE_LOG_EVENT, function (event) {
+                        onValues(processValueLogs([JSON.parse(event.data)]));
+                    });
+
+                    //Tokens cannot be reused, thus re-subscribe with a new token instead of letting the browser reconnect
+                    eventSource.onerror = function () {
+                        eventSource.close();
+                        if (!closed) {
+                            setTimeout(connect, VALUE_LOGS_STREAM_RECONNECT_DELAY);
+                        }
+                    };
+                });
+            }
+
+            connect();
+
+            return {
+                close: function () {
+                    closed = true;
+                    if (eventSource) {
+                        eventSource.close();
+                    }
+                }
+            };
+        }
+
         /**
          * [Public]
          * Performs a server request in order to delete all recorded value logs of a certain component.
@@ -251,6 +325,7 @@ app.factory('ComponentService', ['HttpService', '$resource', '$q', 'ENDPOINT_URI
             getComponentState: getComponentState,
             getValueLogStats: getValueLogStats,
             getValueLogs: getValueLogs,
+            subscribeValueLogs: subscribeValueLogs,
             deleteValueLogs: deleteValueLogs,
             startComponent: startComponent,
             stopComponent: stopComponent,
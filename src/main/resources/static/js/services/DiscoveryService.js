@@ -112,6 +112,21 @@ app.factory('DiscoveryService', ['ENDPOINT_URI', 'HttpService', 'ComponentServic
             return ComponentService.getValueLogs(dynamicDeploymentId, URL_CATEGORY_NAME, pageDetails, unit);
         }
 
+        /**
+         * [Public]
+         * Subscribes to the value logs that are received for a certain dynamic deployment from now on.
+         *
+         * @param dynamicDeploymentId The id of the dynamic deployment whose value logs are supposed to be subscribed
+         * @param unit The unit in which the values are supposed to be retrieved
+         * @param interval The minimum time between two updates in milliseconds
+         * @param onValues Callback function that is called with the processed value logs
+         * @returns {{close: function}} The subscription object that needs to be closed by the caller
+         */
+        function subscribeValueLogs(dynamicDeploymentId, unit, interval, onValues) {
+            //Delegate the call to the component service
+            return ComponentService.subscribeValueLogs(dynamicDeploymentId, URL_CATEGORY_NAME, unit, interval, onValues);
+        }
+
         /**
          * [Public]
          * Performs a server request in order to delete all recorded value logs of a certain dynamic deployment,
@@ -177,6 +192,7 @@ app.factory('DiscoveryService', ['ENDPOINT_URI', 'HttpService', 'ComponentServic
             deactivateDynamicDeployment: deactivateDynamicDeployment,
             getValueLogStats: getValueLogStats,
             getValueLogs: getValueLogs,
+            subscribeValueLogs: subscribeValueLogs,
             deleteValueLogs: deleteValueLogs,
             getDiscoveryLogs: getDiscoveryLogs,
             deleteDiscoveryLogs: deleteDiscoveryLogs,
@@ -0,0 +1,95 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.domain.access_control.ACAbstractCondition;
+import de.ipvs.as.mbp.domain.access_control.ACAccess;
+import de.ipvs.as.mbp.domain.access_control.ACAccessRequest;
+import de.ipvs.as.mbp.domain.access_control.ACAccessType;
+import de.ipvs.as.mbp.domain.access_control.ACArgumentFunction;
+import de.ipvs.as.mbp.domain.access_control.ACAttribute;
+import de.ipvs.as.mbp.domain.access_control.ACAttributeKey;
+import de.ipvs.as.mbp.domain.access_control.ACCompositeCondition;
+import de.ipvs.as.mbp.domain.access_control.ACConditionEvaluatorNotAvailableException;
+import de.ipvs.as.mbp.domain.access_control.ACConditionSimpleAttributeArgument;
+import de.ipvs.as.mbp.domain.access_control.ACConditionSimpleValueArgument;
+import de.ipvs.as.mbp.domain.access_control.ACLogicalOperator;
+import de.ipvs.as.mbp.domain.access_control.ACSimpleCondition;
+import de.ipvs.as.mbp.domain.device.Device;
+import de.ipvs.as.mbp.domain.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for the evaluation of composite access-control policy conditions over many requested entities,
+ * as it is done by the user entity service when filtering entity lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ACPolicyEvaluationBenchmark {
+
+    @Param({"1000", "10000"})
+    private int entityCount;
+
+    private ACAbstractCondition condition;
+
+    private ACAccessRequest request;
+
+    private List<ACAccess> accesses;
+
+    @Setup
+    public void setup() {
+        User user = new User()
+                .setId("benchmark-user")
+                .setUsername("benchmark-user")
+                .setFirstName("Bench")
+                .setLastName("Mark");
+
+        // (username starts with "bench" AND first name = "Bench") OR last name = "Nobody"
+        condition = new ACCompositeCondition("composite", "", ACLogicalOperator.OR, Arrays.asList(
+                new ACCompositeCondition("inner", "", ACLogicalOperator.AND, Arrays.asList(
+                        simpleCondition(ACArgumentFunction.STARTS_WITH, ACAttributeKey.REQUESTING_ENTITY_USERNAME, "bench"),
+                        simpleCondition(ACArgumentFunction.EQUALS, ACAttributeKey.REQUESTING_ENTITY_FIRSTNAME, "Bench")), "owner"),
+                simpleCondition(ACArgumentFunction.EQUALS, ACAttributeKey.REQUESTING_ENTITY_LASTNAME, "Nobody")), "owner");
+
+        request = new ACAccessRequest(Arrays.asList(
+                new ACAttribute(ACAttributeKey.REQUESTING_ENTITY_USERNAME, "benchmark-user"),
+                new ACAttribute(ACAttributeKey.REQUESTING_ENTITY_FIRSTNAME, "Bench")));
+
+        accesses = new ArrayList<>(entityCount);
+        for (int i = 0; i < entityCount; i++) {
+            Device device = new Device().setId("device-" + i).setName("Device " + i);
+            device.setOwner(user);
+            accesses.add(new ACAccess(ACAccessType.READ, user, device));
+        }
+    }
+
+    @Benchmark
+    public void evaluateCompositePolicies(Blackhole blackhole) throws ACConditionEvaluatorNotAvailableException {
+        for (ACAccess access : accesses) {
+            blackhole.consume(condition.evaluate(access, request));
+        }
+    }
+
+    private static ACSimpleCondition<String> simpleCondition(ACArgumentFunction function, ACAttributeKey key, String value) {
+        return new ACSimpleCondition<>(key.getId(), "", function,
+                new ACConditionSimpleAttributeArgument<String>(key), new ACConditionSimpleValueArgument<>(value), "owner");
+    }
+}
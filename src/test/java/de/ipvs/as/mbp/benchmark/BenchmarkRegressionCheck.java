@@ -0,0 +1,140 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Compares the JSON results of a JMH run with the results of a baseline run and fails if a benchmark regressed by
+ * more than a given relative threshold. Benchmarks are matched by their name, mode and parameters; benchmarks that
+ * are not part of the baseline are reported, but not compared. For throughput modes, lower scores are regressions,
+ * for all time-based modes higher scores are.
+ * <p>
+ * Usage: {@code BenchmarkRegressionCheck <baseline.json> <result.json> [threshold]}, e.g. via
+ * {@code mvn -P benchmark exec:exec -Dbenchmark.main="de.ipvs.as.mbp.benchmark.BenchmarkRegressionCheck
+ * jmh-report/baseline.json target/jmh-result.json 0.25"}. A missing baseline is not considered a failure; a baseline
+ * is created by copying the results of a run on the CI agent to the baseline file.
+ */
+public class BenchmarkRegressionCheck {
+
+    //Default relative threshold for regressions
+    private static final double DEFAULT_THRESHOLD = 0.25;
+
+    //Exit code in case of regressions
+    private static final int EXIT_REGRESSION = 2;
+
+    public static void main(String[] args) throws IOException, JSONException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkRegressionCheck <baseline.json> <result.json> [threshold]");
+            System.exit(1);
+        }
+
+        Path baselinePath = Paths.get(args[0]);
+        Path resultPath = Paths.get(args[1]);
+        double threshold = (args.length > 2) ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        if (!Files.exists(baselinePath)) {
+            System.out.println("No baseline at " + baselinePath + ", skipping comparison.");
+            return;
+        }
+
+        List<String> regressions = compare(readScores(baselinePath), readScores(resultPath), threshold);
+        if (!regressions.isEmpty()) {
+            System.out.println(regressions.size() + " benchmark(s) regressed by more than " + Math.round(threshold * 100) + "%.");
+            System.exit(EXIT_REGRESSION);
+        }
+    }
+
+    /**
+     * Compares the scores of a run with the scores of a baseline run and prints the result per benchmark.
+     *
+     * @param baseline  The scores of the baseline run
+     * @param result    The scores of the run to check
+     * @param threshold The relative threshold above which a deviation is considered a regression
+     * @return The keys of the regressed benchmarks
+     */
+    static List<String> compare(Map<String, Score> baseline, Map<String, Score> result, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : result.entrySet()) {
+            Score baselineScore = baseline.get(entry.getKey());
+            Score score = entry.getValue();
+            if (baselineScore == null) {
+                System.out.printf("NEW         %s: %.3f %s%n", entry.getKey(), score.value, score.unit);
+                continue;
+            }
+
+            //Relative change, positive values are always regressions
+            double change = (score.value - baselineScore.value) / baselineScore.value;
+            if (score.higherIsBetter) {
+                change = -change;
+            }
+
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+            System.out.printf("%-11s %s: %.3f %s (baseline %.3f, %+.1f%%)%n", regressed ? "REGRESSION" : "OK",
+                    entry.getKey(), score.value, score.unit, baselineScore.value, change * 100);
+        }
+        return regressions;
+    }
+
+    /**
+     * Reads the primary scores from a JMH result file in JSON format.
+     *
+     * @param path The path of the result file
+     * @return The scores, keyed by benchmark name, mode and parameters
+     */
+    static Map<String, Score> readScores(Path path) throws IOException, JSONException {
+        JSONArray results = new JSONArray(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        Map<String, Score> scores = new HashMap<>();
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            String mode = result.getString("mode");
+            JSONObject metric = result.getJSONObject("primaryMetric");
+            scores.put(getKey(result.getString("benchmark"), mode, result.optJSONObject("params")),
+                    new Score(metric.getDouble("score"), metric.getString("scoreUnit"), "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    private static String getKey(String benchmark, String mode, JSONObject params) throws JSONException {
+        //Sort the parameters, since their order is not defined
+        Map<String, String> sortedParams = new TreeMap<>();
+        if (params != null) {
+            Iterator<?> keys = params.keys();
+            while (keys.hasNext()) {
+                String key = (String) keys.next();
+                sortedParams.put(key, params.getString(key));
+            }
+        }
+        return benchmark + " [" + mode + "] " + sortedParams;
+    }
+
+    /**
+     * Primary score of a benchmark.
+     */
+    static class Score {
+        private final double value;
+        private final String unit;
+        private final boolean higherIsBetter;
+
+        Score(double value, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
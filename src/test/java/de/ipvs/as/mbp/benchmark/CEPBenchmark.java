@@ -0,0 +1,139 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.jayway.jsonpath.JsonPath;
+import de.ipvs.as.mbp.domain.data_model.DataModelDataType;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.service.cep.engine.core.events.CEPEvent;
+import de.ipvs.as.mbp.service.cep.engine.core.events.CEPEventType;
+import de.ipvs.as.mbp.service.cep.engine.core.events.CEPPrimitiveDataTypes;
+import de.ipvs.as.mbp.service.cep.engine.core.exceptions.EventNotRegisteredException;
+import de.ipvs.as.mbp.service.cep.engine.esper.EsperCEPEngine;
+import de.ipvs.as.mbp.service.cep.engine.esper.EsperEngineSettings;
+import de.ipvs.as.mbp.service.cep.trigger.CEPValueLogParseInstruction;
+import de.ipvs.as.mbp.service.cep.trigger.CEPValueLogParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the CEP path of value logs: the parsing of value logs into event field values and the sending
+ * of events to the Esper engine with a given number of registered event types and windowed queries, one per
+ * component. Events are sent for all components in turn, either synchronously or via inbound partitions; in the
+ * latter case, the sending blocks once the partitions are saturated, so that the score reflects their throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CEPBenchmark {
+
+    private static final String EVENT_TYPE_PREFIX = "benchmark_event_";
+
+    @Param({"10", "100", "1000"})
+    private int eventTypeCount;
+
+    @Param({"0", "4"})
+    private int inboundThreads;
+
+    private CEPValueLogParser parser;
+
+    private EsperCEPEngine engine;
+
+    private ValueLog valueLog;
+
+    private String eventTypeName;
+
+    private BenchmarkEvent[] events;
+
+    private int nextEvent = 0;
+
+    @Setup
+    public void setup() {
+        eventTypeName = EVENT_TYPE_PREFIX + (eventTypeCount / 2);
+
+        //Parse instructions as created by the CEP trigger service from the data model
+        parser = new CEPValueLogParser();
+        parser.addInstructionsForEventType(eventTypeName, new HashSet<>(Arrays.asList(
+                new CEPValueLogParseInstruction("temperature", JsonPath.compile("$['temperature']"), DataModelDataType.DOUBLE),
+                new CEPValueLogParseInstruction("humidity", JsonPath.compile("$['humidity']"), DataModelDataType.DOUBLE),
+                new CEPValueLogParseInstruction("measured", JsonPath.compile("$['measured']"), DataModelDataType.DATE))));
+
+        valueLog = new ValueLog()
+                .setIdref("5f3a9d1c2b7e4a0012345678")
+                .setComponent("SENSOR")
+                .setTopic("sensor/5f3a9d1c2b7e4a0012345678")
+                .setTime(Instant.now())
+                .setValue(new Document("temperature", 21.5)
+                        .append("humidity", 48.25)
+                        .append("measured", new Date(1600000000000L)));
+        Map<String, Object> fieldValues = parser.parseValueLog(valueLog, eventTypeName);
+        fieldValues.put("time", valueLog.getTime().toEpochMilli());
+
+        //Register one event type and one query per component
+        engine = new EsperCEPEngine(new SimpleMeterRegistry(), new EsperEngineSettings().setInboundThreads(inboundThreads));
+        events = new BenchmarkEvent[eventTypeCount];
+        for (int i = 0; i < eventTypeCount; i++) {
+            CEPEventType eventType = new CEPEventType(EVENT_TYPE_PREFIX + i);
+            eventType.addField("temperature", CEPPrimitiveDataTypes.DOUBLE);
+            eventType.addField("humidity", CEPPrimitiveDataTypes.DOUBLE);
+            eventType.addField("measured", CEPPrimitiveDataTypes.LONG);
+            eventType.addField("time", CEPPrimitiveDataTypes.LONG);
+            engine.registerEventType(eventType);
+            engine.createQuery("benchmark_query_" + i, "SELECT avg(temperature) AS average FROM " + eventType.getName() + "#time(10 sec)");
+            events[i] = new BenchmarkEvent(eventType.getName(), fieldValues);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Object> parseValueLog() {
+        return parser.parseValueLog(valueLog, eventTypeName);
+    }
+
+    @Benchmark
+    public void sendEvent() throws EventNotRegisteredException {
+        engine.sendEvent(events[nextEvent]);
+        nextEvent = (nextEvent + 1) % events.length;
+    }
+
+    /**
+     * Event of a fixed event type with given field values.
+     */
+    private static class BenchmarkEvent extends CEPEvent {
+        private final String eventTypeName;
+
+        private BenchmarkEvent(String eventTypeName, Map<String, Object> fieldValues) {
+            this.eventTypeName = eventTypeName;
+            fieldValues.forEach(this::addValue);
+        }
+
+        @Override
+        public String getEventTypeName() {
+            return eventTypeName;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.service.cep.engine.core.events.CEPEventType;
+import de.ipvs.as.mbp.service.cep.engine.core.events.CEPPrimitiveDataTypes;
+import de.ipvs.as.mbp.service.cep.engine.esper.EsperCEPEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the CEP part of the startup with a given number of components and rule triggers, each trigger
+ * referencing one component. Event types are either registered eagerly for all components before the triggers are
+ * created one after another (as done before lazy registration), or lazily for the referenced components only while
+ * the triggers are validated and created by a given number of threads (as done by the CEP trigger service and the
+ * rule engine).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CEPStartupBenchmark {
+
+    private static final String EVENT_TYPE_PREFIX = "sensor_";
+
+    @Param({"1000", "10000"})
+    private int componentCount;
+
+    @Param({"200"})
+    private int triggerCount;
+
+    @Param({"false", "true"})
+    private boolean lazy;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private EsperCEPEngine engine;
+
+    private Map<String, Boolean> registeredEventTypes;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        engine = new EsperCEPEngine(new SimpleMeterRegistry());
+        registeredEventTypes = new ConcurrentHashMap<>();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public int startup() throws Exception {
+        //Eager registration of the event types of all components
+        if (!lazy) {
+            for (int i = 0; i < componentCount; i++) {
+                registerEventType(EVENT_TYPE_PREFIX + i);
+            }
+        }
+
+        //Validation and creation of the trigger queries
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < triggerCount; i++) {
+                String eventTypeName = EVENT_TYPE_PREFIX + (i * (componentCount / triggerCount));
+                String query = "SELECT avg(temperature) AS average FROM " + eventTypeName + "#time(10 sec)";
+                String queryName = "trigger-" + i;
+                futures.add(executor.submit(() -> {
+                    registerEventType(eventTypeName);
+                    engine.validateQuery(query);
+                    engine.createQuery(queryName, query);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return registeredEventTypes.size();
+    }
+
+    private void registerEventType(String eventTypeName) {
+        registeredEventTypes.computeIfAbsent(eventTypeName, name -> {
+            CEPEventType eventType = new CEPEventType(name);
+            eventType.addField("temperature", CEPPrimitiveDataTypes.DOUBLE);
+            eventType.addField("humidity", CEPPrimitiveDataTypes.DOUBLE);
+            eventType.addField("measured", CEPPrimitiveDataTypes.LONG);
+            eventType.addField("time", CEPPrimitiveDataTypes.LONG);
+            engine.registerEventType(eventType);
+            return Boolean.TRUE;
+        });
+    }
+}
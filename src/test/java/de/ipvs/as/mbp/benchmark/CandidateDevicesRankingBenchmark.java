@@ -0,0 +1,86 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.domain.discovery.collections.CandidateDevicesRanking;
+import de.ipvs.as.mbp.domain.discovery.description.DeviceDescription;
+import de.ipvs.as.mbp.domain.discovery.description.DeviceDescriptionCapability;
+import de.ipvs.as.mbp.domain.discovery.description.DeviceDescriptionIdentifiers;
+import de.ipvs.as.mbp.domain.discovery.device.DeviceTemplate;
+import de.ipvs.as.mbp.domain.discovery.device.operators.StringOperator;
+import de.ipvs.as.mbp.domain.discovery.device.scoring.capability.NumberCapabilityScoringCriterion;
+import de.ipvs.as.mbp.domain.discovery.device.scoring.description.DescriptionScoringCriterion;
+import de.ipvs.as.mbp.domain.discovery.device.scoring.term.TermScoringCriterion;
+import de.ipvs.as.mbp.domain.discovery.device.scoring.term.TermScoringCriterionField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the construction of candidate device rankings from the device descriptions that are returned by
+ * the discovery repositories, using a device template with term, description and capability scoring criteria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandidateDevicesRankingBenchmark {
+
+    private static final String[] WORDS = {"raspberry", "pi", "temperature", "sensor", "camera", "gateway",
+            "humidity", "outdoor", "indoor", "lab", "building", "floor", "motion", "light", "arduino"};
+
+    @Param({"100", "1000"})
+    private int candidateCount;
+
+    private DeviceTemplate deviceTemplate;
+
+    private List<DeviceDescription> candidateDevices;
+
+    @Setup
+    public void setup() {
+        deviceTemplate = new DeviceTemplate()
+                .setId("benchmark-template")
+                .setName("Benchmark template")
+                .setRequirements(Collections.emptyList())
+                .setScoringCriteria(Arrays.asList(
+                        new TermScoringCriterion(TermScoringCriterionField.NAME, StringOperator.CONTAINS, "sensor", 10),
+                        new DescriptionScoringCriterion("outdoor temperature sensor raspberry pi", 20),
+                        new NumberCapabilityScoringCriterion("ram", "x / 1024")));
+
+        candidateDevices = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            candidateDevices.add(new DeviceDescription()
+                    .setName(word(i) + " " + word(i / 3) + " " + i)
+                    .setDescription(word(i) + " " + word(i + 1) + " " + word(i * 7) + " " + word(i / 5) + " " + word(i * 11))
+                    .setKeywords(new HashSet<>(Arrays.asList(word(i), word(i + 2))))
+                    .setIdentifiers(new DeviceDescriptionIdentifiers()
+                            .setType("Raspberry Pi")
+                            .setMacAddress(String.format("00:00:00:%02x:%02x:%02x", (i >> 16) & 0xff, (i >> 8) & 0xff, i & 0xff)))
+                    .setCapabilities(Collections.singletonList(new DeviceDescriptionCapability("ram", 256.0 * (i % 16 + 1)))));
+        }
+    }
+
+    @Benchmark
+    public CandidateDevicesRanking createRanking() {
+        return new CandidateDevicesRanking(deviceTemplate, candidateDevices);
+    }
+
+    private static String word(int index) {
+        return WORDS[index % WORDS.length];
+    }
+}
@@ -0,0 +1,114 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.service.messaging.dispatcher.IngestAdmissionControl;
+import de.ipvs.as.mbp.service.messaging.handler.PubSubMessageHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for the latency of control messages (e.g. replies on return topics) while a background thread
+ * saturates the ingest with telemetry messages whose handling is more expensive than their arrival. Messages are
+ * either handled inline by a synchronized handler, as done by the message dispatcher without admission control, or
+ * pass the admission control with a given overflow policy for telemetry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestAdmissionBenchmark {
+
+    private static final String TELEMETRY_TOPIC = "sensor/5f3a9d1c2b7e4a0012345678/value";
+
+    private static final String CONTROL_TOPIC = "r/5f3a9d1c2b7e4a0012345670/discovery/4d2c8e";
+
+    @Param({"false", "true"})
+    private boolean admission;
+
+    @Param({"block", "drop_oldest", "sample"})
+    private String telemetryPolicy;
+
+    @Param({"1000"})
+    private long handlingTokens;
+
+    private PubSubMessageHandler handler;
+
+    private IngestAdmissionControl admissionControl;
+
+    private Thread floodThread;
+
+    private volatile boolean flooding;
+
+    private volatile CountDownLatch controlLatch;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        payload = "{\"id\":\"5f3a9d1c2b7e4a0012345678\",\"component\":\"SENSOR\",\"value\":{\"value\":21.5}}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        //Synchronized like the message dispatcher; telemetry handling takes time, control messages are acknowledged
+        PubSubMessageHandler dispatcher = new PubSubMessageHandler() {
+            @Override
+            public synchronized void handleMessage(String topic, byte[] payload) {
+                if (topic.equals(CONTROL_TOPIC)) {
+                    controlLatch.countDown();
+                } else {
+                    Blackhole.consumeCPU(handlingTokens);
+                }
+            }
+        };
+
+        if (admission) {
+            admissionControl = new IngestAdmissionControl(dispatcher, 1000, 10000,
+                    IngestAdmissionControl.OverflowPolicy.fromName(telemetryPolicy), 1000, 10, 1, new SimpleMeterRegistry());
+            handler = admissionControl;
+        } else {
+            handler = dispatcher;
+        }
+
+        //Saturate the ingest with telemetry
+        flooding = true;
+        floodThread = new Thread(() -> {
+            while (flooding) {
+                handler.handleMessage(TELEMETRY_TOPIC, payload);
+            }
+        });
+        floodThread.setDaemon(true);
+        floodThread.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        flooding = false;
+        floodThread.join();
+        if (admissionControl != null) {
+            admissionControl.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void controlMessage() throws InterruptedException {
+        controlLatch = new CountDownLatch(1);
+        handler.handleMessage(CONTROL_TOPIC, payload);
+        controlLatch.await();
+    }
+}
@@ -0,0 +1,91 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.service.messaging.PubSubClient;
+import de.ipvs.as.mbp.service.messaging.impl.mqtt.MQTTAsyncClientConnector;
+import de.ipvs.as.mbp.service.messaging.impl.mqtt.MQTTClientConnector;
+import de.ipvs.as.mbp.service.messaging.impl.mqtt.MQTTQoSPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the publish throughput and latency of the blocking and the asynchronous MQTT client connectors.
+ * Requires a running MQTT broker, e.g. the bundled mosquitto started via "docker-compose up mosquitto".
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MQTTPublishBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String MESSAGE = "{\"id\":\"5f3a9d1c2b7e4a0012345678\",\"component\":\"SENSOR\",\"value\":{\"value\":21.5}}";
+
+    @Param({"blocking", "async"})
+    private String client;
+
+    @Param({"0", "1"})
+    private int qos;
+
+    @Param({"localhost"})
+    private String brokerHost;
+
+    @Param({"1883"})
+    private int brokerPort;
+
+    private PubSubClient pubSubClient;
+
+    private List<String> topics;
+
+    @Setup
+    public void setup() {
+        MQTTQoSPolicy qosPolicy = new MQTTQoSPolicy(qos, null);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        pubSubClient = "async".equals(client) ? new MQTTAsyncClientConnector(qosPolicy, 100, 10000, meterRegistry)
+                : new MQTTClientConnector(qosPolicy, 100, meterRegistry);
+        pubSubClient.connect(brokerHost, brokerPort);
+        if (!pubSubClient.isConnected()) {
+            throw new IllegalStateException("Could not connect to the MQTT broker at " + brokerHost + ":" + brokerPort + ".");
+        }
+
+        topics = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            topics.add("benchmark/publish/" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pubSubClient.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public void publishLatency() {
+        pubSubClient.publishAsync("benchmark/publish", MESSAGE).join();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void publishThroughput() {
+        pubSubClient.publishAsync(topics, MESSAGE).join();
+    }
+}
@@ -0,0 +1,70 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.service.messaging.dispatcher.MessageDispatcher;
+import de.ipvs.as.mbp.service.messaging.dispatcher.listener.RawMessageListener;
+import de.ipvs.as.mbp.service.messaging.impl.mqtt.MQTTClientConnector;
+import de.ipvs.as.mbp.service.messaging.impl.mqtt.MQTTQoSPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for the dispatching of incoming messages to the listeners of the message dispatcher, with one
+ * subscription per component as it is created by the value log receiver and the CEP trigger service. The
+ * MQTT client is not connected, as the dispatcher only uses it for matching topics against topic filters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageDispatcherBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int subscriptionCount;
+
+    private MessageDispatcher dispatcher;
+
+    private String topic;
+
+    private byte[] payload;
+
+    private Blackhole blackhole;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new MessageDispatcher(new MQTTClientConnector(new MQTTQoSPolicy(0, null), 100, meterRegistry), meterRegistry);
+
+        //One subscription per component, the listener consumes the message without decoding it
+        RawMessageListener listener = (message, topic, topicFilter) -> this.blackhole.consume(message);
+        for (int i = 0; i < subscriptionCount; i++) {
+            dispatcher.subscribeRaw("sensor/component-" + i + "/#", listener);
+        }
+
+        topic = "sensor/component-" + (subscriptionCount / 2) + "/value";
+        payload = "{\"id\":\"5f3a9d1c2b7e4a0012345678\",\"component\":\"SENSOR\",\"value\":{\"value\":21.5}}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void dispatchMessage() {
+        dispatcher.dispatchMessage(topic, payload);
+    }
+}
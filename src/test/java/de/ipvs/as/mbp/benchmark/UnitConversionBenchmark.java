@@ -0,0 +1,103 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.domain.data_model.DataTreeNode;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.service.UnitConverterService;
+import de.ipvs.as.mbp.service.ValueLogUnitConverter;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.measure.converter.UnitConverter;
+import javax.measure.unit.Unit;
+
+/**
+ * Benchmark for converting a page of value logs with the default data model (a single double named "value") into
+ * a different unit, comparing the former path that parsed the units and created the converter per request and
+ * replaced the value document of each value log with the cached converters and the compiled in-place conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnitConversionBenchmark {
+
+    private static final String SOURCE_UNIT = "°C";
+
+    private static final String TARGET_UNIT = "°F";
+
+    @Param({"100", "10000"})
+    private int pageSize;
+
+    private DataModelTree dataModel;
+
+    private UnitConverterService unitConverterService;
+
+    private List<ValueLog> valueLogs;
+
+    @Setup
+    public void setup() {
+        dataModel = new DataModelTree(Arrays.asList(
+                node("RootObj", "object", "", "value"),
+                node("value", "double", "RootObj")));
+        unitConverterService = new UnitConverterService();
+    }
+
+    @Setup(Level.Invocation)
+    public void createValueLogs() {
+        valueLogs = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            valueLogs.add(new ValueLog().setTime(Instant.ofEpochMilli(i)).setValue(new Document("value", 20.0 + i * 0.001)));
+        }
+    }
+
+    @Benchmark
+    public List<ValueLog> perRequestConverter() {
+        UnitConverter converter = Unit.valueOf(SOURCE_UNIT).getConverterTo(Unit.valueOf(TARGET_UNIT));
+        for (ValueLog valueLog : valueLogs) {
+            double value = Double.valueOf(valueLog.getValue().getDouble("value"));
+            double convertedValue = converter.convert(value);
+            double roundingConst = Math.pow(10, 4);
+            convertedValue = Math.round(convertedValue * roundingConst) / roundingConst;
+            valueLog.setValue(new Document("value", convertedValue));
+        }
+        return valueLogs;
+    }
+
+    @Benchmark
+    public List<ValueLog> compiledConverter() {
+        UnitConverter converter = unitConverterService.getConverter(unitConverterService.parseUnit(SOURCE_UNIT),
+                unitConverterService.parseUnit(TARGET_UNIT));
+        ValueLogUnitConverter valueLogConverter = new ValueLogUnitConverter(dataModel, converter);
+        valueLogs.forEach(valueLogConverter::convert);
+        return valueLogs;
+    }
+
+    private static DataTreeNode node(String name, String type, String parent, String... children) {
+        DataTreeNode node = new DataTreeNode();
+        node.setName(name);
+        node.setType(type);
+        node.setParent(parent);
+        node.setChildren(new ArrayList<>(Arrays.asList(children)));
+        return node;
+    }
+}
@@ -0,0 +1,98 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.domain.access_control.ACAccessRequest;
+import de.ipvs.as.mbp.domain.access_control.ACAccessType;
+import de.ipvs.as.mbp.domain.access_control.ACPolicy;
+import de.ipvs.as.mbp.domain.device.Device;
+import de.ipvs.as.mbp.domain.user.User;
+import de.ipvs.as.mbp.repository.ACPolicyRepository;
+import de.ipvs.as.mbp.service.access_control.ACPolicyEvaluationService;
+import de.ipvs.as.mbp.service.user.UserEntityService;
+import de.ipvs.as.mbp.service.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark for the filtering of entity lists by the user entity service for a non-admin user, with mocked
+ * repositories and policy evaluation. Half of the entities are owned by other users and are only accessible
+ * via a policy, which reflects the per-entity repository lookups of the filtering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserEntityFilterBenchmark {
+
+    @Param({"1000", "10000"})
+    private int entityCount;
+
+    private UserEntityService userEntityService;
+
+    private ACAccessRequest accessRequest;
+
+    private List<Device> entities;
+
+    @Setup
+    public void setup() {
+        User user = new User().setId("benchmark-user").setUsername("benchmark-user");
+        User otherUser = new User().setId("other-user").setUsername("other-user");
+        ACPolicy policy = new ACPolicy("policy", "", Collections.singletonList(ACAccessType.READ), "condition", null, otherUser.getId());
+
+        //Mock user service, policy repository and policy evaluation
+        UserService userService = mock(UserService.class);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        ACPolicyRepository policyRepository = mock(ACPolicyRepository.class);
+        when(policyRepository.existsByIdAnyAndAccessTypeAll(anyList(), anyList())).thenReturn(true);
+        when(policyRepository.findById(anyString())).thenReturn(Optional.of(policy));
+        ACPolicyEvaluationService policyEvaluationService = mock(ACPolicyEvaluationService.class);
+        when(policyEvaluationService.evaluate(any(), any(), any())).thenReturn(true);
+
+        userEntityService = new UserEntityService();
+        ReflectionTestUtils.setField(userEntityService, "userService", userService);
+        ReflectionTestUtils.setField(userEntityService, "policyRepository", policyRepository);
+        ReflectionTestUtils.setField(userEntityService, "policyEvaluationService", policyEvaluationService);
+
+        accessRequest = new ACAccessRequest(Collections.emptyList());
+
+        entities = new ArrayList<>(entityCount);
+        for (int i = 0; i < entityCount; i++) {
+            Device device = new Device().setId("device-" + i).setName("Device " + i);
+            if ((i % 2) == 0) {
+                device.setOwner(user);
+            } else {
+                device.setOwner(otherUser);
+                device.setAccessControlPolicyIds(Collections.singletonList("policy-" + i));
+            }
+            entities.add(device);
+        }
+    }
+
+    @Benchmark
+    public List<Device> filterForAdminOwnerAndPolicies() {
+        return userEntityService.filterForAdminOwnerAndPolicies(entities, ACAccessType.READ, accessRequest);
+    }
+}
@@ -0,0 +1,104 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.ipvs.as.mbp.domain.data_model.DataTreeNode;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
+import de.ipvs.as.mbp.service.messaging.message.RawMessage;
+import de.ipvs.as.mbp.service.receiver.CompiledDataModel;
+import org.bson.Document;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for the processing of a value log payload from the bytes received by the MQTT client to the
+ * value document, comparing the former string and JSON object based path with the raw payload path.
+ * Run with "-prof gc" and compare gc.alloc.rate.norm to obtain the bytes allocated per message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValueLogPayloadBenchmark {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private byte[] payload;
+
+    private CompiledDataModel dataModel;
+
+    @Setup
+    public void setup() {
+        dataModel = CompiledDataModel.compile(new DataModelTree(Arrays.asList(
+                node("RootObj", "object", "", "temperature", "humidity", "time"),
+                node("temperature", "double", "RootObj"),
+                node("humidity", "double", "RootObj"),
+                node("time", "date", "RootObj"))));
+
+        payload = ("{\"id\":\"5f3a9d1c2b7e4a0012345678\",\"component\":\"SENSOR\",\"value\":"
+                + "{\"temperature\":21.5,\"humidity\":48.25,\"time\":1600000000000}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Former path: payload decoded to a string, parsed to a JSON object by the dispatcher, re-serialized for the
+     * message field of the value log and the value object serialized again for the validation.
+     */
+    @Benchmark
+    public void stringPayload(Blackhole blackhole) throws Exception {
+        String message = new String(payload);
+        JSONObject json = new JSONObject(message);
+        blackhole.consume(json.getString("id"));
+        blackhole.consume(json.toString());
+        blackhole.consume(dataModel.readValue(json.getJSONObject("value").toString()));
+    }
+
+    /**
+     * Raw payload path: payload bytes streamed directly into the value document without storing the raw message.
+     */
+    @Benchmark
+    public void rawPayload(Blackhole blackhole) throws Exception {
+        RawMessage message = new RawMessage(payload);
+        try (JsonParser parser = message.createParser(JSON_FACTORY)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                if ("id".equals(fieldName)) {
+                    blackhole.consume(parser.getText());
+                } else if ("value".equals(fieldName)) {
+                    Document value = dataModel.readValue(parser);
+                    blackhole.consume(value);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static DataTreeNode node(String name, String type, String parent, String... children) {
+        DataTreeNode node = new DataTreeNode();
+        node.setName(name);
+        node.setType(type);
+        node.setParent(parent);
+        node.setChildren(new ArrayList<>(Arrays.asList(children)));
+        return node;
+    }
+}
@@ -0,0 +1,103 @@
+package de.ipvs.as.mbp.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import de.ipvs.as.mbp.domain.data_model.DataTreeNode;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
+import de.ipvs.as.mbp.service.receiver.ValueLogReceiveVerifier;
+import org.bson.Document;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the validation of received values against the data models of their components, covering
+ * flat objects of primitives, nested objects and arrays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValueLogVerifierBenchmark {
+
+    private static final int ARRAY_SIZE = 32;
+
+    @Param({"flat", "nested", "array"})
+    private String shape;
+
+    private DataModelTree dataModel;
+
+    private JSONObject value;
+
+    @Setup
+    public void setup() throws JSONException {
+        switch (shape) {
+            case "flat":
+                dataModel = new DataModelTree(Arrays.asList(
+                        node("RootObj", "object", "", "temperature", "humidity", "time"),
+                        node("temperature", "double", "RootObj"),
+                        node("humidity", "double", "RootObj"),
+                        node("time", "date", "RootObj")));
+                value = new JSONObject("{\"temperature\":21.5,\"humidity\":48.25,\"time\":1600000000000}");
+                break;
+            case "nested":
+                dataModel = new DataModelTree(Arrays.asList(
+                        node("RootObj", "object", "", "position", "acceleration", "label"),
+                        node("position", "object", "RootObj", "lat", "lon"),
+                        node("lat", "double", "position"),
+                        node("lon", "double", "position"),
+                        node("acceleration", "object", "RootObj", "x", "y", "z"),
+                        node("x", "double", "acceleration"),
+                        node("y", "double", "acceleration"),
+                        node("z", "double", "acceleration"),
+                        node("label", "string", "RootObj")));
+                value = new JSONObject("{\"position\":{\"lat\":48.78,\"lon\":9.18},"
+                        + "\"acceleration\":{\"x\":0.1,\"y\":-0.2,\"z\":9.81},\"label\":\"vehicle-1\"}");
+                break;
+            case "array":
+                DataTreeNode samples = node("samples", "array", "RootObj", "sample");
+                samples.setSize(ARRAY_SIZE);
+                dataModel = new DataModelTree(Arrays.asList(
+                        node("RootObj", "object", "", "samples"),
+                        samples,
+                        node("sample", "double", "samples")));
+                JSONArray sampleValues = new JSONArray();
+                for (int i = 0; i < ARRAY_SIZE; i++) {
+                    sampleValues.put(i * 0.5);
+                }
+                value = new JSONObject().put("samples", sampleValues);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape + ".");
+        }
+    }
+
+    @Benchmark
+    public Document validateJsonValueAndGetDocument() throws Exception {
+        return ValueLogReceiveVerifier.validateJsonValueAndGetDocument(value, dataModel);
+    }
+
+    private static DataTreeNode node(String name, String type, String parent, String... children) {
+        DataTreeNode node = new DataTreeNode();
+        node.setName(name);
+        node.setType(type);
+        node.setParent(parent);
+        node.setChildren(new ArrayList<>(Arrays.asList(children)));
+        return node;
+    }
+}
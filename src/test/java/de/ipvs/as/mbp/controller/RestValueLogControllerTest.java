@@ -0,0 +1,93 @@
+package de.ipvs.as.mbp.controller;
+
+import com.mongodb.client.MongoClient;
+import de.ipvs.as.mbp.MongoConfiguration;
+import de.ipvs.as.mbp.base.BaseBackendTest;
+import de.ipvs.as.mbp.constants.Constants;
+import de.ipvs.as.mbp.domain.component.Sensor;
+import de.ipvs.as.mbp.repository.SensorRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.servlet.http.Cookie;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RestValueLogControllerTest extends BaseBackendTest {
+
+    private static final int VALUES_PER_DOCUMENT = 80;
+    private static final int DOCUMENT_COUNT = 10;
+    private static final long START_MILLIS = 1_600_000_000_000L;
+
+    @Autowired
+    private SensorRepository sensorRepository;
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Autowired
+    private MongoConfiguration mongoConfiguration;
+
+    @Value("${mbp.web.async_timeout_ms}")
+    private long asyncTimeout;
+
+    private Cookie adminCookie;
+
+    private Sensor sensor;
+
+    @BeforeEach
+    void setup() throws Exception {
+        adminCookie = this.getSessionCookieForAdmin();
+        sensor = sensorRepository.save((Sensor) new Sensor().setName("testSensor").setComponentType("Temperature"));
+
+        // Insert documents in the format of the value log repository
+        List<Document> documents = new ArrayList<>();
+        for (int d = 0; d < DOCUMENT_COUNT; d++) {
+            List<Document> values = new ArrayList<>(VALUES_PER_DOCUMENT);
+            for (int v = 0; v < VALUES_PER_DOCUMENT; v++) {
+                long time = START_MILLIS + ((long) d * VALUES_PER_DOCUMENT + v) * 1000;
+                values.add(new Document("time", new Date(time)).append("qos", 0)
+                        .append("topic", "sensor/" + sensor.getId()).append("idref", sensor.getId())
+                        .append("component", "sensor").append("value", new Document("value", (double) v)));
+            }
+            documents.add(new Document("idref", sensor.getId()).append("nvalues", VALUES_PER_DOCUMENT)
+                    .append("first", values.get(0).getDate("time").getTime() / 1000)
+                    .append("last", values.get(VALUES_PER_DOCUMENT - 1).getDate("time").getTime() / 1000)
+                    .append("values", values));
+        }
+        mongoClient.getDatabase(mongoConfiguration.getMongoDatabase()).getCollection("mongoValueLogs").insertMany(documents);
+    }
+
+    @Test
+    void exportSensorValueLogs_streamsAsynchronouslyWithConfiguredTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get(Constants.BASE_PATH + "/sensors/" + sensor.getId() + "/valueLogs/export")
+                        .param("format", "csv")
+                        .cookie(adminCookie)
+                        .headers(getMBPAccessHeaderForAdmin()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(asyncTimeout);
+
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertThat(lines).hasSize(DOCUMENT_COUNT * VALUES_PER_DOCUMENT + 1);
+        assertThat(lines[0]).isEqualTo("time,idref,component,qos,topic,value");
+    }
+}
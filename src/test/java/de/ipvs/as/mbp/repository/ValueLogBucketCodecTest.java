@@ -0,0 +1,170 @@
+package de.ipvs.as.mbp.repository;
+
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that documents of the value log collection are decoded to the same value logs after being encoded
+ * into the columnar format.
+ */
+public class ValueLogBucketCodecTest {
+
+    private static final String COMPONENT_ID = "5c97dc2583aeb6078c5ab672";
+    private static final long START_MILLIS = 1_600_000_000_000L;
+
+    // Compares doubles by their value, such that NaN equals NaN and 0.0 differs from -0.0
+    private static final RecursiveComparisonConfiguration EXACT_DOUBLES = RecursiveComparisonConfiguration.builder()
+            .withComparatorForType(Double::compare, Double.class).build();
+
+    @Test
+    void roundTrip_specialDoubles() {
+        List<Object> doubles = Arrays.asList(Double.NaN, 0.0, -0.0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, 1.5, 1.5, Double.NaN, 21.3);
+
+        Document bucket = bucket(doubles.size(), i -> new Document("value", doubles.get(i)));
+
+        assertRoundTrip(bucket);
+        assertThat(ValueLogBucketCodec.encode(bucket).getString("types")).isEqualTo("d");
+    }
+
+    @Test
+    void roundTrip_integralExtremes() {
+        List<Integer> ints = Arrays.asList(0, Integer.MAX_VALUE, Integer.MIN_VALUE, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        List<Long> longs = Arrays.asList(0L, Long.MAX_VALUE, Long.MIN_VALUE, -1L, Long.MIN_VALUE, Long.MAX_VALUE, 1L);
+
+        Document bucket = bucket(ints.size(), i -> new Document("int", ints.get(i)).append("long", longs.get(i)));
+
+        assertRoundTrip(bucket);
+        assertThat(ValueLogBucketCodec.encode(bucket).getString("types")).isEqualTo("il");
+    }
+
+    @Test
+    void roundTrip_irregularAndNegativeTimeDeltas() {
+        long[] times = {START_MILLIS, START_MILLIS + 3, START_MILLIS - 1000, START_MILLIS - 1000, START_MILLIS + 86_400_000L,
+                0L, -5000L, 253_402_300_799_999L, START_MILLIS + 1};
+
+        Document bucket = bucket(times.length, i -> new Document("value", (double) i));
+        List<Document> values = bucket.getList("values", Document.class);
+        for (int i = 0; i < times.length; i++) {
+            values.get(i).put("time", new Date(times[i]));
+        }
+
+        assertRoundTrip(bucket);
+    }
+
+    @Test
+    void roundTrip_nestedArraysAndObjects() {
+        Document bucket = bucket(10, i -> new Document("position", new Document("lat", 48.7 + i).append("lon", 9.1 - i))
+                .append("readings", Arrays.asList(Arrays.asList(i, i * 2L), Arrays.asList(i + 0.5, -i - 0.5)))
+                .append("status", new Document("ok", i % 2 == 0).append("label", "sensor-" + i))
+                .append("tags", Arrays.asList("a", "b")));
+
+        assertRoundTrip(bucket);
+        assertThat(ValueLogBucketCodec.encode(bucket).containsKey("template")).isFalse();
+    }
+
+    @Test
+    void roundTrip_schemaChangesBetweenValues() {
+        Document bucket = bucket(6, i -> {
+            switch (i) {
+                case 0:
+                    return new Document("a", 1.0).append("b", 2);
+                case 1:
+                    return new Document("a", 2.0).append("b", 3L);
+                case 2:
+                    return new Document("a", 3.0);
+                case 3:
+                    return new Document("a", 4.0).append("b", "text").append("c", Arrays.asList(1.0, 2.0));
+                case 4:
+                    return new Document("a", 5.0).append("b", null);
+                default:
+                    return new Document("b", 6).append("a", 6.0).append("d", new Document("e", 7.0));
+            }
+        });
+
+        assertRoundTrip(bucket);
+        assertThat(ValueLogBucketCodec.encode(bucket).getString("types")).isEqualTo("d");
+    }
+
+    @Test
+    void roundTrip_varyingMetadata() {
+        Document bucket = bucket(5, i -> new Document("value", (double) i));
+        List<Document> values = bucket.getList("values", Document.class);
+        values.get(2).put("qos", 2);
+        values.get(3).put("message", "{\"value\":3.0}");
+
+        assertRoundTrip(bucket);
+        assertThat(ValueLogBucketCodec.encode(bucket).get("varying", Document.class).keySet())
+                .containsExactlyInAnyOrder("qos", "message");
+    }
+
+    @Test
+    void roundTrip_singleValue() {
+        assertRoundTrip(bucket(1, i -> new Document("value", 42.0).append("count", 7)));
+    }
+
+    @Test
+    void roundTrip_fullDocument() {
+        Document bucket = bucket(80, i -> new Document("value", 20.0 + Math.sin(i) * 5)
+                .append("counter", (long) i * i).append("step", i));
+
+        Document encoded = assertRoundTrip(bucket);
+        assertThat(encoded.get("nvalues")).isEqualTo(80);
+        assertThat(encoded.getInteger("format")).isEqualTo(ValueLogBucketCodec.FORMAT_COLUMNAR);
+    }
+
+    @Test
+    void encode_keepsFurtherFieldsAndSkipsColumnarDocuments() {
+        Document bucket = bucket(3, i -> new Document("value", (double) i)).append("sealed", true);
+
+        Document encoded = ValueLogBucketCodec.encode(bucket);
+
+        assertThat(encoded.getString("idref")).isEqualTo(COMPONENT_ID);
+        assertThat(encoded.getBoolean("sealed")).isTrue();
+        assertThat(encoded.containsKey("values")).isFalse();
+        assertThat(ValueLogBucketCodec.encode(encoded)).isNull();
+    }
+
+    /**
+     * Encodes a given document, checks that it decodes to the original value logs and returns the encoded document.
+     */
+    private static Document assertRoundTrip(Document bucket) {
+        List<Document> values = bucket.getList("values", Document.class);
+
+        Document encoded = ValueLogBucketCodec.encode(bucket);
+
+        assertThat(encoded).isNotNull();
+        assertThat(ValueLogBucketCodec.isColumnar(encoded)).isTrue();
+        assertThat(ValueLogBucketCodec.decodeRows(encoded)).isEqualTo(values);
+        List<ValueLog> expectedValueLogs = new ArrayList<>();
+        values.forEach(v -> expectedValueLogs.add(ValueLogBucketCodec.toValueLog(v)));
+        assertThat(ValueLogBucketCodec.decode(encoded)).usingRecursiveFieldByFieldElementComparator(EXACT_DOUBLES)
+                .isEqualTo(expectedValueLogs);
+        return encoded;
+    }
+
+    /**
+     * Creates a document in the row format with a given number of value logs, one value log per second.
+     */
+    private static Document bucket(int count, IntFunction<Document> valueFunction) {
+        List<Document> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(new Document("time", new Date(START_MILLIS + i * 1000L)).append("qos", 0)
+                    .append("topic", "sensor/" + COMPONENT_ID).append("idref", COMPONENT_ID)
+                    .append("component", "sensor").append("value", valueFunction.apply(i)));
+        }
+        return new Document("idref", COMPONENT_ID).append("nvalues", count)
+                .append("first", START_MILLIS / 1000).append("last", (START_MILLIS + (count - 1) * 1000L) / 1000)
+                .append("values", values);
+    }
+}
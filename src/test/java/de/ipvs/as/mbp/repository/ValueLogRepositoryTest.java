@@ -0,0 +1,234 @@
+package de.ipvs.as.mbp.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Sorts;
+import de.ipvs.as.mbp.MongoConfiguration;
+import de.ipvs.as.mbp.base.BaseBackendTest;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ValueLogRepositoryTest extends BaseBackendTest {
+
+    private static final String COMPONENT_ID = "5c97dc2583aeb6078c5ab672";
+    private static final String OTHER_COMPONENT_ID = "5c97dc2583aeb6078c5ab673";
+    private static final long START_MILLIS = 1_600_000_000_000L;
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Autowired
+    private MongoConfiguration mongoConfiguration;
+
+    @Autowired
+    private ValueLogRepository valueLogRepository;
+
+    private MongoDatabase database;
+
+    @BeforeEach
+    void setup() {
+        database = mongoClient.getDatabase(mongoConfiguration.getMongoDatabase());
+    }
+
+    @Test
+    void findAllByIdRef_pagesOverFullSealedAndDownsampledDocuments() {
+        // Downsampled archive documents, sealed imported documents, full (columnar) and a partial document
+        List<Long> times = new ArrayList<>();
+        long time = START_MILLIS;
+        for (int i = 0; i < 3; i++) {
+            time = insertDocument("mongoValueLogsArchive", time, 5, "downsampled", times);
+        }
+        for (int i = 0; i < 2; i++) {
+            time = insertDocument("mongoValueLogs", time, 30, "sealed", times);
+        }
+        for (int i = 0; i < 3; i++) {
+            time = insertDocument("mongoValueLogs", time, 80, null, times);
+        }
+        insertDocument("mongoValueLogs", time, 10, null, times);
+
+        assertPages(times, Sort.Direction.ASC, 50);
+        assertPages(times, Sort.Direction.DESC, 50);
+        assertPages(times, Sort.Direction.DESC, 7);
+    }
+
+    @Test
+    void findAllByIdRef_mergesArchivedAndLiveDocumentsByTime() {
+        // Documents that were not archived yet may be older than archived ones
+        List<Long> times = new ArrayList<>();
+        long time = START_MILLIS;
+        time = insertDocument("mongoValueLogsArchive", time, 5, "downsampled", times);
+        time = insertDocument("mongoValueLogs", time, 80, null, times);
+        time = insertDocument("mongoValueLogsArchive", time, 30, null, times);
+        insertDocument("mongoValueLogs", time, 10, null, times);
+
+        assertThat(timesOf(valueLogRepository.findAllByIdRef(COMPONENT_ID))).isEqualTo(times);
+        assertPages(times, Sort.Direction.ASC, 20);
+        assertPages(times, Sort.Direction.DESC, 20);
+    }
+
+    @Test
+    void findAllByIdRefs_retainsTheFirstValueLogsPerComponentInOrder() {
+        List<Long> times = new ArrayList<>();
+        long time = START_MILLIS;
+        for (int i = 0; i < 3; i++) {
+            time = insertDocument("mongoValueLogsArchive", COMPONENT_ID, time, 5, "downsampled", times);
+        }
+        for (int i = 0; i < 3; i++) {
+            time = insertDocument("mongoValueLogs", COMPONENT_ID, time, 80, null, times);
+        }
+        insertDocument("mongoValueLogs", COMPONENT_ID, time, 10, null, times);
+        List<Long> otherTimes = new ArrayList<>();
+        insertDocument("mongoValueLogs", OTHER_COMPONENT_ID, START_MILLIS, 30, null, otherTimes);
+
+        Map<String, Integer> limits = new HashMap<>();
+        limits.put(COMPONENT_ID, 100);
+        limits.put(OTHER_COMPONENT_ID, 5);
+
+        Map<String, List<ValueLog>> oldest = valueLogRepository.findAllByIdRefs(limits, null, null, true);
+        assertThat(timesOf(oldest.get(COMPONENT_ID))).isEqualTo(times.subList(0, 100));
+        assertThat(timesOf(oldest.get(OTHER_COMPONENT_ID))).isEqualTo(otherTimes.subList(0, 5));
+
+        Map<String, List<ValueLog>> newest = valueLogRepository.findAllByIdRefs(limits, null, null, false);
+        List<Long> expectedTimes = new ArrayList<>(times.subList(times.size() - 100, times.size()));
+        Collections.reverse(expectedTimes);
+        List<Long> expectedOtherTimes = new ArrayList<>(otherTimes.subList(25, 30));
+        Collections.reverse(expectedOtherTimes);
+        assertThat(timesOf(newest.get(COMPONENT_ID))).isEqualTo(expectedTimes);
+        assertThat(timesOf(newest.get(OTHER_COMPONENT_ID))).isEqualTo(expectedOtherTimes);
+
+        // The time range is applied to the individual value logs
+        Map<String, List<ValueLog>> ranged = valueLogRepository.findAllByIdRefs(limits,
+                Instant.ofEpochMilli(times.get(12)), Instant.ofEpochMilli(times.get(20)), true);
+        assertThat(timesOf(ranged.get(COMPONENT_ID))).isEqualTo(times.subList(12, 20));
+        assertThat(ranged.get(OTHER_COMPONENT_ID)).isEmpty();
+    }
+
+    @Test
+    void findByIdRefAndTimeStamp_findsValueLogsInArchivedAndLiveDocuments() {
+        List<Long> times = new ArrayList<>();
+        long time = insertDocument("mongoValueLogsArchive", START_MILLIS, 80, "sealed", times);
+        time = insertDocument("mongoValueLogs", time, 80, "sealed", times);
+        insertDocument("mongoValueLogs", time, 5, null, times);
+
+        for (int index : new int[]{0, 79, 80, 159, 160, 164}) {
+            ValueLog valueLog = valueLogRepository.findByIdRefAndTimeStamp(COMPONENT_ID, Instant.ofEpochMilli(times.get(index)));
+            assertThat(valueLog).isNotNull();
+            assertThat(valueLog.getTime().toEpochMilli()).isEqualTo(times.get(index));
+        }
+        assertThat(valueLogRepository.findByIdRefAndTimeStamp(COMPONENT_ID, Instant.ofEpochMilli(times.get(0) + 1))).isNull();
+        assertThat(valueLogRepository.findByIdRefAndTimeStamp(OTHER_COMPONENT_ID, Instant.ofEpochMilli(times.get(0)))).isNull();
+    }
+
+    @Test
+    void writeAll_derivesIdsFromFirstTimesSuchThatImportedDocumentsAreArchived() {
+        List<ValueLog> valueLogs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            valueLogs.add(new ValueLog().setTime(Instant.ofEpochMilli(START_MILLIS + i * 1000L)).setIdref(COMPONENT_ID)
+                    .setComponent("sensor").setTopic("sensor/" + COMPONENT_ID).setValue(new Document("value", (double) i)));
+        }
+
+        int documentCount = valueLogRepository.writeAll(COMPONENT_ID, valueLogs);
+
+        assertThat(documentCount).isEqualTo(3);
+        List<Document> documents = new ArrayList<>();
+        database.getCollection("mongoValueLogs").find().sort(Sorts.ascending("first")).into(documents);
+        assertThat(documents).hasSize(3);
+        for (Document document : documents) {
+            assertThat(document.getObjectId("_id").getDate().getTime() / 1000).isEqualTo(document.getLong("first"));
+        }
+        assertThat(documents.get(2).getBoolean("sealed")).isTrue();
+
+        // Documents are archived although they were just inserted
+        int archivedCount = valueLogRepository.archiveBatch(Instant.now().minus(Duration.ofDays(1)), null, false, 100);
+
+        assertThat(archivedCount).isEqualTo(3);
+        assertThat(database.getCollection("mongoValueLogs").countDocuments()).isZero();
+        assertThat(valueLogRepository.findAllByIdRef(COMPONENT_ID)).hasSize(200);
+    }
+
+    @Test
+    void writeAll_rejectsValueLogsThatAreNotOrderedByTime() {
+        List<ValueLog> valueLogs = Arrays.asList(
+                new ValueLog().setTime(Instant.ofEpochMilli(START_MILLIS + 1000)).setIdref(COMPONENT_ID).setValue(new Document("value", 1.0)),
+                new ValueLog().setTime(Instant.ofEpochMilli(START_MILLIS)).setIdref(COMPONENT_ID).setValue(new Document("value", 0.0)));
+
+        assertThatThrownBy(() -> valueLogRepository.writeAll(COMPONENT_ID, valueLogs))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(database.getCollection("mongoValueLogs").countDocuments()).isZero();
+    }
+
+    /**
+     * Requests all pages of the value logs in a given order and checks that they yield the expected times.
+     */
+    private void assertPages(List<Long> times, Sort.Direction direction, int pageSize) {
+        List<Long> expectedTimes = new ArrayList<>(times);
+        expectedTimes.sort(direction.isAscending() ? Long::compare : (a, b) -> Long.compare(b, a));
+
+        List<Long> pagedTimes = new ArrayList<>();
+        for (int page = 0; page * pageSize < times.size() + pageSize; page++) {
+            Page<ValueLog> valueLogs = valueLogRepository.findAllByIdRef(COMPONENT_ID,
+                    PageRequest.of(page, pageSize, Sort.by(direction, "time")));
+            assertThat(valueLogs.getContent()).hasSize((int) Math.max(0, Math.min(pageSize, times.size() - (long) page * pageSize)));
+            pagedTimes.addAll(valueLogs.getContent().stream().map(v -> v.getTime().toEpochMilli()).collect(Collectors.toList()));
+        }
+        assertThat(pagedTimes).isEqualTo(expectedTimes);
+    }
+
+    /**
+     * Returns the times of given value logs in epoch milliseconds.
+     */
+    private static List<Long> timesOf(List<ValueLog> valueLogs) {
+        return valueLogs.stream().map(v -> v.getTime().toEpochMilli()).collect(Collectors.toList());
+    }
+
+    private long insertDocument(String collectionName, long startMillis, int count, String marker, List<Long> times) {
+        return insertDocument(collectionName, COMPONENT_ID, startMillis, count, marker, times);
+    }
+
+    /**
+     * Inserts a document of a given component with a given number of value logs, one value log per second, and adds
+     * their times to a given list. Full documents are stored in the columnar format.
+     *
+     * @return The time following the last value log of the document
+     */
+    private long insertDocument(String collectionName, String idref, long startMillis, int count, String marker, List<Long> times) {
+        List<Document> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long time = startMillis + i * 1000L;
+            times.add(time);
+            values.add(new Document("time", new Date(time)).append("qos", 0).append("topic", "sensor/" + idref)
+                    .append("idref", idref).append("component", "sensor").append("value", new Document("value", (double) i)));
+        }
+        Document document = new Document("idref", idref).append("nvalues", count)
+                .append("first", startMillis / 1000).append("last", (startMillis + (count - 1) * 1000L) / 1000)
+                .append("values", values);
+        if (marker != null) {
+            document.append(marker, true);
+        }
+        if (count == 80) {
+            document = ValueLogBucketCodec.encode(document);
+        }
+        database.getCollection(collectionName).insertOne(document);
+        return startMillis + count * 1000L;
+    }
+}
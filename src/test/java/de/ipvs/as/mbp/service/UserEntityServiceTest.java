@@ -0,0 +1,146 @@
+package de.ipvs.as.mbp.service;
+
+import de.ipvs.as.mbp.domain.access_control.ACAccessRequest;
+import de.ipvs.as.mbp.domain.access_control.ACAccessType;
+import de.ipvs.as.mbp.domain.access_control.ACPolicy;
+import de.ipvs.as.mbp.domain.device.Device;
+import de.ipvs.as.mbp.domain.user.User;
+import de.ipvs.as.mbp.repository.ACPolicyRepository;
+import de.ipvs.as.mbp.repository.DeviceRepository;
+import de.ipvs.as.mbp.service.access_control.ACPolicyEvaluationService;
+import de.ipvs.as.mbp.service.user.UserEntityService;
+import de.ipvs.as.mbp.service.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the push-down of the owner and policy checks of entity list pages to the repository, with mocked
+ * repositories and policy evaluation.
+ */
+public class UserEntityServiceTest {
+
+    private static final Sort NAME_SORT = Sort.by(Sort.Direction.ASC, "name");
+
+    private final User user = new User().setId("user").setUsername("user");
+
+    private final ACAccessRequest accessRequest = new ACAccessRequest(Collections.emptyList());
+
+    private UserService userService;
+
+    private ACPolicyRepository policyRepository;
+
+    private ACPolicyEvaluationService policyEvaluationService;
+
+    private DeviceRepository deviceRepository;
+
+    private UserEntityService userEntityService;
+
+    @BeforeEach
+    void setup() {
+        userService = mock(UserService.class);
+        when(userService.getLoggedInUser()).thenReturn(user);
+        policyRepository = mock(ACPolicyRepository.class);
+        policyEvaluationService = mock(ACPolicyEvaluationService.class);
+        deviceRepository = mock(DeviceRepository.class);
+
+        userEntityService = new UserEntityService();
+        ReflectionTestUtils.setField(userEntityService, "userService", userService);
+        ReflectionTestUtils.setField(userEntityService, "policyRepository", policyRepository);
+        ReflectionTestUtils.setField(userEntityService, "policyEvaluationService", policyEvaluationService);
+    }
+
+    @Test
+    void page_evaluatesOnlyReferencedPoliciesAndPagesInRepository() {
+        ACPolicy grantingPolicy = policy("granting");
+        ACPolicy denyingPolicy = policy("denying");
+        List<String> referencedPolicyIds = Arrays.asList("granting", "denying");
+        when(deviceRepository.findPolicyIdsReferencedByOthers("user")).thenReturn(referencedPolicyIds);
+        when(policyRepository.findByIdAnyAndAccessTypeAll(eq(referencedPolicyIds), anyList()))
+                .thenReturn(Arrays.asList(grantingPolicy, denyingPolicy));
+        Map<String, Optional<Boolean>> results = new HashMap<>();
+        results.put("granting", Optional.of(true));
+        results.put("denying", Optional.of(false));
+        when(policyEvaluationService.evaluateForAnyEntity(anyList(), eq(ACAccessType.READ), eq(user), eq(accessRequest)))
+                .thenReturn(results);
+        Page<Device> page = new PageImpl<>(Collections.singletonList(new Device().setId("device").setName("Device")));
+        when(deviceRepository.findByOwnerOrPolicyIdAny(eq("user"), eq(Collections.singletonList("granting")), any(Pageable.class)))
+                .thenReturn(page);
+
+        Page<Device> result = userEntityService.getPageWithAccessControlCheck(deviceRepository, ACAccessType.READ,
+                accessRequest, PageRequest.of(0, 20));
+
+        assertThat(result).isSameAs(page);
+        verify(policyRepository, never()).findByAccessTypeAll(anyList());
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(deviceRepository).findByOwnerOrPolicyIdAny(eq("user"), anyList(), pageable.capture());
+        assertThat(pageable.getValue().getSort()).isEqualTo(NAME_SORT);
+    }
+
+    @Test
+    void page_withoutReferencedPolicies_doesNotQueryPolicies() {
+        when(deviceRepository.findPolicyIdsReferencedByOthers("user")).thenReturn(Collections.emptyList());
+        when(deviceRepository.findByOwnerOrPolicyIdAny(eq("user"), eq(Collections.emptyList()), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        userEntityService.getPageWithAccessControlCheck(deviceRepository, ACAccessType.READ, accessRequest, PageRequest.of(0, 20));
+
+        verify(policyRepository, never()).findByIdAnyAndAccessTypeAll(anyList(), anyList());
+        verify(policyRepository, never()).findByAccessTypeAll(anyList());
+    }
+
+    @Test
+    void unpagedForAdmin_isSortedByName() {
+        user.setAdmin(true);
+        List<Device> devices = Collections.singletonList(new Device().setId("device").setName("Device"));
+        when(deviceRepository.findAll(NAME_SORT)).thenReturn(devices);
+
+        Page<Device> result = userEntityService.getPageWithAccessControlCheck(deviceRepository, ACAccessType.READ,
+                accessRequest, Pageable.unpaged());
+
+        assertThat(result.getContent()).isEqualTo(devices);
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        verify(deviceRepository).findAll(NAME_SORT);
+    }
+
+    @Test
+    void unpagedForUser_isSortedByName() {
+        when(deviceRepository.findPolicyIdsReferencedByOthers("user")).thenReturn(Collections.emptyList());
+        List<Device> devices = Arrays.asList(new Device().setId("a").setName("A"), new Device().setId("b").setName("B"));
+        when(deviceRepository.findByOwnerOrPolicyIdAny("user", Collections.emptyList(), NAME_SORT)).thenReturn(devices);
+
+        Page<Device> result = userEntityService.getPageWithAccessControlCheck(deviceRepository, ACAccessType.READ,
+                accessRequest, Pageable.unpaged());
+
+        assertThat(result.getContent()).isEqualTo(devices);
+        verify(deviceRepository).findByOwnerOrPolicyIdAny("user", Collections.emptyList(), NAME_SORT);
+    }
+
+    private static ACPolicy policy(String id) {
+        ACPolicy policy = new ACPolicy(id, "", Collections.singletonList(ACAccessType.READ), "condition-" + id, null, "other");
+        ReflectionTestUtils.setField(policy, "id", id);
+        return policy;
+    }
+}
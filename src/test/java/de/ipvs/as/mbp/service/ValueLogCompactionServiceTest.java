@@ -0,0 +1,74 @@
+package de.ipvs.as.mbp.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import de.ipvs.as.mbp.MongoConfiguration;
+import de.ipvs.as.mbp.base.BaseBackendTest;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import de.ipvs.as.mbp.repository.ValueLogRepository;
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {"mbp.value_logs.columnar.enabled=true", "mbp.value_logs.columnar.batch_pause_ms=10"})
+public class ValueLogCompactionServiceTest extends BaseBackendTest {
+
+    private static final String COMPONENT_ID = "5c97dc2583aeb6078c5ab672";
+    private static final long START_MILLIS = 1_600_000_000_000L;
+    private static final int VALUE_LOG_COUNT = 170;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    // Compares doubles by their value, such that NaN equals NaN and 0.0 differs from -0.0
+    private static final RecursiveComparisonConfiguration EXACT_DOUBLES = RecursiveComparisonConfiguration.builder()
+            .withComparatorForType(Double::compare, Double.class).build();
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Autowired
+    private MongoConfiguration mongoConfiguration;
+
+    @Autowired
+    private ValueLogRepository valueLogRepository;
+
+    @Test
+    void compactedDocuments_decodeToWrittenValueLogs() throws Exception {
+        MongoCollection<Document> collection = mongoClient.getDatabase(mongoConfiguration.getMongoDatabase())
+                .getCollection("mongoValueLogs");
+
+        // Write value logs with nested values, filling two documents and part of a third one
+        List<ValueLog> valueLogs = new ArrayList<>();
+        for (int i = 0; i < VALUE_LOG_COUNT; i++) {
+            ValueLog valueLog = new ValueLog().setTime(Instant.ofEpochMilli(START_MILLIS + i * 997L + (i % 3) * 5))
+                    .setIdref(COMPONENT_ID).setComponent("sensor").setTopic("sensor/" + COMPONENT_ID).setQos(0)
+                    .setValue(new Document("value", i % 10 == 0 ? Double.NaN : 20.0 + i * 0.01)
+                            .append("count", (long) i * 1_000_000_000L)
+                            .append("position", Arrays.asList(48.7 + i, 9.1, i)));
+            valueLogs.add(valueLog);
+            valueLogRepository.write(valueLog);
+        }
+
+        // Wait until the full documents were converted
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ((collection.countDocuments(Filters.exists("format")) < 2) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(50);
+        }
+
+        assertThat(collection.countDocuments(Filters.exists("format"))).isEqualTo(2);
+        assertThat(collection.countDocuments(Filters.exists("format", false))).isEqualTo(1);
+        List<ValueLog> decodedValueLogs = valueLogRepository.findAllByIdRef(COMPONENT_ID);
+        decodedValueLogs.sort(Comparator.comparing(ValueLog::getTime));
+        assertThat(decodedValueLogs).usingRecursiveFieldByFieldElementComparator(EXACT_DOUBLES).isEqualTo(valueLogs);
+    }
+}
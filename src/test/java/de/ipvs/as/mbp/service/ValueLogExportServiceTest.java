@@ -0,0 +1,122 @@
+package de.ipvs.as.mbp.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import de.ipvs.as.mbp.MongoConfiguration;
+import de.ipvs.as.mbp.base.BaseBackendTest;
+import de.ipvs.as.mbp.service.value_export.ValueLogExportFormat;
+import de.ipvs.as.mbp.service.value_export.ValueLogExportService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ValueLogExportServiceTest extends BaseBackendTest {
+
+    private static final String COMPONENT_ID = "5c97dc2583aeb6078c5ab672";
+    private static final int VALUES_PER_DOCUMENT = 80;
+    private static final int DOCUMENT_COUNT = 25_000;
+    private static final long TOTAL_VALUES = (long) VALUES_PER_DOCUMENT * DOCUMENT_COUNT;
+    private static final long START_MILLIS = 1_600_000_000_000L;
+
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Autowired
+    private MongoConfiguration mongoConfiguration;
+
+    @Autowired
+    private ValueLogExportService valueLogExportService;
+
+    @BeforeEach
+    void insertValueLogs() {
+        MongoCollection<Document> collection = mongoClient.getDatabase(mongoConfiguration.getMongoDatabase())
+                .getCollection("mongoValueLogs");
+
+        // Insert documents in the format of the value log repository, one value log per millisecond
+        List<Document> documents = new ArrayList<>();
+        for (int d = 0; d < DOCUMENT_COUNT; d++) {
+            List<Document> values = new ArrayList<>(VALUES_PER_DOCUMENT);
+            for (int v = 0; v < VALUES_PER_DOCUMENT; v++) {
+                long time = START_MILLIS + (long) d * VALUES_PER_DOCUMENT + v;
+                values.add(new Document("time", new Date(time)).append("qos", 0)
+                        .append("topic", "sensor/" + COMPONENT_ID).append("idref", COMPONENT_ID)
+                        .append("component", "sensor").append("value", new Document("value", (double) v)));
+            }
+            documents.add(new Document("idref", COMPONENT_ID).append("nvalues", VALUES_PER_DOCUMENT)
+                    .append("first", values.get(0).getDate("time").getTime() / 1000)
+                    .append("last", values.get(VALUES_PER_DOCUMENT - 1).getDate("time").getTime() / 1000)
+                    .append("values", values));
+            if (documents.size() == 1000) {
+                collection.insertMany(documents);
+                documents.clear();
+            }
+        }
+    }
+
+    @Test
+    void exportAllAsCsv_streamsOrderedValueLogs() throws Exception {
+        OrderCheckingOutputStream outputStream = new OrderCheckingOutputStream();
+
+        long count = valueLogExportService.export(COMPONENT_ID, null, null, true, ValueLogExportFormat.CSV,
+                null, null, outputStream);
+
+        assertThat(count).isEqualTo(TOTAL_VALUES);
+        assertThat(outputStream.lines).isEqualTo(TOTAL_VALUES + 1);
+        assertThat(outputStream.header).isEqualTo("time,idref,component,qos,topic,value");
+        assertThat(outputStream.ordered).isTrue();
+    }
+
+    @Test
+    void exportTimeRangeAsNdjson_streamsValueLogsWithinRange() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Instant startTime = Instant.ofEpochMilli(START_MILLIS + 1000);
+        Instant endTime = Instant.ofEpochMilli(START_MILLIS + 3500);
+
+        long count = valueLogExportService.export(COMPONENT_ID, startTime, endTime, false, ValueLogExportFormat.NDJSON,
+                null, null, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(count).isEqualTo(2500);
+        assertThat(lines).hasSize(2500);
+        assertThat(lines[0]).contains("\"idref\":\"" + COMPONENT_ID + "\"");
+    }
+
+    /**
+     * Output stream that checks that the CSV records are ordered by time without retaining them.
+     */
+    private static class OrderCheckingOutputStream extends OutputStream {
+        private final StringBuilder line = new StringBuilder();
+        private String header = null;
+        private Instant previous = null;
+        private long lines = 0;
+        private boolean ordered = true;
+
+        @Override
+        public void write(int b) {
+            if (b != '\n') {
+                line.append((char) b);
+                return;
+            }
+            lines++;
+            if (header == null) {
+                header = line.toString();
+            } else {
+                Instant time = Instant.parse(line.substring(0, line.indexOf(",")));
+                ordered &= (previous == null) || (!time.isBefore(previous));
+                previous = time;
+            }
+            line.setLength(0);
+        }
+    }
+}
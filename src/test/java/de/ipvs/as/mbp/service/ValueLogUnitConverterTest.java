@@ -0,0 +1,165 @@
+package de.ipvs.as.mbp.service;
+
+import de.ipvs.as.mbp.domain.data_model.DataTreeNode;
+import de.ipvs.as.mbp.domain.data_model.treelogic.DataModelTree;
+import de.ipvs.as.mbp.domain.valueLog.ValueLog;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import javax.measure.converter.UnitConverter;
+import javax.measure.unit.Unit;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that value logs are converted by the compiled {@link ValueLogUnitConverter} in the same way as by the former
+ * conversion of single values, also for nested data models.
+ */
+public class ValueLogUnitConverterTest {
+
+    private static final UnitConverter CONVERTER = Unit.valueOf("°C").getConverterTo(Unit.valueOf("°F"));
+
+    private static final List<Double> VALUES = Arrays.asList(0.0, -0.0, 20.0, -40.0, 21.37, 1e-9, -273.15, 1e12,
+            0.00002777, 37.77777, Double.MAX_VALUE / 10, Double.NaN);
+
+    @Test
+    void convert_matchesFormerConversionForDefaultDataModel() {
+        ValueLogUnitConverter valueLogConverter = new ValueLogUnitConverter(new DataModelTree(Arrays.asList(
+                node("RootObj", "object", "", "value"),
+                node("value", "double", "RootObj"))), CONVERTER);
+
+        for (double value : VALUES) {
+            ValueLog expected = valueLog(new Document("value", value));
+            convertFormerly(expected, CONVERTER);
+
+            ValueLog converted = valueLog(new Document("value", value));
+            valueLogConverter.convert(converted);
+
+            Document original = new Document("value", value);
+            ValueLog copied = valueLog(original);
+            valueLogConverter.convertCopy(copied);
+
+            assertThat(converted.getValue()).as("convert(%s)", value).isEqualTo(expected.getValue());
+            assertThat(copied.getValue()).as("convertCopy(%s)", value).isEqualTo(expected.getValue());
+            assertThat(original).isEqualTo(new Document("value", value));
+        }
+    }
+
+    @Test
+    void convert_convertsNumericLeavesOfNestedDataModel() {
+        ValueLogUnitConverter valueLogConverter = new ValueLogUnitConverter(nestedDataModel(), CONVERTER);
+        ValueLog valueLog = valueLog(nestedValue());
+
+        valueLogConverter.convert(valueLog);
+
+        assertThat(valueLog.getValue()).isEqualTo(expectedNestedValue(valueLogConverter));
+    }
+
+    @Test
+    void convertCopy_convertsNumericLeavesOfNestedDataModelWithoutModifyingTheOriginal() {
+        ValueLogUnitConverter valueLogConverter = new ValueLogUnitConverter(nestedDataModel(), CONVERTER);
+        Document original = nestedValue();
+        ValueLog valueLog = valueLog(original);
+
+        valueLogConverter.convertCopy(valueLog);
+
+        assertThat(valueLog.getValue()).isEqualTo(expectedNestedValue(valueLogConverter));
+        assertThat(original).isEqualTo(nestedValue());
+        // Fields without numeric leaves are shared rather than copied
+        assertThat(valueLog.getValue().get("tags")).isSameAs(original.get("tags"));
+    }
+
+    @Test
+    void convert_skipsMissingAndMismatchingFields() {
+        ValueLogUnitConverter valueLogConverter = new ValueLogUnitConverter(nestedDataModel(), CONVERTER);
+        Document value = new Document("total", "n/a").append("samples", null)
+                .append("position", new Document("lat", 10.0));
+        ValueLog valueLog = valueLog(value);
+
+        valueLogConverter.convert(valueLog);
+
+        assertThat(valueLog.getValue()).isEqualTo(new Document("total", "n/a").append("samples", null)
+                .append("position", new Document("lat", valueLogConverter.convertValue(10.0))));
+    }
+
+    /**
+     * Converts the value of a given value log as done before value logs were converted by compiled converters.
+     */
+    private static void convertFormerly(ValueLog valueLog, UnitConverter converter) {
+        double value = Double.valueOf(valueLog.getValue().getDouble("value"));
+        double convertedValue = converter.convert(value);
+        double roundingConst = Math.pow(10, 4);
+        convertedValue = Math.round(convertedValue * roundingConst) / roundingConst;
+        valueLog.setValue(new Document("value", convertedValue));
+    }
+
+    /**
+     * Creates a data model with nested objects, arrays of numbers and objects and int, long and double leaves,
+     * next to leaves that must not be converted.
+     */
+    private static DataModelTree nestedDataModel() {
+        DataTreeNode samples = node("samples", "array", "RootObj", "sample");
+        samples.setSize(3);
+        DataTreeNode readings = node("readings", "array", "RootObj", "reading");
+        readings.setSize(2);
+        DataTreeNode tags = node("tags", "array", "RootObj", "tag");
+        tags.setSize(2);
+        return new DataModelTree(Arrays.asList(
+                node("RootObj", "object", "", "position", "samples", "readings", "total", "label", "tags"),
+                node("position", "object", "RootObj", "lat", "lon", "floor"),
+                node("lat", "double", "position"),
+                node("lon", "double", "position"),
+                node("floor", "int", "position"),
+                samples,
+                node("sample", "double", "samples"),
+                readings,
+                node("reading", "object", "readings", "count", "valid"),
+                node("count", "int", "reading"),
+                node("valid", "boolean", "reading"),
+                node("total", "long", "RootObj"),
+                node("label", "string", "RootObj"),
+                tags,
+                node("tag", "string", "tags")));
+    }
+
+    private static Document nestedValue() {
+        return new Document("position", new Document("lat", 48.7758).append("lon", 9.1829).append("floor", 3))
+                .append("samples", new ArrayList<>(Arrays.asList(20.5, -3.25, 0.0)))
+                .append("readings", new ArrayList<>(Arrays.asList(
+                        new Document("count", 7).append("valid", true),
+                        new Document("count", Integer.MIN_VALUE).append("valid", false))))
+                .append("total", 9_000_000_000L)
+                .append("label", "room")
+                .append("tags", new ArrayList<>(Arrays.asList("a", "b")));
+    }
+
+    private static Document expectedNestedValue(ValueLogUnitConverter converter) {
+        return new Document("position", new Document("lat", converter.convertValue(48.7758))
+                .append("lon", converter.convertValue(9.1829)).append("floor", converter.convertValue(3)))
+                .append("samples", Arrays.asList(converter.convertValue(20.5), converter.convertValue(-3.25),
+                        converter.convertValue(0.0)))
+                .append("readings", Arrays.asList(
+                        new Document("count", converter.convertValue(7)).append("valid", true),
+                        new Document("count", converter.convertValue(Integer.MIN_VALUE)).append("valid", false)))
+                .append("total", converter.convertValue(9_000_000_000L))
+                .append("label", "room")
+                .append("tags", Arrays.asList("a", "b"));
+    }
+
+    private static ValueLog valueLog(Document value) {
+        return new ValueLog().setTime(Instant.ofEpochMilli(0)).setValue(value);
+    }
+
+    private static DataTreeNode node(String name, String type, String parent, String... children) {
+        DataTreeNode node = new DataTreeNode();
+        node.setName(name);
+        node.setType(type);
+        node.setParent(parent);
+        node.setChildren(new ArrayList<>(Arrays.asList(children)));
+        return node;
+    }
+}
@@ -0,0 +1,163 @@
+package de.ipvs.as.mbp.service.messaging.dispatcher;
+
+import de.ipvs.as.mbp.service.messaging.dispatcher.IngestAdmissionControl.OverflowPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IngestAdmissionControlTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private List<String> handledTopics;
+
+    private CountDownLatch release;
+
+    private IngestAdmissionControl admissionControl;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        handledTopics = new CopyOnWriteArrayList<>();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (admissionControl != null) {
+            admissionControl.shutdown();
+        }
+    }
+
+    @Test
+    void constructor_registersShedCountersOncePerClassAndReason() {
+        admissionControl = create(1, 1, OverflowPolicy.DROP_OLDEST, 0, 1);
+
+        assertThat(meterRegistry.find("mbp.ingest.shed").counters()).hasSize(3);
+        assertThat(meterRegistry.find("mbp.ingest.shed").tag("class", "control").counters()).isEmpty();
+    }
+
+    @Test
+    void handleMessage_neverShedsControlMessages() throws Exception {
+        admissionControl = create(1, 1, OverflowPolicy.DROP_OLDEST, 0, 1);
+        occupyWorkers(1);
+
+        for (int i = 0; i < 10; i++) {
+            admissionControl.handleMessage("actuator/" + i, new byte[0]);
+        }
+        release.countDown();
+
+        awaitHandled(11);
+        assertThat(handledTopics.subList(1, 11)).isEqualTo(expectedTopics("actuator/", 0, 10));
+        assertThat(meterRegistry.get("mbp.ingest.overflow").tag("class", "control").counter().count()).isEqualTo(9);
+        assertThat(meterRegistry.find("mbp.ingest.shed").counters()).allMatch(c -> c.count() == 0);
+    }
+
+    @Test
+    void handleMessage_blockPolicyLetsTelemetryWaitWithoutBlockingTheCaller() throws Exception {
+        admissionControl = create(10, 2, OverflowPolicy.BLOCK, 60_000, 1);
+        occupyWorkers(1);
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            admissionControl.handleMessage("sensor/" + i, new byte[0]);
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)).isLessThan(1000);
+
+        // Control messages overtake the waiting telemetry
+        admissionControl.handleMessage("actuator/0", new byte[0]);
+        release.countDown();
+
+        awaitHandled(12);
+        assertThat(handledTopics.get(1)).isEqualTo("actuator/0");
+        assertThat(handledTopics.subList(2, 12)).isEqualTo(expectedTopics("sensor/", 0, 10));
+        assertThat(meterRegistry.get("mbp.ingest.shed").tag("reason", "timeout").counter().count()).isZero();
+    }
+
+    @Test
+    void handleMessage_blockPolicyShedsTelemetryAfterTimeout() throws Exception {
+        admissionControl = create(10, 1, OverflowPolicy.BLOCK, 200, 1);
+        occupyWorkers(1);
+
+        admissionControl.handleMessage("sensor/0", new byte[0]);
+        admissionControl.handleMessage("sensor/1", new byte[0]);
+        Thread.sleep(400);
+        admissionControl.handleMessage("sensor/2", new byte[0]);
+        release.countDown();
+
+        awaitHandled(3);
+        assertThat(handledTopics.subList(1, 3)).containsExactly("sensor/0", "sensor/2");
+        assertThat(meterRegistry.get("mbp.ingest.shed").tag("reason", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void handleMessage_dispatchesWithConfiguredNumberOfWorkers() throws Exception {
+        admissionControl = create(10, 10, OverflowPolicy.BLOCK, 1000, 3);
+
+        occupyWorkers(3);
+        release.countDown();
+
+        awaitHandled(3);
+    }
+
+    /**
+     * Creates an admission control whose handler records the topics of the handled messages. Messages published by
+     * {@link #occupyWorkers(int)} keep their worker busy until they are released.
+     */
+    private IngestAdmissionControl create(int controlCapacity, int telemetryCapacity, OverflowPolicy policy,
+                                          long blockTimeout, int workers) {
+        return new IngestAdmissionControl((topic, payload) -> {
+            handledTopics.add(topic);
+            if (topic.startsWith("occupy/")) {
+                awaitRelease();
+            }
+        }, controlCapacity, telemetryCapacity, policy, blockTimeout, 1, workers, meterRegistry);
+    }
+
+    /**
+     * Publishes a given number of messages that occupy the workers until the messages are released and waits
+     * until all workers are occupied.
+     */
+    private void occupyWorkers(int workers) throws InterruptedException {
+        for (int i = 0; i < workers; i++) {
+            admissionControl.handleMessage("occupy/" + i, new byte[0]);
+        }
+        awaitHandled(workers);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitHandled(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while ((handledTopics.size() < count) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        assertThat(handledTopics).hasSize(count);
+    }
+
+    private static List<String> expectedTopics(String prefix, int from, int to) {
+        List<String> topics = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            topics.add(prefix + i);
+        }
+        return topics;
+    }
+}
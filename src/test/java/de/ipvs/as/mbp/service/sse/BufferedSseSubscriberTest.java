@@ -0,0 +1,108 @@
+package de.ipvs.as.mbp.service.sse;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BufferedSseSubscriberTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private final List<SseEmitter.SseEventBuilder> sentEvents = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch sendStarted = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExecutorService sender;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (sender != null) {
+            sender.shutdownNow();
+        }
+    }
+
+    @Test
+    void offer_movesCoalescedEventsToTheEndOfTheOutbox() {
+        BufferedSseSubscriber subscriber = new BufferedSseSubscriber(new RecordingEmitter(false), 10, Runnable::run, 1000);
+        SseEmitter.SseEventBuilder first = SseEmitter.event();
+        SseEmitter.SseEventBuilder second = SseEmitter.event();
+        SseEmitter.SseEventBuilder third = SseEmitter.event();
+
+        subscriber.offer("a", first);
+        subscriber.offer("b", second);
+        subscriber.offer("a", third);
+        subscriber.flush();
+
+        assertThat(sentEvents).containsExactly(second, third);
+    }
+
+    @Test
+    void offer_closesSubscriberWhenOutboxOverflows() {
+        BufferedSseSubscriber subscriber = new BufferedSseSubscriber(new RecordingEmitter(false), 2, Runnable::run, 1000);
+
+        assertThat(subscriber.offer(new Object(), SseEmitter.event())).isTrue();
+        assertThat(subscriber.offer(new Object(), SseEmitter.event())).isTrue();
+        assertThat(subscriber.offer(new Object(), SseEmitter.event())).isFalse();
+        assertThat(subscriber.offer(new Object(), SseEmitter.event())).isFalse();
+    }
+
+    @Test
+    void flush_doesNotBlockOnStalledSubscriberAndClosesItAfterSendTimeout() throws Exception {
+        sender = Executors.newSingleThreadExecutor();
+        BufferedSseSubscriber subscriber = new BufferedSseSubscriber(new RecordingEmitter(true), 10, sender, 200);
+
+        subscriber.offer(new Object(), SseEmitter.event());
+        long startTime = System.nanoTime();
+        subscriber.flush();
+        assertThat(sendStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+
+        //Further flushes return immediately while the send operation is running
+        subscriber.offer(new Object(), SseEmitter.event());
+        subscriber.flush();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)).isLessThan(200);
+        assertThat(subscriber.getPendingEventsCount()).isEqualTo(1);
+
+        Thread.sleep(300);
+        subscriber.flush();
+
+        assertThat(subscriber.offer(new Object(), SseEmitter.event())).isFalse();
+        assertThat(subscriber.getPendingEventsCount()).isZero();
+    }
+
+    /**
+     * Emitter that records the sent events and optionally blocks on sending until it is released.
+     */
+    private class RecordingEmitter extends SseEmitter {
+        private final boolean blocking;
+
+        private RecordingEmitter(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sendStarted.countDown();
+            if (blocking) {
+                try {
+                    release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sentEvents.add(builder);
+        }
+    }
+}